@@ -1,20 +1,26 @@
 package org.example;
 
 import java.awt.*;
-import java.io.FileOutputStream;
-import java.util.List;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
 import javax.swing.*;
 
 /**
  * Ventana que permite consultar, filtrar y exportar registros
  * de auditoría del sistema.
  *
- * Permite visualizar eventos auditados, filtrarlos por usuario
- * o entidad, así como exportarlos a un documento PDF creado
- * manualmente sin uso de bibliotecas externas.
+ * Permite visualizar eventos auditados, filtrarlos combinando usuario,
+ * entidad, acción y antigüedad en días, recorrer el resultado por páginas
+ * y exportar la página visible a un documento PDF creado manualmente sin
+ * uso de bibliotecas externas.
  */
 public class AuditoriaFrame extends JFrame {
 
+    /** Registros mostrados por página. */
+    private static final int TAMANIO_PAGINA = 200;
+
     /** Referencia al sistema de mantenimiento para acceder al controlador de auditoría. */
     private SistemaMantenimiento sistema;
 
@@ -27,6 +33,26 @@ public class AuditoriaFrame extends JFrame {
     /** Campo de entrada para filtrar registros por entidad del sistema. */
     private JTextField txtFiltroEntidad;
 
+    /** Campo de entrada para filtrar registros por acción. */
+    private JTextField txtFiltroAccion;
+
+    /** Campo de entrada para limitar la consulta a los últimos N días. */
+    private JTextField txtFiltroDias;
+
+    /** Botones y texto de navegación entre páginas. */
+    private JButton btnAnterior;
+    private JButton btnSiguiente;
+    private JLabel lblPagina;
+
+    /** Criterios de la consulta mostrada; null si no filtran. */
+    private String usuario;
+    private String entidad;
+    private String accion;
+    private LocalDateTime desde;
+
+    /** Página mostrada, desde 0. */
+    private int pagina;
+
     /**
      * Construye la ventana de auditoría recibiendo el sistema principal.
      *
@@ -36,30 +62,34 @@ public class AuditoriaFrame extends JFrame {
         this.sistema = sistema;
 
         setTitle("Auditoría del Sistema");
-        setSize(700, 450);
+        setSize(760, 480);
         setLocationRelativeTo(null);
         setLayout(new BorderLayout());
 
-        JPanel filtros = new JPanel(new GridLayout(2, 3, 5, 5));
+        JPanel filtros = new JPanel(new GridLayout(2, 4, 5, 5));
 
         txtFiltroUsuario = new JTextField();
         txtFiltroEntidad = new JTextField();
-
-        JButton btnFiltrarUsuario = new JButton("Filtrar por Usuario");
-        btnFiltrarUsuario.addActionListener(e -> mostrarPorUsuario());
-
-        JButton btnFiltrarEntidad = new JButton("Filtrar por Entidad");
-        btnFiltrarEntidad.addActionListener(e -> mostrarPorEntidad());
+        txtFiltroAccion = new JTextField();
+        txtFiltroDias = new JTextField();
 
         filtros.add(new JLabel("Usuario:"));
         filtros.add(txtFiltroUsuario);
-        filtros.add(btnFiltrarUsuario);
-
         filtros.add(new JLabel("Entidad:"));
         filtros.add(txtFiltroEntidad);
-        filtros.add(btnFiltrarEntidad);
 
-        add(filtros, BorderLayout.NORTH);
+        filtros.add(new JLabel("Acción:"));
+        filtros.add(txtFiltroAccion);
+        filtros.add(new JLabel("Últimos días:"));
+        filtros.add(txtFiltroDias);
+
+        JButton btnFiltrar = new JButton("Filtrar");
+        btnFiltrar.addActionListener(e -> filtrar());
+
+        JPanel norte = new JPanel(new BorderLayout(5, 5));
+        norte.add(filtros, BorderLayout.CENTER);
+        norte.add(btnFiltrar, BorderLayout.EAST);
+        add(norte, BorderLayout.NORTH);
 
         // Botones inferiores
         JButton btnVerTodo = new JButton("Ver Auditoría Completa");
@@ -68,8 +98,21 @@ public class AuditoriaFrame extends JFrame {
         JButton btnExportar = new JButton("Exportar Auditoría");
         btnExportar.addActionListener(e -> exportarAuditoria());
 
-        JPanel bottom = new JPanel(new GridLayout(1, 2));
+        btnAnterior = new JButton("< Anterior");
+        btnAnterior.addActionListener(e -> mostrarPagina(pagina - 1));
+
+        btnSiguiente = new JButton("Siguiente >");
+        btnSiguiente.addActionListener(e -> mostrarPagina(pagina + 1));
+
+        lblPagina = new JLabel("", SwingConstants.CENTER);
+        btnAnterior.setEnabled(false);
+        btnSiguiente.setEnabled(false);
+
+        JPanel bottom = new JPanel(new GridLayout(1, 5));
         bottom.add(btnVerTodo);
+        bottom.add(btnAnterior);
+        bottom.add(lblPagina);
+        bottom.add(btnSiguiente);
         bottom.add(btnExportar);
 
         add(bottom, BorderLayout.SOUTH);
@@ -79,141 +122,80 @@ public class AuditoriaFrame extends JFrame {
         add(new JScrollPane(salida), BorderLayout.CENTER);
     }
 
-    /** Muestra todos los registros auditados ya almacenados. */
+    /** Muestra todos los registros auditados ya almacenados, por páginas. */
     private void mostrarTodo() {
-        salida.setText("");
-
-        List<AuditoriaMantenimiento> lista =
-                sistema.getAuditoriaController().obtenerAuditoria();
-
-        if (lista.isEmpty()) {
-            salida.append("No hay registros de auditoría.\n");
-            return;
-        }
-
-        lista.forEach(a -> salida.append(a.toString() + "\n"));
+        usuario = null;
+        entidad = null;
+        accion = null;
+        desde = null;
+        mostrarPagina(0);
     }
 
-    /** Filtra la auditoría buscando entradas asociadas a un usuario específico. */
-    private void mostrarPorUsuario() {
-        salida.setText("");
-
-        String usuario = txtFiltroUsuario.getText();
-
-        if (usuario == null || usuario.isBlank()) {
-            salida.append("Debe ingresar un nombre de usuario.\n");
-            return;
+    /** Aplica juntos los filtros completados y muestra la primera página. */
+    private void filtrar() {
+        String dias = txtFiltroDias.getText().trim();
+        LocalDateTime limite = null;
+        if (!dias.isEmpty()) {
+            try {
+                int n = Integer.parseInt(dias);
+                if (n <= 0) throw new NumberFormatException();
+                limite = LocalDateTime.now().minusDays(n);
+            } catch (NumberFormatException e) {
+                salida.setText("Los días deben ser un número entero positivo.\n");
+                return;
+            }
         }
 
-        List<AuditoriaMantenimiento> lista =
-                sistema.getAuditoriaController().obtenerPorUsuario(usuario);
+        usuario = txtFiltroUsuario.getText();
+        entidad = txtFiltroEntidad.getText();
+        accion = txtFiltroAccion.getText();
+        desde = limite;
 
-        if (lista.isEmpty()) {
-            salida.append("Sin registros para el usuario: " + usuario + "\n");
+        if (usuario.isBlank() && entidad.isBlank() && accion.isBlank() && desde == null) {
+            salida.setText("Debe completar al menos un filtro (Ej: usuario, entidad EQUIPO, últimos 7 días).\n");
             return;
         }
-
-        lista.forEach(a -> salida.append(a.toString() + "\n"));
+        mostrarPagina(0);
     }
 
-    /** Filtra registros auditando una entidad del sistema (EQUIPO, ORDEN, USUARIO, etc.). */
-    private void mostrarPorEntidad() {
+    /** Consulta y muestra una página de la consulta actual. */
+    private void mostrarPagina(int numero) {
         salida.setText("");
 
-        String entidad = txtFiltroEntidad.getText();
+        PaginaAuditoria resultado = sistema.getAuditoriaController()
+                .consultarAuditoria(usuario, entidad, accion, desde, null, Math.max(0, numero), TAMANIO_PAGINA);
+        pagina = resultado.getPagina();
 
-        if (entidad == null || entidad.isBlank()) {
-            salida.append("Debe ingresar una entidad (Ej: EQUIPO, ORDEN, USUARIO).\n");
-            return;
-        }
+        btnAnterior.setEnabled(resultado.hayAnterior());
+        btnSiguiente.setEnabled(resultado.haySiguiente());
+        lblPagina.setText("Pág. " + (pagina + 1) + " de " + resultado.getTotalPaginas()
+                + " (" + resultado.getTotal() + ")");
 
-        List<AuditoriaMantenimiento> lista =
-                sistema.getAuditoriaController().obtenerPorEntidad(entidad);
-
-        if (lista.isEmpty()) {
-            salida.append("Sin registros para entidad: " + entidad + "\n");
+        if (resultado.getTotal() == 0) {
+            salida.append("No hay registros de auditoría para la consulta.\n");
             return;
         }
 
-        lista.forEach(a -> salida.append(a.toString() + "\n"));
+        StringBuilder texto = new StringBuilder();
+        resultado.getRegistros().forEach(a -> texto.append(a).append('\n'));
+        salida.setText(texto.toString());
+        salida.setCaretPosition(0);
     }
 
     /**
-     * Exporta el contenido visible a un archivo PDF generado manualmente.
-     * No requiere librerías externas.
+     * Exporta el contenido visible a un PDF de varias páginas generado con
+     * {@link EscritorPdf}, sin librerías externas.
      */
     private void exportarAuditoria() {
-        try {
-            if (salida.getText().isBlank()) {
-                JOptionPane.showMessageDialog(this, "No hay contenido de auditoría para exportar.");
-                return;
-            }
-
-            String ruta = System.getProperty("user.home") + "/Documents/auditoria.pdf";
-            FileOutputStream fos = new FileOutputStream(ruta);
-
-            fos.write("%PDF-1.4\n".getBytes());
-
-            long pos1 = fos.getChannel().position();
-            fos.write("1 0 obj << /Type /Catalog /Pages 2 0 R >> endobj\n".getBytes());
-
-            long pos2 = fos.getChannel().position();
-            fos.write("2 0 obj << /Type /Pages /Kids [3 0 R] /Count 1 >> endobj\n".getBytes());
-
-            long pos3 = fos.getChannel().position();
-            fos.write(
-                    ("3 0 obj << /Type /Page /Parent 2 0 R /MediaBox [0 0 595 842] " +
-                            "/Contents 4 0 R /Resources << /Font << /F1 5 0 R >> >> >> endobj\n").getBytes()
-            );
-
-            StringBuilder contenido = new StringBuilder();
-            contenido.append("BT\n/F1 10 Tf\n");
-
-            int y = 800;
-
-            for (String linea : salida.getText().split("\n")) {
-
-                if (y < 50) {
-                    y = 800;
-                }
-
-                contenido.append(String.format("1 0 0 1 40 %d Tm\n", y));
-                contenido.append("(" +
-                        linea.replace("(", "[").replace(")", "]") +
-                        ") Tj\n");
-
-                y -= 14;
-            }
-
-            contenido.append("ET\n");
-
-            byte[] datos = contenido.toString().getBytes();
-
-            long pos4 = fos.getChannel().position();
-            fos.write(("4 0 obj << /Length " + datos.length + " >> stream\n").getBytes());
-            fos.write(datos);
-            fos.write("\nendstream\nendobj\n".getBytes());
-
-            long pos5 = fos.getChannel().position();
-            fos.write("5 0 obj << /Type /Font /Subtype /Type1 /BaseFont /Helvetica >> endobj\n".getBytes());
-
-            long startxref = fos.getChannel().position();
-            fos.write("xref\n".getBytes());
-            fos.write("0 6\n".getBytes());
-            fos.write("0000000000 65535 f \n".getBytes());
-            fos.write(String.format("%010d 00000 n \n", pos1).getBytes());
-            fos.write(String.format("%010d 00000 n \n", pos2).getBytes());
-            fos.write(String.format("%010d 00000 n \n", pos3).getBytes());
-            fos.write(String.format("%010d 00000 n \n", pos4).getBytes());
-            fos.write(String.format("%010d 00000 n \n", pos5).getBytes());
-
-            fos.write(("trailer << /Size 6 /Root 1 0 R >>\nstartxref\n" +
-                    startxref + "\n%%EOF").getBytes());
-
-            fos.close();
+        if (salida.getText().isBlank()) {
+            JOptionPane.showMessageDialog(this, "No hay contenido de auditoría para exportar.");
+            return;
+        }
 
+        Path ruta = Paths.get(System.getProperty("user.home"), "Documents", "auditoria.pdf");
+        try (EscritorPdf pdf = new EscritorPdf(Files.newOutputStream(ruta), 10, 14)) {
+            pdf.escribirLineas(salida.getDocument());
             JOptionPane.showMessageDialog(this, "Auditoría exportada correctamente en:\n" + ruta);
-
         } catch (Exception e) {
             JOptionPane.showMessageDialog(this, "Error exportando PDF:\n" + e.getMessage());
         }
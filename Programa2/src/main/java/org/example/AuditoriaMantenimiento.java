@@ -35,7 +35,21 @@ public class AuditoriaMantenimiento {
      * @param detalle  detalle descriptivo del evento
      */
     public AuditoriaMantenimiento(String usuario, String entidad, String accion, String detalle) {
-        this.fechaRegistro = LocalDateTime.now();
+        this(usuario, entidad, accion, detalle, LocalDateTime.now());
+    }
+
+    /**
+     * Crea un evento de auditoría con una fecha de registro conocida.
+     *
+     * @param usuario        usuario responsable de la acción
+     * @param entidad        entidad afectada por el evento
+     * @param accion         tipo de acción realizada
+     * @param detalle        detalle descriptivo del evento
+     * @param fechaRegistro  fecha y hora en que ocurrió el evento
+     */
+    public AuditoriaMantenimiento(String usuario, String entidad, String accion, String detalle,
+                                  LocalDateTime fechaRegistro) {
+        this.fechaRegistro = fechaRegistro;
         this.usuario = usuario;
         this.entidad = entidad;
         this.accion = accion;
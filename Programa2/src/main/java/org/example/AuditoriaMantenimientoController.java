@@ -1,6 +1,7 @@
 package org.example;
 
-import java.util.ArrayList;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -12,8 +13,8 @@ import java.util.List;
  */
 public class AuditoriaMantenimientoController {
 
-    /** Lista donde se almacenan los registros de auditoría. */
-    private final List<AuditoriaMantenimiento> registros = new ArrayList<>();
+    /** Servicio que almacena los registros y los escribe de forma asíncrona. */
+    private final AuditoriaMantenimientoService service = new AuditoriaMantenimientoService();
 
     /**
      * Registra un nuevo movimiento de auditoría dentro del sistema.
@@ -24,16 +25,60 @@ public class AuditoriaMantenimientoController {
      * @param detalle información adicional descriptiva
      */
     public void registrarMovimiento(String usuario, String entidad, String accion, String detalle) {
-        registros.add(new AuditoriaMantenimiento(usuario, entidad, accion, detalle));
+        registrarMovimiento(usuario, entidad, accion, detalle, LocalDateTime.now());
+    }
+
+    /**
+     * Registra un movimiento de auditoría con una fecha y hora dadas.
+     * El registro se encola y lo escribe el hilo de auditoría; si la cola
+     * está saturada y la política es descartar, se informa por consola.
+     *
+     * @param usuario usuario que realizó la acción
+     * @param entidad entidad afectada
+     * @param accion tipo de acción efectuada
+     * @param detalle información adicional descriptiva
+     * @param fechaRegistro momento en que ocurrió el evento
+     */
+    public void registrarMovimiento(String usuario, String entidad, String accion, String detalle,
+                                    LocalDateTime fechaRegistro) {
+        if (!service.registrar(usuario, entidad, accion, detalle, fechaRegistro)) {
+            System.out.println("Auditoría saturada: se descartó " + accion + " sobre " + entidad + ".");
+        }
+    }
+
+    /**
+     * Abre el almacenamiento de auditoría en segmentos y pasa a registrar de
+     * forma asíncrona. Los registros restaurados de una instantánea o del
+     * diario de operaciones se trasladan a los segmentos.
+     *
+     * @param directorio carpeta de los segmentos
+     * @return cantidad de registros trasladados a los segmentos
+     */
+    public int abrir(Path directorio) {
+        return service.abrir(directorio);
+    }
+
+    /**
+     * Espera a que los movimientos registrados hasta ahora estén escritos.
+     */
+    public void flush() {
+        service.flush();
+    }
+
+    /**
+     * Escribe lo pendiente y cierra el almacenamiento de auditoría.
+     */
+    public void cerrar() {
+        service.cerrar();
     }
 
     /**
      * Obtiene todos los registros de auditoría almacenados.
      *
-     * @return lista de eventos registrados
+     * @return lista inmodificable de los eventos registrados hasta este momento
      */
     public List<AuditoriaMantenimiento> obtenerAuditoria() {
-        return new ArrayList<>(registros);
+        return service.obtenerTodos();
     }
 
     /**
@@ -43,13 +88,7 @@ public class AuditoriaMantenimientoController {
      * @return registros asociados al usuario solicitado
      */
     public List<AuditoriaMantenimiento> obtenerPorUsuario(String usuario) {
-        List<AuditoriaMantenimiento> res = new ArrayList<>();
-        for (AuditoriaMantenimiento a : registros) {
-            if (a.getUsuario().equalsIgnoreCase(usuario)) {
-                res.add(a);
-            }
-        }
-        return res;
+        return service.buscarPorUsuario(usuario);
     }
 
     /**
@@ -59,16 +98,37 @@ public class AuditoriaMantenimientoController {
      * @return registros asociados a la entidad indicada
      */
     public List<AuditoriaMantenimiento> obtenerPorEntidad(String entidad) {
-        List<AuditoriaMantenimiento> res = new ArrayList<>();
-        for (AuditoriaMantenimiento a : registros) {
-            if (a.getEntidad().equalsIgnoreCase(entidad)) {
-                res.add(a);
-            }
-        }
-        return res;
+        return service.buscarPorEntidad(entidad);
     }
-}
-
-
 
+    /**
+     * Consulta combinada y paginada de auditoría (por ejemplo, un usuario
+     * sobre la entidad EQUIPO en los últimos 7 días). Los criterios null o
+     * en blanco no filtran.
+     *
+     * @param usuario       usuario buscado
+     * @param entidad       entidad afectada
+     * @param accion        acción realizada
+     * @param desde         primer instante incluido
+     * @param hasta         último instante incluido
+     * @param pagina        número de página, desde 0
+     * @param tamanioPagina registros por página
+     * @return página pedida, o null si los parámetros de paginación no son válidos
+     */
+    public PaginaAuditoria consultarAuditoria(String usuario, String entidad, String accion,
+                                              LocalDateTime desde, LocalDateTime hasta,
+                                              int pagina, int tamanioPagina) {
+        if (pagina < 0 || tamanioPagina <= 0) return null;
+        return service.consultar(usuario, entidad, accion, desde, hasta, pagina, tamanioPagina);
+    }
 
+    /**
+     * Incorpora los registros restaurados desde una instantánea o desde el
+     * diario de operaciones de versiones anteriores.
+     *
+     * @param restaurados registros a incorporar, en orden cronológico
+     */
+    public void cargarRegistros(List<AuditoriaMantenimiento> restaurados) {
+        service.cargarRegistros(restaurados);
+    }
+}
@@ -1,26 +1,82 @@
 package org.example;
 
+import java.nio.file.Path;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
 
 /**
  * Servicio encargado de administrar los registros de auditoría del sistema.
- * 
+ *
  * Esta clase actúa como capa lógica para almacenar eventos de auditoría,
  * consultarlos y filtrarlos según parámetros determinados como usuario
  * o entidad afectada.
+ *
+ * Una vez abierto con {@link #abrir(Path)}, los registros nuevos se
+ * entregan a un {@link CanalAuditoria}: el llamador solo los encola y un
+ * hilo escritor los incorpora por lotes a memoria y a los segmentos en
+ * disco. Antes de abrirlo, los registros se agregan directamente a memoria.
  */
 public class AuditoriaMantenimientoService {
 
-    /** Lista donde se almacenan todos los registros generados por el sistema. */
-    private List<AuditoriaMantenimiento> registros;
+    /** Propiedad del sistema con la política ante cola llena (BLOQUEAR o DESCARTAR). */
+    public static final String PROPIEDAD_SATURACION = "programa2.auditoria.saturacion";
+
+    /** Registros generados por el sistema, indexados por usuario, entidad, acción y día. */
+    private volatile IndiceAuditoria registros;
+
+    /** Registros cargados de una instantánea o del diario, pendientes de pasar a los segmentos. */
+    private final List<AuditoriaMantenimiento> heredados = new ArrayList<>();
+
+    /** Canal de escritura asíncrona; null mientras no se abrió. */
+    private volatile CanalAuditoria canal;
 
     /**
      * Construye el servicio inicializando la colección de auditorías.
      */
     public AuditoriaMantenimientoService() {
-        this.registros = new ArrayList<>();
+        this.registros = new IndiceAuditoria();
+    }
+
+    /**
+     * Abre el almacenamiento en segmentos: incorpora a memoria los registros
+     * ya escritos, persiste los heredados de una instantánea o del diario y
+     * pasa a registrar de forma asíncrona.
+     *
+     * @param directorio carpeta de los segmentos de auditoría
+     * @return cantidad de registros heredados que se pasaron a los segmentos
+     */
+    public synchronized int abrir(Path directorio) {
+        if (canal != null) return 0;
+
+        CanalAuditoria nuevo = new CanalAuditoria(directorio,
+                CanalAuditoria.CAPACIDAD_POR_DEFECTO, CanalAuditoria.LOTE_POR_DEFECTO,
+                CanalAuditoria.SEGMENTO_POR_DEFECTO, politicaConfigurada(), lote -> registros.agregarTodos(lote));
+
+        // Los segmentos son anteriores a lo heredado: se reconstruye la lista en orden
+        List<AuditoriaMantenimiento> enMemoria = registros.vista();
+        List<AuditoriaMantenimiento> leidos = nuevo.abrir(new ArrayList<>(heredados));
+        if (!leidos.isEmpty()) {
+            IndiceAuditoria ordenados = new IndiceAuditoria();
+            ordenados.agregarTodos(leidos);
+            ordenados.agregarTodos(enMemoria);
+            registros = ordenados;
+        }
+
+        int migrados = heredados.size();
+        heredados.clear();
+        canal = nuevo;
+        return migrados;
+    }
+
+    private static CanalAuditoria.PoliticaSaturacion politicaConfigurada() {
+        String valor = System.getProperty(PROPIEDAD_SATURACION, "BLOQUEAR");
+        try {
+            return CanalAuditoria.PoliticaSaturacion.valueOf(valor.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            System.err.println("Auditoría: política '" + valor + "' desconocida; se usa BLOQUEAR.");
+            return CanalAuditoria.PoliticaSaturacion.BLOQUEAR;
+        }
     }
 
     /**
@@ -31,19 +87,83 @@ public class AuditoriaMantenimientoService {
      * @param entidad área o elemento del sistema afectado
      * @param accion tipo de cambio realizado
      * @param detalle información adicional relacionada con el evento
+     * @return true si se registró; false si se descartó por saturación
+     */
+    public boolean registrar(String usuario, String entidad, String accion, String detalle) {
+        return registrar(usuario, entidad, accion, detalle, LocalDateTime.now());
+    }
+
+    /**
+     * Registra un evento de auditoría con una fecha y hora dadas.
+     *
+     * @param usuario usuario que ejecutó la acción
+     * @param entidad área o elemento del sistema afectado
+     * @param accion tipo de cambio realizado
+     * @param detalle información adicional relacionada con el evento
+     * @param fechaRegistro momento en que ocurrió el evento
+     * @return true si se registró; false si se descartó por saturación
      */
-    public void registrar(String usuario, String entidad, String accion, String detalle) {
-        AuditoriaMantenimiento nuevo = new AuditoriaMantenimiento(usuario, entidad, accion, detalle);
-        registros.add(nuevo);
+    public boolean registrar(String usuario, String entidad, String accion, String detalle,
+                             LocalDateTime fechaRegistro) {
+        AuditoriaMantenimiento nuevo = new AuditoriaMantenimiento(usuario, entidad, accion, detalle, fechaRegistro);
+        CanalAuditoria actual = canal;
+        if (actual != null) {
+            return actual.publicar(nuevo);
+        }
+        registros.agregar(nuevo);
+        return true;
+    }
+
+    /**
+     * Incorpora registros restaurados desde una instantánea o desde el diario
+     * de operaciones de versiones anteriores. Quedan en memoria y se pasan a
+     * los segmentos al abrir.
+     *
+     * @param restaurados registros a incorporar, en orden cronológico
+     */
+    public synchronized void cargarRegistros(List<AuditoriaMantenimiento> restaurados) {
+        if (canal == null) {
+            registros.agregarTodos(restaurados);
+            heredados.addAll(restaurados);
+        } else {
+            restaurados.forEach(canal::publicar);
+        }
+    }
+
+    /**
+     * Espera a que los registros hechos hasta ahora estén en memoria y en disco.
+     */
+    public void flush() {
+        CanalAuditoria actual = canal;
+        if (actual != null) actual.flush();
+    }
+
+    /**
+     * Escribe lo pendiente y cierra el canal; los registros siguientes se
+     * agregan solo a memoria.
+     */
+    public synchronized void cerrar() {
+        CanalAuditoria actual = canal;
+        if (actual == null) return;
+        canal = null;
+        actual.close();
+    }
+
+    /**
+     * @return registros descartados por saturación de la cola
+     */
+    public long getDescartados() {
+        CanalAuditoria actual = canal;
+        return actual == null ? 0 : actual.getDescartados();
     }
 
     /**
      * Obtiene todos los registros almacenados en la auditoría.
      *
-     * @return lista completa de eventos registrados
+     * @return lista inmodificable de los eventos registrados hasta este momento
      */
     public List<AuditoriaMantenimiento> obtenerTodos() {
-        return registros;
+        return registros.vista();
     }
 
     /**
@@ -54,9 +174,7 @@ public class AuditoriaMantenimientoService {
      * @return lista de auditorías asociadas a dicho usuario
      */
     public List<AuditoriaMantenimiento> buscarPorUsuario(String usuario) {
-        return registros.stream()
-                .filter(r -> r.getUsuario().equalsIgnoreCase(usuario))
-                .collect(Collectors.toList());
+        return registros.consultar(usuario, null, null, null, null);
     }
 
     /**
@@ -68,11 +186,26 @@ public class AuditoriaMantenimientoService {
      * @return lista de auditorías vinculadas a dicha entidad
      */
     public List<AuditoriaMantenimiento> buscarPorEntidad(String entidad) {
-        return registros.stream()
-                .filter(r -> r.getEntidad().equalsIgnoreCase(entidad))
-                .collect(Collectors.toList());
+        return registros.consultar(null, entidad, null, null, null);
     }
-}
-
-
 
+    /**
+     * Consulta combinada y paginada sobre los índices de auditoría. Los
+     * criterios null o en blanco no filtran; los textos se comparan sin
+     * distinguir mayúsculas.
+     *
+     * @param usuario       usuario buscado
+     * @param entidad       entidad afectada
+     * @param accion        acción realizada
+     * @param desde         primer instante incluido
+     * @param hasta         último instante incluido
+     * @param pagina        número de página, desde 0
+     * @param tamanioPagina registros por página
+     * @return página de registros en orden cronológico de registro
+     */
+    public PaginaAuditoria consultar(String usuario, String entidad, String accion,
+                                     LocalDateTime desde, LocalDateTime hasta,
+                                     int pagina, int tamanioPagina) {
+        return registros.consultar(usuario, entidad, accion, desde, hasta, pagina, tamanioPagina);
+    }
+}
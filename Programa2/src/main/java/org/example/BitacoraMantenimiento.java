@@ -76,6 +76,15 @@ public class BitacoraMantenimiento {
         return ultimaActualizacion;
     }
 
+    /**
+     * Establece la fecha de última modificación.
+     *
+     * @param ultimaActualizacion fecha de modificación más reciente
+     */
+    public void setUltimaActualizacion(LocalDate ultimaActualizacion) {
+        this.ultimaActualizacion = ultimaActualizacion;
+    }
+
     // ---- Métodos de operación ----
 
     /**
@@ -1,6 +1,5 @@
 package org.example;
 
-import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -12,14 +11,17 @@ import java.util.List;
  */
 public class BitacoraMantenimientoService {
 
-    /** Lista interna que almacena todas las bitácoras registradas. */
-    private List<BitacoraMantenimiento> bitacoras;
+    /** Repositorio indexado por ID que almacena todas las bitácoras registradas. */
+    private Repository<BitacoraMantenimiento> bitacoras;
+
+    /** Cerrojos por ID que serializan las modificaciones de cada bitácora. */
+    private final CerrojosPorId cerrojos = new CerrojosPorId();
 
     /**
      * Construye un servicio de bitácoras inicializando la colección interna.
      */
     public BitacoraMantenimientoService() {
-        this.bitacoras = new ArrayList<>();
+        this.bitacoras = new Repository<>(BitacoraMantenimiento::getIdBitacora);
     }
 
     /**
@@ -29,13 +31,7 @@ public class BitacoraMantenimientoService {
      * @return true si fue agregada correctamente, false si ya existía otra con el mismo ID
      */
     public boolean agregarBitacoraMantenimiento(BitacoraMantenimiento bitacora) {
-        for (BitacoraMantenimiento b : bitacoras) {
-            if (b.getIdBitacora() == bitacora.getIdBitacora()) {
-                return false; // Ya existe una bitácora con el mismo ID
-            }
-        }
-        bitacoras.add(bitacora);
-        return true;
+        return bitacoras.agregar(bitacora); // false si ya existe una bitácora con el mismo ID
     }
 
     /**
@@ -45,12 +41,7 @@ public class BitacoraMantenimientoService {
      * @return bitácora asociada o null si no existe
      */
     public BitacoraMantenimiento buscarBitacoraPorId(int idBitacora) {
-        for (BitacoraMantenimiento b : bitacoras) {
-            if (b.getIdBitacora() == idBitacora) {
-                return b;
-            }
-        }
-        return null; // No se encontró la bitácora
+        return bitacoras.buscar(idBitacora); // null si no se encontró la bitácora
     }
 
     /**
@@ -61,12 +52,14 @@ public class BitacoraMantenimientoService {
      * @return true si la operación fue exitosa, false si la bitácora no existe
      */
     public boolean agregarRegistroABitacora(int idBitacora, EntradaBitacora entrada) {
-        BitacoraMantenimiento bitacora = buscarBitacoraPorId(idBitacora);
-        if (bitacora != null) {
-            bitacora.agregarRegistro(entrada);
-            return true;
-        }
-        return false; // No se encontró la bitácora
+        return cerrojos.ejecutar(idBitacora, () -> {
+            BitacoraMantenimiento bitacora = buscarBitacoraPorId(idBitacora);
+            if (bitacora != null) {
+                bitacora.agregarRegistro(entrada);
+                return true;
+            }
+            return false; // No se encontró la bitácora
+        });
     }
 
     /**
@@ -90,12 +83,7 @@ public class BitacoraMantenimientoService {
      * @return true si se eliminó, false si no existe
      */
     public boolean eliminarBitacoraPorId(int idBitacora) {
-        BitacoraMantenimiento bitacora = buscarBitacoraPorId(idBitacora);
-        if (bitacora != null) {
-            bitacoras.remove(bitacora);
-            return true;
-        }
-        return false; // No se encontró la bitácora
+        return bitacoras.eliminar(idBitacora) != null;
     }
 
     /**
@@ -104,7 +92,7 @@ public class BitacoraMantenimientoService {
      * @return colección completa de bitácoras
      */
     public List<BitacoraMantenimiento> obtenerTodasLasBitacoras() {
-        return bitacoras;
+        return bitacoras.obtenerTodos();
     }
 }
 
@@ -0,0 +1,266 @@
+package org.example;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Bus de eventos del dominio dentro del proceso.
+ *
+ * Los servicios publican {@link EventoDominio}s con {@link #publicar} y las
+ * ventanas, contadores y cachés se suscriben por tipo de evento (una clase
+ * concreta o {@code EventoDominio.class} para todos). Hay tres formas de
+ * suscribirse:
+ * <ul>
+ *   <li>{@link #suscribir}: el oyente se invoca en el hilo que publica,
+ *       antes de que {@code publicar} vuelva. Debe ser breve y no modificar
+ *       la entidad del evento: el servicio puede estar reteniendo su cerrojo.</li>
+ *   <li>{@link #suscribirAsincrono}: cada evento se entrega en el ejecutor
+ *       indicado, de a uno y en el orden en que se publicó.</li>
+ *   <li>{@link #suscribirAgrupado}: los eventos se acumulan por clave,
+ *       conservando el último de cada una, y se entregan juntos en el
+ *       ejecutor. Una ráfaga de cambios sobre la misma entidad produce una
+ *       sola entrega; es la forma indicada para una ventana, con
+ *       {@code SwingUtilities::invokeLater} como ejecutor.</li>
+ * </ul>
+ *
+ * Publicar sin suscriptores del tipo cuesta una búsqueda en un mapa. Un
+ * error de un oyente se informa y no afecta a los demás ni a quien publica.
+ */
+public class BusEventos {
+
+    /** Eventos que entrega un suscriptor asíncrono antes de ceder el ejecutor. */
+    public static final int LOTE_ASINCRONO = 1000;
+
+    /** Suscripción activa; se cancela al cerrar la ventana o el componente que la creó. */
+    public interface Suscripcion {
+
+        /** Deja de entregar eventos, incluidos los que estaban pendientes. */
+        void cancelar();
+    }
+
+    /** Todas las suscripciones activas. */
+    private final List<Suscriptor<?>> suscriptores = new CopyOnWriteArrayList<>();
+
+    /**
+     * Suscriptores de cada clase de evento publicada. Se reemplaza entero al
+     * suscribir o cancelar; un publicador que todavía usa el anterior solo
+     * puede omitir una suscripción hecha en ese mismo instante.
+     */
+    private volatile Map<Class<?>, Suscriptor<?>[]> porClase = new ConcurrentHashMap<>();
+
+    /**
+     * Entrega un evento a los suscriptores de su tipo.
+     *
+     * @param evento evento a publicar
+     */
+    public void publicar(EventoDominio evento) {
+        Suscriptor<?>[] destinos = porClase.computeIfAbsent(evento.getClass(), this::suscriptoresDe);
+        for (Suscriptor<?> s : destinos) {
+            s.recibir(evento);
+        }
+    }
+
+    /**
+     * Suscribe un oyente que se invoca en el hilo que publica.
+     *
+     * @param tipo   tipo de evento
+     * @param oyente oyente a invocar
+     * @return suscripción, para cancelarla
+     */
+    public <E extends EventoDominio> Suscripcion suscribir(Class<E> tipo, Consumer<? super E> oyente) {
+        return registrar(new Suscriptor<E>(tipo) {
+            @Override
+            void entregar(E evento) {
+                invocar(oyente, evento);
+            }
+        });
+    }
+
+    /**
+     * Suscribe un oyente que recibe cada evento en el ejecutor indicado, en
+     * orden y nunca dos a la vez.
+     *
+     * @param tipo     tipo de evento
+     * @param ejecutor ejecutor de las entregas
+     * @param oyente   oyente a invocar
+     * @return suscripción, para cancelarla
+     */
+    public <E extends EventoDominio> Suscripcion suscribirAsincrono(Class<E> tipo, Executor ejecutor,
+                                                                    Consumer<? super E> oyente) {
+        return registrar(new Asincrono<>(tipo, ejecutor, oyente));
+    }
+
+    /**
+     * Suscribe un oyente que recibe, en el ejecutor indicado, los eventos
+     * acumulados desde la entrega anterior: el último de cada clave, en el
+     * orden en que apareció cada clave.
+     *
+     * @param tipo     tipo de evento
+     * @param ejecutor ejecutor de las entregas
+     * @param clave    clave de agrupación (por ejemplo, el ID de la entidad)
+     * @param oyente   oyente que recibe cada grupo
+     * @return suscripción, para cancelarla
+     */
+    public <E extends EventoDominio> Suscripcion suscribirAgrupado(Class<E> tipo, Executor ejecutor,
+                                                                   Function<? super E, ?> clave,
+                                                                   Consumer<? super List<E>> oyente) {
+        return registrar(new Agrupado<>(tipo, ejecutor, clave, oyente));
+    }
+
+    private Suscripcion registrar(Suscriptor<?> suscriptor) {
+        suscriptores.add(suscriptor);
+        porClase = new ConcurrentHashMap<>();
+        return suscriptor;
+    }
+
+    private Suscriptor<?>[] suscriptoresDe(Class<?> clase) {
+        List<Suscriptor<?>> destinos = new ArrayList<>();
+        for (Suscriptor<?> s : suscriptores) {
+            if (s.tipo.isAssignableFrom(clase)) destinos.add(s);
+        }
+        return destinos.toArray(new Suscriptor<?>[0]);
+    }
+
+    private static <T> void invocar(Consumer<? super T> oyente, T valor) {
+        try {
+            oyente.accept(valor);
+        } catch (RuntimeException e) {
+            System.err.println("Error en un oyente de eventos: " + e);
+        }
+    }
+
+    // ======================================================
+    // SUSCRIPTORES
+    // ======================================================
+
+    private abstract class Suscriptor<E extends EventoDominio> implements Suscripcion {
+        final Class<E> tipo;
+        volatile boolean activa = true;
+
+        Suscriptor(Class<E> tipo) {
+            this.tipo = tipo;
+        }
+
+        void recibir(EventoDominio evento) {
+            if (activa) entregar(tipo.cast(evento));
+        }
+
+        abstract void entregar(E evento);
+
+        @Override
+        public void cancelar() {
+            activa = false;
+            if (suscriptores.remove(this)) porClase = new ConcurrentHashMap<>();
+        }
+
+        /** Encola el vaciado en el ejecutor; si lo rechaza, los eventos se descartan. */
+        boolean programar(Executor ejecutor, Runnable vaciado) {
+            try {
+                ejecutor.execute(vaciado);
+                return true;
+            } catch (RejectedExecutionException e) {
+                System.err.println("Ejecutor de eventos rechazó la entrega: " + e.getMessage());
+                return false;
+            }
+        }
+    }
+
+    /** Cola propia vaciada en el ejecutor por una sola tarea a la vez. */
+    private final class Asincrono<E extends EventoDominio> extends Suscriptor<E> {
+        private final Executor ejecutor;
+        private final Consumer<? super E> oyente;
+        private final Queue<E> cola = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean programada = new AtomicBoolean();
+
+        Asincrono(Class<E> tipo, Executor ejecutor, Consumer<? super E> oyente) {
+            super(tipo);
+            this.ejecutor = ejecutor;
+            this.oyente = oyente;
+        }
+
+        @Override
+        void entregar(E evento) {
+            cola.add(evento);
+            if (programada.compareAndSet(false, true) && !programar(ejecutor, this::vaciar)) {
+                cola.clear();
+                programada.set(false);
+            }
+        }
+
+        private void vaciar() {
+            while (true) {
+                for (int i = 0; i < LOTE_ASINCRONO; i++) {
+                    E evento = cola.poll();
+                    if (evento == null) break;
+                    if (activa) invocar(oyente, evento);
+                }
+                if (!cola.isEmpty()) {
+                    // Cede el ejecutor (por ejemplo, el hilo de eventos) y sigue después
+                    if (!programar(ejecutor, this::vaciar)) {
+                        cola.clear();
+                        programada.set(false);
+                    }
+                    return;
+                }
+                programada.set(false);
+                // Un evento encolado entre el último poll y el set no programó otra tarea
+                if (cola.isEmpty() || !programada.compareAndSet(false, true)) return;
+            }
+        }
+    }
+
+    /** Último evento por clave, entregados juntos en el ejecutor. */
+    private final class Agrupado<E extends EventoDominio> extends Suscriptor<E> {
+        private final Executor ejecutor;
+        private final Function<? super E, ?> clave;
+        private final Consumer<? super List<E>> oyente;
+
+        /** Pendientes por clave; protegido por this. */
+        private final Map<Object, E> pendientes = new LinkedHashMap<>();
+        private boolean programada;
+
+        Agrupado(Class<E> tipo, Executor ejecutor, Function<? super E, ?> clave, Consumer<? super List<E>> oyente) {
+            super(tipo);
+            this.ejecutor = ejecutor;
+            this.clave = clave;
+            this.oyente = oyente;
+        }
+
+        @Override
+        void entregar(E evento) {
+            Object k = clave.apply(evento);
+            synchronized (this) {
+                pendientes.put(k, evento);
+                if (programada) return;
+                programada = true;
+            }
+            if (!programar(ejecutor, this::vaciar)) {
+                synchronized (this) {
+                    pendientes.clear();
+                    programada = false;
+                }
+            }
+        }
+
+        private void vaciar() {
+            List<E> lote;
+            synchronized (this) {
+                lote = new ArrayList<>(pendientes.values());
+                pendientes.clear();
+                programada = false;
+            }
+            if (activa && !lote.isEmpty()) invocar(oyente, lote);
+        }
+    }
+}
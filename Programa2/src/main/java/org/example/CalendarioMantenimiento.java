@@ -2,24 +2,52 @@ package org.example;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.NavigableSet;
+import java.util.TreeSet;
 
 /**
  * Representa un calendario de mantenimiento preventivo.
  * Permite almacenar fechas programadas y consultar aquellas
  * que están próximas o vencidas respecto a la fecha actual.
+ *
+ * Las fechas se guardan ordenadas y el calendario recuerda hasta qué día
+ * ya fueron procesadas ("marca de procesamiento"), de modo que cada
+ * ejecución del programador solo recibe las fechas que vencieron desde
+ * la ejecución anterior.
+ *
+ * La marca vive en memoria junto con las fechas y no se persiste: un
+ * calendario nuevo (por ejemplo, tras reiniciar) empieza sin marca y su
+ * primera ejecución vuelve a entregar todas las fechas vencidas. Es seguro
+ * porque el programador descarta las órdenes que ya existen.
+ *
+ * Es seguro para uso concurrente: todas las operaciones se sincronizan
+ * sobre el calendario, así que cada fecha se entrega una sola vez aunque
+ * varios hilos lo consulten.
  */
 public class CalendarioMantenimiento {
 
-    /** Lista de fechas de mantenimiento programadas. */
-    private List<LocalDate> fechasProgramadas;
+    /** Conjunto ordenado de fechas de mantenimiento programadas. */
+    private NavigableSet<LocalDate> fechasProgramadas;
+
+    /** Último día ya procesado; null si nunca se ha procesado. */
+    private LocalDate procesadoHasta;
+
+    /**
+     * Fechas agregadas con posterioridad a su procesamiento (anteriores o
+     * iguales a la marca), que deben entregarse en la siguiente ejecución.
+     */
+    private NavigableSet<LocalDate> rezagadas;
 
     /**
      * Crea un calendario vacío para gestionar programación de mantenimientos.
-     * Inicializa la lista interna de fechas registradas.
+     * Inicializa la colección interna de fechas registradas.
      */
     public CalendarioMantenimiento() {
-        this.fechasProgramadas = new ArrayList<>();
+        this.fechasProgramadas = new TreeSet<>();
+        this.rezagadas = new TreeSet<>();
+        this.procesadoHasta = null;
     }
 
     /**
@@ -28,9 +56,11 @@ public class CalendarioMantenimiento {
      *
      * @param fecha fecha a agregar al calendario
      */
-    public void agregarFecha(LocalDate fecha) {
-        if (fecha != null && !fechasProgramadas.contains(fecha)) {
-            fechasProgramadas.add(fecha);
+    public synchronized void agregarFecha(LocalDate fecha) {
+        if (fecha != null && fechasProgramadas.add(fecha)
+                && procesadoHasta != null && !fecha.isAfter(procesadoHasta)) {
+            // La marca ya pasó por esta fecha: se entrega en la próxima ejecución
+            rezagadas.add(fecha);
         }
     }
 
@@ -40,26 +70,70 @@ public class CalendarioMantenimiento {
      *
      * @return lista de fechas pendientes de ejecución
      */
-    public List<LocalDate> obtenerFechasPendientes() {
-        List<LocalDate> pendientes = new ArrayList<>();
-        LocalDate hoy = LocalDate.now();
+    public synchronized List<LocalDate> obtenerFechasPendientes() {
+        return new ArrayList<>(fechasProgramadas.headSet(LocalDate.now(), true));
+    }
+
+    /**
+     * Entrega las fechas que vencieron desde la última llamada y avanza la
+     * marca de procesamiento hasta el día indicado. Cada fecha se entrega
+     * una única vez, por lo que el costo es proporcional al trabajo nuevo
+     * y no al historial del calendario.
+     *
+     * @param hasta día límite (inclusive) a procesar, normalmente hoy
+     * @return fechas nuevas por procesar, en orden cronológico
+     */
+    public synchronized List<LocalDate> tomarFechasPorProcesar(LocalDate hasta) {
+        NavigableSet<LocalDate> nuevas = procesadoHasta == null
+                ? fechasProgramadas.headSet(hasta, true)
+                : procesadoHasta.isBefore(hasta)
+                        ? fechasProgramadas.subSet(procesadoHasta, false, hasta, true)
+                        : Collections.emptyNavigableSet();
 
-        for (LocalDate fecha : fechasProgramadas) {
-            if (!fecha.isAfter(hoy)) {
-                pendientes.add(fecha);
-            }
+        List<LocalDate> resultado = new ArrayList<>(rezagadas.size() + nuevas.size());
+        resultado.addAll(rezagadas);
+        resultado.addAll(nuevas);
+        rezagadas.clear();
+
+        if (procesadoHasta == null || procesadoHasta.isBefore(hasta)) {
+            procesadoHasta = hasta;
         }
-        return pendientes;
+        return resultado;
     }
 
     /**
-     * Obtiene todas las fechas registradas en el calendario.
+     * Obtiene las fechas desde la indicada que ya se entregaron hasta la
+     * marca de procesamiento. Sirve para poner al día a un equipo al que se
+     * le asignó un programa después de que esas fechas se procesaron. Solo
+     * recorre las fechas del rango pedido.
      *
-     * @return colección de fechas programadas
+     * @param desde primera fecha incluida
+     * @return fechas procesadas desde esa fecha, en orden cronológico
      */
-    public List<LocalDate> getFechasProgramadas() {
-        return fechasProgramadas;
+    public synchronized List<LocalDate> obtenerFechasProcesadas(LocalDate desde) {
+        List<LocalDate> procesadas = new ArrayList<>();
+        if (procesadoHasta == null || desde.isAfter(procesadoHasta)) return procesadas;
+        for (LocalDate fecha : fechasProgramadas.subSet(desde, true, procesadoHasta, true)) {
+            if (!rezagadas.contains(fecha)) procesadas.add(fecha);
+        }
+        return procesadas;
     }
-}
 
+    /**
+     * Obtiene el último día procesado por {@link #tomarFechasPorProcesar(LocalDate)}.
+     *
+     * @return marca de procesamiento o null si aún no se ha procesado
+     */
+    public synchronized LocalDate getProcesadoHasta() {
+        return procesadoHasta;
+    }
 
+    /**
+     * Obtiene todas las fechas registradas en el calendario.
+     *
+     * @return copia ordenada de las fechas programadas (solo lectura)
+     */
+    public synchronized NavigableSet<LocalDate> getFechasProgramadas() {
+        return Collections.unmodifiableNavigableSet(new TreeSet<>(fechasProgramadas));
+    }
+}
@@ -0,0 +1,373 @@
+package org.example;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Canal asíncrono de escritura de auditoría.
+ *
+ * Los llamadores solo crean el registro y lo encolan en una
+ * {@link ColaMultiproductor}; un hilo escritor lo toma por lotes, lo
+ * incorpora al índice en memoria y lo agrega a archivos de segmento en
+ * disco con un solo {@code force} por lote. Cada segmento se cierra al
+ * superar un tamaño y se continúa en el siguiente
+ * ({@code auditoria-00000001.seg}, {@code auditoria-00000002.seg}, ...).
+ *
+ * Cada registro se guarda como {@code [longitud][crc32][datos]}, igual que
+ * en el {@link DiarioOperaciones}. Al abrir, los segmentos se leen en
+ * orden; un registro final incompleto del último segmento se descarta y el
+ * archivo se trunca en ese punto.
+ *
+ * Si la cola se llena, la {@link PoliticaSaturacion} decide si el llamador
+ * espera o el registro se descarta. {@link #flush()} espera a que todo lo
+ * encolado antes de invocarlo esté en memoria y en disco.
+ */
+public class CanalAuditoria implements AutoCloseable {
+
+    /**
+     * Qué hacer cuando la cola está llena.
+     * BLOQUEAR: el llamador espera a que el escritor libere lugar.
+     * DESCARTAR: el registro se descarta y se cuenta en {@link #getDescartados()}.
+     */
+    public enum PoliticaSaturacion {
+        BLOQUEAR,
+        DESCARTAR
+    }
+
+    /** Capacidad de la cola por defecto. */
+    public static final int CAPACIDAD_POR_DEFECTO = 16 * 1024;
+
+    /** Registros por lote por defecto. */
+    public static final int LOTE_POR_DEFECTO = 1024;
+
+    /** Tamaño a partir del cual se rota el segmento, por defecto. */
+    public static final long SEGMENTO_POR_DEFECTO = 8L * 1024 * 1024;
+
+    private static final String PREFIJO = "auditoria-";
+    private static final String EXTENSION = ".seg";
+
+    /** Bytes de la cabecera de cada registro: longitud y crc. */
+    private static final int CABECERA_REGISTRO = 8;
+
+    /** Tamaño máximo aceptado para un registro; uno mayor se considera corrupto. */
+    private static final int LONGITUD_MAXIMA = 1024 * 1024;
+
+    /** Espera máxima del escritor sin registros antes de volver a revisar la cola. */
+    private static final long ESPERA_ESCRITOR_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+
+    private final Path directorio;
+    private final ColaMultiproductor<AuditoriaMantenimiento> cola;
+    private final int tamanioLote;
+    private final long tamanioSegmento;
+    private final PoliticaSaturacion politica;
+    private final Consumer<List<AuditoriaMantenimiento>> destino;
+
+    private FileChannel segmento;
+    private int numeroSegmento;
+    private volatile Thread escritor;
+
+    /** true mientras el escritor está por dormir; los productores lo despiertan. */
+    private volatile boolean escritorEnEspera;
+    private volatile boolean cerrado;
+
+    /** Registros ya incorporados y escritos (posiciones de la cola). */
+    private volatile long procesados;
+
+    private final AtomicLong descartados = new AtomicLong();
+
+    /** Error de escritura; desde entonces los lotes solo se incorporan a memoria. */
+    private volatile IOException falla;
+
+    /**
+     * @param directorio      carpeta de los segmentos
+     * @param capacidad       registros que admite la cola
+     * @param tamanioLote     registros máximos por lote
+     * @param tamanioSegmento bytes a partir de los cuales se rota el segmento
+     * @param politica        comportamiento con la cola llena
+     * @param destino         índice en memoria que recibe cada lote, en orden
+     */
+    public CanalAuditoria(Path directorio, int capacidad, int tamanioLote, long tamanioSegmento,
+                          PoliticaSaturacion politica, Consumer<List<AuditoriaMantenimiento>> destino) {
+        this.directorio = directorio;
+        this.cola = new ColaMultiproductor<>(capacidad);
+        this.tamanioLote = tamanioLote;
+        this.tamanioSegmento = tamanioSegmento;
+        this.politica = politica;
+        this.destino = destino;
+    }
+
+    /**
+     * Lee los segmentos existentes, agrega al final los registros heredados
+     * de otro almacenamiento (por ejemplo, de una instantánea anterior a los
+     * segmentos) e inicia el hilo escritor.
+     *
+     * @param heredados registros a persistir antes de abrir; no se devuelven
+     * @return registros leídos de los segmentos existentes, en orden
+     */
+    public List<AuditoriaMantenimiento> abrir(List<AuditoriaMantenimiento> heredados) {
+        try {
+            Files.createDirectories(directorio);
+            List<Path> segmentos = listarSegmentos();
+            List<AuditoriaMantenimiento> leidos = new ArrayList<>();
+            for (int i = 0; i < segmentos.size(); i++) {
+                leerSegmento(segmentos.get(i), i == segmentos.size() - 1, leidos);
+            }
+
+            numeroSegmento = segmentos.isEmpty() ? 1 : numeroDe(segmentos.get(segmentos.size() - 1));
+            segmento = FileChannel.open(rutaSegmento(numeroSegmento),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            segmento.position(segmento.size());
+
+            if (!heredados.isEmpty()) {
+                escribir(heredados);
+            }
+
+            escritor = new Thread(this::escribirLotes, "auditoria-escritor");
+            escritor.setDaemon(true);
+            escritor.start();
+            return leidos;
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo abrir la auditoría en " + directorio, e);
+        }
+    }
+
+    /**
+     * Encola un registro. No bloquea salvo que la cola esté llena y la
+     * política sea {@link PoliticaSaturacion#BLOQUEAR}.
+     *
+     * @param registro registro a escribir
+     * @return true si se encoló; false si se descartó por saturación o cierre
+     */
+    public boolean publicar(AuditoriaMantenimiento registro) {
+        if (cerrado) return false;
+        while (!cola.ofrecer(registro)) {
+            if (politica == PoliticaSaturacion.DESCARTAR || cerrado) {
+                descartados.incrementAndGet();
+                return false;
+            }
+            despertarEscritor();
+            LockSupport.parkNanos(100_000);
+        }
+        if (escritorEnEspera) despertarEscritor();
+        return true;
+    }
+
+    private void despertarEscritor() {
+        Thread hilo = escritor;
+        if (hilo != null) LockSupport.unpark(hilo);
+    }
+
+    /**
+     * Espera a que todos los registros encolados antes de la llamada estén
+     * incorporados en memoria y sincronizados con disco.
+     */
+    public void flush() {
+        long objetivo = cola.reservados();
+        synchronized (this) {
+            while (procesados < objetivo && escritor != null && escritor.isAlive()) {
+                despertarEscritor();
+                try {
+                    wait(10);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Escribe lo pendiente, detiene el escritor y cierra el segmento.
+     */
+    @Override
+    public void close() {
+        if (escritor == null || cerrado) return;
+        flush();
+        cerrado = true;
+        despertarEscritor();
+        try {
+            escritor.join();
+            segmento.close();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo cerrar la auditoría en " + directorio, e);
+        }
+    }
+
+    /** @return registros descartados por saturación desde la apertura */
+    public long getDescartados() {
+        return descartados.get();
+    }
+
+    /** @return política aplicada con la cola llena */
+    public PoliticaSaturacion getPolitica() {
+        return politica;
+    }
+
+    // ======================================================
+    // HILO ESCRITOR
+    // ======================================================
+
+    /**
+     * Ciclo del hilo escritor: toma un lote, lo incorpora a memoria y lo
+     * escribe con un solo force; si no hay nada, duerme hasta que un
+     * productor lo despierte.
+     */
+    private void escribirLotes() {
+        List<AuditoriaMantenimiento> lote = new ArrayList<>(tamanioLote);
+        while (true) {
+            lote.clear();
+            if (cola.extraer(lote, tamanioLote) == 0) {
+                if (cerrado) return;
+                escritorEnEspera = true;
+                if (cola.estaVacia()) {
+                    LockSupport.parkNanos(this, ESPERA_ESCRITOR_NANOS);
+                }
+                escritorEnEspera = false;
+                continue;
+            }
+
+            destino.accept(new ArrayList<>(lote));
+            if (falla == null) {
+                try {
+                    escribir(lote);
+                } catch (IOException e) {
+                    falla = e;
+                    System.err.println("Auditoría: no se pudo escribir en " + directorio
+                            + "; los registros siguientes solo quedan en memoria. " + e.getMessage());
+                }
+            }
+
+            synchronized (this) {
+                procesados += lote.size();
+                notifyAll();
+            }
+        }
+    }
+
+    /** Agrega registros al segmento actual, rotándolo si supera el tamaño. */
+    private void escribir(List<AuditoriaMantenimiento> registros) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(registros.size() * 96);
+        for (AuditoriaMantenimiento registro : registros) {
+            bytes.write(codificar(registro));
+        }
+
+        if (segmento.size() > 0 && segmento.size() + bytes.size() > tamanioSegmento) {
+            segmento.force(false);
+            segmento.close();
+            numeroSegmento++;
+            segmento = FileChannel.open(rutaSegmento(numeroSegmento),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            segmento.position(segmento.size());
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+        while (buffer.hasRemaining()) {
+            segmento.write(buffer);
+        }
+        segmento.force(false);
+    }
+
+    // ======================================================
+    // FORMATO DE SEGMENTOS
+    // ======================================================
+
+    private static byte[] codificar(AuditoriaMantenimiento registro) throws IOException {
+        ByteArrayOutputStream datos = new ByteArrayOutputStream(96);
+        DiarioOperaciones.Salida out = new DiarioOperaciones.Salida(datos);
+        out.writeLong(0); // reserva para longitud y crc
+        out.escribirFechaHora(registro.getFechaRegistro());
+        out.escribirTexto(registro.getUsuario());
+        out.escribirTexto(registro.getEntidad());
+        out.escribirTexto(registro.getAccion());
+        out.escribirTexto(registro.getDetalle());
+        out.flush();
+
+        byte[] arreglo = datos.toByteArray();
+        int longitud = arreglo.length - CABECERA_REGISTRO;
+        CRC32 crc = new CRC32();
+        crc.update(arreglo, CABECERA_REGISTRO, longitud);
+        ByteBuffer.wrap(arreglo, 0, CABECERA_REGISTRO).putInt(longitud).putInt((int) crc.getValue());
+        return arreglo;
+    }
+
+    /**
+     * Lee los registros válidos de un segmento. Si el último está incompleto
+     * o corrupto se descarta lo que sigue; en el segmento final además se
+     * trunca el archivo para continuar escribiendo desde ahí.
+     */
+    private static void leerSegmento(Path archivo, boolean ultimo, List<AuditoriaMantenimiento> destino)
+            throws IOException {
+        byte[] contenido = Files.readAllBytes(archivo);
+        ByteBuffer in = ByteBuffer.wrap(contenido);
+        int valido = 0;
+        while (in.remaining() >= CABECERA_REGISTRO) {
+            int longitud = in.getInt();
+            int crcEsperado = in.getInt();
+            if (longitud <= 0 || longitud > LONGITUD_MAXIMA || longitud > in.remaining()) break;
+
+            CRC32 crc = new CRC32();
+            crc.update(contenido, in.position(), longitud);
+            if ((int) crc.getValue() != crcEsperado) break;
+
+            DiarioOperaciones.Entrada datos = new DiarioOperaciones.Entrada(
+                    new ByteArrayInputStream(contenido, in.position(), longitud));
+            LocalDateTime fecha = datos.leerFechaHora();
+            destino.add(new AuditoriaMantenimiento(datos.leerTexto(), datos.leerTexto(),
+                    datos.leerTexto(), datos.leerTexto(), fecha));
+
+            in.position(in.position() + longitud);
+            valido = in.position();
+        }
+
+        if (valido < contenido.length) {
+            System.err.println("Auditoría: se descartan " + (contenido.length - valido)
+                    + " bytes de un registro incompleto en " + archivo.getFileName() + ".");
+            if (ultimo) {
+                try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.WRITE)) {
+                    canal.truncate(valido);
+                    canal.force(true);
+                }
+            }
+        }
+    }
+
+    private List<Path> listarSegmentos() throws IOException {
+        try (Stream<Path> archivos = Files.list(directorio)) {
+            return archivos
+                    .filter(p -> {
+                        String nombre = p.getFileName().toString();
+                        return nombre.startsWith(PREFIJO) && nombre.endsWith(EXTENSION);
+                    })
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private Path rutaSegmento(int numero) {
+        return directorio.resolve(String.format("%s%08d%s", PREFIJO, numero, EXTENSION));
+    }
+
+    private static int numeroDe(Path segmento) {
+        String nombre = segmento.getFileName().toString();
+        return Integer.parseInt(nombre.substring(PREFIJO.length(), nombre.length() - EXTENSION.length()));
+    }
+}
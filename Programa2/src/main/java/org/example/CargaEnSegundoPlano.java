@@ -0,0 +1,243 @@
+package org.example;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
+import java.util.function.Supplier;
+import javax.swing.JProgressBar;
+import javax.swing.JTextArea;
+import javax.swing.SwingUtilities;
+import javax.swing.SwingWorker;
+
+/**
+ * Carga de un listado fuera del hilo de eventos de Swing.
+ *
+ * La lista se pide al controlador y cada elemento se convierte en una fila
+ * de tabla o una línea de texto en un hilo de fondo; las filas llegan al
+ * hilo de eventos por lotes, de modo que la ventana sigue respondiendo y se
+ * va llenando mientras carga. Una barra de progreso opcional muestra el
+ * avance.
+ *
+ * Los lotes y el aviso de fin se encolan en el hilo de eventos en orden,
+ * de modo que el aviso llega después del último lote.
+ *
+ * Para recargar se cancela la carga anterior con {@link #cancelar} y se
+ * inicia otra; también se cancela al cerrar la ventana. Los lotes de una
+ * carga cancelada que todavía no se mostraron se descartan, aunque la carga
+ * ya hubiera terminado en segundo plano.
+ *
+ * @param <T> tipo de los elementos del listado
+ * @param <F> tipo de lo que se muestra por elemento (fila o línea)
+ */
+public class CargaEnSegundoPlano<T, F> extends SwingWorker<Integer, Void> {
+
+    /** Elementos convertidos antes de entregar un lote al hilo de eventos. */
+    public static final int TAMANIO_LOTE = 1000;
+
+    private final Supplier<? extends List<? extends T>> fuente;
+    private final Function<? super T, ? extends F> conversion;
+    private final Consumer<? super List<F>> destino;
+    private final JProgressBar progreso;
+    private final IntConsumer alTerminar;
+    private final Runnable alFallar;
+
+    /** Tamaño del listado; se conoce recién en el hilo de fondo. */
+    private volatile int total;
+
+    /** Elementos ya mostrados; solo se usa en el hilo de eventos. */
+    private int mostrados;
+
+    /** true si la carga se canceló; sus lotes pendientes ya no se muestran. */
+    private volatile boolean descartada;
+
+    /**
+     * Prepara una carga; se ejecuta con {@link #execute()} o con
+     * {@link #iniciar}. Debe crearse en el hilo de eventos.
+     *
+     * @param fuente     obtiene el listado (se invoca en el hilo de fondo)
+     * @param conversion convierte cada elemento (en el hilo de fondo)
+     * @param destino    muestra un lote (en el hilo de eventos)
+     * @param progreso   barra de avance, o null
+     * @param alTerminar recibe la cantidad cargada si la carga terminó sin cancelarse, o null
+     */
+    public CargaEnSegundoPlano(Supplier<? extends List<? extends T>> fuente,
+                               Function<? super T, ? extends F> conversion,
+                               Consumer<? super List<F>> destino,
+                               JProgressBar progreso,
+                               IntConsumer alTerminar) {
+        this(fuente, conversion, destino, progreso, alTerminar, null);
+    }
+
+    /**
+     * Prepara una carga que además avisa si falla.
+     *
+     * @param alFallar se invoca en el hilo de eventos si la fuente o la
+     *                 conversión lanzan una excepción, o null
+     * @see #CargaEnSegundoPlano(Supplier, Function, Consumer, JProgressBar, IntConsumer)
+     */
+    public CargaEnSegundoPlano(Supplier<? extends List<? extends T>> fuente,
+                               Function<? super T, ? extends F> conversion,
+                               Consumer<? super List<F>> destino,
+                               JProgressBar progreso,
+                               IntConsumer alTerminar,
+                               Runnable alFallar) {
+        this.fuente = fuente;
+        this.conversion = conversion;
+        this.destino = destino;
+        this.progreso = progreso;
+        this.alTerminar = alTerminar;
+        this.alFallar = alFallar;
+
+        if (progreso != null) {
+            progreso.setIndeterminate(true);
+            progreso.setString("Cargando...");
+            progreso.setVisible(true);
+        }
+    }
+
+    /**
+     * Crea una carga y la ejecuta.
+     *
+     * @return la carga iniciada, para poder cancelarla
+     */
+    public static <T, F> CargaEnSegundoPlano<T, F> iniciar(Supplier<? extends List<? extends T>> fuente,
+                                                           Function<? super T, ? extends F> conversion,
+                                                           Consumer<? super List<F>> destino,
+                                                           JProgressBar progreso,
+                                                           IntConsumer alTerminar) {
+        return iniciar(fuente, conversion, destino, progreso, alTerminar, null);
+    }
+
+    /**
+     * Crea una carga que avisa si falla y la ejecuta.
+     *
+     * @return la carga iniciada, para poder cancelarla
+     */
+    public static <T, F> CargaEnSegundoPlano<T, F> iniciar(Supplier<? extends List<? extends T>> fuente,
+                                                           Function<? super T, ? extends F> conversion,
+                                                           Consumer<? super List<F>> destino,
+                                                           JProgressBar progreso,
+                                                           IntConsumer alTerminar,
+                                                           Runnable alFallar) {
+        CargaEnSegundoPlano<T, F> carga = new CargaEnSegundoPlano<>(fuente, conversion, destino, progreso, alTerminar, alFallar);
+        carga.execute();
+        return carga;
+    }
+
+    /**
+     * Cancela una carga si está en curso y descarta lo que todavía no se
+     * mostró de ella.
+     *
+     * @param carga carga a cancelar, o null
+     */
+    public static void cancelar(SwingWorker<?, ?> carga) {
+        if (carga instanceof CargaEnSegundoPlano<?, ?> propia) {
+            propia.descartada = true;
+        }
+        if (carga != null) carga.cancel(true);
+    }
+
+    @Override
+    protected Integer doInBackground() {
+        List<? extends T> lista = fuente.get();
+        total = lista.size();
+
+        List<F> lote = new ArrayList<>(Math.min(TAMANIO_LOTE, total));
+        int cargados = 0;
+        for (T elemento : lista) {
+            if (isCancelled()) return cargados;
+            lote.add(conversion.apply(elemento));
+            cargados++;
+            if (lote.size() == TAMANIO_LOTE) {
+                entregar(lote);
+                lote = new ArrayList<>(TAMANIO_LOTE);
+            }
+        }
+        if (!lote.isEmpty()) entregar(lote);
+
+        int cantidad = cargados;
+        SwingUtilities.invokeLater(() -> terminar(cantidad));
+        return cargados;
+    }
+
+    /**
+     * Encola un lote en el hilo de eventos. No se usan {@code publish} ni
+     * {@link #done()} para esto: sus entregas se agrupan con un temporizador
+     * y no respetan el orden respecto de {@code invokeLater}.
+     */
+    private void entregar(List<F> lote) {
+        SwingUtilities.invokeLater(() -> mostrar(lote));
+    }
+
+    private void mostrar(List<F> lote) {
+        if (descartada) return;
+        destino.accept(lote);
+        mostrados += lote.size();
+        if (progreso != null) {
+            progreso.setIndeterminate(false);
+            progreso.setMaximum(Math.max(1, total));
+            progreso.setValue(mostrados);
+            progreso.setString(mostrados + " / " + total);
+        }
+    }
+
+    /** Se ejecuta en el hilo de eventos después del último lote. */
+    private void terminar(int cargados) {
+        if (descartada) return;
+        if (progreso != null) progreso.setVisible(false);
+        if (alTerminar != null) alTerminar.accept(cargados);
+    }
+
+    /**
+     * Solo atiende la cancelación y los errores; el fin normal lo maneja
+     * {@link #terminar}. Tras un error se avisa a {@code alFallar}, salvo que
+     * la carga se haya descartado.
+     */
+    @Override
+    protected void done() {
+        try {
+            get();
+        } catch (InterruptedException | CancellationException e) {
+            // Se canceló al recargar o al cerrar la ventana
+            if (progreso != null) progreso.setVisible(false);
+        } catch (ExecutionException e) {
+            if (progreso != null) progreso.setVisible(false);
+            System.err.println("Error al cargar el listado: " + e.getCause());
+            if (alFallar != null && !descartada) alFallar.run();
+        }
+    }
+
+    // ======================================================
+    // DESTINOS HABITUALES
+    // ======================================================
+
+    /**
+     * Crea una barra de progreso oculta, que cada carga muestra mientras dura.
+     */
+    public static JProgressBar crearBarraProgreso() {
+        JProgressBar barra = new JProgressBar();
+        barra.setStringPainted(true);
+        barra.setVisible(false);
+        return barra;
+    }
+
+    /**
+     * Destino que agrega cada lote de líneas al final de un área de texto,
+     * con una sola modificación del documento por lote.
+     *
+     * @param area área de texto
+     */
+    public static Consumer<List<String>> lineasDe(JTextArea area) {
+        return lote -> {
+            StringBuilder texto = new StringBuilder(lote.size() * 64);
+            for (String linea : lote) {
+                texto.append(linea).append('\n');
+            }
+            area.append(texto.toString());
+        };
+    }
+}
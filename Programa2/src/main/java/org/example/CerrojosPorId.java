@@ -0,0 +1,104 @@
+package org.example;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Conjunto fijo de cerrojos ("franjas") repartidos por ID de entidad.
+ *
+ * Las operaciones sobre una misma entidad se serializan porque su ID cae
+ * siempre en la misma franja, mientras que operaciones sobre entidades
+ * distintas avanzan en paralelo salvo colisión de franja. La cantidad de
+ * franjas es fija, así que la memoria no crece con el número de entidades.
+ *
+ * Los cerrojos son reentrantes: un servicio puede volver a tomar la franja
+ * que ya tiene el llamador. Para operaciones sobre varias entidades se
+ * toman las franjas en orden ascendente, lo que evita interbloqueos entre
+ * llamadores que compitan por los mismos IDs.
+ */
+public class CerrojosPorId {
+
+    /** Cantidad de franjas por defecto; potencia de dos. */
+    public static final int FRANJAS_POR_DEFECTO = 64;
+
+    private final ReentrantLock[] franjas;
+    private final int mascara;
+
+    /**
+     * Crea un conjunto con la cantidad de franjas por defecto.
+     */
+    public CerrojosPorId() {
+        this(FRANJAS_POR_DEFECTO);
+    }
+
+    /**
+     * Crea un conjunto de cerrojos.
+     *
+     * @param cantidad franjas deseadas; se redondea a la potencia de dos siguiente
+     */
+    public CerrojosPorId(int cantidad) {
+        int capacidad = Integer.highestOneBit(Math.max(1, cantidad - 1)) << 1;
+        this.franjas = new ReentrantLock[capacidad];
+        for (int i = 0; i < capacidad; i++) {
+            franjas[i] = new ReentrantLock();
+        }
+        this.mascara = capacidad - 1;
+    }
+
+    /** Dispersa el ID para que IDs consecutivos caigan en franjas distintas. */
+    private int franja(int id) {
+        int h = id * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mascara;
+    }
+
+    /**
+     * Ejecuta una acción con el cerrojo de la entidad tomado.
+     *
+     * @param id     ID de la entidad
+     * @param accion acción a ejecutar
+     * @param <R>    tipo del resultado
+     * @return resultado de la acción
+     */
+    public <R> R ejecutar(int id, Supplier<R> accion) {
+        ReentrantLock cerrojo = franjas[franja(id)];
+        cerrojo.lock();
+        try {
+            return accion.get();
+        } finally {
+            cerrojo.unlock();
+        }
+    }
+
+    /**
+     * Ejecuta una acción con los cerrojos de todas las entidades indicadas
+     * tomados, de modo que ningún otro escritor de esas entidades pueda
+     * intercalarse. Los IDs repetidos se ignoran.
+     *
+     * @param ids    IDs de las entidades involucradas
+     * @param accion acción a ejecutar
+     * @param <R>    tipo del resultado
+     * @return resultado de la acción
+     */
+    public <R> R ejecutar(int[] ids, Supplier<R> accion) {
+        int[] orden = new int[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            orden[i] = franja(ids[i]);
+        }
+        Arrays.sort(orden);
+
+        int tomados = 0;
+        try {
+            for (int i = 0; i < orden.length; i++) {
+                if (i > 0 && orden[i] == orden[i - 1]) continue;
+                franjas[orden[i]].lock();
+                orden[tomados++] = orden[i];
+            }
+            return accion.get();
+        } finally {
+            for (int i = tomados - 1; i >= 0; i--) {
+                franjas[orden[i]].unlock();
+            }
+        }
+    }
+}
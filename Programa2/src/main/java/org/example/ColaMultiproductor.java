@@ -0,0 +1,112 @@
+package org.example;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Cola acotada sin cerrojos para varios productores y un único consumidor.
+ *
+ * Es un arreglo circular en el que cada casilla lleva un número de
+ * secuencia. Un productor reserva una posición con un compare-and-set
+ * sobre el contador de escritura, deja el elemento y publica la casilla
+ * avanzando su secuencia; el consumidor solo lee casillas publicadas y las
+ * devuelve avanzando la secuencia una vuelta completa. Los productores no
+ * se bloquean entre sí ni con el consumidor: si la cola está llena,
+ * {@link #ofrecer} devuelve false y el llamador decide qué hacer.
+ *
+ * @param <T> tipo de elemento
+ */
+public class ColaMultiproductor<T> {
+
+    private final Object[] casillas;
+    private final AtomicLongArray secuencias;
+    private final int mascara;
+
+    /** Próxima posición a reservar por un productor. */
+    private final AtomicLong escritura = new AtomicLong();
+
+    /** Próxima posición a leer; solo la modifica el consumidor. */
+    private volatile long lectura;
+
+    /**
+     * @param capacidad elementos que admite; se redondea a la potencia de dos siguiente
+     */
+    public ColaMultiproductor(int capacidad) {
+        int tamanio = Integer.highestOneBit(Math.max(2, capacidad) - 1) << 1;
+        this.casillas = new Object[tamanio];
+        this.secuencias = new AtomicLongArray(tamanio);
+        for (int i = 0; i < tamanio; i++) {
+            secuencias.set(i, i);
+        }
+        this.mascara = tamanio - 1;
+    }
+
+    /**
+     * Agrega un elemento si hay lugar. Puede invocarse desde cualquier hilo.
+     *
+     * @param elemento elemento a encolar (no null)
+     * @return true si se encoló; false si la cola estaba llena
+     */
+    public boolean ofrecer(T elemento) {
+        while (true) {
+            long posicion = escritura.get();
+            int i = (int) posicion & mascara;
+            long diferencia = secuencias.get(i) - posicion;
+            if (diferencia == 0) {
+                if (escritura.compareAndSet(posicion, posicion + 1)) {
+                    casillas[i] = elemento;
+                    secuencias.set(i, posicion + 1);
+                    return true;
+                }
+            } else if (diferencia < 0) {
+                return false;
+            }
+            // diferencia > 0: otro productor tomó la posición; se reintenta
+        }
+    }
+
+    /**
+     * Extrae hasta {@code maximo} elementos publicados, en orden. Solo debe
+     * invocarlo el consumidor.
+     *
+     * @param destino lista donde se agregan
+     * @param maximo  cantidad máxima a extraer
+     * @return cantidad extraída
+     */
+    @SuppressWarnings("unchecked")
+    public int extraer(List<? super T> destino, int maximo) {
+        long posicion = lectura;
+        int extraidos = 0;
+        while (extraidos < maximo) {
+            int i = (int) posicion & mascara;
+            if (secuencias.get(i) != posicion + 1) break; // casilla aún no publicada
+            destino.add((T) casillas[i]);
+            casillas[i] = null;
+            secuencias.set(i, posicion + casillas.length);
+            posicion++;
+            extraidos++;
+        }
+        lectura = posicion;
+        return extraidos;
+    }
+
+    /**
+     * @return posiciones reservadas por productores desde la creación; un
+     *         elemento con posición menor a este valor ya fue encolado o lo
+     *         está siendo
+     */
+    public long reservados() {
+        return escritura.get();
+    }
+
+    /** @return true si no hay elementos reservados pendientes de extraer */
+    public boolean estaVacia() {
+        return lectura == escritura.get();
+    }
+
+    /** @return capacidad real de la cola */
+    public int capacidad() {
+        return casillas.length;
+    }
+}
@@ -57,10 +57,13 @@ public class ConsultaMantenimientoFrame extends JFrame {
     private JPanel construirPanelArbol() {
         JPanel panel = new JPanel(new BorderLayout());
 
-        DefaultMutableTreeNode root = new DefaultMutableTreeNode("Equipos");
-
-        arbol = new JTree(root);
+        arbol = new JTree(new DefaultMutableTreeNode("Equipos"));
         arbol.setRootVisible(true);
+        // Con alto de fila fijo y modelo grande, el árbol calcula las filas
+        // sin pedir cada nodo: al expandir la raíz solo se crean los equipos
+        // que quedan a la vista
+        arbol.setRowHeight(Math.max(18, arbol.getFontMetrics(arbol.getFont()).getHeight() + 2));
+        arbol.setLargeModel(true);
 
         // Evento para mostrar detalles al seleccionar un nodo
         arbol.addTreeSelectionListener(e -> mostrarDetalleNodo());
@@ -92,82 +95,38 @@ public class ConsultaMantenimientoFrame extends JFrame {
     }
 
     /**
-     * Reconstruye el árbol de navegación utilizando datos del sistema,
-     * agregando nodos de equipos, programas preventivos, fases
-     * y órdenes correctivas asociadas.
+     * Reemplaza el modelo del árbol por uno nuevo con los datos actuales.
+     * No recorre los equipos: cada nodo crea sus hijos al expandirse.
      */
     private void actualizarArbol() {
         System.out.println(">>> [ConsultaMantenimiento] Cargando árbol...");
 
-        DefaultMutableTreeNode root = new DefaultMutableTreeNode("Equipos");
-
-        for (Equipo eq : sistema.getEquipoController().obtenerEquipos()) {
-
-            DefaultMutableTreeNode nodoEquipo =
-                    new DefaultMutableTreeNode("EQUIPO: " + eq.getId() + " - " + eq.getDescripcion());
-
-            // Componentes asociados
-            for (Equipo comp : eq.getComponentes()) {
-                nodoEquipo.add(new DefaultMutableTreeNode(
-                        "COMPONENTE: " + comp.getId() + " - " + comp.getDescripcion()
-                ));
-            }
-
-            // Programa preventivo asociado (si existe)
-            if (eq.getProgramaPreventivo() != null) {
-
-                ProgramaPreventivo prog = eq.getProgramaPreventivo();
-
-                DefaultMutableTreeNode nodoProg =
-                        new DefaultMutableTreeNode("PROGRAMA: " + prog.getNombrePrograma());
-
-                for (FasePreventiva f : prog.getFases()) {
-                    DefaultMutableTreeNode nodoFase =
-                            new DefaultMutableTreeNode("FASE " + f.getNumeroFase() + ": " + f.getDescripcion());
-
-                    nodoProg.add(nodoFase);
-                }
-
-                nodoEquipo.add(nodoProg);
-            }
-
-            // Sección de órdenes correctivas por equipo
-            DefaultMutableTreeNode nodoCorrectivas = new DefaultMutableTreeNode("Correctivas");
-
-            for (OrdenCorrectiva oc : sistema.getOrdenCorrectivaController().obtenerOrdenes()) {
-                if (oc.getEquipoAsociado().getId() == eq.getId()) {
-                    nodoCorrectivas.add(new DefaultMutableTreeNode(
-                            "OC-" + oc.getIdOrdenCorrectiva() + " " + oc.getEstado()
-                    ));
-                }
-            }
-            nodoEquipo.add(nodoCorrectivas);
-
-            root.add(nodoEquipo);
-        }
-
-        arbol.setModel(new DefaultTreeModel(root));
+        arbol.setModel(new ModeloArbolMantenimiento(
+                sistema.getEquipoController().obtenerEquipos(),
+                sistema.getOrdenCorrectivaController()
+        ));
+        detalleArea.setText("");
     }
 
     /**
      * Determina qué nodo fue seleccionado en el árbol y redirige
-     * la visualización de detalles según su categoría.
+     * la visualización de detalles según su tipo.
      */
     private void mostrarDetalleNodo() {
         TreePath path = arbol.getSelectionPath();
         if (path == null) return;
 
-        String nodo = path.getLastPathComponent().toString();
+        Object nodo = path.getLastPathComponent();
         detalleArea.setText("");
 
         System.out.println(">>> [ConsultaMantenimiento] Nodo seleccionado: " + nodo);
 
-        if (nodo.startsWith("EQUIPO:")) {
-            mostrarDetalleEquipo(nodo);
-        } else if (nodo.startsWith("OC-")) {
-            mostrarDetalleCorrectiva(nodo);
-        } else if (nodo.startsWith("FASE")) {
-            mostrarDetalleFase(nodo);
+        if (nodo instanceof ModeloArbolMantenimiento.NodoEquipo n) {
+            mostrarDetalleEquipo(n.getEquipo());
+        } else if (nodo instanceof ModeloArbolMantenimiento.NodoOrdenCorrectiva n) {
+            mostrarDetalleCorrectiva(n.getOrden());
+        } else if (nodo instanceof ModeloArbolMantenimiento.NodoFase n) {
+            mostrarDetalleFase(n.getFase());
         } else {
             detalleArea.setText("Nodo sin detalles específicos.");
         }
@@ -177,75 +136,51 @@ public class ConsultaMantenimientoFrame extends JFrame {
      * Muestra información detallada de un equipo seleccionado
      * incluyendo programa preventivo y órdenes recientes.
      *
-     * @param nodo cadena del nodo seleccionado con identificador de equipo
+     * @param eq equipo del nodo seleccionado
      */
-    private void mostrarDetalleEquipo(String nodo) {
-        try {
-            String idStr = nodo.split(":")[1].split("-")[0].trim();
-            int id = Integer.parseInt(idStr);
-
-            Equipo eq = sistema.getEquipoController().buscarEquipo(id);
-
-            detalleArea.setText("");
-
-            if (eq != null) {
-                detalleArea.append("DETALLES DEL EQUIPO\n");
-                detalleArea.append("------------------------\n");
-                detalleArea.append(eq.toString() + "\n");
-                detalleArea.append("Componentes: " + eq.getComponentes().size() + "\n");
-
-                if (eq.getProgramaPreventivo() != null) {
-                    ProgramaPreventivo prog = eq.getProgramaPreventivo();
-                    detalleArea.append("\nPrograma Preventivo Asociado:\n");
-                    detalleArea.append("Nombre: " + prog.getNombrePrograma() + "\n");
-                    detalleArea.append("Responsable: " + prog.getResponsable() + "\n");
-                    detalleArea.append("Fases: " + prog.getFases().size() + "\n");
-                } else {
-                    detalleArea.append("\nSin programa preventivo.\n");
-                }
-
-                detalleArea.append("\nUltimas ordenes correctivas:\n");
-
-                int count = 0;
-                for (OrdenCorrectiva oc : sistema.getOrdenCorrectivaController().obtenerOrdenes()) {
-                    if (oc.getEquipoAsociado().getId() == id) {
-                        if (count < 5) {
-                            detalleArea.append("OC-" + oc.getIdOrdenCorrectiva()
-                                    + " [" + oc.getEstado() + "]\n");
-                            count++;
-                        }
-                    }
-                }
-
-                if (count == 0) detalleArea.append("Sin correctivas registradas.");
-            }
+    private void mostrarDetalleEquipo(Equipo eq) {
+        OrdenCorrectivaController ordenController = sistema.getOrdenCorrectivaController();
+
+        detalleArea.append("DETALLES DEL EQUIPO\n");
+        detalleArea.append("------------------------\n");
+        detalleArea.append(eq.toString() + "\n");
+        detalleArea.append("Componentes: " + eq.getComponentes().size() + "\n");
+
+        if (eq.getProgramaPreventivo() != null) {
+            ProgramaPreventivo prog = eq.getProgramaPreventivo();
+            detalleArea.append("\nPrograma Preventivo Asociado:\n");
+            detalleArea.append("Nombre: " + prog.getNombrePrograma() + "\n");
+            detalleArea.append("Responsable: " + prog.getResponsable() + "\n");
+            detalleArea.append("Fases: " + prog.getFases().size() + "\n");
+        } else {
+            detalleArea.append("\nSin programa preventivo.\n");
+        }
+
+        detalleArea.append("\nUltimas ordenes correctivas:\n");
 
-        } catch (Exception e) {
-            detalleArea.setText("Error al mostrar datos de equipo.");
+        int count = 0;
+        for (int idOrden : ordenController.obtenerIdsOrdenesPorEquipo(eq.getId())) {
+            if (count == 5) break;
+            OrdenCorrectiva oc = ordenController.buscarOrdenPorId(idOrden);
+            if (oc != null) {
+                detalleArea.append("OC-" + oc.getIdOrdenCorrectiva()
+                        + " [" + oc.getEstado() + "]\n");
+                count++;
+            }
         }
+
+        if (count == 0) detalleArea.append("Sin correctivas registradas.");
     }
 
     /**
      * Muestra información asociada a una orden correctiva seleccionada.
      *
-     * @param nodo cadena con formato identificador de orden correctiva
+     * @param oc orden del nodo seleccionado
      */
-    private void mostrarDetalleCorrectiva(String nodo) {
-        try {
-            String idStr = nodo.split("-")[1].split(" ")[0];
-            int id = Integer.parseInt(idStr);
-
-            for (OrdenCorrectiva oc : sistema.getOrdenCorrectivaController().obtenerOrdenes()) {
-                if (oc.getIdOrdenCorrectiva() == id) {
-                    detalleArea.append("ORDEN CORRECTIVA\n");
-                    detalleArea.append("-------------------\n");
-                    detalleArea.append(oc.toString());
-                }
-            }
-
-        } catch (Exception e) {
-            detalleArea.setText("Error al mostrar los detalles.");
-        }
+    private void mostrarDetalleCorrectiva(OrdenCorrectiva oc) {
+        detalleArea.append("ORDEN CORRECTIVA\n");
+        detalleArea.append("-------------------\n");
+        detalleArea.append(oc.toString());
     }
 
     /**
@@ -253,61 +188,30 @@ public class ConsultaMantenimientoFrame extends JFrame {
      * incluyendo descripción, parámetros operativos, tareas
      * y recursos asignados.
      *
-     * @param nodo texto del nodo seleccionado con número de fase
+     * @param fase fase del nodo seleccionado
      */
-    private void mostrarDetalleFase(String nodo) {
-        try {
-            String numStr = nodo.split(" ")[1].replace(":", "");
-            int num = Integer.parseInt(numStr);
-
-            detalleArea.setText("");
-            detalleArea.append("FASE " + num + "\n");
-            detalleArea.append("----------------------\n");
-
-            TreePath path = arbol.getSelectionPath();
-            if (path == null) return;
-
-            String equipoNodo = path.getPathComponent(1).toString();
-            String idEquipoStr = equipoNodo.split(":")[1].split("-")[0].trim();
-            int idEquipo = Integer.parseInt(idEquipoStr);
-
-            Equipo eq = sistema.getEquipoController().buscarEquipo(idEquipo);
-
-            if (eq == null || eq.getProgramaPreventivo() == null) {
-                detalleArea.append(" No hay detalles del programa preventivo.");
-                return;
-            }
-
-            ProgramaPreventivo prog = eq.getProgramaPreventivo();
-            FasePreventiva fase = prog.obtenerFase(num);
-
-            if (fase == null) {
-                detalleArea.append("No se encontró la fase.");
-                return;
-            }
-
-            detalleArea.append("Descripción: " + fase.getDescripcion() + "\n");
-            detalleArea.append("Frecuencia: " + fase.getFrecuencia() + "\n");
-            detalleArea.append("Tiempo estimado (h): " + fase.getTiempoEstimadoHoras() + "\n");
-            detalleArea.append("Observaciones: " + fase.getObservaciones() + "\n");
-            detalleArea.append("Ciclos: " + fase.getCantidadCiclos() + "\n");
-
-            detalleArea.append("\n--- TAREAS ---\n");
-            if (fase.getTareas().isEmpty()) {
-                detalleArea.append("No hay tareas registradas.\n");
-            } else {
-                for (String t : fase.getTareas()) detalleArea.append("• " + t + "\n");
-            }
-
-            detalleArea.append("\n--- RECURSOS ---\n");
-            if (fase.getRecursosNecesarios().isEmpty()) {
-                detalleArea.append("No hay recursos asignados.\n");
-            } else {
-                for (String r : fase.getRecursosNecesarios()) detalleArea.append("• " + r + "\n");
-            }
+    private void mostrarDetalleFase(FasePreventiva fase) {
+        detalleArea.append("FASE " + fase.getNumeroFase() + "\n");
+        detalleArea.append("----------------------\n");
+
+        detalleArea.append("Descripción: " + fase.getDescripcion() + "\n");
+        detalleArea.append("Frecuencia: " + fase.getFrecuencia() + "\n");
+        detalleArea.append("Tiempo estimado (h): " + fase.getTiempoEstimadoHoras() + "\n");
+        detalleArea.append("Observaciones: " + fase.getObservaciones() + "\n");
+        detalleArea.append("Ciclos: " + fase.getCantidadCiclos() + "\n");
+
+        detalleArea.append("\n--- TAREAS ---\n");
+        if (fase.getTareas().isEmpty()) {
+            detalleArea.append("No hay tareas registradas.\n");
+        } else {
+            for (String t : fase.getTareas()) detalleArea.append("• " + t + "\n");
+        }
 
-        } catch (Exception e) {
-            detalleArea.setText("Error mostrando datos de fase.");
+        detalleArea.append("\n--- RECURSOS ---\n");
+        if (fase.getRecursosNecesarios().isEmpty()) {
+            detalleArea.append("No hay recursos asignados.\n");
+        } else {
+            for (String r : fase.getRecursosNecesarios()) detalleArea.append("• " + r + "\n");
         }
     }
 }
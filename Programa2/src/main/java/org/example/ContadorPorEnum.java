@@ -0,0 +1,121 @@
+package org.example;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Contadores de órdenes por cada valor de un enum (estado o prioridad).
+ *
+ * Cada valor tiene su contador atómico en un {@link EnumMap}, de modo que
+ * leer la cantidad de órdenes en un estado es O(1) y no requiere recorrer
+ * las órdenes. Los servicios de órdenes son responsables de notificar cada
+ * alta, transición y baja; tras cada cambio se avisa a los
+ * {@link OyenteContadores} registrados.
+ *
+ * @param <E> enumeración contada
+ */
+public class ContadorPorEnum<E extends Enum<E>> {
+
+    private final Class<E> tipo;
+    private final Map<E, AtomicInteger> contadores;
+
+    private final List<OyenteContadores> oyentes = new CopyOnWriteArrayList<>();
+
+    /**
+     * Crea los contadores en cero.
+     *
+     * @param tipo clase del enum contado
+     */
+    public ContadorPorEnum(Class<E> tipo) {
+        this.tipo = tipo;
+        this.contadores = new EnumMap<>(tipo);
+        for (E valor : tipo.getEnumConstants()) {
+            contadores.put(valor, new AtomicInteger());
+        }
+    }
+
+    /**
+     * Cuenta una orden nueva con el valor indicado.
+     *
+     * @param valor valor de la orden; null no se cuenta
+     */
+    public void sumar(E valor) {
+        if (valor == null) return;
+        contadores.get(valor).incrementAndGet();
+        avisar();
+    }
+
+    /**
+     * Descuenta una orden retirada.
+     *
+     * @param valor valor que tenía la orden; null no se cuenta
+     */
+    public void restar(E valor) {
+        if (valor == null) return;
+        contadores.get(valor).decrementAndGet();
+        avisar();
+    }
+
+    /**
+     * Pasa una orden de un valor a otro con un solo aviso.
+     *
+     * @param anterior valor previo
+     * @param nuevo    valor actual
+     */
+    public void mover(E anterior, E nuevo) {
+        if (anterior == nuevo) return;
+        if (anterior != null) contadores.get(anterior).decrementAndGet();
+        if (nuevo != null) contadores.get(nuevo).incrementAndGet();
+        avisar();
+    }
+
+    /**
+     * @param valor valor consultado
+     * @return cantidad de órdenes con ese valor
+     */
+    public int obtener(E valor) {
+        return contadores.get(valor).get();
+    }
+
+    /**
+     * Copia de todos los contadores. Cada valor es exacto al leerlo, pero
+     * si hay transiciones en curso la suma puede diferir momentáneamente
+     * del total de órdenes.
+     *
+     * @return cantidad por valor, en el orden del enum
+     */
+    public Map<E, Integer> instantanea() {
+        Map<E, Integer> copia = new EnumMap<>(tipo);
+        for (Map.Entry<E, AtomicInteger> e : contadores.entrySet()) {
+            copia.put(e.getKey(), e.getValue().get());
+        }
+        return copia;
+    }
+
+    /**
+     * Suscribe un oyente a los cambios de estos contadores.
+     *
+     * @param oyente oyente a registrar
+     */
+    public void agregarOyente(OyenteContadores oyente) {
+        oyentes.add(oyente);
+    }
+
+    /**
+     * Cancela la suscripción de un oyente.
+     *
+     * @param oyente oyente a quitar
+     */
+    public void quitarOyente(OyenteContadores oyente) {
+        oyentes.remove(oyente);
+    }
+
+    private void avisar() {
+        for (OyenteContadores oyente : oyentes) {
+            oyente.contadoresCambiados();
+        }
+    }
+}
@@ -0,0 +1,790 @@
+package org.example;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+import java.util.zip.CRC32;
+
+/**
+ * Diario binario de operaciones (registro de escritura anticipada).
+ *
+ * Cada operación exitosa de los controladores se agrega al final del archivo
+ * como un registro {@code [longitud][crc32][código][datos]}; al iniciar el
+ * sistema el diario se reproduce en orden para reconstruir el estado.
+ *
+ * Las escrituras usan confirmación en grupo: cada llamador codifica su
+ * registro sin bloqueo, lo encola en un búfer compartido y espera. Un único
+ * hilo escritor toma todo lo encolado, lo escribe y ejecuta un solo
+ * {@code force} para el lote completo, despertando luego a todos los
+ * llamadores incluidos. Así, muchas escrituras concurrentes cuestan una
+ * sola sincronización con disco.
+ *
+ * El orden del diario es el orden de llegada a {@link #encolar}; las
+ * operaciones concurrentes sobre una misma entidad deben serializarse antes
+ * de registrarse.
+ *
+ * Cada cambio del estado se aplica y se encola dentro de
+ * {@link #escribir(Supplier)}, en modo compartido con los demás escritores.
+ * Una instantánea se toma con {@link #ejecutarSinEscrituras(Runnable)}, que
+ * espera a los escritores en curso y detiene los nuevos; así ningún cambio
+ * queda aplicado en memoria con su registro fuera de la época que le
+ * corresponde.
+ *
+ * Cada archivo lleva en su cabecera una época. Al guardar una instantánea
+ * el diario se reinicia con la época siguiente, y la instantánea recuerda
+ * desde qué época debe reproducirse; así, un diario anterior a la
+ * instantánea nunca se aplica dos veces.
+ */
+public class DiarioOperaciones implements AutoCloseable {
+
+    /**
+     * Operaciones registrables. El código se escribe en el archivo, por lo que
+     * nunca debe reutilizarse ni cambiarse para una operación existente.
+     */
+    public enum Operacion {
+        CREAR_EQUIPO(1),
+        ELIMINAR_EQUIPO(2),
+        ACTUALIZAR_UBICACION_EQUIPO(3),
+        ACTUALIZAR_ESTADO_EQUIPO(4),
+        ASIGNAR_PROGRAMA_EQUIPO(5),
+        AGREGAR_COMPONENTE_EQUIPO(6),
+
+        CREAR_ORDEN_PREVENTIVA(10),
+        INICIAR_ORDEN_PREVENTIVA(11),
+        COMPLETAR_ORDEN_PREVENTIVA(12),
+        CANCELAR_ORDEN_PREVENTIVA(13),
+        AGREGAR_MATERIAL_ORDEN_PREVENTIVA(14),
+        COMPLETAR_ORDEN_PREVENTIVA_CON_REPUESTOS(15),
+
+        CREAR_ORDEN_CORRECTIVA(20),
+        INICIAR_ORDEN_CORRECTIVA(21),
+        FINALIZAR_ORDEN_CORRECTIVA(22),
+        MARCAR_NO_REPARADA_ORDEN_CORRECTIVA(23),
+        ACTUALIZAR_COSTO_ORDEN_CORRECTIVA(24),
+
+        AGREGAR_REPUESTO(30),
+        ENTRADA_REPUESTO(31),
+        SALIDA_REPUESTO(32),
+        AJUSTE_REPUESTO(33),
+        RESERVAR_REPUESTOS(34),
+        CONFIRMAR_RESERVA_REPUESTOS(35),
+        LIBERAR_RESERVA_REPUESTOS(36),
+
+        CREAR_PROGRAMA(40),
+        ELIMINAR_PROGRAMA(41),
+        AGREGAR_FASE_PROGRAMA(42),
+        ELIMINAR_FASE_PROGRAMA(43),
+        AGREGAR_TAREA_FASE(44),
+        AGREGAR_RECURSO_FASE(45),
+        ACTUALIZAR_FASE(46),
+
+        CREAR_FALLA(50),
+        ELIMINAR_FALLA(51),
+
+        CREAR_TECNICO(60),
+        CAMBIAR_ESTADO_TECNICO(61),
+        AGREGAR_CERTIFICACION_TECNICO(62),
+        ELIMINAR_TECNICO(63),
+
+        CREAR_USUARIO(70),
+        CAMBIAR_ESTADO_USUARIO(71),
+        CAMBIAR_PASSWORD_USUARIO(72),
+        ELIMINAR_USUARIO(73),
+
+        REGISTRAR_AUDITORIA(80);
+
+        private static final Operacion[] POR_CODIGO = new Operacion[128];
+
+        static {
+            for (Operacion op : values()) {
+                POR_CODIGO[op.codigo] = op;
+            }
+        }
+
+        /** Código persistido en el archivo. */
+        private final byte codigo;
+
+        Operacion(int codigo) {
+            this.codigo = (byte) codigo;
+        }
+
+        /**
+         * @param codigo código leído del archivo
+         * @return operación correspondiente o null si se desconoce
+         */
+        static Operacion desdeCodigo(byte codigo) {
+            return codigo >= 0 ? POR_CODIGO[codigo] : null;
+        }
+    }
+
+    /**
+     * Escribe los datos propios de una operación.
+     */
+    @FunctionalInterface
+    public interface Contenido {
+        void escribir(Salida out) throws IOException;
+    }
+
+    /**
+     * Aplica una operación leída del diario durante la reproducción.
+     */
+    @FunctionalInterface
+    public interface Reproductor {
+        void aplicar(Operacion operacion, Entrada in) throws IOException;
+    }
+
+    /** Identifica el formato del archivo ("P2DJ"). */
+    private static final int MAGICO = 0x50324A44;
+
+    /** Versión del formato de registros. */
+    private static final int VERSION = 2;
+
+    /** Bytes de la cabecera del archivo: mágico, versión y época. */
+    private static final int CABECERA_ARCHIVO = 16;
+
+    /** Bytes de la cabecera de cada registro: longitud y crc. */
+    private static final int CABECERA_REGISTRO = 8;
+
+    /** Tamaño máximo aceptado para un registro; uno mayor se considera corrupto. */
+    private static final int LONGITUD_MAXIMA = 16 * 1024 * 1024;
+
+    /** Archivo del diario; null si el diario está deshabilitado. */
+    private final Path archivo;
+
+    private FileChannel canal;
+    private Thread escritor;
+
+    /** true mientras se reproduce el diario: las operaciones no se vuelven a registrar. */
+    private volatile boolean reproduciendo;
+
+    /** Época del archivo actual. */
+    private long epoca;
+
+    /** Registros contenidos en el archivo actual (reproducidos más nuevos). */
+    private long registros;
+
+    /**
+     * Compuerta entre escritores e instantáneas: los escritores la toman en
+     * modo compartido y la instantánea en modo exclusivo. Se toma antes que
+     * cualquier otro cerrojo de los servicios.
+     */
+    private final ReentrantReadWriteLock compuerta = new ReentrantReadWriteLock();
+
+    private final ReentrantLock cerrojo = new ReentrantLock();
+    private final Condition hayPendientes = cerrojo.newCondition();
+    private final Condition lotePersistido = cerrojo.newCondition();
+
+    /** Registros encolados a la espera del próximo lote. */
+    private byte[] pendientes = new byte[64 * 1024];
+    private int bytesPendientes;
+
+    /** Búfer que el escritor está volcando a disco; se intercambia con {@link #pendientes}. */
+    private byte[] enEscritura = new byte[64 * 1024];
+
+    /** Número de registros encolados desde la apertura. */
+    private long encolados;
+
+    /** Número de registros ya sincronizados con disco. */
+    private long persistidos;
+
+    private boolean cerrado;
+
+    /** true mientras el escritor vuelca un lote fuera del cerrojo. */
+    private boolean escribiendo;
+
+    /** Error de escritura; una vez ocurrido el diario deja de aceptar registros. */
+    private IOException falla;
+
+    /**
+     * Crea un diario asociado al archivo indicado. No se escribe nada hasta
+     * llamar a {@link #abrir(Reproductor, long)}.
+     *
+     * @param archivo ruta del diario, o null para no persistir
+     */
+    public DiarioOperaciones(Path archivo) {
+        this.archivo = archivo;
+    }
+
+    /**
+     * Reproduce el diario existente y lo deja abierto para agregar registros.
+     * Un registro final incompleto o con crc inválido (escritura interrumpida
+     * por una caída) se descarta y el archivo se trunca en ese punto.
+     *
+     * @param reproductor  receptor de cada operación registrada
+     * @param epocaMinima  época desde la cual reproducir; un diario de época
+     *                     anterior ya está contenido en la instantánea cargada
+     *                     y se descarta
+     * @return cantidad de operaciones reproducidas
+     */
+    public int abrir(Reproductor reproductor, long epocaMinima) {
+        if (archivo == null || canal != null) return 0;
+
+        try {
+            Path dir = archivo.toAbsolutePath().getParent();
+            if (dir != null) Files.createDirectories(dir);
+
+            int aplicadas = 0;
+            long valido = 0;
+            epoca = epocaMinima;
+            if (Files.exists(archivo) && Files.size(archivo) >= CABECERA_ARCHIVO
+                    && leerEpoca() >= epocaMinima) {
+                long[] resultado = reproducir(reproductor);
+                aplicadas = (int) resultado[0];
+                valido = resultado[1];
+            }
+            registros = aplicadas;
+
+            if (valido == 0) {
+                crearArchivo(epoca);
+            }
+            canal = FileChannel.open(archivo, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            if (canal.size() > valido && valido > 0) {
+                System.err.println("Diario: se descartan " + (canal.size() - valido)
+                        + " bytes de un registro incompleto.");
+                canal.truncate(valido);
+            }
+            canal.force(true);
+            canal.position(canal.size());
+
+            escritor = new Thread(this::escribirLotes, "diario-operaciones");
+            escritor.setDaemon(true);
+            escritor.start();
+            return aplicadas;
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo abrir el diario " + archivo, e);
+        }
+    }
+
+    /**
+     * Inicia un diario vacío con una nueva época, tras guardar una instantánea
+     * que contiene todo lo registrado hasta ahora. Espera a que se escriban
+     * los registros pendientes y reemplaza el archivo de forma atómica.
+     *
+     * @param nuevaEpoca época del nuevo archivo, mayor que la actual
+     */
+    public void reiniciar(long nuevaEpoca) {
+        if (canal == null) return;
+
+        cerrojo.lock();
+        try {
+            verificarEstado();
+            while ((bytesPendientes > 0 || escribiendo) && falla == null) {
+                lotePersistido.awaitUninterruptibly();
+            }
+            verificarEstado();
+
+            canal.close();
+            crearArchivo(nuevaEpoca);
+            canal = FileChannel.open(archivo, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            canal.position(canal.size());
+            epoca = nuevaEpoca;
+            registros = 0;
+        } catch (IOException e) {
+            falla = e;
+            throw new UncheckedIOException("No se pudo reiniciar el diario " + archivo, e);
+        } finally {
+            cerrojo.unlock();
+        }
+    }
+
+    /** @return época del archivo actual */
+    public long getEpoca() {
+        return epoca;
+    }
+
+    /** @return registros contenidos en el archivo actual */
+    public long getRegistros() {
+        cerrojo.lock();
+        try {
+            return registros;
+        } finally {
+            cerrojo.unlock();
+        }
+    }
+
+    /**
+     * Indica si las operaciones se están registrando en disco.
+     *
+     * @return true si el diario está abierto y no se está reproduciendo
+     */
+    public boolean isActivo() {
+        return canal != null && !reproduciendo;
+    }
+
+    /**
+     * Ejecuta un cambio del estado junto con el encolado de sus registros,
+     * en modo compartido con los demás escritores. Mientras se guarda una
+     * instantánea espera a que termine. La espera a disco
+     * ({@link #esperar(long)}) debe hacerse después, fuera de la escritura.
+     *
+     * @param escritura cambio a aplicar y encolar
+     * @param <R>       tipo del resultado
+     * @return resultado de la escritura
+     */
+    public <R> R escribir(Supplier<R> escritura) {
+        compuerta.readLock().lock();
+        try {
+            return escritura.get();
+        } finally {
+            compuerta.readLock().unlock();
+        }
+    }
+
+    /**
+     * Ejecuta una acción con las escrituras detenidas: espera a que terminen
+     * las que están en curso y hace esperar a las nuevas hasta el final.
+     * Sirve para copiar un estado coherente con el diario al guardar una
+     * instantánea. No debe invocarse desde una escritura.
+     *
+     * @param accion acción a ejecutar sin escritores concurrentes
+     */
+    public void ejecutarSinEscrituras(Runnable accion) {
+        compuerta.writeLock().lock();
+        try {
+            accion.run();
+        } finally {
+            compuerta.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Aplica una operación y, si tuvo éxito, la encola en el diario dentro de
+     * la misma escritura; después espera a que esté en disco. Para entidades
+     * con escritores concurrentes se usa la variante con cerrojos.
+     *
+     * @param accion    operación sobre el servicio; devuelve si se aplicó
+     * @param operacion tipo de operación a registrar
+     * @param contenido escritor de los datos de la operación
+     * @return resultado de la acción
+     * @throws UncheckedIOException si el registro no pudo persistirse
+     */
+    public boolean aplicar(BooleanSupplier accion, Operacion operacion, Contenido contenido) {
+        long turno = escribir(() -> accion.getAsBoolean() ? encolar(operacion, contenido) : -1L);
+        esperar(turno);
+        return turno >= 0;
+    }
+
+    /**
+     * Aplica una operación sobre una entidad con su cerrojo tomado y, si tuvo
+     * éxito, la encola en el diario antes de liberarlo; después espera a que
+     * esté en disco. Así dos escritores concurrentes de la misma entidad
+     * quedan en el diario en el mismo orden en que se aplicaron.
+     *
+     * @param cerrojos  cerrojos del servicio dueño de la entidad
+     * @param id        ID de la entidad modificada
+     * @param accion    operación sobre el servicio; devuelve si se aplicó
+     * @param operacion tipo de operación a registrar
+     * @param contenido escritor de los datos de la operación
+     * @return resultado de la acción
+     * @throws UncheckedIOException si el registro no pudo persistirse
+     */
+    public boolean aplicar(CerrojosPorId cerrojos, int id, BooleanSupplier accion,
+                           Operacion operacion, Contenido contenido) {
+        long turno = escribir(() -> cerrojos.ejecutar(id, () ->
+                accion.getAsBoolean() ? encolar(operacion, contenido) : -1L));
+        esperar(turno);
+        return turno >= 0;
+    }
+
+    /**
+     * Igual que {@link #aplicar(CerrojosPorId, int, BooleanSupplier, Operacion, Contenido)},
+     * pero toma antes el cerrojo de una entidad relacionada (por ejemplo, el
+     * equipo de una orden), de modo que las validaciones hechas con ese
+     * cerrojo tomado no cambien durante la operación.
+     *
+     * @param cerrojosRelacionada cerrojos del servicio de la entidad relacionada
+     * @param idRelacionada       ID de la entidad relacionada
+     * @param cerrojos            cerrojos del servicio dueño de la entidad
+     * @param id                  ID de la entidad modificada
+     * @param accion              operación sobre el servicio; devuelve si se aplicó
+     * @param operacion           tipo de operación a registrar
+     * @param contenido           escritor de los datos de la operación
+     * @return resultado de la acción
+     * @throws UncheckedIOException si el registro no pudo persistirse
+     */
+    public boolean aplicar(CerrojosPorId cerrojosRelacionada, int idRelacionada,
+                           CerrojosPorId cerrojos, int id, BooleanSupplier accion,
+                           Operacion operacion, Contenido contenido) {
+        long turno = escribir(() -> cerrojosRelacionada.ejecutar(idRelacionada, () ->
+                cerrojos.ejecutar(id, () ->
+                        accion.getAsBoolean() ? encolar(operacion, contenido) : -1L)));
+        esperar(turno);
+        return turno >= 0;
+    }
+
+    /**
+     * Agrega una operación al diario sin esperar a que llegue a disco. Fija
+     * la posición del registro: quien modifica una entidad con su cerrojo
+     * tomado encola dentro del cerrojo, para que el diario conserve el orden
+     * en que se aplicaron los cambios, y espera con {@link #esperar(long)}
+     * después de liberarlo. Debe invocarse dentro de {@link #escribir(Supplier)}.
+     *
+     * @param operacion tipo de operación
+     * @param contenido escritor de los datos de la operación
+     * @return turno del registro, o 0 si el diario no está registrando
+     * @throws IllegalStateException si se invoca fuera de una escritura
+     */
+    public long encolar(Operacion operacion, Contenido contenido) {
+        if (!isActivo()) return 0;
+        if (compuerta.getReadHoldCount() == 0) {
+            throw new IllegalStateException("Operación " + operacion + " encolada fuera de una escritura");
+        }
+
+        byte[] registro = codificar(operacion, contenido);
+
+        cerrojo.lock();
+        try {
+            verificarEstado();
+            if (bytesPendientes + registro.length > pendientes.length) {
+                pendientes = Arrays.copyOf(pendientes,
+                        Math.max(pendientes.length << 1, bytesPendientes + registro.length));
+            }
+            System.arraycopy(registro, 0, pendientes, bytesPendientes, registro.length);
+            bytesPendientes += registro.length;
+            registros++;
+            hayPendientes.signal();
+            return ++encolados;
+        } finally {
+            cerrojo.unlock();
+        }
+    }
+
+    /**
+     * Espera a que el registro encolado con el turno indicado esté
+     * sincronizado con disco. Un turno 0 o negativo no espera.
+     *
+     * @param turno valor devuelto por {@link #encolar(Operacion, Contenido)}
+     * @throws UncheckedIOException si el registro no pudo persistirse
+     */
+    public void esperar(long turno) {
+        if (turno <= 0) return;
+
+        cerrojo.lock();
+        try {
+            while (persistidos < turno && falla == null) {
+                lotePersistido.awaitUninterruptibly();
+            }
+            if (persistidos < turno) {
+                throw new UncheckedIOException("No se pudo escribir en el diario " + archivo, falla);
+            }
+        } finally {
+            cerrojo.unlock();
+        }
+    }
+
+    /**
+     * Espera a que se escriba lo pendiente y cierra el archivo.
+     */
+    @Override
+    public void close() {
+        if (canal == null) return;
+        cerrojo.lock();
+        try {
+            cerrado = true;
+            hayPendientes.signal();
+        } finally {
+            cerrojo.unlock();
+        }
+        try {
+            escritor.join();
+            canal.close();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo cerrar el diario " + archivo, e);
+        }
+    }
+
+    private void verificarEstado() {
+        if (falla != null) {
+            throw new UncheckedIOException("El diario " + archivo + " dejó de aceptar registros", falla);
+        }
+        if (cerrado) {
+            throw new IllegalStateException("El diario está cerrado.");
+        }
+    }
+
+    /**
+     * Ciclo del hilo escritor: toma todo lo encolado, lo escribe y sincroniza
+     * una sola vez por lote.
+     */
+    private void escribirLotes() {
+        while (true) {
+            int bytes;
+            long hasta;
+            cerrojo.lock();
+            try {
+                while (bytesPendientes == 0 && !cerrado) {
+                    hayPendientes.awaitUninterruptibly();
+                }
+                if (bytesPendientes == 0) return;
+
+                byte[] lote = pendientes;
+                pendientes = enEscritura;
+                enEscritura = lote;
+                bytes = bytesPendientes;
+                bytesPendientes = 0;
+                hasta = encolados;
+                escribiendo = true;
+            } finally {
+                cerrojo.unlock();
+            }
+
+            IOException error = null;
+            try {
+                ByteBuffer buffer = ByteBuffer.wrap(enEscritura, 0, bytes);
+                while (buffer.hasRemaining()) {
+                    canal.write(buffer);
+                }
+                canal.force(false);
+            } catch (IOException e) {
+                error = e;
+            }
+
+            cerrojo.lock();
+            try {
+                escribiendo = false;
+                if (error != null) {
+                    falla = error;
+                } else {
+                    persistidos = hasta;
+                }
+                lotePersistido.signalAll();
+                if (error != null) return;
+            } finally {
+                cerrojo.unlock();
+            }
+        }
+    }
+
+    /**
+     * Escribe un archivo con solo la cabecera en un temporal sincronizado y lo
+     * renombra sobre el diario.
+     */
+    private void crearArchivo(long epocaArchivo) throws IOException {
+        Path tmp = archivo.resolveSibling(archivo.getFileName() + ".tmp");
+        try (FileChannel nuevo = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer cabecera = ByteBuffer.allocate(CABECERA_ARCHIVO);
+            cabecera.putInt(MAGICO).putInt(VERSION).putLong(epocaArchivo).flip();
+            while (cabecera.hasRemaining()) {
+                nuevo.write(cabecera);
+            }
+            nuevo.force(true);
+        }
+        Files.move(tmp, archivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /** @return época indicada en la cabecera del archivo existente */
+    private long leerEpoca() throws IOException {
+        try (DataInputStream in = new DataInputStream(Files.newInputStream(archivo))) {
+            verificarCabecera(in);
+            return in.readLong();
+        }
+    }
+
+    private void verificarCabecera(DataInputStream in) throws IOException {
+        if (in.readInt() != MAGICO) {
+            throw new IOException("El archivo " + archivo + " no es un diario de operaciones.");
+        }
+        int version = in.readInt();
+        if (version != VERSION) {
+            throw new IOException("Versión de diario no soportada: " + version);
+        }
+    }
+
+    /**
+     * Serializa un registro completo, incluyendo longitud y crc.
+     */
+    private static byte[] codificar(Operacion operacion, Contenido contenido) {
+        Bufer bufer = new Bufer();
+        Salida out = new Salida(bufer);
+        try {
+            out.writeLong(0); // reserva para longitud y crc
+            out.writeByte(operacion.codigo);
+            contenido.escribir(out);
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // no ocurre al escribir en memoria
+        }
+
+        byte[] datos = bufer.arreglo();
+        int longitud = bufer.size() - CABECERA_REGISTRO;
+        CRC32 crc = new CRC32();
+        crc.update(datos, CABECERA_REGISTRO, longitud);
+
+        ByteBuffer cabecera = ByteBuffer.wrap(datos, 0, CABECERA_REGISTRO);
+        cabecera.putInt(longitud).putInt((int) crc.getValue());
+        return Arrays.copyOf(datos, bufer.size());
+    }
+
+    /**
+     * Lee secuencialmente el archivo y entrega cada registro válido.
+     *
+     * @return {operaciones aplicadas, bytes válidos desde el inicio del archivo}
+     */
+    private long[] reproducir(Reproductor reproductor) throws IOException {
+        long aplicadas = 0;
+        long valido = CABECERA_ARCHIVO;
+        reproduciendo = true;
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(archivo), 1 << 16))) {
+
+            verificarCabecera(in);
+            epoca = in.readLong();
+
+            CRC32 crc = new CRC32();
+            byte[] datos = new byte[256];
+            while (true) {
+                int longitud;
+                int esperado;
+                try {
+                    longitud = in.readInt();
+                    esperado = in.readInt();
+                } catch (EOFException fin) {
+                    break;
+                }
+                if (longitud <= 0 || longitud > LONGITUD_MAXIMA) break;
+                if (datos.length < longitud) {
+                    datos = new byte[Math.max(longitud, datos.length << 1)];
+                }
+                try {
+                    in.readFully(datos, 0, longitud);
+                } catch (EOFException fin) {
+                    break;
+                }
+                crc.reset();
+                crc.update(datos, 0, longitud);
+                if ((int) crc.getValue() != esperado) break;
+
+                Operacion op = Operacion.desdeCodigo(datos[0]);
+                if (op == null) {
+                    throw new IOException("Operación desconocida en el diario: " + datos[0]);
+                }
+                reproductor.aplicar(op, new Entrada(new ByteArrayInputStream(datos, 1, longitud - 1)));
+                aplicadas++;
+                valido += CABECERA_REGISTRO + longitud;
+            }
+        } finally {
+            reproduciendo = false;
+        }
+        return new long[] { aplicadas, valido };
+    }
+
+    // ======================================================
+    // CODIFICACIÓN DE DATOS
+    // ======================================================
+
+    /**
+     * Flujo de salida con codificación de textos, fechas y enumeraciones
+     * que admiten null.
+     */
+    public static class Salida extends DataOutputStream {
+
+        Salida(ByteArrayOutputStream destino) {
+            super(destino);
+        }
+
+        /** Escribe un texto en UTF-8; admite null. */
+        public void escribirTexto(String texto) throws IOException {
+            if (texto == null) {
+                writeInt(-1);
+                return;
+            }
+            byte[] bytes = texto.getBytes(StandardCharsets.UTF_8);
+            writeInt(bytes.length);
+            write(bytes);
+        }
+
+        /** Escribe una fecha como día de época; admite null. */
+        public void escribirFecha(LocalDate fecha) throws IOException {
+            writeLong(fecha == null ? Long.MIN_VALUE : fecha.toEpochDay());
+        }
+
+        /** Escribe fecha y hora como día de época y nanosegundo del día; admite null. */
+        public void escribirFechaHora(LocalDateTime fechaHora) throws IOException {
+            if (fechaHora == null) {
+                writeLong(Long.MIN_VALUE);
+                return;
+            }
+            writeLong(fechaHora.toLocalDate().toEpochDay());
+            writeLong(fechaHora.toLocalTime().toNanoOfDay());
+        }
+
+        /** Escribe una constante por nombre, para tolerar reordenamientos del enum; admite null. */
+        public void escribirEnum(Enum<?> valor) throws IOException {
+            escribirTexto(valor == null ? null : valor.name());
+        }
+    }
+
+    /**
+     * Flujo de entrada simétrico a {@link Salida}.
+     */
+    public static class Entrada extends DataInputStream {
+
+        Entrada(InputStream origen) {
+            super(origen);
+        }
+
+        /** @return texto leído o null */
+        public String leerTexto() throws IOException {
+            int longitud = readInt();
+            if (longitud < 0) return null;
+            byte[] bytes = new byte[longitud];
+            readFully(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        /** @return fecha leída o null */
+        public LocalDate leerFecha() throws IOException {
+            long dia = readLong();
+            return dia == Long.MIN_VALUE ? null : LocalDate.ofEpochDay(dia);
+        }
+
+        /** @return fecha y hora leídas o null */
+        public LocalDateTime leerFechaHora() throws IOException {
+            long dia = readLong();
+            if (dia == Long.MIN_VALUE) return null;
+            return LocalDateTime.of(LocalDate.ofEpochDay(dia),
+                    java.time.LocalTime.ofNanoOfDay(readLong()));
+        }
+
+        /** @return constante leída o null */
+        public <E extends Enum<E>> E leerEnum(Class<E> tipo) throws IOException {
+            String nombre = leerTexto();
+            return nombre == null ? null : Enum.valueOf(tipo, nombre);
+        }
+    }
+
+    /** Búfer en memoria que expone su arreglo interno sin copiarlo. */
+    private static class Bufer extends ByteArrayOutputStream {
+        Bufer() {
+            super(128);
+        }
+
+        byte[] arreglo() {
+            return buf;
+        }
+    }
+}
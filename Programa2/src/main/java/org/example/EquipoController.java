@@ -24,7 +24,11 @@ public class EquipoController {
     /**
      * Crea un nuevo equipo validando previamente los datos requeridos.
      *
-     * @param id identificador único del equipo
+     * Un ID digitado debe ser posterior a los ya asignados por la secuencia
+     * del sistema (ver {@link IdAllocator#reclamar}); al reproducir el diario
+     * el ID ya fue validado y solo se informa a la secuencia.
+     *
+     * @param id identificador único del equipo, o 0 para asignarlo automáticamente
      * @param descripcion descripción del equipo
      * @param tipo categoría o tipo del equipo
      * @param ubicacion ubicación física en donde se instala
@@ -46,7 +50,7 @@ public class EquipoController {
                               double costoInicial, Equipo.EstadoEquipo estado,
                               String modelo, String dimensiones, double peso) {
 
-        if (id <= 0) return "El ID debe ser mayor que cero.";
+        if (id < 0) return "El ID no puede ser negativo.";
 
         if (descripcion.isBlank() || tipo.isBlank() || ubicacion.isBlank() ||
             fabricante.isBlank() || serie.isBlank()) {
@@ -62,13 +66,28 @@ public class EquipoController {
         if (dimensiones == null || dimensiones.isBlank()) return "Debe indicar dimensiones.";
         if (peso <= 0) return "El peso debe ser mayor que cero.";
 
+        IdAllocator ids = SistemaMantenimiento.getInstancia().getIdAllocator();
+        boolean registrando = SistemaMantenimiento.getInstancia().getDiario().isActivo();
+        if (id == 0) {
+            id = ids.siguiente(IdAllocator.Secuencia.EQUIPO);
+        } else if (registrando && !ids.reclamar(IdAllocator.Secuencia.EQUIPO, id)) {
+            return "El ID " + id + " ya fue asignado por el sistema; deje el campo vacío para obtener uno nuevo.";
+        }
+
         Equipo nuevo = new Equipo(
                 id, descripcion, tipo, ubicacion, fabricante, serie,
                 fechaAdquisicion, fechaPuestaEnServicio, mesesVidaUtil,
                 costoInicial, estado, modelo, dimensiones, peso
         );
 
-        boolean agregado = equipoService.agregarEquipo(nuevo);
+        boolean agregado = SistemaMantenimiento.getInstancia().getDiario().aplicar(
+                equipoService.getCerrojos(), id,
+                () -> equipoService.agregarEquipo(nuevo),
+                DiarioOperaciones.Operacion.CREAR_EQUIPO,
+                out -> ReproductorDiario.escribirEquipo(out, nuevo));
+        if (agregado) {
+            ids.observar(IdAllocator.Secuencia.EQUIPO, id);
+        }
 
         return agregado ? "Equipo creado exitosamente."
                         : "Ya existe un equipo con ese ID.";
@@ -88,22 +107,32 @@ public class EquipoController {
      * Elimina un equipo verificando que no posea órdenes preventivas
      * o correctivas asociadas antes de su eliminación.
      *
+     * La verificación y la eliminación se hacen con el cerrojo del equipo
+     * tomado, el mismo que toman las altas de órdenes, por lo que ninguna
+     * orden nueva puede asociarse al equipo entre ambas.
+     *
      * @param id identificador del equipo a eliminar
      * @return mensaje indicando éxito o motivo de falla
      */
     public String eliminarEquipo(int id) {
 
-        int preventivas = equipoService.contarOrdenesPreventivas(id);
-        int correctivas = equipoService.contarOrdenesCorrectivas(id);
+        int[] asociadas = new int[2];
+        boolean eliminado = SistemaMantenimiento.getInstancia().getDiario().aplicar(
+                equipoService.getCerrojos(), id,
+                () -> {
+                    asociadas[0] = equipoService.contarOrdenesPreventivas(id);
+                    asociadas[1] = equipoService.contarOrdenesCorrectivas(id);
+                    return asociadas[0] == 0 && asociadas[1] == 0
+                            && equipoService.eliminarEquipoPorId(id);
+                },
+                DiarioOperaciones.Operacion.ELIMINAR_EQUIPO, out -> out.writeInt(id));
 
-        if (preventivas > 0 || correctivas > 0) {
+        if (asociadas[0] > 0 || asociadas[1] > 0) {
             return "No puede eliminarse — El equipo tiene "
-                    + preventivas + " preventivas y "
-                    + correctivas + " correctivas asociadas.";
+                    + asociadas[0] + " preventivas y "
+                    + asociadas[1] + " correctivas asociadas.";
         }
 
-        boolean eliminado = equipoService.eliminarEquipoPorId(id);
-
         return eliminado ? "Equipo eliminado exitosamente."
                           : "No se encontró el equipo.";
     }
@@ -116,28 +145,50 @@ public class EquipoController {
      * @return mensaje indicando resultado de la operación
      */
     public String actualizarUbicacion(int idEquipo, String nuevaUbicacion) {
-        return equipoService.actualizarUbicacion(idEquipo, nuevaUbicacion)
-                ? "Ubicación actualizada."
-                : "Equipo no encontrado.";
+        boolean ok = SistemaMantenimiento.getInstancia().getDiario().aplicar(
+                equipoService.getCerrojos(), idEquipo,
+                () -> equipoService.actualizarUbicacion(idEquipo, nuevaUbicacion),
+                DiarioOperaciones.Operacion.ACTUALIZAR_UBICACION_EQUIPO, out -> {
+                    out.writeInt(idEquipo);
+                    out.escribirTexto(nuevaUbicacion);
+                });
+
+        return ok ? "Ubicación actualizada."
+                  : "Equipo no encontrado.";
     }
 
     /**
      * Modifica el estado operativo del equipo si no posee solicitudes
      * de mantenimiento en proceso.
      *
+     * La verificación y el cambio se hacen con el cerrojo del equipo
+     * tomado, el mismo que toman las órdenes correctivas al registrarse o
+     * iniciar su atención.
+     *
      * @param idEquipo identificador del equipo
      * @param nuevoEstado estado operativo a establecer
      * @return mensaje indicando éxito o restricción
      */
     public String actualizarEstado(int idEquipo, Equipo.EstadoEquipo nuevoEstado) {
 
-        if (equipoService.tieneOrdenesEnProceso(idEquipo)) {
+        boolean[] enProceso = new boolean[1];
+        boolean ok = SistemaMantenimiento.getInstancia().getDiario().aplicar(
+                equipoService.getCerrojos(), idEquipo,
+                () -> {
+                    enProceso[0] = equipoService.tieneOrdenesEnProceso(idEquipo);
+                    return !enProceso[0] && equipoService.actualizarEstado(idEquipo, nuevoEstado);
+                },
+                DiarioOperaciones.Operacion.ACTUALIZAR_ESTADO_EQUIPO, out -> {
+                    out.writeInt(idEquipo);
+                    out.escribirEnum(nuevoEstado);
+                });
+
+        if (enProceso[0]) {
             return "No puede cambiar estado — el equipo tiene órdenes en proceso.";
         }
 
-        return equipoService.actualizarEstado(idEquipo, nuevoEstado)
-                ? "Estado actualizado."
-                : "Equipo no encontrado.";
+        return ok ? "Estado actualizado."
+                  : "Equipo no encontrado.";
     }
 
     /**
@@ -149,6 +200,34 @@ public class EquipoController {
         return equipoService.obtenerEquipos();
     }
 
+    /**
+     * Suscribe un oyente a las altas, bajas y modificaciones de equipos.
+     *
+     * @param oyente oyente a registrar
+     */
+    public void agregarOyenteEquipos(OyenteRepositorio<Equipo> oyente) {
+        equipoService.agregarOyenteEquipos(oyente);
+    }
+
+    /**
+     * Cancela la suscripción de un oyente.
+     *
+     * @param oyente oyente a quitar
+     */
+    public void quitarOyenteEquipos(OyenteRepositorio<Equipo> oyente) {
+        equipoService.quitarOyenteEquipos(oyente);
+    }
+
+    /**
+     * Servicio de equipos, para módulos que leen su información sin pasar
+     * por las validaciones del controlador (por ejemplo, los reportes).
+     *
+     * @return servicio de equipos de este controlador
+     */
+    EquipoService getEquipoService() {
+        return equipoService;
+    }
+
     /**
      * Asigna un programa preventivo a un equipo determinado.
      *
@@ -157,9 +236,16 @@ public class EquipoController {
      * @return mensaje con resultado de la asociación
      */
     public String asignarProgramaPreventivo(int idEquipo, ProgramaPreventivo programa) {
-        return equipoService.asignarProgramaPreventivo(idEquipo, programa)
-                ? "Programa preventivo asignado con éxito."
-                : "No se pudo asignar el programa.";
+        boolean ok = SistemaMantenimiento.getInstancia().getDiario().aplicar(
+                equipoService.getCerrojos(), idEquipo,
+                () -> equipoService.asignarProgramaPreventivo(idEquipo, programa),
+                DiarioOperaciones.Operacion.ASIGNAR_PROGRAMA_EQUIPO, out -> {
+                    out.writeInt(idEquipo);
+                    out.writeInt(programa == null ? 0 : programa.getIdPrograma());
+                });
+
+        return ok ? "Programa preventivo asignado con éxito."
+                  : "No se pudo asignar el programa.";
     }
 
     /**
@@ -170,17 +256,34 @@ public class EquipoController {
      * @return mensaje indicando éxito o falla de la operación
      */
     public String agregarComponente(int idEquipo, Equipo componente) {
-        Equipo principal = equipoService.buscarEquipoPorId(idEquipo);
-
-        if (principal == null) {
-            return "El equipo principal no existe.";
+        if (componente == null) {
+            return "Debe indicar un componente.";
         }
+        boolean ok = SistemaMantenimiento.getInstancia().getDiario().aplicar(
+                equipoService.getCerrojos(), idEquipo,
+                () -> equipoService.agregarComponente(idEquipo, componente),
+                DiarioOperaciones.Operacion.AGREGAR_COMPONENTE_EQUIPO, out -> {
+                    out.writeInt(idEquipo);
+                    ReproductorDiario.escribirEquipo(out, componente);
+                });
 
-        principal.agregarComponente(componente);
-        return "Componente añadido correctamente.";
+        return ok ? "Componente añadido correctamente."
+                  : "El equipo principal no existe.";
     }
-}
-
-
-
 
+    /**
+     * Incorpora los equipos restaurados desde una instantánea, sin validar
+     * ni registrar en el diario de operaciones.
+     *
+     * @param equipos equipos a incorporar
+     */
+    public void cargarEquipos(List<Equipo> equipos) {
+        int maximo = 0;
+        for (Equipo equipo : equipos) {
+            equipoService.agregarEquipo(equipo);
+            maximo = Math.max(maximo, equipo.getId());
+        }
+        SistemaMantenimiento.getInstancia().getIdAllocator()
+                .observar(IdAllocator.Secuencia.EQUIPO, maximo);
+    }
+}
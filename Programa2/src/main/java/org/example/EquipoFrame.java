@@ -4,7 +4,6 @@ import java.awt.*;
 import java.time.LocalDate;
 import java.util.List;
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
 
 /**
  * Ventana gráfica para la gestión de equipos.
@@ -26,8 +25,8 @@ public class EquipoFrame extends JFrame {
     /** Tabla de visualización de equipos registrados. */
     private JTable tabla;
 
-    /** Modelo utilizado para alimentar la tabla con datos dinámicos. */
-    private DefaultTableModel modeloTabla;
+    /** Modelo que lee los equipos del servicio y se actualiza con sus cambios. */
+    private ModeloTablaEntidades<Equipo> modeloTabla;
 
     /**
      * Constructor por defecto que instancia el frame usando la instancia
@@ -55,7 +54,7 @@ public class EquipoFrame extends JFrame {
         // ---- Panel de entrada de datos ----
         JPanel panel = new JPanel(new GridLayout(12, 2, 5, 5));
 
-        panel.add(new JLabel("ID:"));
+        panel.add(new JLabel("ID (vacío = automático):"));
         txtId = new JTextField(); panel.add(txtId);
 
         panel.add(new JLabel("Descripción:"));
@@ -100,11 +99,24 @@ public class EquipoFrame extends JFrame {
         add(btnRegistrar, BorderLayout.CENTER);
 
         // ---- Modelo de tabla ----
-        modeloTabla = new DefaultTableModel(
-                new Object[]{"ID","Descripción","Tipo","Ubicación","Fabricante","Estado"}, 0
+        modeloTabla = new ModeloTablaEntidades<>(
+                List.of(
+                        new ModeloTablaEntidades.Columna<>("ID", Equipo::getId),
+                        new ModeloTablaEntidades.Columna<>("Descripción", Equipo::getDescripcion),
+                        new ModeloTablaEntidades.Columna<>("Tipo", Equipo::getTipo),
+                        new ModeloTablaEntidades.Columna<>("Ubicación", Equipo::getUbicacion),
+                        new ModeloTablaEntidades.Columna<>("Fabricante", Equipo::getFabricante),
+                        new ModeloTablaEntidades.Columna<>("Estado", Equipo::getEstado)
+                ),
+                equipoController::obtenerEquipos,
+                equipoController::buscarEquipo,
+                Equipo::getId,
+                equipoController::agregarOyenteEquipos,
+                equipoController::quitarOyenteEquipos
         );
 
         tabla = new JTable(modeloTabla);
+        modeloTabla.conectarEncabezado(tabla);
         JScrollPane scroll = new JScrollPane(tabla);
         add(scroll, BorderLayout.SOUTH);
 
@@ -116,12 +128,21 @@ public class EquipoFrame extends JFrame {
         JButton btnUpdate = new JButton("Actualizar lista");
         btnUpdate.addActionListener(e -> cargarTabla());
 
+        JTextField txtFiltro = new JTextField(15);
+        modeloTabla.conectarFiltro(txtFiltro);
+
+        JProgressBar barraCarga = CargaEnSegundoPlano.crearBarraProgreso();
+        modeloTabla.setProgreso(barraCarga);
+
         botPanel.add(btnEliminar);
         botPanel.add(btnUpdate);
+        botPanel.add(new JLabel("Filtrar:"));
+        botPanel.add(txtFiltro);
+        botPanel.add(barraCarga);
 
         add(botPanel, BorderLayout.AFTER_LAST_LINE);
 
-        cargarTabla();
+        modeloTabla.conectar();
     }
 
     /**
@@ -131,7 +152,8 @@ public class EquipoFrame extends JFrame {
      */
     private void registrar() {
         try {
-            int id = Integer.parseInt(txtId.getText());
+            // Si el ID se deja vacío el controlador lo asigna automáticamente
+            int id = txtId.getText().isBlank() ? 0 : Integer.parseInt(txtId.getText());
             String desc = txtDesc.getText();
             String tipo = txtTipo.getText();
             String ubicacion = txtUbicacion.getText();
@@ -158,7 +180,6 @@ public class EquipoFrame extends JFrame {
             JOptionPane.showMessageDialog(this, result);
 
             limpiarCampos();
-            cargarTabla();
 
         } catch (NumberFormatException ex) {
             JOptionPane.showMessageDialog(this, "Error: Verifique que ID, peso, costo y vida útil sean números válidos.");
@@ -170,22 +191,20 @@ public class EquipoFrame extends JFrame {
 
     /**
      * Refresca los datos mostrados en la tabla consultando nuevamente
-     * la lista de equipos desde el controlador.
+     * la lista de equipos desde el controlador, en segundo plano. Las altas,
+     * bajas y modificaciones ya se reflejan solas, fila por fila.
      */
     private void cargarTabla() {
-        modeloTabla.setRowCount(0);
-        List<Equipo> lista = equipoController.obtenerEquipos();
-
-        for (Equipo e : lista) {
-            modeloTabla.addRow(new Object[]{
-                    e.getId(),
-                    e.getDescripcion(),
-                    e.getTipo(),
-                    e.getUbicacion(),
-                    e.getFabricante(),
-                    e.getEstado()
-            });
-        }
+        modeloTabla.recalcular();
+    }
+
+    /**
+     * Deja de escuchar los cambios de los equipos al cerrar la ventana.
+     */
+    @Override
+    public void dispose() {
+        modeloTabla.desconectar();
+        super.dispose();
     }
 
     /**
@@ -199,7 +218,7 @@ public class EquipoFrame extends JFrame {
             return;
         }
 
-        int id = (int) modeloTabla.getValueAt(fila, 0);
+        int id = modeloTabla.getId(fila);
 
         int confirmacion = JOptionPane.showConfirmDialog(
             this,
@@ -211,7 +230,6 @@ public class EquipoFrame extends JFrame {
         if (confirmacion == JOptionPane.YES_OPTION) {
             String resultado = equipoController.eliminarEquipo(id);
             JOptionPane.showMessageDialog(this, resultado);
-            cargarTabla();
         }
     }
 
@@ -1,6 +1,5 @@
 package org.example;
 
-import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -10,14 +9,20 @@ import java.util.List;
  */
 public class EquipoService {
 
-    /** Lista interna que almacena los equipos registrados. */
-    private List<Equipo> equipos;
+    /** Repositorio indexado por ID que almacena los equipos registrados. */
+    private Repository<Equipo> equipos;
+
+    /** Cerrojos por ID que serializan las modificaciones de cada equipo. */
+    private final CerrojosPorId cerrojos = new CerrojosPorId();
+
+    /** Bus donde se publican los cambios de estado; el sistema asigna el compartido. */
+    private BusEventos bus = new BusEventos();
 
     /**
      * Construye el servicio inicializando la colección de equipos.
      */
     public EquipoService() {
-        this.equipos = new ArrayList<>();
+        this.equipos = new Repository<>(Equipo::getId);
     }
 
     /**
@@ -28,13 +33,7 @@ public class EquipoService {
      * @return true si se agrega correctamente; false si el ID ya existe
      */
     public boolean agregarEquipo(Equipo equipo) {
-        for (Equipo e : equipos) {
-            if (e.getId() == equipo.getId()) {
-                return false; // ID duplicado
-            }
-        }
-        equipos.add(equipo);
-        return true;
+        return equipos.agregar(equipo);
     }
 
     /**
@@ -43,7 +42,7 @@ public class EquipoService {
      * @return colección actual de equipos
      */
     public List<Equipo> obtenerEquipos() {
-        return equipos;
+        return equipos.obtenerTodos();
     }
 
     /**
@@ -53,12 +52,7 @@ public class EquipoService {
      * @return el equipo encontrado o null si no existe
      */
     public Equipo buscarEquipoPorId(int id) {
-        for (Equipo e : equipos) {
-            if (e.getId() == id) {
-                return e;
-            }
-        }
-        return null;
+        return equipos.buscar(id);
     }
 
     /**
@@ -68,12 +62,7 @@ public class EquipoService {
      * @return true si se eliminó; false si no se encontró
      */
     public boolean eliminarEquipoPorId(int id) {
-        Equipo equipo = buscarEquipoPorId(id);
-        if (equipo != null) {
-            equipos.remove(equipo);
-            return true;
-        }
-        return false;
+        return equipos.eliminar(id) != null;
     }
 
     /**
@@ -84,12 +73,15 @@ public class EquipoService {
      * @return true si se actualizó; false si no se encontró
      */
     public boolean actualizarUbicacion(int idEquipo, String nuevaUbicacion) {
-        Equipo equipo = buscarEquipoPorId(idEquipo);
-        if (equipo != null) {
-            equipo.setUbicacion(nuevaUbicacion);
-            return true;
-        }
-        return false;
+        return cerrojos.ejecutar(idEquipo, () -> {
+            Equipo equipo = buscarEquipoPorId(idEquipo);
+            if (equipo != null) {
+                equipo.setUbicacion(nuevaUbicacion);
+                equipos.notificarActualizacion(equipo);
+                return true;
+            }
+            return false;
+        });
     }
 
     /**
@@ -100,12 +92,15 @@ public class EquipoService {
      * @return true si se actualizó; false si no se encontró
      */
     public boolean actualizarFabricante(int idEquipo, String nuevoFabricante) {
-        Equipo equipo = buscarEquipoPorId(idEquipo);
-        if (equipo != null) {
-            equipo.setFabricante(nuevoFabricante);
-            return true;
-        }
-        return false;
+        return cerrojos.ejecutar(idEquipo, () -> {
+            Equipo equipo = buscarEquipoPorId(idEquipo);
+            if (equipo != null) {
+                equipo.setFabricante(nuevoFabricante);
+                equipos.notificarActualizacion(equipo);
+                return true;
+            }
+            return false;
+        });
     }
 
     /**
@@ -116,12 +111,19 @@ public class EquipoService {
      * @return true si se actualizó; false si no existe
      */
     public boolean actualizarEstado(int idEquipo, Equipo.EstadoEquipo nuevoEstado) {
-        Equipo equipo = buscarEquipoPorId(idEquipo);
-        if (equipo != null) {
-            equipo.setEstado(nuevoEstado);
-            return true;
-        }
-        return false;
+        return cerrojos.ejecutar(idEquipo, () -> {
+            Equipo equipo = buscarEquipoPorId(idEquipo);
+            if (equipo != null) {
+                Equipo.EstadoEquipo anterior = equipo.getEstado();
+                equipo.setEstado(nuevoEstado);
+                equipos.notificarActualizacion(equipo);
+                if (anterior != nuevoEstado) {
+                    bus.publicar(new EventoDominio.EquipoEstadoCambiado(idEquipo, anterior, nuevoEstado));
+                }
+                return true;
+            }
+            return false;
+        });
     }
 
     /**
@@ -132,12 +134,77 @@ public class EquipoService {
      * @return true si se asignó; false si no se encontró el equipo
      */
     public boolean asignarProgramaPreventivo(int idEquipo, ProgramaPreventivo programa) {
-        Equipo equipo = buscarEquipoPorId(idEquipo);
-        if (equipo != null) {
-            equipo.setProgramaPreventivo(programa);
-            return true;
-        }
-        return false;
+        return cerrojos.ejecutar(idEquipo, () -> {
+            Equipo equipo = buscarEquipoPorId(idEquipo);
+            if (equipo != null) {
+                equipo.setProgramaPreventivo(programa);
+                equipos.notificarActualizacion(equipo);
+                return true;
+            }
+            return false;
+        });
+    }
+
+    /**
+     * Agrega un componente subordinado a un equipo registrado.
+     *
+     * @param idEquipo   ID del equipo principal
+     * @param componente equipo que se agrega como componente
+     * @return true si se agregó; false si no se encontró el equipo
+     */
+    public boolean agregarComponente(int idEquipo, Equipo componente) {
+        return cerrojos.ejecutar(idEquipo, () -> {
+            Equipo equipo = buscarEquipoPorId(idEquipo);
+            if (equipo != null) {
+                equipo.agregarComponente(componente);
+                equipos.notificarActualizacion(equipo);
+                return true;
+            }
+            return false;
+        });
+    }
+
+    // ============================================
+    //      AVISOS DE CAMBIOS
+    // ============================================
+
+    /**
+     * Suscribe un oyente a las altas, bajas y modificaciones de equipos.
+     *
+     * @param oyente oyente a registrar
+     */
+    public void agregarOyenteEquipos(OyenteRepositorio<Equipo> oyente) {
+        equipos.agregarOyente(oyente);
+    }
+
+    /**
+     * Cancela la suscripción de un oyente.
+     *
+     * @param oyente oyente a quitar
+     */
+    public void quitarOyenteEquipos(OyenteRepositorio<Equipo> oyente) {
+        equipos.quitarOyente(oyente);
+    }
+
+    /**
+     * Asigna el bus donde se publican los eventos del servicio.
+     *
+     * @param bus bus de eventos del sistema
+     */
+    void setBusEventos(BusEventos bus) {
+        this.bus = bus;
+    }
+
+    /**
+     * Cerrojos por ID de equipo, para ejecutar otra acción (por ejemplo,
+     * registrarla en el diario de operaciones) ordenada con sus cambios.
+     * Las altas de órdenes toman el del equipo asociado, de modo que una
+     * validación hecha con él tomado no cambia hasta liberarlo.
+     *
+     * @return cerrojos de los equipos
+     */
+    public CerrojosPorId getCerrojos() {
+        return cerrojos;
     }
 
     // ============================================
@@ -151,12 +218,9 @@ public class EquipoService {
      * @return número de órdenes preventivas vinculadas
      */
     public int contarOrdenesPreventivas(int idEquipo) {
-        return (int) SistemaMantenimiento.getInstancia()
+        return SistemaMantenimiento.getInstancia()
                 .getOrdenPreventivaController()
-                .obtenerOrdenes()
-                .stream()
-                .filter(op -> op.getEquipoAsociado().getId() == idEquipo)
-                .count();
+                .contarOrdenesPorEquipo(idEquipo);
     }
 
     /**
@@ -166,12 +230,9 @@ public class EquipoService {
      * @return número de órdenes correctivas vinculadas
      */
     public int contarOrdenesCorrectivas(int idEquipo) {
-        return (int) SistemaMantenimiento.getInstancia()
+        return SistemaMantenimiento.getInstancia()
                 .getOrdenCorrectivaController()
-                .obtenerOrdenes()
-                .stream()
-                .filter(oc -> oc.getEquipoAsociado().getId() == idEquipo)
-                .count();
+                .contarOrdenesPorEquipo(idEquipo);
     }
 
     /**
@@ -184,10 +245,7 @@ public class EquipoService {
     public boolean tieneOrdenesEnProceso(int idEquipo) {
         return SistemaMantenimiento.getInstancia()
                 .getOrdenCorrectivaController()
-                .obtenerOrdenes()
-                .stream()
-                .anyMatch(oc -> oc.getEquipoAsociado().getId() == idEquipo &&
-                             oc.getEstado() == OrdenCorrectiva.EstadoOrden.EN_PROCESO);
+                .contarOrdenesPorEquipo(idEquipo, OrdenCorrectiva.EstadoOrden.EN_PROCESO) > 0;
     }
 }
 
@@ -0,0 +1,313 @@
+package org.example;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Document;
+import javax.swing.text.Element;
+
+/**
+ * Escritor de documentos PDF de texto plano, de varias páginas, que se
+ * genera a medida que se escriben las líneas.
+ *
+ * Las líneas que no entran en el ancho de la página se parten y, al
+ * llegar al margen inferior, se cierra la página: su contenido se
+ * comprime con Deflate y se escribe en el destino junto con el objeto de
+ * la página, registrando en ese momento la posición de cada objeto para la
+ * tabla xref. En memoria solo queda la página en curso, de modo que un
+ * reporte de cualquier longitud se escribe con memoria acotada.
+ *
+ * Como es un {@link Writer}, los reportes que escriben en un
+ * {@link Appendable} pueden dirigirse directamente al PDF. El documento
+ * queda completo al invocar {@link #close()}, que también cierra el destino.
+ *
+ * Usa la fuente Helvetica con codificación WinAnsi; los caracteres fuera
+ * de ella se reemplazan por '?'.
+ */
+public class EscritorPdf extends Writer {
+
+    private static final int ANCHO_PAGINA = 595;
+    private static final int ALTO_PAGINA = 842;
+    private static final int MARGEN = 40;
+
+    /** Ancho medio de un carácter de Helvetica, en proporción al tamaño de la fuente. */
+    private static final double ANCHO_CARACTER = 0.55;
+
+    private static final Charset WIN_ANSI = Charset.forName("windows-1252");
+
+    /** Cierre de cada línea: mostrar el texto y pasar a la línea siguiente. */
+    private static final byte[] FIN_LINEA = ") Tj T*\n".getBytes(StandardCharsets.US_ASCII);
+
+    /** Objetos fijos; las páginas usan dos objetos cada una a partir de {@link #PRIMER_OBJETO_PAGINA}. */
+    private static final int OBJETO_CATALOGO = 1;
+    private static final int OBJETO_PAGINAS = 2;
+    private static final int OBJETO_FUENTE = 3;
+    private static final int PRIMER_OBJETO_PAGINA = 4;
+
+    private final ContadorBytes salida;
+    private final int tamanioFuente;
+    private final int interlineado;
+    private final int lineasPorPagina;
+    private final int caracteresPorLinea;
+
+    /** Posición en el archivo de cada objeto, indexada por número de objeto. */
+    private long[] posiciones = new long[64];
+    private int objetos = OBJETO_FUENTE;
+    private int paginas;
+
+    /** Contenido comprimido de la página en curso. */
+    private final ByteArrayOutputStream contenido = new ByteArrayOutputStream(8 * 1024);
+    private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+    private DeflaterOutputStream pagina;
+    private int lineasEnPagina;
+
+    /** Línea en curso recibida por {@link #write(char[], int, int)}. */
+    private final StringBuilder linea = new StringBuilder();
+
+    private boolean cerrado;
+
+    /**
+     * Crea el documento y escribe su encabezado.
+     *
+     * @param destino       flujo donde se escribe el PDF; se cierra con {@link #close()}
+     * @param tamanioFuente tamaño de la fuente en puntos
+     * @param interlineado  distancia entre líneas en puntos
+     * @throws IOException si falla la escritura
+     */
+    public EscritorPdf(OutputStream destino, int tamanioFuente, int interlineado) throws IOException {
+        this.salida = new ContadorBytes(new BufferedOutputStream(destino, 64 * 1024));
+        this.tamanioFuente = tamanioFuente;
+        this.interlineado = interlineado;
+        this.lineasPorPagina = (ALTO_PAGINA - 2 * MARGEN) / interlineado + 1;
+        this.caracteresPorLinea = (int) ((ANCHO_PAGINA - 2 * MARGEN) / (tamanioFuente * ANCHO_CARACTER));
+
+        ascii("%PDF-1.4\n");
+        // Marca binaria recomendada para que el archivo no se trate como texto
+        salida.write(new byte[]{'%', (byte) 0xE2, (byte) 0xE3, (byte) 0xCF, (byte) 0xD3, '\n'});
+
+        iniciarObjeto(OBJETO_CATALOGO);
+        ascii("<< /Type /Catalog /Pages " + OBJETO_PAGINAS + " 0 R >>\nendobj\n");
+        iniciarObjeto(OBJETO_FUENTE);
+        ascii("<< /Type /Font /Subtype /Type1 /BaseFont /Helvetica /Encoding /WinAnsiEncoding >>\nendobj\n");
+    }
+
+    /**
+     * Agrega una línea de texto, partiéndola si excede el ancho de la página.
+     *
+     * @param texto línea sin saltos de línea
+     * @throws IOException si falla la escritura
+     */
+    public void escribirLinea(CharSequence texto) throws IOException {
+        asegurarAbierto();
+        int largo = texto.length();
+        if (largo == 0) {
+            emitir("");
+            return;
+        }
+        for (int inicio = 0; inicio < largo; inicio += caracteresPorLinea) {
+            emitir(texto.subSequence(inicio, Math.min(largo, inicio + caracteresPorLinea)));
+        }
+    }
+
+    /**
+     * Agrega las líneas de un documento de texto (por ejemplo, el de un
+     * {@code JTextArea}) una por una, sin copiar antes todo su contenido.
+     *
+     * @param documento documento a exportar
+     * @throws IOException si falla la escritura
+     */
+    public void escribirLineas(Document documento) throws IOException {
+        Element raiz = documento.getDefaultRootElement();
+        try {
+            for (int i = 0; i < raiz.getElementCount(); i++) {
+                Element elemento = raiz.getElement(i);
+                int inicio = elemento.getStartOffset();
+                // La última línea termina en el salto implícito del final del documento
+                int fin = Math.min(elemento.getEndOffset(), documento.getLength());
+                String texto = documento.getText(inicio, fin - inicio);
+                escribirLinea(texto.endsWith("\n") ? texto.substring(0, texto.length() - 1) : texto);
+            }
+        } catch (BadLocationException e) {
+            throw new IOException("El documento cambió durante la exportación.", e);
+        }
+    }
+
+    @Override
+    public void write(char[] cbuf, int off, int len) throws IOException {
+        asegurarAbierto();
+        for (int i = off; i < off + len; i++) {
+            char c = cbuf[i];
+            if (c == '\n') {
+                escribirLinea(linea);
+                linea.setLength(0);
+            } else if (c != '\r') {
+                linea.append(c);
+            }
+        }
+    }
+
+    /** Vacía el destino; la página en curso se escribe recién al completarse. */
+    @Override
+    public void flush() throws IOException {
+        salida.flush();
+    }
+
+    /**
+     * Escribe la última página, el árbol de páginas, la tabla xref y el
+     * trailer, y cierra el destino.
+     */
+    @Override
+    public void close() throws IOException {
+        if (cerrado) return;
+        try {
+            if (linea.length() > 0) {
+                escribirLinea(linea);
+                linea.setLength(0);
+            }
+            if (pagina != null || paginas == 0) {
+                if (pagina == null) abrirPagina();
+                cerrarPagina();
+            }
+
+            iniciarObjeto(OBJETO_PAGINAS);
+            ascii("<< /Type /Pages /Count " + paginas + " /Kids [");
+            for (int k = 0; k < paginas; k++) {
+                ascii((k % 16 == 0 ? "\n" : " ") + objetoPagina(k) + " 0 R");
+            }
+            ascii(" ] >>\nendobj\n");
+
+            long inicioXref = salida.posicion;
+            ascii("xref\n0 " + (objetos + 1) + "\n0000000000 65535 f \n");
+            StringBuilder entradas = new StringBuilder(20 * 64);
+            for (int n = 1; n <= objetos; n++) {
+                entradas.append(String.format("%010d 00000 n \n", posiciones[n]));
+                if (entradas.length() >= 20 * 64) {
+                    ascii(entradas.toString());
+                    entradas.setLength(0);
+                }
+            }
+            ascii(entradas.toString());
+            ascii("trailer\n<< /Size " + (objetos + 1) + " /Root " + OBJETO_CATALOGO + " 0 R >>\nstartxref\n"
+                    + inicioXref + "\n%%EOF\n");
+        } finally {
+            cerrado = true;
+            deflater.end();
+            salida.close();
+        }
+    }
+
+    /** @return páginas escritas hasta ahora, incluida la que está en curso */
+    public int getPaginas() {
+        return paginas + (pagina != null ? 1 : 0);
+    }
+
+    // ======================================================
+    // PÁGINAS
+    // ======================================================
+
+    private void emitir(CharSequence texto) throws IOException {
+        if (pagina == null) abrirPagina();
+
+        // Cadena literal de PDF: se escapan paréntesis y barras invertidas
+        byte[] bytes = texto.toString().getBytes(WIN_ANSI);
+        byte[] operacion = new byte[2 * bytes.length + 9];
+        int n = 0;
+        operacion[n++] = '(';
+        for (byte b : bytes) {
+            if (b == '(' || b == ')' || b == '\\') operacion[n++] = '\\';
+            operacion[n++] = b;
+        }
+        for (byte b : FIN_LINEA) {
+            operacion[n++] = b;
+        }
+        pagina.write(operacion, 0, n);
+
+        if (++lineasEnPagina == lineasPorPagina) {
+            cerrarPagina();
+        }
+    }
+
+    private void abrirPagina() throws IOException {
+        contenido.reset();
+        deflater.reset();
+        pagina = new DeflaterOutputStream(contenido, deflater, 4096);
+        lineasEnPagina = 0;
+        pagina.write(("BT\n/F1 " + tamanioFuente + " Tf\n" + interlineado + " TL\n"
+                + MARGEN + " " + (ALTO_PAGINA - MARGEN) + " Td\n").getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /** Comprime y escribe el contenido de la página en curso y su objeto de página. */
+    private void cerrarPagina() throws IOException {
+        pagina.write("ET\n".getBytes(StandardCharsets.US_ASCII));
+        pagina.finish();
+        pagina = null;
+
+        int objetoContenido = objetoPagina(paginas) - 1;
+        iniciarObjeto(objetoContenido);
+        ascii("<< /Length " + contenido.size() + " /Filter /FlateDecode >>\nstream\n");
+        contenido.writeTo(salida);
+        ascii("\nendstream\nendobj\n");
+
+        iniciarObjeto(objetoPagina(paginas));
+        ascii("<< /Type /Page /Parent " + OBJETO_PAGINAS + " 0 R /MediaBox [0 0 " + ANCHO_PAGINA + " "
+                + ALTO_PAGINA + "] /Contents " + objetoContenido + " 0 R /Resources << /Font << /F1 "
+                + OBJETO_FUENTE + " 0 R >> >> >>\nendobj\n");
+        paginas++;
+    }
+
+    /** Número del objeto de la página k (desde 0); su contenido es el objeto anterior. */
+    private static int objetoPagina(int k) {
+        return PRIMER_OBJETO_PAGINA + 2 * k + 1;
+    }
+
+    // ======================================================
+    // ESCRITURA DE BAJO NIVEL
+    // ======================================================
+
+    private void iniciarObjeto(int numero) throws IOException {
+        if (numero >= posiciones.length) {
+            posiciones = Arrays.copyOf(posiciones, Math.max(numero + 1, posiciones.length << 1));
+        }
+        posiciones[numero] = salida.posicion;
+        objetos = Math.max(objetos, numero);
+        ascii(numero + " 0 obj\n");
+    }
+
+    private void ascii(String texto) throws IOException {
+        salida.write(texto.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private void asegurarAbierto() throws IOException {
+        if (cerrado) throw new IOException("El documento PDF ya está cerrado.");
+    }
+
+    /** Flujo que lleva la cuenta de los bytes escritos, para las posiciones de la tabla xref. */
+    private static final class ContadorBytes extends FilterOutputStream {
+        long posicion;
+
+        ContadorBytes(OutputStream destino) {
+            super(destino);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            posicion++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            posicion += len;
+        }
+    }
+}
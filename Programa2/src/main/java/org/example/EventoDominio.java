@@ -0,0 +1,377 @@
+package org.example;
+
+import java.time.LocalDate;
+
+/**
+ * Evento publicado por los servicios en el {@link BusEventos} cuando cambian
+ * datos del dominio. Cada evento es inmutable y lleva los identificadores y
+ * los valores del cambio, no las entidades, de modo que quien lo recibe en
+ * otro hilo no lee un objeto que sigue cambiando.
+ *
+ * Los eventos de un mismo equipo o de una misma orden se publican con el
+ * cerrojo de su ID y llegan en el orden de los cambios. El stock no usa
+ * cerrojos: los {@link StockMovido} y {@link DisponibleCambiado} de un
+ * mismo repuesto publicados desde hilos distintos pueden llegar en otro
+ * orden.
+ */
+public interface EventoDominio {
+
+    // ======================================================
+    // EQUIPOS
+    // ======================================================
+
+    /** Cambió el estado operativo de un equipo. */
+    final class EquipoEstadoCambiado implements EventoDominio {
+        private final int idEquipo;
+        private final Equipo.EstadoEquipo anterior;
+        private final Equipo.EstadoEquipo nuevo;
+
+        public EquipoEstadoCambiado(int idEquipo, Equipo.EstadoEquipo anterior, Equipo.EstadoEquipo nuevo) {
+            this.idEquipo = idEquipo;
+            this.anterior = anterior;
+            this.nuevo = nuevo;
+        }
+
+        public int getIdEquipo() { return idEquipo; }
+        public Equipo.EstadoEquipo getAnterior() { return anterior; }
+        public Equipo.EstadoEquipo getNuevo() { return nuevo; }
+
+        @Override
+        public String toString() {
+            return "EquipoEstadoCambiado[equipo=" + idEquipo + ", " + anterior + " -> " + nuevo + "]";
+        }
+    }
+
+    // ======================================================
+    // ÓRDENES CORRECTIVAS
+    // ======================================================
+
+    /** Se registró una orden correctiva. */
+    final class OrdenCreada implements EventoDominio {
+        private final int idOrden;
+        private final int idEquipo;
+        private final OrdenCorrectiva.EstadoOrden estado;
+        private final OrdenCorrectiva.Prioridad prioridad;
+
+        /**
+         * @param idEquipo equipo de la orden, o 0 si no tiene
+         */
+        public OrdenCreada(int idOrden, int idEquipo,
+                           OrdenCorrectiva.EstadoOrden estado, OrdenCorrectiva.Prioridad prioridad) {
+            this.idOrden = idOrden;
+            this.idEquipo = idEquipo;
+            this.estado = estado;
+            this.prioridad = prioridad;
+        }
+
+        public int getIdOrden() { return idOrden; }
+        public int getIdEquipo() { return idEquipo; }
+        public OrdenCorrectiva.EstadoOrden getEstado() { return estado; }
+        public OrdenCorrectiva.Prioridad getPrioridad() { return prioridad; }
+
+        @Override
+        public String toString() {
+            return "OrdenCreada[orden=" + idOrden + ", equipo=" + idEquipo + ", " + estado + ", " + prioridad + "]";
+        }
+    }
+
+    /** Se eliminó una orden correctiva. */
+    final class OrdenEliminada implements EventoDominio {
+        private final int idOrden;
+        private final int idEquipo;
+        private final OrdenCorrectiva.EstadoOrden estado;
+
+        /**
+         * @param idEquipo equipo de la orden, o 0 si no tiene
+         * @param estado   estado que tenía la orden al eliminarla
+         */
+        public OrdenEliminada(int idOrden, int idEquipo, OrdenCorrectiva.EstadoOrden estado) {
+            this.idOrden = idOrden;
+            this.idEquipo = idEquipo;
+            this.estado = estado;
+        }
+
+        public int getIdOrden() { return idOrden; }
+        public int getIdEquipo() { return idEquipo; }
+        public OrdenCorrectiva.EstadoOrden getEstado() { return estado; }
+
+        @Override
+        public String toString() {
+            return "OrdenEliminada[orden=" + idOrden + ", equipo=" + idEquipo + ", " + estado + "]";
+        }
+    }
+
+    /** Una orden correctiva cambió de estado (iniciada, completada, no reparada). */
+    final class OrdenEstadoCambiado implements EventoDominio {
+        private final int idOrden;
+        private final int idEquipo;
+        private final OrdenCorrectiva.EstadoOrden anterior;
+        private final OrdenCorrectiva.EstadoOrden nuevo;
+
+        /**
+         * @param idEquipo equipo de la orden, o 0 si no tiene
+         */
+        public OrdenEstadoCambiado(int idOrden, int idEquipo,
+                                   OrdenCorrectiva.EstadoOrden anterior, OrdenCorrectiva.EstadoOrden nuevo) {
+            this.idOrden = idOrden;
+            this.idEquipo = idEquipo;
+            this.anterior = anterior;
+            this.nuevo = nuevo;
+        }
+
+        public int getIdOrden() { return idOrden; }
+        public int getIdEquipo() { return idEquipo; }
+        public OrdenCorrectiva.EstadoOrden getAnterior() { return anterior; }
+        public OrdenCorrectiva.EstadoOrden getNuevo() { return nuevo; }
+
+        @Override
+        public String toString() {
+            return "OrdenEstadoCambiado[orden=" + idOrden + ", " + anterior + " -> " + nuevo + "]";
+        }
+    }
+
+    /**
+     * Se finalizó una orden correctiva. Se publica después del
+     * {@link OrdenEstadoCambiado} a COMPLETADA de la misma orden.
+     */
+    final class OrdenCompletada implements EventoDominio {
+        private final int idOrden;
+        private final int idEquipo;
+        private final double costo;
+        private final double horasTrabajadas;
+
+        /**
+         * @param idEquipo equipo de la orden, o 0 si no tiene
+         */
+        public OrdenCompletada(int idOrden, int idEquipo, double costo, double horasTrabajadas) {
+            this.idOrden = idOrden;
+            this.idEquipo = idEquipo;
+            this.costo = costo;
+            this.horasTrabajadas = horasTrabajadas;
+        }
+
+        public int getIdOrden() { return idOrden; }
+        public int getIdEquipo() { return idEquipo; }
+        public double getCosto() { return costo; }
+        public double getHorasTrabajadas() { return horasTrabajadas; }
+
+        @Override
+        public String toString() {
+            return "OrdenCompletada[orden=" + idOrden + ", costo=" + costo + ", horas=" + horasTrabajadas + "]";
+        }
+    }
+
+    /**
+     * Cambió el costo de reparación de una orden, al finalizarla o al
+     * corregirlo. Al eliminar una orden con costo se publica con nuevo
+     * costo 0, antes del {@link OrdenEliminada}.
+     */
+    final class CostoOrdenCambiado implements EventoDominio {
+        private final int idOrden;
+        private final int idEquipo;
+        private final double anterior;
+        private final double nuevo;
+
+        /**
+         * @param idEquipo equipo de la orden, o 0 si no tiene
+         */
+        public CostoOrdenCambiado(int idOrden, int idEquipo, double anterior, double nuevo) {
+            this.idOrden = idOrden;
+            this.idEquipo = idEquipo;
+            this.anterior = anterior;
+            this.nuevo = nuevo;
+        }
+
+        public int getIdOrden() { return idOrden; }
+        public int getIdEquipo() { return idEquipo; }
+        public double getAnterior() { return anterior; }
+        public double getNuevo() { return nuevo; }
+
+        @Override
+        public String toString() {
+            return "CostoOrdenCambiado[orden=" + idOrden + ", " + anterior + " -> " + nuevo + "]";
+        }
+    }
+
+    // ======================================================
+    // ÓRDENES PREVENTIVAS
+    // ======================================================
+
+    /** Se registró una orden preventiva, manual o generada por un programa. */
+    final class OrdenPreventivaCreada implements EventoDominio {
+        private final int idOrden;
+        private final int idEquipo;
+        private final LocalDate fechaProgramada;
+        private final OrdenPreventiva.EstadoOrden estado;
+
+        /**
+         * @param idEquipo equipo de la orden, o 0 si no tiene
+         */
+        public OrdenPreventivaCreada(int idOrden, int idEquipo,
+                                     LocalDate fechaProgramada, OrdenPreventiva.EstadoOrden estado) {
+            this.idOrden = idOrden;
+            this.idEquipo = idEquipo;
+            this.fechaProgramada = fechaProgramada;
+            this.estado = estado;
+        }
+
+        public int getIdOrden() { return idOrden; }
+        public int getIdEquipo() { return idEquipo; }
+        public LocalDate getFechaProgramada() { return fechaProgramada; }
+        public OrdenPreventiva.EstadoOrden getEstado() { return estado; }
+
+        @Override
+        public String toString() {
+            return "OrdenPreventivaCreada[orden=" + idOrden + ", equipo=" + idEquipo + ", " + fechaProgramada + ", " + estado + "]";
+        }
+    }
+
+    /** Se eliminó una orden preventiva. */
+    final class OrdenPreventivaEliminada implements EventoDominio {
+        private final int idOrden;
+        private final int idEquipo;
+        private final OrdenPreventiva.EstadoOrden estado;
+
+        /**
+         * @param idEquipo equipo de la orden, o 0 si no tiene
+         * @param estado   estado que tenía la orden al eliminarla
+         */
+        public OrdenPreventivaEliminada(int idOrden, int idEquipo, OrdenPreventiva.EstadoOrden estado) {
+            this.idOrden = idOrden;
+            this.idEquipo = idEquipo;
+            this.estado = estado;
+        }
+
+        public int getIdOrden() { return idOrden; }
+        public int getIdEquipo() { return idEquipo; }
+        public OrdenPreventiva.EstadoOrden getEstado() { return estado; }
+
+        @Override
+        public String toString() {
+            return "OrdenPreventivaEliminada[orden=" + idOrden + ", equipo=" + idEquipo + ", " + estado + "]";
+        }
+    }
+
+    /** Una orden preventiva cambió de estado (iniciada, completada, cancelada). */
+    final class OrdenPreventivaEstadoCambiado implements EventoDominio {
+        private final int idOrden;
+        private final int idEquipo;
+        private final OrdenPreventiva.EstadoOrden anterior;
+        private final OrdenPreventiva.EstadoOrden nuevo;
+
+        /**
+         * @param idEquipo equipo de la orden, o 0 si no tiene
+         */
+        public OrdenPreventivaEstadoCambiado(int idOrden, int idEquipo,
+                                             OrdenPreventiva.EstadoOrden anterior, OrdenPreventiva.EstadoOrden nuevo) {
+            this.idOrden = idOrden;
+            this.idEquipo = idEquipo;
+            this.anterior = anterior;
+            this.nuevo = nuevo;
+        }
+
+        public int getIdOrden() { return idOrden; }
+        public int getIdEquipo() { return idEquipo; }
+        public OrdenPreventiva.EstadoOrden getAnterior() { return anterior; }
+        public OrdenPreventiva.EstadoOrden getNuevo() { return nuevo; }
+
+        @Override
+        public String toString() {
+            return "OrdenPreventivaEstadoCambiado[orden=" + idOrden + ", " + anterior + " -> " + nuevo + "]";
+        }
+    }
+
+    /**
+     * Se completó una orden preventiva. Se publica después del
+     * {@link OrdenPreventivaEstadoCambiado} a COMPLETADA de la misma orden.
+     */
+    final class OrdenPreventivaCompletada implements EventoDominio {
+        private final int idOrden;
+        private final int idEquipo;
+        private final LocalDate fechaEjecucion;
+        private final double horasTrabajadas;
+
+        /**
+         * @param idEquipo equipo de la orden, o 0 si no tiene
+         */
+        public OrdenPreventivaCompletada(int idOrden, int idEquipo, LocalDate fechaEjecucion, double horasTrabajadas) {
+            this.idOrden = idOrden;
+            this.idEquipo = idEquipo;
+            this.fechaEjecucion = fechaEjecucion;
+            this.horasTrabajadas = horasTrabajadas;
+        }
+
+        public int getIdOrden() { return idOrden; }
+        public int getIdEquipo() { return idEquipo; }
+        public LocalDate getFechaEjecucion() { return fechaEjecucion; }
+        public double getHorasTrabajadas() { return horasTrabajadas; }
+
+        @Override
+        public String toString() {
+            return "OrdenPreventivaCompletada[orden=" + idOrden + ", " + fechaEjecucion + ", horas=" + horasTrabajadas + "]";
+        }
+    }
+
+    // ======================================================
+    // INVENTARIO
+    // ======================================================
+
+    /** Se aplicó un movimiento de stock sobre un repuesto. */
+    final class StockMovido implements EventoDominio {
+        private final int idRepuesto;
+        private final MovimientoRepuesto.TipoMovimiento tipo;
+        private final int cantidad;
+        private final int stockResultante;
+
+        /**
+         * @param cantidad        unidades movidas (en un ajuste, la diferencia con signo)
+         * @param stockResultante stock leído justo después del movimiento; con
+         *                        movimientos simultáneos del mismo repuesto puede
+         *                        incluir ya el siguiente
+         */
+        public StockMovido(int idRepuesto, MovimientoRepuesto.TipoMovimiento tipo,
+                           int cantidad, int stockResultante) {
+            this.idRepuesto = idRepuesto;
+            this.tipo = tipo;
+            this.cantidad = cantidad;
+            this.stockResultante = stockResultante;
+        }
+
+        public int getIdRepuesto() { return idRepuesto; }
+        public MovimientoRepuesto.TipoMovimiento getTipo() { return tipo; }
+        public int getCantidad() { return cantidad; }
+        public int getStockResultante() { return stockResultante; }
+
+        @Override
+        public String toString() {
+            return "StockMovido[repuesto=" + idRepuesto + ", " + tipo + " " + cantidad + ", stock=" + stockResultante + "]";
+        }
+    }
+
+    /**
+     * Cambió el disponible de un repuesto sin movimiento de stock: se
+     * reservaron cantidades para una orden o se liberó una reserva.
+     */
+    final class DisponibleCambiado implements EventoDominio {
+        private final int idRepuesto;
+        private final int disponible;
+
+        /**
+         * @param disponible disponible leído justo después del cambio; con
+         *                   cambios simultáneos del mismo repuesto puede
+         *                   incluir ya el siguiente
+         */
+        public DisponibleCambiado(int idRepuesto, int disponible) {
+            this.idRepuesto = idRepuesto;
+            this.disponible = disponible;
+        }
+
+        public int getIdRepuesto() { return idRepuesto; }
+        public int getDisponible() { return disponible; }
+
+        @Override
+        public String toString() {
+            return "DisponibleCambiado[repuesto=" + idRepuesto + ", disponible=" + disponible + "]";
+        }
+    }
+}
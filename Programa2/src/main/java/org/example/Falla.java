@@ -63,6 +63,15 @@ public class Falla {
         return frecuenciaReportes;
     }
 
+    /**
+     * Establece la cantidad acumulada de reportes.
+     *
+     * @param frecuenciaReportes número de veces reportada
+     */
+    public void setFrecuenciaReportes(int frecuenciaReportes) {
+        this.frecuenciaReportes = frecuenciaReportes;
+    }
+
     /**
      * Representación textual estructurada de la falla
      * usada para visualización y reportes.
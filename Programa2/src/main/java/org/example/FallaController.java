@@ -23,18 +23,38 @@ public class FallaController {
     /**
      * Crear una nueva falla validando ID y descripción.
      *
-     * @param id identificador numérico de la falla
+     * Un ID digitado debe ser posterior a los ya asignados por el sistema
+     * (ver {@link IdAllocator#reclamar}); al reproducir el diario solo se
+     * informa a la secuencia.
+     *
+     * @param id identificador numérico de la falla, o 0 para asignarlo automáticamente
      * @param descripcion texto descriptivo de la falla
      * @return mensaje informativo sobre el resultado del registro
      */
     public String crearFalla(int id, String descripcion) {
 
-        if (id <= 0) return "El ID debe ser mayor a cero.";
+        if (id < 0) return "El ID no puede ser negativo.";
         if (descripcion == null || descripcion.isBlank()) return "Debe indicar una descripción.";
 
+        IdAllocator ids = SistemaMantenimiento.getInstancia().getIdAllocator();
+        boolean registrando = SistemaMantenimiento.getInstancia().getDiario().isActivo();
+        if (id == 0) {
+            id = ids.siguiente(IdAllocator.Secuencia.FALLA);
+        } else if (registrando && !ids.reclamar(IdAllocator.Secuencia.FALLA, id)) {
+            return "El ID " + id + " ya fue asignado por el sistema; deje el campo vacío para obtener uno nuevo.";
+        }
+
         Falla nueva = new Falla(id, descripcion);
 
-        boolean ok = fallaService.registrarFalla(nueva);
+        boolean ok = SistemaMantenimiento.getInstancia().getDiario().aplicar(
+                () -> fallaService.registrarFalla(nueva),
+                DiarioOperaciones.Operacion.CREAR_FALLA, out -> {
+                    out.writeInt(nueva.getIdFalla());
+                    out.escribirTexto(descripcion);
+                });
+        if (ok) {
+            ids.observar(IdAllocator.Secuencia.FALLA, id);
+        }
 
         return ok ? "Falla registrada." : "Ya existe una falla con ese ID.";
     }
@@ -56,7 +76,10 @@ public class FallaController {
      * @return mensaje textual indicando el resultado del proceso
      */
     public String eliminarFalla(int id) {
-        return fallaService.eliminarFalla(id) ?
+        boolean ok = SistemaMantenimiento.getInstancia().getDiario().aplicar(
+                () -> fallaService.eliminarFalla(id),
+                DiarioOperaciones.Operacion.ELIMINAR_FALLA, out -> out.writeInt(id));
+        return ok ?
                 "Falla eliminada." :
                 "No se encontró la falla.";
     }
@@ -69,6 +92,20 @@ public class FallaController {
     public List<Falla> obtenerFallas() {
         return fallaService.obtenerFallas();
     }
-}
-
 
+    /**
+     * Incorpora las fallas restauradas desde una instantánea, sin validar
+     * ni registrar en el diario de operaciones.
+     *
+     * @param fallas fallas a incorporar
+     */
+    public void cargarFallas(List<Falla> fallas) {
+        int maximo = 0;
+        for (Falla falla : fallas) {
+            fallaService.registrarFalla(falla);
+            maximo = Math.max(maximo, falla.getIdFalla());
+        }
+        SistemaMantenimiento.getInstancia().getIdAllocator()
+                .observar(IdAllocator.Secuencia.FALLA, maximo);
+    }
+}
@@ -14,6 +14,9 @@ public class FallaFrame extends JFrame {
     /** Referencia al sistema principal para acceso a controladores. */
     private SistemaMantenimiento sistema;
 
+    /** Sesión del operador que abrió la ventana; identifica al autor en la auditoría. */
+    private Sesion sesion;
+
     /** Campo de texto para capturar el ID de la falla. */
     private JTextField txtId;
 
@@ -27,9 +30,11 @@ public class FallaFrame extends JFrame {
      * Construye la ventana con acceso a los servicios del sistema.
      *
      * @param sistema instancia central del sistema de mantenimiento
+     * @param sesion  sesión del operador
      */
-    public FallaFrame(SistemaMantenimiento sistema) {
+    public FallaFrame(SistemaMantenimiento sistema, Sesion sesion) {
         this.sistema = sistema;
+        this.sesion = sesion;
 
         setTitle("Catálogo de Fallas");
         setSize(500, 350);
@@ -58,7 +63,7 @@ public class FallaFrame extends JFrame {
         txtId = new JTextField();
         txtDesc = new JTextField();
 
-        p.add(new JLabel("ID Falla:"));
+        p.add(new JLabel("ID Falla (vacío = automático):"));
         p.add(txtId);
 
         p.add(new JLabel("Descripción:"));
@@ -79,15 +84,16 @@ public class FallaFrame extends JFrame {
      */
     private void registrarFalla() {
         try {
-            int id = Integer.parseInt(txtId.getText());
+            // Si el ID se deja vacío el controlador lo asigna automáticamente
+            int id = txtId.getText().isBlank() ? 0 : Integer.parseInt(txtId.getText());
 
-            System.out.println(">>> [FallaFrame] Registrando falla ID = " + id);
+            System.out.println(">>> [FallaFrame] Registrando falla " + (id == 0 ? "(ID automático)" : "ID = " + id));
 
             String r = sistema.getFallaController().crearFalla(id, txtDesc.getText());
 
             // Registro en auditoría del sistema
             sistema.getAuditoriaController().registrarMovimiento(
-                    sistema.getUsuarioActual().getNombreCompleto(),
+                    sesion.getUsuario().getNombreCompleto(),
                     "FALLA",
                     "ALTA",
                     "Se registró la falla ID=" + id
@@ -124,7 +130,7 @@ public class FallaFrame extends JFrame {
 
                 // Registro en auditoría del sistema
                 sistema.getAuditoriaController().registrarMovimiento(
-                        sistema.getUsuarioActual().getNombreCompleto(),
+                        sesion.getUsuario().getNombreCompleto(),
                         "FALLA",
                         "BAJA",
                         "Se eliminó la falla ID=" + id
@@ -1,6 +1,5 @@
 package org.example;
 
-import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -10,15 +9,15 @@ import java.util.List;
  */
 public class FallaService {
 
-    /** Colección interna que almacena todas las fallas registradas. */
-    private List<Falla> fallas;
+    /** Repositorio indexado por ID que almacena todas las fallas registradas. */
+    private Repository<Falla> fallas;
 
     /**
-     * Construye el servicio inicializando la lista de fallas.
+     * Construye el servicio inicializando el repositorio de fallas.
      * La estructura se mantiene en memoria.
      */
     public FallaService() {
-        this.fallas = new ArrayList<>();
+        this.fallas = new Repository<>(Falla::getIdFalla);
     }
 
     /**
@@ -28,13 +27,7 @@ public class FallaService {
      * @return {@code true} si la operación fue exitosa, {@code false} si el ID ya existe
      */
     public boolean registrarFalla(Falla falla) {
-        for (Falla f : fallas) {
-            if (f.getIdFalla() == falla.getIdFalla()) {
-                return false; // ya existe
-            }
-        }
-        fallas.add(falla);
-        return true;
+        return fallas.agregar(falla);
     }
 
     /**
@@ -44,12 +37,7 @@ public class FallaService {
      * @return instancia encontrada o {@code null} si no existe coincidencia
      */
     public Falla buscarFalla(int id) {
-        for (Falla f : fallas) {
-            if (f.getIdFalla() == id) {
-                return f;
-            }
-        }
-        return null;
+        return fallas.buscar(id);
     }
 
     /**
@@ -59,12 +47,7 @@ public class FallaService {
      * @return {@code true} si fue eliminada, {@code false} si no se encontró la falla
      */
     public boolean eliminarFalla(int id) {
-        Falla f = buscarFalla(id);
-        if (f != null) {
-            fallas.remove(f);
-            return true;
-        }
-        return false;
+        return fallas.eliminar(id) != null;
     }
 
     /**
@@ -73,7 +56,7 @@ public class FallaService {
      * @return lista completa de fallas registradas
      */
     public List<Falla> obtenerFallas() {
-        return fallas;
+        return fallas.obtenerTodos();
     }
 }
 
@@ -1,13 +1,21 @@
 package org.example;
 
 import java.awt.*;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import javax.swing.*;
 
 /**
  * Ventana encargada de mostrar un gráfico de barras con los costos
  * de mantenimiento correctivo por cada equipo registrado en el sistema.
  * Permite visualizar los gastos acumulados y actualizar la información.
+ *
+ * Mientras está abierta, las barras de los equipos cuyas órdenes cambian de
+ * costo o se eliminan se actualizan solas a partir de los eventos del
+ * dominio (una baja llega como un cambio de costo a 0); el botón
+ * vuelve a armar el gráfico completo (por ejemplo, con equipos nuevos).
  */
 public class GraficoCostosFrame extends JFrame {
 
@@ -17,6 +25,12 @@ public class GraficoCostosFrame extends JFrame {
     /** Panel que dibuja el gráfico de barras. */
     private GraficoPanel panelGrafico;
 
+    /** Posición de la barra de cada equipo mostrado. */
+    private Map<Integer, Integer> barraPorEquipo = new HashMap<>();
+
+    /** Suscripción a los cambios de costo mientras la ventana está abierta. */
+    private BusEventos.Suscripcion suscripcionCostos;
+
     /**
      * Construye una nueva ventana de gráficos basada en el sistema dado.
      *
@@ -41,36 +55,51 @@ public class GraficoCostosFrame extends JFrame {
         add(btnActualizar, BorderLayout.NORTH);
         add(panelGrafico, BorderLayout.CENTER);
 
+        // Varios cambios seguidos de un mismo equipo se aplican en una sola relectura
+        suscripcionCostos = sistema.getBusEventos().suscribirAgrupado(
+                EventoDominio.CostoOrdenCambiado.class,
+                SwingUtilities::invokeLater,
+                EventoDominio.CostoOrdenCambiado::getIdEquipo,
+                this::actualizarBarras
+        );
+
         actualizarGrafico();
     }
 
+    /**
+     * Cancela la suscripción a los cambios de costo al cerrar la ventana.
+     */
+    @Override
+    public void dispose() {
+        if (suscripcionCostos != null) {
+            suscripcionCostos.cancelar();
+            suscripcionCostos = null;
+        }
+        super.dispose();
+    }
+
     /**
      * Obtiene costos de mantenimiento acumulados por equipo,
      * construye el arreglo de datos y solicita repintado del gráfico.
+     * Los costos los mantiene el servicio de órdenes correctivas, por lo
+     * que el costo de actualizar es proporcional a la cantidad de equipos.
      */
     private void actualizarGrafico() {
         System.out.println(">>> [GraficoCostosFrame] generando datos para gráfico...");
 
         List<Equipo> equipos = sistema.getEquipoController().obtenerEquipos();
-        List<OrdenCorrectiva> ordenes = sistema.getOrdenCorrectivaController().obtenerOrdenes();
 
-        double[] costos = new double[equipos.size()];
+        int[] ids = new int[equipos.size()];
         String[] etiquetas = new String[equipos.size()];
-
-        // Calcular costo total por equipo
+        Map<Integer, Integer> barras = new HashMap<>(equipos.size() * 2);
         for (int i = 0; i < equipos.size(); i++) {
-            Equipo eq = equipos.get(i);
-            etiquetas[i] = String.valueOf(eq.getId());
-
-            double costoTotal = 0;
-
-            for (OrdenCorrectiva oc : ordenes) {
-                if (oc.getEquipoAsociado().getId() == eq.getId()) {
-                    costoTotal += oc.getCostoReparacion();
-                }
-            }
-            costos[i] = costoTotal;
+            ids[i] = equipos.get(i).getId();
+            etiquetas[i] = String.valueOf(ids[i]);
+            barras.put(ids[i], i);
         }
+        barraPorEquipo = barras;
+
+        double[] costos = sistema.getOrdenCorrectivaController().obtenerCostosPorEquipo(ids);
 
         panelGrafico.setDatos(costos, etiquetas);
         panelGrafico.repaint();
@@ -78,6 +107,32 @@ public class GraficoCostosFrame extends JFrame {
         System.out.println(">>> [GraficoCostosFrame] gráfico actualizado");
     }
 
+    /**
+     * Relee el costo acumulado solo de los equipos cuyas órdenes cambiaron de
+     * costo y repinta si alguna barra cambió. Los equipos que todavía no
+     * están en el gráfico se ignoran hasta la próxima actualización completa.
+     *
+     * @param cambios último cambio de costo de cada equipo afectado
+     */
+    private void actualizarBarras(List<EventoDominio.CostoOrdenCambiado> cambios) {
+        int[] ids = new int[cambios.size()];
+        int[] barras = new int[cambios.size()];
+        int n = 0;
+        for (EventoDominio.CostoOrdenCambiado cambio : cambios) {
+            Integer barra = barraPorEquipo.get(cambio.getIdEquipo());
+            if (barra == null) continue;
+            ids[n] = cambio.getIdEquipo();
+            barras[n++] = barra;
+        }
+        if (n == 0) return;
+
+        double[] costos = sistema.getOrdenCorrectivaController()
+                .obtenerCostosPorEquipo(Arrays.copyOf(ids, n));
+        if (panelGrafico.actualizarValores(barras, costos)) {
+            panelGrafico.repaint();
+        }
+    }
+
     /**
      * Panel interno encargado de renderizar visualmente un gráfico de barras
      * a partir de los valores numéricos y etiquetas de equipos.
@@ -101,6 +156,24 @@ public class GraficoCostosFrame extends JFrame {
             this.etiquetas = etiquetas;
         }
 
+        /**
+         * Reemplaza el valor de algunas barras.
+         *
+         * @param barras  posiciones a modificar
+         * @param nuevos  valor nuevo de cada posición
+         * @return true si alguna barra cambió
+         */
+        public boolean actualizarValores(int[] barras, double[] nuevos) {
+            boolean cambio = false;
+            for (int i = 0; i < nuevos.length; i++) {
+                if (valores[barras[i]] != nuevos[i]) {
+                    valores[barras[i]] = nuevos[i];
+                    cambio = true;
+                }
+            }
+            return cambio;
+        }
+
         /**
          * Redibuja el contenido del panel representando barras verticales
          * proporcionadas visualmente según el valor máximo registrado.
@@ -1,13 +1,18 @@
 package org.example;
 
 import java.awt.*;
-import java.util.List;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
 import javax.swing.*;
 
 /**
  * Ventana gráfica dedicada a la visualización del estado de las órdenes correctivas
  * almacenadas en el sistema. Presenta un gráfico de barras que resume la cantidad
  * de órdenes en cada categoría de estado.
+ *
+ * Las cantidades se leen de los contadores por estado del servicio de
+ * órdenes, sin recorrer las órdenes, y el gráfico se actualiza solo cuando
+ * alguno cambia.
  */
 public class GraficoEstadosFrame extends JFrame {
 
@@ -17,6 +22,15 @@ public class GraficoEstadosFrame extends JFrame {
     /** Panel encargado de dibujar las barras del gráfico. */
     private GraficoPanel panelGrafico;
 
+    /** Oyente registrado mientras la ventana está abierta. */
+    private OyenteContadores oyenteContadores;
+
+    /** true si ya hay una actualización encolada en el hilo de eventos. */
+    private final AtomicBoolean actualizacionPendiente = new AtomicBoolean();
+
+    /** Últimos valores mostrados, para no repintar si no cambiaron. */
+    private double[] datosMostrados;
+
     /**
      * Constructor de la ventana gráfica que recibe una referencia al sistema.
      *
@@ -41,31 +55,48 @@ public class GraficoEstadosFrame extends JFrame {
         add(btnActualizar, BorderLayout.NORTH);
         add(panelGrafico, BorderLayout.CENTER);
 
+        // Varios cambios seguidos se agrupan en una sola actualización
+        oyenteContadores = () -> {
+            if (actualizacionPendiente.compareAndSet(false, true)) {
+                SwingUtilities.invokeLater(() -> {
+                    actualizacionPendiente.set(false);
+                    actualizar();
+                });
+            }
+        };
+        sistema.getOrdenCorrectivaController().agregarOyenteContadores(oyenteContadores);
+
         actualizar();
     }
 
     /**
-     * Recupera las órdenes correctivas del sistema, analiza sus estados y
-     * alimenta el gráfico para reflejar el número de órdenes en cada categoría.
+     * Cierra la ventana y deja de escuchar los cambios de los contadores.
      */
-    private void actualizar() {
-        System.out.println(">>> [GraficoEstadosFrame] recargando datos...");
-
-        List<OrdenCorrectiva> lista = sistema.getOrdenCorrectivaController().obtenerOrdenes();
+    @Override
+    public void dispose() {
+        if (oyenteContadores != null) {
+            sistema.getOrdenCorrectivaController().quitarOyenteContadores(oyenteContadores);
+            oyenteContadores = null;
+        }
+        super.dispose();
+    }
 
-        int reportadas = 0, proceso = 0, completadas = 0, noReparadas = 0;
+    /**
+     * Lee los contadores por estado de las órdenes correctivas y, si alguno
+     * cambió desde la última vez, alimenta el gráfico y lo repinta.
+     */
+    private void actualizar() {
+        OrdenCorrectivaController controller = sistema.getOrdenCorrectivaController();
 
-        // Conteo por estado
-        for (OrdenCorrectiva oc : lista) {
-            switch (oc.getEstado()) {
-                case REPORTADA -> reportadas++;
-                case EN_PROCESO -> proceso++;
-                case COMPLETADA -> completadas++;
-                case NO_REPARADA -> noReparadas++;
-            }
-        }
+        double[] datos = {
+                controller.contarOrdenesPorEstado(OrdenCorrectiva.EstadoOrden.REPORTADA),
+                controller.contarOrdenesPorEstado(OrdenCorrectiva.EstadoOrden.EN_PROCESO),
+                controller.contarOrdenesPorEstado(OrdenCorrectiva.EstadoOrden.COMPLETADA),
+                controller.contarOrdenesPorEstado(OrdenCorrectiva.EstadoOrden.NO_REPARADA)
+        };
+        if (Arrays.equals(datos, datosMostrados)) return;
+        datosMostrados = datos;
 
-        double[] datos = {reportadas, proceso, completadas, noReparadas};
         String[] etiquetas = {"Reportadas", "En Proceso", "Completadas", "No Reparadas"};
 
         panelGrafico.setDatos(datos, etiquetas);
@@ -0,0 +1,122 @@
+package org.example;
+
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+
+/**
+ * Contraseña guardada como hash PBKDF2 (HMAC-SHA256) con sal aleatoria.
+ *
+ * Cada hash conserva sus propias iteraciones, de modo que subir
+ * {@link #ITERACIONES} solo afecta a las contraseñas nuevas o cambiadas; las
+ * anteriores se siguen verificando con el costo con que se crearon.
+ *
+ * Se guarda como texto {@code pbkdf2-sha256$iteraciones$sal$hash} (sal y
+ * hash en Base64). Al leer datos anteriores, un texto sin ese formato es
+ * una contraseña en claro y se convierte a hash.
+ *
+ * Es inmutable. Verificar cuesta lo mismo que crear (algunas décimas
+ * de segundo), por lo que no debe hacerse en el hilo de eventos de Swing.
+ */
+public final class HashPassword {
+
+    /** Iteraciones de PBKDF2 para los hashes nuevos. */
+    public static final int ITERACIONES = 210_000;
+
+    private static final String ALGORITMO = "PBKDF2WithHmacSHA256";
+    private static final String PREFIJO = "pbkdf2-sha256";
+    private static final int BYTES_SAL = 16;
+    private static final int BITS_HASH = 256;
+
+    private static final SecureRandom ALEATORIO = new SecureRandom();
+
+    private final int iteraciones;
+    private final byte[] sal;
+    private final byte[] hash;
+
+    private HashPassword(int iteraciones, byte[] sal, byte[] hash) {
+        this.iteraciones = iteraciones;
+        this.sal = sal;
+        this.hash = hash;
+    }
+
+    /**
+     * Calcula el hash de una contraseña con sal nueva y el costo actual.
+     *
+     * @param password contraseña en claro
+     * @return hash de la contraseña
+     */
+    public static HashPassword crear(String password) {
+        byte[] sal = new byte[BYTES_SAL];
+        ALEATORIO.nextBytes(sal);
+        return new HashPassword(ITERACIONES, sal, derivar(password, sal, ITERACIONES));
+    }
+
+    /**
+     * Lee un hash guardado con {@link #codificar()}. Un texto sin ese
+     * formato se toma como contraseña en claro de datos anteriores y se
+     * convierte.
+     *
+     * @param texto hash codificado o contraseña en claro
+     * @return hash leído
+     * @throws IllegalArgumentException si tiene el prefijo pero está dañado
+     */
+    public static HashPassword decodificar(String texto) {
+        if (!texto.startsWith(PREFIJO + "$")) {
+            return crear(texto);
+        }
+        String[] partes = texto.split("\\$");
+        if (partes.length != 4) {
+            throw new IllegalArgumentException("Hash de contraseña inválido.");
+        }
+        Base64.Decoder base64 = Base64.getDecoder();
+        return new HashPassword(Integer.parseInt(partes[1]), base64.decode(partes[2]), base64.decode(partes[3]));
+    }
+
+    /**
+     * @return texto para guardar en el diario o en una instantánea
+     */
+    public String codificar() {
+        Base64.Encoder base64 = Base64.getEncoder().withoutPadding();
+        return PREFIJO + "$" + iteraciones + "$" + base64.encodeToString(sal) + "$" + base64.encodeToString(hash);
+    }
+
+    /**
+     * Comprueba una contraseña con la sal y las iteraciones de este hash. La
+     * comparación no termina antes ante la primera diferencia.
+     *
+     * @param password contraseña en claro
+     * @return true si corresponde a este hash
+     */
+    public boolean verificar(String password) {
+        return MessageDigest.isEqual(hash, derivar(password, sal, iteraciones));
+    }
+
+    /**
+     * @return iteraciones con que se calculó este hash
+     */
+    public int getIteraciones() {
+        return iteraciones;
+    }
+
+    private static byte[] derivar(String password, byte[] sal, int iteraciones) {
+        PBEKeySpec spec = new PBEKeySpec(password.toCharArray(), sal, iteraciones, BITS_HASH);
+        try {
+            return SecretKeyFactory.getInstance(ALGORITMO).generateSecret(spec).getEncoded();
+        } catch (GeneralSecurityException e) {
+            // PBKDF2WithHmacSHA256 es obligatorio en toda JVM desde Java 8
+            throw new IllegalStateException("PBKDF2 no disponible", e);
+        } finally {
+            spec.clearPassword();
+        }
+    }
+
+    /** No expone el hash; para guardarlo se usa {@link #codificar()}. */
+    @Override
+    public String toString() {
+        return PREFIJO + "(" + iteraciones + " iteraciones)";
+    }
+}
@@ -1,27 +1,28 @@
 package org.example;
 
-import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Servicio encargado de administrar el historial de cambios de estado
  * realizados sobre los equipos.
  * Utiliza una estructura en memoria basada en un mapa que asocia cada
- * equipo con su lista de registros históricos.
+ * equipo con su lista de registros históricos; el mapa es concurrente y
+ * cada historial admite agregados concurrentes con lectura sin bloqueo.
  */
 public class HistorialEstadoService {
 
     /** Estructura que relaciona un equipo (por ID) con su lista de cambios de estado. */
-    private Map<Integer, List<HistorialEstado>> historialPorEquipo;
+    private Map<Integer, RegistroConcurrente<HistorialEstado>> historialPorEquipo;
 
     /**
      * Inicializa el servicio y crea la estructura base donde se almacenarán
      * los historiales de cambio por equipo.
      */
     public HistorialEstadoService() {
-        this.historialPorEquipo = new HashMap<>();
+        this.historialPorEquipo = new ConcurrentHashMap<>();
     }
 
     /**
@@ -45,8 +46,8 @@ public class HistorialEstadoService {
 
         if (equipo == null) return false;
 
-        List<HistorialEstado> lista = historialPorEquipo
-                .computeIfAbsent(equipo.getId(), k -> new ArrayList<>());
+        RegistroConcurrente<HistorialEstado> lista = historialPorEquipo
+                .computeIfAbsent(equipo.getId(), k -> new RegistroConcurrente<>());
 
         HistorialEstado registro = new HistorialEstado(
                 java.time.LocalDate.now(),
@@ -56,7 +57,7 @@ public class HistorialEstadoService {
                 motivo
         );
 
-        lista.add(registro);
+        lista.agregar(registro);
         return true;
     }
 
@@ -68,7 +69,8 @@ public class HistorialEstadoService {
      * @return lista de cambios registrados para el equipo
      */
     public List<HistorialEstado> obtenerHistorial(int idEquipo) {
-        return historialPorEquipo.getOrDefault(idEquipo, new ArrayList<>());
+        RegistroConcurrente<HistorialEstado> lista = historialPorEquipo.get(idEquipo);
+        return lista == null ? Collections.emptyList() : lista.vista();
     }
 }
 
@@ -0,0 +1,250 @@
+package org.example;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Asignador de identificadores con una secuencia monótona por tipo de entidad.
+ *
+ * La emisión de IDs es libre de bloqueos: cada secuencia es un
+ * {@link AtomicInteger} y un bloque de N IDs se reserva con un único
+ * compare-and-set, que antes de avanzar comprueba que la secuencia no se
+ * desborde. Para que los IDs nunca se repitan entre reinicios se
+ * persiste una marca de agua alta ("techo") por secuencia; el techo se
+ * adelanta de a {@link #TAMANIO_RESERVA} IDs, de modo que solo una de cada
+ * tantas asignaciones toca el disco. Tras un reinicio la secuencia continúa
+ * desde el último techo persistido, lo que puede dejar huecos pero nunca
+ * repeticiones.
+ *
+ * Un ID digitado a mano que cae dentro de lo ya emitido podría pertenecer a
+ * un bloque que su dueño todavía no usó; por eso {@link #reclamar} solo
+ * acepta IDs posteriores a todo lo emitido.
+ */
+public class IdAllocator {
+
+    /**
+     * Tipos de entidad que cuentan con secuencia propia.
+     */
+    public enum Secuencia {
+        EQUIPO,
+        ORDEN_PREVENTIVA,
+        ORDEN_CORRECTIVA,
+        REPUESTO,
+        TECNICO,
+        USUARIO,
+        FALLA,
+        PROGRAMA_PREVENTIVO
+    }
+
+    /** Cantidad de IDs que se adelanta el techo persistido en cada escritura. */
+    public static final int TAMANIO_RESERVA = 1000;
+
+    /** Archivo donde se guardan los techos; null si no se persiste. */
+    private final Path archivo;
+
+    /** Último ID emitido (u observado) por secuencia. */
+    private final Map<Secuencia, AtomicInteger> ultimos = new EnumMap<>(Secuencia.class);
+
+    /** Techo persistido por secuencia: ningún ID emitido lo supera. */
+    private final Map<Secuencia, AtomicInteger> techos = new EnumMap<>(Secuencia.class);
+
+    /**
+     * Crea un asignador sin persistencia; las secuencias comienzan en 1.
+     */
+    public IdAllocator() {
+        this(null);
+    }
+
+    /**
+     * Crea un asignador que persiste sus techos en el archivo indicado.
+     * Si el archivo existe, cada secuencia continúa después de su techo.
+     *
+     * @param archivo ruta del archivo de techos, o null para no persistir
+     */
+    public IdAllocator(Path archivo) {
+        this.archivo = archivo;
+        for (Secuencia s : Secuencia.values()) {
+            ultimos.put(s, new AtomicInteger());
+            techos.put(s, new AtomicInteger());
+        }
+        cargar();
+    }
+
+    /**
+     * Emite el siguiente ID de la secuencia.
+     *
+     * @param secuencia tipo de entidad
+     * @return nuevo identificador, nunca emitido antes
+     */
+    public int siguiente(Secuencia secuencia) {
+        return reservarBloque(secuencia, 1);
+    }
+
+    /**
+     * Reserva un bloque contiguo de IDs para cargas masivas o generadores
+     * en paralelo. El llamador es dueño exclusivo de los IDs
+     * {@code [primero, primero + cantidad)}.
+     *
+     * @param secuencia tipo de entidad
+     * @param cantidad  número de IDs a reservar (mayor que cero)
+     * @return primer ID del bloque reservado
+     */
+    public int reservarBloque(Secuencia secuencia, int cantidad) {
+        if (cantidad <= 0) {
+            throw new IllegalArgumentException("La cantidad debe ser mayor que cero.");
+        }
+        AtomicInteger contador = ultimos.get(secuencia);
+        int anterior;
+        do {
+            anterior = contador.get();
+            // Se valida antes de avanzar: una reserva rechazada no consume IDs
+            if (anterior > Integer.MAX_VALUE - cantidad) {
+                throw new IllegalStateException("Secuencia " + secuencia + " agotada.");
+            }
+        } while (!contador.compareAndSet(anterior, anterior + cantidad));
+
+        int ultimo = anterior + cantidad;
+        if (ultimo > techos.get(secuencia).get()) {
+            adelantarTecho(secuencia, ultimo);
+        }
+        return anterior + 1;
+    }
+
+    /**
+     * Reserva un ID digitado a mano, siempre que sea posterior a todos los
+     * emitidos u observados hasta ahora; la secuencia continúa después de él.
+     * Uno anterior podría pertenecer a un bloque ya entregado a otro
+     * llamador y se rechaza.
+     *
+     * @param secuencia tipo de entidad
+     * @param id        identificador solicitado
+     * @return true si el ID queda reservado para el llamador
+     */
+    public boolean reclamar(Secuencia secuencia, int id) {
+        AtomicInteger contador = ultimos.get(secuencia);
+        int actual;
+        do {
+            actual = contador.get();
+            if (id <= actual) {
+                return false;
+            }
+        } while (!contador.compareAndSet(actual, id));
+
+        if (id > techos.get(secuencia).get()) {
+            adelantarTecho(secuencia, id);
+        }
+        return true;
+    }
+
+    /**
+     * Informa un ID asignado externamente (por ejemplo, cargado desde datos
+     * previos o reproducido del diario) para que la secuencia no lo vuelva a
+     * emitir. A diferencia de {@link #reclamar}, no valida nada.
+     *
+     * @param secuencia tipo de entidad
+     * @param id        identificador ya utilizado
+     */
+    public void observar(Secuencia secuencia, int id) {
+        ultimos.get(secuencia).accumulateAndGet(id, Math::max);
+        if (id > techos.get(secuencia).get()) {
+            adelantarTecho(secuencia, id);
+        }
+    }
+
+    /**
+     * Consulta el ID que emitiría la secuencia sin consumirlo.
+     * Útil para sugerir un valor en formularios.
+     *
+     * @param secuencia tipo de entidad
+     * @return próximo ID probable
+     */
+    public int proximo(Secuencia secuencia) {
+        return ultimos.get(secuencia).get() + 1;
+    }
+
+    // ======================================================
+    // PERSISTENCIA DEL TECHO
+    // ======================================================
+
+    /**
+     * Adelanta y persiste el techo de la secuencia. Es el único camino con
+     * bloqueo y se ejecuta una vez cada {@link #TAMANIO_RESERVA} IDs.
+     * El ID solicitado no se entrega hasta que su techo está en disco.
+     */
+    private synchronized void adelantarTecho(Secuencia secuencia, int requerido) {
+        AtomicInteger techo = techos.get(secuencia);
+        if (requerido <= techo.get()) {
+            return; // otro hilo ya lo adelantó
+        }
+        int nuevo = (int) Math.min((long) requerido + TAMANIO_RESERVA, Integer.MAX_VALUE);
+
+        // Se persiste antes de publicar el techo: los hilos que lo lean
+        // ya no pasan por aquí, así que debe estar en disco.
+        guardar(secuencia, nuevo);
+        techo.set(nuevo);
+    }
+
+    /**
+     * Lee los techos del archivo, si existe, y posiciona cada secuencia en él.
+     */
+    private void cargar() {
+        if (archivo == null || !Files.exists(archivo)) return;
+
+        Properties props = new Properties();
+        try (InputStream in = Files.newInputStream(archivo)) {
+            props.load(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo leer " + archivo, e);
+        }
+
+        for (Secuencia s : Secuencia.values()) {
+            String valor = props.getProperty(s.name());
+            if (valor == null) continue;
+            try {
+                int techo = Integer.parseInt(valor.trim());
+                techos.get(s).set(techo);
+                ultimos.get(s).set(techo);
+            } catch (NumberFormatException e) {
+                System.err.println("Techo inválido para " + s + " en " + archivo + ": " + valor);
+            }
+        }
+    }
+
+    /**
+     * Escribe todos los techos en un archivo temporal sincronizado con disco
+     * y lo renombra sobre el definitivo, de modo que una caída nunca deja
+     * el archivo a medio escribir.
+     */
+    private void guardar(Secuencia secuencia, int nuevoTecho) {
+        if (archivo == null) return;
+
+        Properties props = new Properties();
+        for (Secuencia s : Secuencia.values()) {
+            int techo = s == secuencia ? nuevoTecho : techos.get(s).get();
+            props.setProperty(s.name(), Integer.toString(techo));
+        }
+
+        try {
+            Path dir = archivo.toAbsolutePath().getParent();
+            if (dir != null) Files.createDirectories(dir);
+
+            Path tmp = archivo.resolveSibling(archivo.getFileName() + ".tmp");
+            try (FileOutputStream out = new FileOutputStream(tmp.toFile())) {
+                props.store(out, "Techos de secuencias de IDs");
+                out.getFD().sync();
+            }
+            Files.move(tmp, archivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo guardar " + archivo, e);
+        }
+    }
+}
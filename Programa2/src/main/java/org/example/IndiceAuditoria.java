@@ -0,0 +1,272 @@
+package org.example;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Registros de auditoría con índices invertidos para consultas combinadas.
+ *
+ * Cada registro recibe un ordinal (su posición en el historial). Hay una
+ * lista de ordinales por usuario, por entidad y por acción, con el texto
+ * normalizado sin distinguir mayúsculas, y otra por día de
+ * {@code fechaRegistro}. Una consulta toma las listas de los criterios
+ * indicados y las intersecta recorriendo la más corta y buscando cada
+ * ordinal en las demás; el rango horario exacto se verifica solo sobre
+ * esos candidatos. Nunca se recorre el historial completo salvo que la
+ * consulta no tenga criterios.
+ *
+ * Los escritores se serializan entre sí. Cada lote se indexa antes de
+ * publicarse en el historial, de modo que un lector que toma el tamaño del
+ * historial encuentra en los índices todos los ordinales anteriores.
+ */
+public class IndiceAuditoria {
+
+    private static final int[] VACIO = new int[0];
+
+    /** Historial completo en orden de registro; la posición es el ordinal. */
+    private final RegistroConcurrente<AuditoriaMantenimiento> registros = new RegistroConcurrente<>();
+
+    private final Map<String, ListaEnterosCreciente> porUsuario = new ConcurrentHashMap<>();
+    private final Map<String, ListaEnterosCreciente> porEntidad = new ConcurrentHashMap<>();
+    private final Map<String, ListaEnterosCreciente> porAccion = new ConcurrentHashMap<>();
+    private final NavigableMap<LocalDate, ListaEnterosCreciente> porDia = new ConcurrentSkipListMap<>();
+
+    /**
+     * Agrega un registro.
+     *
+     * @param registro registro a agregar
+     */
+    public synchronized void agregar(AuditoriaMantenimiento registro) {
+        indexar(registro, registros.tamanio());
+        registros.agregar(registro);
+    }
+
+    /**
+     * Agrega varios registros y los publica juntos.
+     *
+     * @param lote registros a agregar, en orden
+     */
+    public synchronized void agregarTodos(List<? extends AuditoriaMantenimiento> lote) {
+        int ordinal = registros.tamanio();
+        for (AuditoriaMantenimiento registro : lote) {
+            indexar(registro, ordinal++);
+        }
+        registros.agregarTodos(lote);
+    }
+
+    private void indexar(AuditoriaMantenimiento r, int ordinal) {
+        agregarTermino(porUsuario, r.getUsuario(), ordinal);
+        agregarTermino(porEntidad, r.getEntidad(), ordinal);
+        agregarTermino(porAccion, r.getAccion(), ordinal);
+        if (r.getFechaRegistro() != null) {
+            porDia.computeIfAbsent(r.getFechaRegistro().toLocalDate(), d -> new ListaEnterosCreciente()).agregar(ordinal);
+        }
+    }
+
+    private static void agregarTermino(Map<String, ListaEnterosCreciente> indice, String texto, int ordinal) {
+        if (texto == null) return;
+        indice.computeIfAbsent(normalizar(texto), t -> new ListaEnterosCreciente()).agregar(ordinal);
+    }
+
+    /**
+     * Normaliza un texto para comparar sin distinguir mayúsculas, como
+     * {@link String#equalsIgnoreCase(String)}.
+     */
+    static String normalizar(String texto) {
+        return texto.toUpperCase(Locale.ROOT).toLowerCase(Locale.ROOT);
+    }
+
+    /** @return prefijo consistente del historial, en orden de registro */
+    public List<AuditoriaMantenimiento> vista() {
+        return registros.vista();
+    }
+
+    /** @return cantidad de registros */
+    public int tamanio() {
+        return registros.tamanio();
+    }
+
+    // ----------------- CONSULTAS -----------------
+
+    /**
+     * Consulta combinada paginada. Los criterios null o en blanco no filtran.
+     *
+     * @param usuario       usuario, sin distinguir mayúsculas
+     * @param entidad       entidad, sin distinguir mayúsculas
+     * @param accion        acción, sin distinguir mayúsculas
+     * @param desde         primer instante incluido
+     * @param hasta         último instante incluido
+     * @param pagina        número de página, desde 0
+     * @param tamanioPagina registros por página (mayor que 0)
+     * @return la página pedida y el total de coincidencias
+     */
+    public PaginaAuditoria consultar(String usuario, String entidad, String accion,
+                                     LocalDateTime desde, LocalDateTime hasta,
+                                     int pagina, int tamanioPagina) {
+        // El tamaño se lee antes que los índices: todo ordinal menor ya está indexado
+        int limite = registros.tamanio();
+        int[] coincidencias = coincidencias(usuario, entidad, accion, desde, hasta, limite);
+        List<AuditoriaMantenimiento> vista = registros.vista();
+
+        int inicio = (int) Math.min((long) pagina * tamanioPagina, coincidencias.length);
+        int fin = Math.min(inicio + tamanioPagina, coincidencias.length);
+        List<AuditoriaMantenimiento> resultado = new ArrayList<>(fin - inicio);
+        for (int i = inicio; i < fin; i++) {
+            resultado.add(vista.get(coincidencias[i]));
+        }
+        return new PaginaAuditoria(resultado, pagina, tamanioPagina, coincidencias.length);
+    }
+
+    /**
+     * Consulta combinada sin paginar.
+     *
+     * @return todos los registros que cumplen los criterios, en orden de registro
+     */
+    public List<AuditoriaMantenimiento> consultar(String usuario, String entidad, String accion,
+                                                  LocalDateTime desde, LocalDateTime hasta) {
+        int limite = registros.tamanio();
+        int[] coincidencias = coincidencias(usuario, entidad, accion, desde, hasta, limite);
+        List<AuditoriaMantenimiento> vista = registros.vista();
+        List<AuditoriaMantenimiento> resultado = new ArrayList<>(coincidencias.length);
+        for (int ordinal : coincidencias) {
+            resultado.add(vista.get(ordinal));
+        }
+        return resultado;
+    }
+
+    /** Ordinales menores a {@code limite} que cumplen todos los criterios, ascendentes. */
+    private int[] coincidencias(String usuario, String entidad, String accion,
+                                LocalDateTime desde, LocalDateTime hasta, int limite) {
+        if (desde != null && hasta != null && hasta.isBefore(desde)) return VACIO;
+
+        List<int[]> listas = new ArrayList<>(4);
+        if (!agregarLista(listas, porUsuario, usuario, limite)
+                || !agregarLista(listas, porEntidad, entidad, limite)
+                || !agregarLista(listas, porAccion, accion, limite)) {
+            return VACIO;
+        }
+
+        boolean porFecha = desde != null || hasta != null;
+        if (porFecha) {
+            // Los días del rango solo se unen si son más selectivos que los términos
+            int menor = listas.stream().mapToInt(l -> l.length).min().orElse(Integer.MAX_VALUE);
+            int[] dias = ordinalesPorDia(desde, hasta, limite, menor);
+            if (dias != null) listas.add(dias);
+        }
+
+        int[] candidatos;
+        if (listas.isEmpty()) {
+            candidatos = new int[limite];
+            Arrays.setAll(candidatos, i -> i);
+        } else {
+            listas.sort(Comparator.comparingInt(l -> l.length));
+            candidatos = intersectar(listas);
+        }
+
+        if (!porFecha) return candidatos;
+
+        // Verificación exacta del rango horario sobre los candidatos
+        List<AuditoriaMantenimiento> vista = registros.vista();
+        int n = 0;
+        for (int ordinal : candidatos) {
+            LocalDateTime fecha = vista.get(ordinal).getFechaRegistro();
+            if (fecha != null && (desde == null || !fecha.isBefore(desde))
+                    && (hasta == null || !fecha.isAfter(hasta))) {
+                candidatos[n++] = ordinal;
+            }
+        }
+        return n == candidatos.length ? candidatos : Arrays.copyOf(candidatos, n);
+    }
+
+    /**
+     * Agrega la lista del término si se pidió.
+     *
+     * @return false si el término se pidió y no tiene registros
+     */
+    private static boolean agregarLista(List<int[]> listas, Map<String, ListaEnterosCreciente> indice,
+                                        String termino, int limite) {
+        if (termino == null || termino.isBlank()) return true;
+        ListaEnterosCreciente lista = indice.get(normalizar(termino.trim()));
+        if (lista == null) return false;
+        int[] ordinales = lista.copiaMenoresA(limite);
+        if (ordinales.length == 0) return false;
+        listas.add(ordinales);
+        return true;
+    }
+
+    /**
+     * Une los ordinales de los días del rango, o devuelve null si suman más
+     * que {@code maximo} (conviene entonces filtrar los candidatos por fecha).
+     */
+    private int[] ordinalesPorDia(LocalDateTime desde, LocalDateTime hasta, int limite, int maximo) {
+        NavigableMap<LocalDate, ListaEnterosCreciente> rango = porDia;
+        if (desde != null) rango = rango.tailMap(desde.toLocalDate(), true);
+        if (hasta != null) rango = rango.headMap(hasta.toLocalDate(), true);
+
+        List<int[]> dias = new ArrayList<>();
+        long total = 0;
+        for (ListaEnterosCreciente lista : rango.values()) {
+            int[] ordinales = lista.copiaMenoresA(limite);
+            total += ordinales.length;
+            if (total > maximo) return null;
+            dias.add(ordinales);
+        }
+
+        int[] union = new int[(int) total];
+        int n = 0;
+        for (int[] ordinales : dias) {
+            System.arraycopy(ordinales, 0, union, n, ordinales.length);
+            n += ordinales.length;
+        }
+        // Los registros no llegan necesariamente en orden de fecha
+        Arrays.sort(union);
+        return union;
+    }
+
+    /**
+     * Intersección de listas ascendentes, ordenadas de la más corta a la más
+     * larga: recorre la primera y busca cada ordinal en las demás avanzando
+     * un cursor con búsqueda exponencial.
+     */
+    private static int[] intersectar(List<int[]> listas) {
+        int[] base = listas.get(0);
+        int[] resultado = new int[base.length];
+        int[] cursores = new int[listas.size()];
+        int n = 0;
+
+        siguiente:
+        for (int ordinal : base) {
+            for (int k = 1; k < listas.size(); k++) {
+                int[] otra = listas.get(k);
+                int pos = buscarDesde(otra, cursores[k], ordinal);
+                cursores[k] = pos;
+                if (pos == otra.length) break siguiente;
+                if (otra[pos] != ordinal) continue siguiente;
+            }
+            resultado[n++] = ordinal;
+        }
+        return Arrays.copyOf(resultado, n);
+    }
+
+    /** Primera posición desde {@code inicio} con valor mayor o igual a {@code valor}. */
+    private static int buscarDesde(int[] lista, int inicio, int valor) {
+        int paso = 1;
+        int alto = inicio;
+        while (alto < lista.length && lista[alto] < valor) {
+            inicio = alto + 1;
+            alto += paso;
+            paso <<= 1;
+        }
+        int pos = Arrays.binarySearch(lista, inicio, Math.min(alto + 1, lista.length), valor);
+        return pos >= 0 ? pos : -pos - 1;
+    }
+}
@@ -0,0 +1,208 @@
+package org.example;
+
+import java.util.Arrays;
+
+/**
+ * Tabla hash de direccionamiento abierto que asocia claves enteras primitivas
+ * con valores enteros no negativos.
+ *
+ * Evita el empaquetado a {@code Integer} y los nodos por entrada de un
+ * {@code HashMap}: las claves y valores viven en arreglos paralelos y las
+ * colisiones se resuelven con sondeo lineal. Las eliminaciones desplazan
+ * hacia atrás las entradas siguientes, por lo que nunca quedan lápidas.
+ *
+ * No es seguro para escrituras concurrentes. Las consultas sí toleran leer
+ * mientras otro hilo escribe (lectura optimista de {@link Repository}): el
+ * resultado puede ser incorrecto o lanzar {@link ArrayIndexOutOfBoundsException},
+ * pero siempre termina, y el llamador debe validar y reintentar.
+ */
+public class IndiceEntero {
+
+    /** Valor devuelto cuando una clave no está registrada. */
+    public static final int AUSENTE = -1;
+
+    /** Factor de carga máximo antes de duplicar la tabla. */
+    private static final float CARGA_MAXIMA = 0.6f;
+
+    private int[] claves;
+    private int[] valores;
+    private boolean[] ocupados;
+
+    private int mascara;
+    private int tamanio;
+    private int umbral;
+
+    /**
+     * Crea un índice vacío con capacidad inicial por defecto.
+     */
+    public IndiceEntero() {
+        this(16);
+    }
+
+    /**
+     * Crea un índice vacío dimensionado para la cantidad de claves esperada.
+     *
+     * @param capacidadEsperada número de claves que se prevé registrar
+     */
+    public IndiceEntero(int capacidadEsperada) {
+        int capacidad = 16;
+        while (capacidad * CARGA_MAXIMA < capacidadEsperada) {
+            capacidad <<= 1;
+        }
+        inicializar(capacidad);
+    }
+
+    private void inicializar(int capacidad) {
+        this.claves = new int[capacidad];
+        this.valores = new int[capacidad];
+        this.ocupados = new boolean[capacidad];
+        this.mascara = capacidad - 1;
+        this.umbral = (int) (capacidad * CARGA_MAXIMA);
+        this.tamanio = 0;
+    }
+
+    /**
+     * Dispersa la clave para que identificadores consecutivos no formen
+     * racimos contiguos en la tabla.
+     */
+    private int posicionIdeal(int clave) {
+        int h = clave * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mascara;
+    }
+
+    /**
+     * Los arreglos se leen una sola vez y el sondeo se limita al tamaño de la
+     * tabla, de modo que una lectura concurrente con una escritura no quede
+     * en un ciclo infinito.
+     *
+     * @return posición de la clave en la tabla o -1 si no existe
+     */
+    private int ubicar(int clave) {
+        boolean[] ocupados = this.ocupados;
+        int[] claves = this.claves;
+        int mascara = this.mascara;
+        int i = posicionIdeal(clave) & mascara;
+        for (int sondeos = 0; sondeos < ocupados.length && ocupados[i]; sondeos++) {
+            if (claves[i] == clave) return i;
+            i = (i + 1) & mascara;
+        }
+        return -1;
+    }
+
+    /**
+     * Obtiene el valor asociado a una clave.
+     *
+     * @param clave clave buscada
+     * @return valor asociado o {@link #AUSENTE} si no existe
+     */
+    public int obtener(int clave) {
+        int i = ubicar(clave);
+        return i < 0 ? AUSENTE : valores[i];
+    }
+
+    /**
+     * Indica si la clave se encuentra registrada.
+     *
+     * @param clave clave buscada
+     * @return true si existe
+     */
+    public boolean contiene(int clave) {
+        return ubicar(clave) >= 0;
+    }
+
+    /**
+     * Asocia un valor a la clave, reemplazando el anterior si existía.
+     *
+     * @param clave clave a registrar
+     * @param valor valor no negativo a asociar
+     * @return valor anterior o {@link #AUSENTE} si la clave era nueva
+     */
+    public int asignar(int clave, int valor) {
+        if (valor < 0) {
+            throw new IllegalArgumentException("El valor debe ser no negativo.");
+        }
+        int i = posicionIdeal(clave);
+        while (ocupados[i]) {
+            if (claves[i] == clave) {
+                int anterior = valores[i];
+                valores[i] = valor;
+                return anterior;
+            }
+            i = (i + 1) & mascara;
+        }
+        ocupados[i] = true;
+        claves[i] = clave;
+        valores[i] = valor;
+        if (++tamanio > umbral) {
+            redimensionar(claves.length << 1);
+        }
+        return AUSENTE;
+    }
+
+    /**
+     * Elimina la clave del índice.
+     *
+     * @param clave clave a eliminar
+     * @return valor que tenía asociado o {@link #AUSENTE} si no existía
+     */
+    public int eliminar(int clave) {
+        int i = ubicar(clave);
+        if (i < 0) return AUSENTE;
+
+        int valor = valores[i];
+
+        // Desplazamiento hacia atrás: rellena el hueco con las entradas
+        // del mismo racimo cuya posición ideal no quede después del hueco.
+        int hueco = i;
+        int j = i;
+        while (true) {
+            j = (j + 1) & mascara;
+            if (!ocupados[j]) break;
+            int ideal = posicionIdeal(claves[j]);
+            boolean puedeQuedarse = hueco <= j
+                    ? (hueco < ideal && ideal <= j)
+                    : (hueco < ideal || ideal <= j);
+            if (puedeQuedarse) continue;
+            claves[hueco] = claves[j];
+            valores[hueco] = valores[j];
+            hueco = j;
+        }
+        ocupados[hueco] = false;
+        tamanio--;
+        return valor;
+    }
+
+    /** @return cantidad de claves registradas */
+    public int tamanio() {
+        return tamanio;
+    }
+
+    /**
+     * Elimina todas las claves conservando la capacidad reservada.
+     */
+    public void limpiar() {
+        Arrays.fill(ocupados, false);
+        tamanio = 0;
+    }
+
+    private void redimensionar(int nuevaCapacidad) {
+        int[] viejasClaves = claves;
+        int[] viejosValores = valores;
+        boolean[] viejosOcupados = ocupados;
+
+        inicializar(nuevaCapacidad);
+
+        for (int i = 0; i < viejasClaves.length; i++) {
+            if (viejosOcupados[i]) {
+                int j = posicionIdeal(viejasClaves[i]);
+                while (ocupados[j]) {
+                    j = (j + 1) & mascara;
+                }
+                ocupados[j] = true;
+                claves[j] = viejasClaves[i];
+                valores[j] = viejosValores[i];
+                tamanio++;
+            }
+        }
+    }
+}
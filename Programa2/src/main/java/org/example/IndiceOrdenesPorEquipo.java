@@ -0,0 +1,227 @@
+package org.example;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Índice secundario que agrupa las órdenes de mantenimiento por equipo.
+ *
+ * Para cada equipo mantiene el conjunto de IDs de sus órdenes, un contador
+ * por estado y el costo acumulado de sus órdenes, de modo que consultas
+ * como "cuántas órdenes tiene el equipo", "tiene órdenes en proceso" o
+ * "cuánto costó su mantenimiento" se respondan sin recorrer la lista
+ * global. Los servicios de órdenes son responsables de notificar cada
+ * alta, transición de estado, cambio de costo y baja.
+ *
+ * Los costos se acumulan en centavos enteros para que sumar y restar
+ * repetidamente no arrastre errores de redondeo.
+ *
+ * Es seguro para uso concurrente: el mapa por equipo es concurrente y los
+ * datos de cada equipo se protegen con su propio monitor, de modo que
+ * solo compiten entre sí los hilos que consultan o modifican el mismo equipo.
+ *
+ * @param <E> enumeración de estados de la orden
+ */
+public class IndiceOrdenesPorEquipo<E extends Enum<E>> {
+
+    /**
+     * Datos agregados de las órdenes de un equipo.
+     */
+    private static class Entrada {
+        /** IDs de las órdenes del equipo en orden de registro. */
+        private final Set<Integer> idsOrdenes = new LinkedHashSet<>();
+        /** Cantidad de órdenes por estado, indexada por ordinal del enum. */
+        private final int[] porEstado;
+        /** Suma de los costos de las órdenes del equipo, en centavos. */
+        private long costoCentavos;
+
+        Entrada(int cantidadEstados) {
+            this.porEstado = new int[cantidadEstados];
+        }
+    }
+
+    /** Estructura que relaciona un equipo (por ID) con sus órdenes agregadas. */
+    private final Map<Integer, Entrada> porEquipo;
+
+    /** Cantidad de valores del enum de estados. */
+    private final int cantidadEstados;
+
+    /**
+     * Crea un índice vacío.
+     *
+     * @param tipoEstado clase del enum de estados de la orden
+     */
+    public IndiceOrdenesPorEquipo(Class<E> tipoEstado) {
+        this.porEquipo = new ConcurrentHashMap<>();
+        this.cantidadEstados = tipoEstado.getEnumConstants().length;
+    }
+
+    /**
+     * Registra una orden nueva para el equipo indicado.
+     *
+     * @param idEquipo ID del equipo asociado
+     * @param idOrden  ID de la orden
+     * @param estado   estado inicial de la orden
+     */
+    public void registrar(int idEquipo, int idOrden, E estado) {
+        registrar(idEquipo, idOrden, estado, 0);
+    }
+
+    /**
+     * Registra una orden nueva que ya tiene un costo (por ejemplo, al
+     * restaurarla desde una instantánea).
+     *
+     * @param idEquipo ID del equipo asociado
+     * @param idOrden  ID de la orden
+     * @param estado   estado inicial de la orden
+     * @param costo    costo actual de la orden
+     */
+    public void registrar(int idEquipo, int idOrden, E estado, double costo) {
+        // compute es atómico por clave: no puede cruzarse con el retiro de la entrada
+        porEquipo.compute(idEquipo, (k, e) -> {
+            if (e == null) e = new Entrada(cantidadEstados);
+            synchronized (e) {
+                if (e.idsOrdenes.add(idOrden)) {
+                    e.porEstado[estado.ordinal()]++;
+                    e.costoCentavos += centavos(costo);
+                }
+            }
+            return e;
+        });
+    }
+
+    /**
+     * Actualiza los contadores tras una transición de estado.
+     *
+     * @param idEquipo ID del equipo asociado
+     * @param anterior estado previo de la orden
+     * @param nuevo    estado actual de la orden
+     */
+    public void cambiarEstado(int idEquipo, E anterior, E nuevo) {
+        if (anterior == nuevo) return;
+        Entrada e = porEquipo.get(idEquipo);
+        if (e == null) return;
+        synchronized (e) {
+            e.porEstado[anterior.ordinal()]--;
+            e.porEstado[nuevo.ordinal()]++;
+        }
+    }
+
+    /**
+     * Retira una orden eliminada del índice.
+     *
+     * @param idEquipo ID del equipo asociado
+     * @param idOrden  ID de la orden
+     * @param estado   estado que tenía la orden al eliminarse
+     */
+    public void eliminar(int idEquipo, int idOrden, E estado) {
+        eliminar(idEquipo, idOrden, estado, 0);
+    }
+
+    /**
+     * Retira una orden eliminada del índice junto con su costo.
+     *
+     * @param idEquipo ID del equipo asociado
+     * @param idOrden  ID de la orden
+     * @param estado   estado que tenía la orden al eliminarse
+     * @param costo    costo que tenía la orden al eliminarse
+     */
+    public void eliminar(int idEquipo, int idOrden, E estado, double costo) {
+        porEquipo.computeIfPresent(idEquipo, (k, e) -> {
+            synchronized (e) {
+                if (e.idsOrdenes.remove(idOrden)) {
+                    e.porEstado[estado.ordinal()]--;
+                    e.costoCentavos -= centavos(costo);
+                }
+                return e.idsOrdenes.isEmpty() ? null : e;
+            }
+        });
+    }
+
+    /**
+     * Actualiza el costo acumulado tras cambiar el costo de una orden.
+     *
+     * @param idEquipo ID del equipo asociado
+     * @param anterior costo previo de la orden
+     * @param nuevo    costo actual de la orden
+     */
+    public void cambiarCosto(int idEquipo, double anterior, double nuevo) {
+        long diferencia = centavos(nuevo) - centavos(anterior);
+        if (diferencia == 0) return;
+        Entrada e = porEquipo.get(idEquipo);
+        if (e == null) return;
+        synchronized (e) {
+            e.costoCentavos += diferencia;
+        }
+    }
+
+    private static long centavos(double costo) {
+        return Math.round(costo * 100);
+    }
+
+    /**
+     * @param idEquipo ID del equipo
+     * @return cantidad total de órdenes asociadas al equipo
+     */
+    public int contar(int idEquipo) {
+        Entrada e = porEquipo.get(idEquipo);
+        if (e == null) return 0;
+        synchronized (e) {
+            return e.idsOrdenes.size();
+        }
+    }
+
+    /**
+     * @param idEquipo ID del equipo
+     * @param estado   estado consultado
+     * @return cantidad de órdenes del equipo en el estado indicado
+     */
+    public int contar(int idEquipo, E estado) {
+        Entrada e = porEquipo.get(idEquipo);
+        if (e == null) return 0;
+        synchronized (e) {
+            return e.porEstado[estado.ordinal()];
+        }
+    }
+
+    /**
+     * @param idEquipo ID del equipo
+     * @return costo acumulado de las órdenes del equipo
+     */
+    public double costo(int idEquipo) {
+        Entrada e = porEquipo.get(idEquipo);
+        if (e == null) return 0;
+        synchronized (e) {
+            return e.costoCentavos / 100.0;
+        }
+    }
+
+    /**
+     * Costos acumulados de varios equipos, en un arreglo alineado con los IDs.
+     *
+     * @param idsEquipos IDs de los equipos
+     * @return costo de cada equipo; 0 para los que no tienen órdenes
+     */
+    public double[] costos(int[] idsEquipos) {
+        double[] costos = new double[idsEquipos.length];
+        for (int i = 0; i < idsEquipos.length; i++) {
+            costos[i] = costo(idsEquipos[i]);
+        }
+        return costos;
+    }
+
+    /**
+     * @param idEquipo ID del equipo
+     * @return copia de solo lectura de los IDs de las órdenes del equipo
+     */
+    public Set<Integer> obtenerIdsOrdenes(int idEquipo) {
+        Entrada e = porEquipo.get(idEquipo);
+        if (e == null) return Collections.emptySet();
+        synchronized (e) {
+            return Collections.unmodifiableSet(new LinkedHashSet<>(e.idsOrdenes));
+        }
+    }
+}
@@ -0,0 +1,891 @@
+package org.example;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.zip.CRC32;
+
+/**
+ * Instantánea binaria del estado completo del sistema.
+ *
+ * El archivo se compone de una cabecera, una serie de bloques y un
+ * directorio final. Cada bloque contiene entidades de un solo tipo,
+ * codificadas campo a campo con enteros de longitud variable; las
+ * referencias entre entidades se guardan como IDs. Los bloques se cortan
+ * a unos pocos MB, de modo que un tipo con millones de entidades queda
+ * repartido en muchos bloques independientes.
+ *
+ * La carga mapea el archivo en memoria y decodifica los bloques en
+ * paralelo en dos etapas: primero las entidades sin dependencias (técnicos,
+ * usuarios, programas, repuestos, fallas, auditoría y equipos) y, una vez
+ * incorporadas, las que las referencian (órdenes, movimientos y reservas).
+ *
+ * Las enumeraciones se guardan por ordinal: agregar constantes al final de
+ * un enum es compatible; reordenarlas requiere subir {@link #VERSION}.
+ */
+public class InstantaneaSistema {
+
+    /** Identifica el formato del archivo ("P2SI"). */
+    private static final int MAGICO = 0x50325349;
+
+    /** Versión del formato. */
+    private static final int VERSION = 1;
+
+    /** Mágico, versión, época del diario, posición del directorio y cantidad de bloques. */
+    private static final int CABECERA = 4 + 4 + 8 + 8 + 4;
+
+    /** Tipo, posición, longitud, cantidad de entidades y crc de cada bloque. */
+    private static final int ENTRADA_DIRECTORIO = 1 + 8 + 4 + 4 + 4;
+
+    /** Tamaño a partir del cual se cierra un bloque y se inicia otro. */
+    private static final int TAMANIO_BLOQUE = 4 * 1024 * 1024;
+
+    /**
+     * Tipos de sección. El código se escribe en el directorio; las secciones
+     * dependientes se decodifican después de incorporar las demás.
+     */
+    private enum Seccion {
+        TECNICOS(1, false),
+        USUARIOS(2, false),
+        PROGRAMAS(3, false),
+        REPUESTOS(4, false),
+        FALLAS(5, false),
+        AUDITORIA(6, false), // solo lectura: instantáneas anteriores a CanalAuditoria
+        EQUIPOS(7, false),
+        ORDENES_PREVENTIVAS(8, true),
+        ORDENES_CORRECTIVAS(9, true),
+        MOVIMIENTOS(10, true),
+        RESERVAS(11, true);
+
+        final byte codigo;
+        final boolean dependiente;
+
+        Seccion(int codigo, boolean dependiente) {
+            this.codigo = (byte) codigo;
+            this.dependiente = dependiente;
+        }
+
+        static Seccion desdeCodigo(byte codigo) {
+            for (Seccion s : values()) {
+                if (s.codigo == codigo) return s;
+            }
+            return null;
+        }
+    }
+
+    /** Entrada del directorio que ubica un bloque dentro del archivo. */
+    private static class Bloque {
+        final Seccion seccion;
+        final long posicion;
+        final int longitud;
+        final int cantidad;
+        final int crc;
+
+        Bloque(Seccion seccion, long posicion, int longitud, int cantidad, int crc) {
+            this.seccion = seccion;
+            this.posicion = posicion;
+            this.longitud = longitud;
+            this.cantidad = cantidad;
+            this.crc = crc;
+        }
+    }
+
+    /** Resultado de decodificar un bloque. */
+    private static class Lote {
+        final Seccion seccion;
+        final List<Object> elementos;
+        /** Referencias a resolver cuando todas las entidades estén incorporadas. */
+        final List<Runnable> enlaces = new ArrayList<>();
+
+        Lote(Seccion seccion, int cantidad) {
+            this.seccion = seccion;
+            this.elementos = new ArrayList<>(cantidad);
+        }
+    }
+
+    private InstantaneaSistema() {}
+
+    // ======================================================
+    // ESCRITURA
+    // ======================================================
+
+    /**
+     * Escribe una instantánea del sistema. Se genera en un archivo temporal
+     * sincronizado con disco y se renombra sobre el definitivo, por lo que una
+     * caída durante la escritura conserva la instantánea anterior.
+     *
+     * Debe invocarse sin operaciones de escritura en curso.
+     *
+     * @param sistema      sistema a guardar
+     * @param archivo      ruta de la instantánea
+     * @param epocaDiario  época del diario que continúa después de esta instantánea
+     */
+    public static void guardar(SistemaMantenimiento sistema, Path archivo, long epocaDiario) {
+        try {
+            Path dir = archivo.toAbsolutePath().getParent();
+            if (dir != null) Files.createDirectories(dir);
+
+            Path tmp = archivo.resolveSibling(archivo.getFileName() + ".tmp");
+            try (FileChannel canal = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+
+                EscritorArchivo out = new EscritorArchivo(canal);
+                out.seccion(Seccion.TECNICOS, sistema.getTecnicoController().listarTecnicos(),
+                        InstantaneaSistema::escribirTecnico);
+                out.seccion(Seccion.USUARIOS, sistema.getUsuarioController().listarUsuarios(),
+                        InstantaneaSistema::escribirUsuario);
+                out.seccion(Seccion.PROGRAMAS, sistema.getProgramaPreventivoController().obtenerProgramas(),
+                        InstantaneaSistema::escribirPrograma);
+                out.seccion(Seccion.REPUESTOS, sistema.getInventarioRepuestosController().obtenerRepuestos(),
+                        InstantaneaSistema::escribirRepuesto);
+                out.seccion(Seccion.FALLAS, sistema.getFallaController().obtenerFallas(),
+                        InstantaneaSistema::escribirFalla);
+                // La auditoría se guarda en sus propios segmentos (CanalAuditoria)
+
+                EquipoController equipos = sistema.getEquipoController();
+                out.seccion(Seccion.EQUIPOS, equipos.obtenerEquipos(),
+                        (b, e) -> escribirEquipo(b, e, equipos, new IdentityHashMap<>()));
+
+                out.seccion(Seccion.ORDENES_PREVENTIVAS, sistema.getOrdenPreventivaController().obtenerOrdenes(),
+                        InstantaneaSistema::escribirOrdenPreventiva);
+                out.seccion(Seccion.ORDENES_CORRECTIVAS, sistema.getOrdenCorrectivaController().obtenerOrdenes(),
+                        InstantaneaSistema::escribirOrdenCorrectiva);
+                out.seccion(Seccion.MOVIMIENTOS, sistema.getInventarioRepuestosController().obtenerMovimientos(),
+                        InstantaneaSistema::escribirMovimiento);
+                out.seccion(Seccion.RESERVAS, sistema.getInventarioRepuestosController().obtenerReservas(),
+                        InstantaneaSistema::escribirReserva);
+
+                out.terminar(epocaDiario);
+                canal.force(true);
+            }
+            Files.move(tmp, archivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo guardar la instantánea " + archivo, e);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Codificador<T> {
+        void escribir(BuferBloque bloque, T elemento);
+    }
+
+    /**
+     * Acumula entidades en bloques y los vuelca al archivo, registrando
+     * cada uno en el directorio.
+     */
+    private static class EscritorArchivo {
+        private final FileChannel canal;
+        private final List<Bloque> directorio = new ArrayList<>();
+        private final BuferBloque bloque = new BuferBloque();
+        private long posicion = CABECERA;
+
+        EscritorArchivo(FileChannel canal) {
+            this.canal = canal;
+        }
+
+        <T> void seccion(Seccion seccion, List<T> elementos, Codificador<T> codificador) throws IOException {
+            int cantidad = 0;
+            for (T elemento : elementos) {
+                codificador.escribir(bloque, elemento);
+                cantidad++;
+                if (bloque.tamanio() >= TAMANIO_BLOQUE) {
+                    volcar(seccion, cantidad);
+                    cantidad = 0;
+                }
+            }
+            if (cantidad > 0) {
+                volcar(seccion, cantidad);
+            }
+        }
+
+        private void volcar(Seccion seccion, int cantidad) throws IOException {
+            CRC32 crc = new CRC32();
+            crc.update(bloque.datos(), 0, bloque.tamanio());
+            escribirCompleto(ByteBuffer.wrap(bloque.datos(), 0, bloque.tamanio()), posicion);
+            directorio.add(new Bloque(seccion, posicion, bloque.tamanio(), cantidad, (int) crc.getValue()));
+            posicion += bloque.tamanio();
+            bloque.reiniciar();
+        }
+
+        void terminar(long epocaDiario) throws IOException {
+            ByteBuffer dir = ByteBuffer.allocate(directorio.size() * ENTRADA_DIRECTORIO);
+            for (Bloque b : directorio) {
+                dir.put(b.seccion.codigo).putLong(b.posicion).putInt(b.longitud)
+                        .putInt(b.cantidad).putInt(b.crc);
+            }
+            dir.flip();
+            escribirCompleto(dir, posicion);
+
+            ByteBuffer cabecera = ByteBuffer.allocate(CABECERA);
+            cabecera.putInt(MAGICO).putInt(VERSION).putLong(epocaDiario)
+                    .putLong(posicion).putInt(directorio.size()).flip();
+            escribirCompleto(cabecera, 0);
+        }
+
+        private void escribirCompleto(ByteBuffer buffer, long desde) throws IOException {
+            long p = desde;
+            while (buffer.hasRemaining()) {
+                p += canal.write(buffer, p);
+            }
+        }
+    }
+
+    // ======================================================
+    // LECTURA
+    // ======================================================
+
+    /**
+     * Carga una instantánea sobre un sistema vacío.
+     *
+     * @param sistema sistema que recibe las entidades
+     * @param archivo ruta de la instantánea
+     * @return época del diario desde la cual debe continuar la reproducción
+     */
+    public static long cargar(SistemaMantenimiento sistema, Path archivo) {
+        try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.READ)) {
+            ByteBuffer cabecera = canal.map(FileChannel.MapMode.READ_ONLY, 0, CABECERA);
+            if (cabecera.getInt() != MAGICO) {
+                throw new IOException("El archivo " + archivo + " no es una instantánea del sistema.");
+            }
+            int version = cabecera.getInt();
+            if (version != VERSION) {
+                throw new IOException("Versión de instantánea no soportada: " + version);
+            }
+            long epocaDiario = cabecera.getLong();
+            long posicionDirectorio = cabecera.getLong();
+            int cantidadBloques = cabecera.getInt();
+
+            ByteBuffer dir = canal.map(FileChannel.MapMode.READ_ONLY, posicionDirectorio,
+                    (long) cantidadBloques * ENTRADA_DIRECTORIO);
+            List<Bloque> independientes = new ArrayList<>();
+            List<Bloque> dependientes = new ArrayList<>();
+            for (int i = 0; i < cantidadBloques; i++) {
+                byte codigo = dir.get();
+                Seccion seccion = Seccion.desdeCodigo(codigo);
+                if (seccion == null) {
+                    throw new IOException("Sección desconocida en la instantánea: " + codigo);
+                }
+                Bloque b = new Bloque(seccion, dir.getLong(), dir.getInt(), dir.getInt(), dir.getInt());
+                (seccion.dependiente ? dependientes : independientes).add(b);
+            }
+
+            incorporar(sistema, decodificar(canal, independientes, sistema));
+            incorporar(sistema, decodificar(canal, dependientes, sistema));
+            return epocaDiario;
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo cargar la instantánea " + archivo, e);
+        }
+    }
+
+    /**
+     * Decodifica los bloques en paralelo; el resultado conserva el orden del directorio.
+     */
+    private static List<Lote> decodificar(FileChannel canal, List<Bloque> bloques,
+                                          SistemaMantenimiento sistema) {
+        return bloques.parallelStream()
+                .map(b -> decodificarBloque(canal, b, sistema))
+                .collect(Collectors.toList());
+    }
+
+    private static Lote decodificarBloque(FileChannel canal, Bloque bloque, SistemaMantenimiento sistema) {
+        MappedByteBuffer datos;
+        try {
+            datos = canal.map(FileChannel.MapMode.READ_ONLY, bloque.posicion, bloque.longitud);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(datos.duplicate());
+        if ((int) crc.getValue() != bloque.crc) {
+            throw new UncheckedIOException(new IOException(
+                    "Bloque corrupto en la posición " + bloque.posicion + " de la instantánea."));
+        }
+
+        LectorBloque in = new LectorBloque(datos);
+        Lote lote = new Lote(bloque.seccion, bloque.cantidad);
+        for (int i = 0; i < bloque.cantidad; i++) {
+            lote.elementos.add(switch (bloque.seccion) {
+                case TECNICOS -> leerTecnico(in);
+                case USUARIOS -> leerUsuario(in);
+                case PROGRAMAS -> leerPrograma(in);
+                case REPUESTOS -> leerRepuesto(in);
+                case FALLAS -> leerFalla(in);
+                case AUDITORIA -> leerAuditoria(in);
+                case EQUIPOS -> leerEquipo(in, sistema, lote.enlaces);
+                case ORDENES_PREVENTIVAS -> leerOrdenPreventiva(in, sistema);
+                case ORDENES_CORRECTIVAS -> leerOrdenCorrectiva(in, sistema);
+                case MOVIMIENTOS -> leerMovimiento(in, sistema);
+                case RESERVAS -> leerReserva(in);
+            });
+        }
+        return lote;
+    }
+
+    /**
+     * Incorpora los lotes a los controladores por sección y luego resuelve
+     * las referencias pendientes.
+     */
+    @SuppressWarnings("unchecked")
+    private static void incorporar(SistemaMantenimiento sistema, List<Lote> lotes) {
+        for (Seccion seccion : Seccion.values()) {
+            List<Object> elementos = new ArrayList<>();
+            for (Lote lote : lotes) {
+                if (lote.seccion == seccion) elementos.addAll(lote.elementos);
+            }
+            if (elementos.isEmpty()) continue;
+
+            List<?> lista = elementos;
+            switch (seccion) {
+                case TECNICOS -> sistema.getTecnicoController().cargarTecnicos((List<Tecnico>) lista);
+                case USUARIOS -> sistema.getUsuarioController().cargarUsuarios((List<Usuario>) lista);
+                case PROGRAMAS -> sistema.getProgramaPreventivoController()
+                        .cargarProgramas((List<ProgramaPreventivo>) lista);
+                case REPUESTOS -> sistema.getInventarioRepuestosController()
+                        .cargarRepuestos((List<Repuesto>) lista);
+                case FALLAS -> sistema.getFallaController().cargarFallas((List<Falla>) lista);
+                case AUDITORIA -> sistema.getAuditoriaController()
+                        .cargarRegistros((List<AuditoriaMantenimiento>) lista);
+                case EQUIPOS -> sistema.getEquipoController().cargarEquipos((List<Equipo>) lista);
+                case ORDENES_PREVENTIVAS -> sistema.getOrdenPreventivaController()
+                        .cargarOrdenes((List<OrdenPreventiva>) lista);
+                case ORDENES_CORRECTIVAS -> sistema.getOrdenCorrectivaController()
+                        .cargarOrdenes((List<OrdenCorrectiva>) lista);
+                case MOVIMIENTOS -> sistema.getInventarioRepuestosController()
+                        .cargarMovimientos((List<MovimientoRepuesto>) lista);
+                case RESERVAS -> sistema.getInventarioRepuestosController()
+                        .cargarReservas((List<ReservaRepuestos>) lista);
+            }
+        }
+        for (Lote lote : lotes) {
+            lote.enlaces.forEach(Runnable::run);
+        }
+    }
+
+    // ======================================================
+    // CODIFICACIÓN DE ENTIDADES
+    // ======================================================
+
+    private static void escribirTecnico(BuferBloque b, Tecnico t) {
+        b.entero(t.getIdTecnico());
+        b.texto(t.getNombreCompleto());
+        b.texto(t.getEspecialidad());
+        b.texto(t.getTelefono());
+        b.texto(t.getEmail());
+        b.fecha(t.getFechaIngreso());
+        b.logico(t.isActivo());
+        b.textos(t.getCertificaciones());
+    }
+
+    private static Tecnico leerTecnico(LectorBloque in) {
+        Tecnico t = new Tecnico(in.entero(), in.texto(), in.texto(), in.texto(), in.texto());
+        t.setFechaIngreso(in.fecha());
+        t.setActivo(in.logico());
+        for (int n = in.entero(); n > 0; n--) t.agregarCertificacion(in.texto());
+        return t;
+    }
+
+    private static void escribirUsuario(BuferBloque b, Usuario u) {
+        b.entero(u.getIdUsuario());
+        b.texto(u.getNombreCompleto());
+        b.texto(u.getUsername());
+        b.texto(u.getPassword().codificar());
+        b.enumeracion(u.getRol());
+        b.texto(u.getEmail());
+        b.texto(u.getTelefono());
+        b.logico(u.isActivo());
+        b.fecha(u.getFechaCreacion());
+    }
+
+    private static Usuario leerUsuario(LectorBloque in) {
+        // Las instantáneas anteriores guardan la contraseña en claro; decodificar la convierte
+        Usuario u = new Usuario(in.entero(), in.texto(), in.texto(), HashPassword.decodificar(in.texto()),
+                in.enumeracion(Rol.values()), in.texto(), in.texto());
+        u.setActivo(in.logico());
+        u.setFechaCreacion(in.fecha());
+        return u;
+    }
+
+    private static void escribirPrograma(BuferBloque b, ProgramaPreventivo p) {
+        b.entero(p.getIdPrograma());
+        b.texto(p.getNombrePrograma());
+        b.texto(p.getObjetivo());
+        b.fecha(p.getFechaCreacion());
+        b.texto(p.getResponsable());
+        b.entero(p.getFases().size());
+        for (FasePreventiva fase : p.getFases()) escribirFase(b, fase);
+    }
+
+    private static ProgramaPreventivo leerPrograma(LectorBloque in) {
+        ProgramaPreventivo p = new ProgramaPreventivo(in.entero(), in.texto(), in.texto(),
+                in.fecha(), in.texto());
+        for (int n = in.entero(); n > 0; n--) p.agregarFase(leerFase(in));
+        return p;
+    }
+
+    private static void escribirFase(BuferBloque b, FasePreventiva f) {
+        b.entero(f.getNumeroFase());
+        b.texto(f.getDescripcion());
+        b.enumeracion(f.getFrecuencia());
+        b.entero(f.getIntervaloDias());
+        b.entero(f.getCantidadCiclos());
+        b.decimal(f.getTiempoEstimadoHoras());
+        b.texto(f.getObservaciones());
+        b.textos(f.getTareas());
+        b.textos(f.getRecursosNecesarios());
+    }
+
+    private static FasePreventiva leerFase(LectorBloque in) {
+        int numero = in.entero();
+        String descripcion = in.texto();
+        FasePreventiva.Frecuencia frecuencia = in.enumeracion(FasePreventiva.Frecuencia.values());
+        FasePreventiva f = new FasePreventiva(numero, descripcion, in.entero(), in.entero());
+        f.setFrecuencia(frecuencia);
+        f.setTiempoEstimadoHoras(in.decimal());
+        f.setObservaciones(in.texto());
+        for (int n = in.entero(); n > 0; n--) f.agregarTarea(in.texto());
+        for (int n = in.entero(); n > 0; n--) f.agregarRecurso(in.texto());
+        return f;
+    }
+
+    private static void escribirRepuesto(BuferBloque b, Repuesto r) {
+        b.entero(r.getId());
+        b.texto(r.getNombre());
+        b.texto(r.getDescripcion());
+        b.entero(r.getStockActual());
+        b.entero(r.getStockMinimo());
+        b.texto(r.getUbicacionAlmacen());
+        b.decimal(r.getCostoUnitario());
+    }
+
+    private static Repuesto leerRepuesto(LectorBloque in) {
+        return new Repuesto(in.entero(), in.texto(), in.texto(), in.entero(), in.entero(),
+                in.texto(), in.decimal());
+    }
+
+    private static void escribirFalla(BuferBloque b, Falla f) {
+        b.entero(f.getIdFalla());
+        b.texto(f.getDescripcion());
+        b.entero(f.getFrecuenciaReportes());
+    }
+
+    private static Falla leerFalla(LectorBloque in) {
+        Falla f = new Falla(in.entero(), in.texto());
+        f.setFrecuenciaReportes(in.entero());
+        return f;
+    }
+
+    /** Solo para instantáneas anteriores a los segmentos de auditoría. */
+    private static AuditoriaMantenimiento leerAuditoria(LectorBloque in) {
+        LocalDateTime fecha = in.fechaHora();
+        return new AuditoriaMantenimiento(in.texto(), in.texto(), in.texto(), in.texto(), fecha);
+    }
+
+    /**
+     * Escribe un equipo con su árbol de componentes. Un componente que también
+     * está registrado como equipo se guarda como referencia; el resto se
+     * escribe completo dentro de su equipo principal.
+     */
+    private static void escribirEquipo(BuferBloque b, Equipo e, EquipoController equipos,
+                                       Map<Equipo, Boolean> visitados) {
+        visitados.put(e, Boolean.TRUE);
+        b.entero(e.getId());
+        b.texto(e.getDescripcion());
+        b.texto(e.getTipo());
+        b.texto(e.getUbicacion());
+        b.texto(e.getFabricante());
+        b.texto(e.getSerie());
+        b.fecha(e.getFechaAdquisicion());
+        b.fecha(e.getFechaPuestaEnServicio());
+        b.entero(e.getMesesVidaUtil());
+        b.decimal(e.getCostoInicial());
+        b.enumeracion(e.getEstado());
+        b.texto(e.getModelo());
+        b.texto(e.getDimensiones());
+        b.decimal(e.getPeso());
+        b.texto(e.getEspecificacionesTecnicas());
+        b.texto(e.getInformacionGarantia());
+        b.entero(e.getProgramaPreventivo() == null ? 0 : e.getProgramaPreventivo().getIdPrograma());
+
+        BitacoraMantenimiento bitacora = e.getBitacora();
+        b.logico(bitacora != null);
+        if (bitacora != null) {
+            b.entero(bitacora.getIdBitacora());
+            b.fecha(bitacora.getUltimaActualizacion());
+            b.entero(bitacora.getRegistros().size());
+            for (EntradaBitacora entrada : bitacora.getRegistros()) {
+                b.fecha(entrada.getFecha());
+                b.enumeracion(entrada.getTipo());
+                b.texto(entrada.getDescripcion());
+            }
+        }
+
+        List<Equipo> componentes = new ArrayList<>();
+        for (Equipo c : e.getComponentes()) {
+            boolean registrado = equipos.buscarEquipo(c.getId()) == c;
+            if (registrado || !visitados.containsKey(c)) componentes.add(c);
+        }
+        b.entero(componentes.size());
+        for (Equipo c : componentes) {
+            if (equipos.buscarEquipo(c.getId()) == c) {
+                b.logico(true);
+                b.entero(c.getId());
+            } else {
+                b.logico(false);
+                escribirEquipo(b, c, equipos, visitados);
+            }
+        }
+    }
+
+    private static Equipo leerEquipo(LectorBloque in, SistemaMantenimiento sistema, List<Runnable> enlaces) {
+        Equipo e = new Equipo(in.entero(), in.texto(), in.texto(), in.texto(), in.texto(), in.texto(),
+                in.fecha(), in.fecha(), in.entero(), in.decimal(),
+                in.enumeracion(Equipo.EstadoEquipo.values()), in.texto(), in.texto(), in.decimal());
+        e.setEspecificacionesTecnicas(in.texto());
+        e.setInformacionGarantia(in.texto());
+
+        int idPrograma = in.entero();
+        if (idPrograma != 0) {
+            enlaces.add(() -> e.setProgramaPreventivo(
+                    sistema.getProgramaPreventivoController().buscarPrograma(idPrograma)));
+        }
+
+        if (in.logico()) {
+            BitacoraMantenimiento bitacora = new BitacoraMantenimiento(in.entero(), e);
+            LocalDate ultimaActualizacion = in.fecha();
+            for (int n = in.entero(); n > 0; n--) {
+                bitacora.getRegistros().add(new EntradaBitacora(in.fecha(),
+                        in.enumeracion(EntradaBitacora.TipoRegistro.values()), in.texto()));
+            }
+            bitacora.setUltimaActualizacion(ultimaActualizacion);
+            e.setBitacora(bitacora);
+        } else {
+            e.setBitacora(null);
+        }
+
+        for (int n = in.entero(); n > 0; n--) {
+            if (in.logico()) {
+                int idComponente = in.entero();
+                enlaces.add(() -> e.agregarComponente(sistema.getEquipoController().buscarEquipo(idComponente)));
+            } else {
+                Equipo componente = leerEquipo(in, sistema, enlaces);
+                enlaces.add(() -> e.agregarComponente(componente));
+            }
+        }
+        return e;
+    }
+
+    private static void escribirOrdenPreventiva(BuferBloque b, OrdenPreventiva o) {
+        b.entero(o.getIdOrden());
+        b.fecha(o.getFechaProgramada());
+        b.fecha(o.getFechaEjecucion());
+        b.fecha(o.getFechaCancelacion());
+        b.enumeracion(o.getEstado());
+        b.entero(o.getEquipoAsociado() == null ? 0 : o.getEquipoAsociado().getId());
+        b.entero(o.getTecnicoAsignado() == null ? 0 : o.getTecnicoAsignado().getIdTecnico());
+
+        // Fase: referencia (programa, número) o contenido completo si no pertenece a un programa
+        FasePreventiva fase = o.getFase();
+        ProgramaPreventivo programa = fase == null ? null : fase.getPrograma();
+        b.entero(fase == null ? -1 : programa == null ? 0 : programa.getIdPrograma());
+        if (programa != null) {
+            b.entero(fase.getNumeroFase());
+        } else if (fase != null) {
+            escribirFase(b, fase);
+        }
+
+        b.texto(o.getFirmaDigitalTecnico());
+        b.texto(o.getObservaciones());
+        b.texto(o.getDiagnosticoFinal());
+        b.decimal(o.getTiempoRealHoras());
+        b.textos(o.getMaterialesUtilizados());
+    }
+
+    private static OrdenPreventiva leerOrdenPreventiva(LectorBloque in, SistemaMantenimiento sistema) {
+        int id = in.entero();
+        LocalDate programada = in.fecha();
+        LocalDate ejecucion = in.fecha();
+        LocalDate cancelacion = in.fecha();
+        OrdenPreventiva.EstadoOrden estado = in.enumeracion(OrdenPreventiva.EstadoOrden.values());
+        Equipo equipo = sistema.getEquipoController().buscarEquipo(in.entero());
+        int idTecnico = in.entero();
+        Tecnico tecnico = idTecnico == 0 ? null : sistema.getTecnicoController().buscarTecnico(idTecnico);
+
+        FasePreventiva fase = null;
+        int idPrograma = in.entero();
+        if (idPrograma > 0) {
+            ProgramaPreventivo programa = sistema.getProgramaPreventivoController().buscarPrograma(idPrograma);
+            int numero = in.entero();
+            fase = programa == null ? null : programa.obtenerFase(numero);
+        } else if (idPrograma == 0) {
+            fase = leerFase(in);
+        }
+
+        OrdenPreventiva o = new OrdenPreventiva(id, programada, equipo, fase, tecnico);
+        o.setFechaEjecucion(ejecucion);
+        o.setFechaCancelacion(cancelacion);
+        o.setEstado(estado);
+        o.setFirmaDigitalTecnico(in.texto());
+        o.setObservaciones(in.texto());
+        o.setDiagnosticoFinal(in.texto());
+        o.setTiempoRealHoras(in.decimal());
+        for (int n = in.entero(); n > 0; n--) o.agregarMaterial(in.texto());
+        return o;
+    }
+
+    private static void escribirOrdenCorrectiva(BuferBloque b, OrdenCorrectiva o) {
+        b.entero(o.getIdOrdenCorrectiva());
+        b.fecha(o.getFechaReporte());
+        b.fecha(o.getFechaAtencion());
+        b.fecha(o.getFechaFinalizacion());
+        b.enumeracion(o.getEstado());
+        b.enumeracion(o.getPrioridad());
+        b.entero(o.getEquipoAsociado() == null ? 0 : o.getEquipoAsociado().getId());
+        b.texto(o.getDescripcionFalla());
+        b.texto(o.getCausaFalla());
+        b.texto(o.getDiagnosticoInicial());
+        b.textos(o.getMaterialesUtilizados());
+        b.decimal(o.getTiempoEmpleadoHoras());
+        b.texto(o.getAccionesRealizadas());
+        b.texto(o.getObservacionesFinales());
+        b.decimal(o.getCostoReparacion());
+    }
+
+    private static OrdenCorrectiva leerOrdenCorrectiva(LectorBloque in, SistemaMantenimiento sistema) {
+        int id = in.entero();
+        LocalDate reporte = in.fecha();
+        LocalDate atencion = in.fecha();
+        LocalDate finalizacion = in.fecha();
+        OrdenCorrectiva.EstadoOrden estado = in.enumeracion(OrdenCorrectiva.EstadoOrden.values());
+        OrdenCorrectiva.Prioridad prioridad = in.enumeracion(OrdenCorrectiva.Prioridad.values());
+        Equipo equipo = sistema.getEquipoController().buscarEquipo(in.entero());
+
+        OrdenCorrectiva o = new OrdenCorrectiva(id, reporte, equipo, in.texto(), in.texto(),
+                prioridad, in.texto());
+        o.setFechaAtencion(atencion);
+        o.setFechaFinalizacion(finalizacion);
+        o.setEstado(estado);
+        for (int n = in.entero(); n > 0; n--) o.agregarMaterial(in.texto());
+        o.setTiempoEmpleadoHoras(in.decimal());
+        o.setAccionesRealizadas(in.texto());
+        o.setObservacionesFinales(in.texto());
+        o.setCostoReparacion(in.decimal());
+        return o;
+    }
+
+    private static void escribirMovimiento(BuferBloque b, MovimientoRepuesto m) {
+        b.fecha(m.getFecha());
+        b.entero(m.getRepuesto() == null ? 0 : m.getRepuesto().getId());
+        b.entero(m.getCantidad());
+        b.enumeracion(m.getTipo());
+        b.texto(m.getMotivo());
+        b.texto(m.getReferencia());
+    }
+
+    private static MovimientoRepuesto leerMovimiento(LectorBloque in, SistemaMantenimiento sistema) {
+        LocalDate fecha = in.fecha();
+        Repuesto repuesto = sistema.getInventarioRepuestosController().buscarRepuesto(in.entero());
+        return new MovimientoRepuesto(fecha, repuesto, in.entero(),
+                in.enumeracion(MovimientoRepuesto.TipoMovimiento.values()), in.texto(), in.texto());
+    }
+
+    private static void escribirReserva(BuferBloque b, ReservaRepuestos r) {
+        b.texto(r.getReferenciaOrden());
+        b.fecha(r.getFechaReserva());
+        b.fecha(r.getFechaVencimiento());
+        b.entero(r.getLineas().size());
+        for (Map.Entry<Integer, Integer> linea : r.getLineas().entrySet()) {
+            b.entero(linea.getKey());
+            b.entero(linea.getValue());
+        }
+    }
+
+    private static ReservaRepuestos leerReserva(LectorBloque in) {
+        String referencia = in.texto();
+        LocalDate fecha = in.fecha();
+        LocalDate vencimiento = in.fecha();
+        Map<Integer, Integer> lineas = new LinkedHashMap<>();
+        for (int n = in.entero(); n > 0; n--) {
+            lineas.put(in.entero(), in.entero());
+        }
+        return new ReservaRepuestos(referencia, lineas, fecha, vencimiento);
+    }
+
+    // ======================================================
+    // CODIFICACIÓN DE CAMPOS
+    // ======================================================
+
+    /**
+     * Búfer de escritura de un bloque. Los enteros se codifican en zigzag con
+     * longitud variable; textos, fechas y enumeraciones reservan el valor 0
+     * para null.
+     */
+    private static class BuferBloque {
+        private byte[] datos = new byte[TAMANIO_BLOQUE + (TAMANIO_BLOQUE >> 2)];
+        private int tamanio;
+
+        byte[] datos() {
+            return datos;
+        }
+
+        int tamanio() {
+            return tamanio;
+        }
+
+        void reiniciar() {
+            tamanio = 0;
+        }
+
+        private void asegurar(int adicional) {
+            if (tamanio + adicional > datos.length) {
+                datos = Arrays.copyOf(datos, Math.max(datos.length << 1, tamanio + adicional));
+            }
+        }
+
+        private void sinSigno(long valor) {
+            asegurar(10);
+            while ((valor & ~0x7FL) != 0) {
+                datos[tamanio++] = (byte) ((valor & 0x7F) | 0x80);
+                valor >>>= 7;
+            }
+            datos[tamanio++] = (byte) valor;
+        }
+
+        void entero(int valor) {
+            sinSigno(((valor << 1) ^ (valor >> 31)) & 0xFFFFFFFFL);
+        }
+
+        void decimal(double valor) {
+            asegurar(8);
+            long bits = Double.doubleToRawLongBits(valor);
+            for (int i = 0; i < 8; i++) {
+                datos[tamanio++] = (byte) (bits >>> (i << 3));
+            }
+        }
+
+        void logico(boolean valor) {
+            asegurar(1);
+            datos[tamanio++] = (byte) (valor ? 1 : 0);
+        }
+
+        void texto(String valor) {
+            if (valor == null) {
+                sinSigno(0);
+                return;
+            }
+            byte[] bytes = valor.getBytes(StandardCharsets.UTF_8);
+            sinSigno(bytes.length + 1L);
+            asegurar(bytes.length);
+            System.arraycopy(bytes, 0, datos, tamanio, bytes.length);
+            tamanio += bytes.length;
+        }
+
+        void textos(List<String> valores) {
+            entero(valores.size());
+            for (String v : valores) texto(v);
+        }
+
+        void fecha(LocalDate valor) {
+            // Día de época en zigzag, desplazado en uno para reservar el 0 a null
+            if (valor == null) {
+                sinSigno(0);
+            } else {
+                long dia = valor.toEpochDay();
+                sinSigno(((dia << 1) ^ (dia >> 63)) + 1);
+            }
+        }
+
+        void fechaHora(LocalDateTime valor) {
+            fecha(valor == null ? null : valor.toLocalDate());
+            if (valor != null) {
+                sinSigno(valor.toLocalTime().toNanoOfDay());
+            }
+        }
+
+        void enumeracion(Enum<?> valor) {
+            sinSigno(valor == null ? 0 : valor.ordinal() + 1L);
+        }
+    }
+
+    /**
+     * Lector de un bloque mapeado en memoria, simétrico a {@link BuferBloque}.
+     */
+    private static class LectorBloque {
+        private final ByteBuffer datos;
+        private byte[] auxiliar = new byte[64];
+
+        LectorBloque(ByteBuffer datos) {
+            this.datos = datos.order(ByteOrder.LITTLE_ENDIAN);
+        }
+
+        private long sinSigno() {
+            long valor = 0;
+            int desplazamiento = 0;
+            byte b;
+            do {
+                b = datos.get();
+                valor |= (long) (b & 0x7F) << desplazamiento;
+                desplazamiento += 7;
+            } while (b < 0);
+            return valor;
+        }
+
+        int entero() {
+            long v = sinSigno();
+            return (int) (v >>> 1) ^ -(int) (v & 1);
+        }
+
+        double decimal() {
+            return Double.longBitsToDouble(datos.getLong());
+        }
+
+        boolean logico() {
+            return datos.get() != 0;
+        }
+
+        String texto() {
+            int longitud = (int) sinSigno() - 1;
+            if (longitud < 0) return null;
+            if (auxiliar.length < longitud) {
+                auxiliar = new byte[Math.max(longitud, auxiliar.length << 1)];
+            }
+            datos.get(auxiliar, 0, longitud);
+            return new String(auxiliar, 0, longitud, StandardCharsets.UTF_8);
+        }
+
+        LocalDate fecha() {
+            long v = sinSigno();
+            if (v == 0) return null;
+            v--;
+            return LocalDate.ofEpochDay((v >>> 1) ^ -(v & 1));
+        }
+
+        LocalDateTime fechaHora() {
+            LocalDate fecha = fecha();
+            return fecha == null ? null : LocalDateTime.of(fecha, LocalTime.ofNanoOfDay(sinSigno()));
+        }
+
+        <E extends Enum<E>> E enumeracion(E[] valores) {
+            int ordinal = (int) sinSigno() - 1;
+            return ordinal < 0 ? null : valores[ordinal];
+        }
+    }
+}
@@ -1,6 +1,10 @@
 package org.example;
 
+import java.time.LocalDate;
+import java.time.YearMonth;
 import java.util.List;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
 
 /**
  * Controlador responsable de gestionar las operaciones sobre
@@ -23,7 +27,11 @@ public class InventarioRepuestosController {
      * Registra un nuevo repuesto en el inventario, previa validación
      * de los parámetros ingresados.
      *
-     * @param id             identificador del repuesto
+     * Un ID digitado debe ser posterior a los ya asignados por el sistema
+     * (ver {@link IdAllocator#reclamar}); al reproducir el diario solo se
+     * informa a la secuencia.
+     *
+     * @param id             identificador del repuesto, o 0 para asignarlo automáticamente
      * @param nombre         nombre del repuesto
      * @param descripcion    información adicional
      * @param stockInicial   cantidad disponible al ingresar
@@ -40,12 +48,20 @@ public class InventarioRepuestosController {
                                   String ubicacion,
                                   double costoUnitario) {
 
-        if (id <= 0) return "El ID debe ser mayor a cero.";
+        if (id < 0) return "El ID no puede ser negativo.";
         if (nombre == null || nombre.isBlank()) return "Debe indicar un nombre.";
         if (stockInicial < 0) return "El stock inicial no puede ser negativo.";
         if (stockMinimo < 0) return "El stock mínimo no puede ser negativo.";
         if (costoUnitario < 0) return "El costo unitario no puede ser negativo.";
 
+        IdAllocator ids = SistemaMantenimiento.getInstancia().getIdAllocator();
+        boolean registrando = SistemaMantenimiento.getInstancia().getDiario().isActivo();
+        if (id == 0) {
+            id = ids.siguiente(IdAllocator.Secuencia.REPUESTO);
+        } else if (registrando && !ids.reclamar(IdAllocator.Secuencia.REPUESTO, id)) {
+            return "El ID " + id + " ya fue asignado por el sistema; deje el campo vacío para obtener uno nuevo.";
+        }
+
         Repuesto nuevo = new Repuesto(
                 id,
                 nombre,
@@ -56,7 +72,20 @@ public class InventarioRepuestosController {
                 costoUnitario
         );
 
-        boolean ok = inventarioService.agregarRepuesto(nuevo);
+        boolean ok = SistemaMantenimiento.getInstancia().getDiario().aplicar(
+                () -> inventarioService.agregarRepuesto(nuevo),
+                DiarioOperaciones.Operacion.AGREGAR_REPUESTO, out -> {
+                    out.writeInt(nuevo.getId());
+                    out.escribirTexto(nombre);
+                    out.escribirTexto(descripcion);
+                    out.writeInt(stockInicial);
+                    out.writeInt(stockMinimo);
+                    out.escribirTexto(ubicacion);
+                    out.writeDouble(costoUnitario);
+                });
+        if (ok) {
+            ids.observar(IdAllocator.Secuencia.REPUESTO, id);
+        }
         return ok ? "Repuesto registrado correctamente."
                   : "Ya existe un repuesto con ese ID.";
     }
@@ -92,10 +121,23 @@ public class InventarioRepuestosController {
      */
     public String registrarEntrada(int idRepuesto, int cantidad,
                                    String motivo, String referencia) {
+        return registrarEntrada(idRepuesto, cantidad, motivo, referencia, LocalDate.now());
+    }
+
+    /**
+     * Registra una entrada de repuestos con la fecha indicada.
+     *
+     * @param fecha fecha del movimiento
+     * @return mensaje indicando el resultado de la operación
+     */
+    public String registrarEntrada(int idRepuesto, int cantidad,
+                                   String motivo, String referencia, LocalDate fecha) {
 
         if (cantidad <= 0) return "La cantidad debe ser mayor a cero.";
 
-        boolean ok = inventarioService.registrarEntrada(idRepuesto, cantidad, motivo, referencia);
+        boolean ok = registrarMovimiento(DiarioOperaciones.Operacion.ENTRADA_REPUESTO,
+                idRepuesto, cantidad, motivo, referencia, fecha,
+                () -> inventarioService.registrarEntrada(idRepuesto, cantidad, motivo, referencia, fecha));
 
         return ok ? "Entrada registrada."
                   : "No se pudo registrar la entrada. Verifique ID y cantidad.";
@@ -113,10 +155,23 @@ public class InventarioRepuestosController {
      */
     public String registrarSalida(int idRepuesto, int cantidad,
                                   String motivo, String referencia) {
+        return registrarSalida(idRepuesto, cantidad, motivo, referencia, LocalDate.now());
+    }
+
+    /**
+     * Registra la salida de repuestos con la fecha indicada.
+     *
+     * @param fecha fecha del movimiento
+     * @return mensaje de confirmación o error
+     */
+    public String registrarSalida(int idRepuesto, int cantidad,
+                                  String motivo, String referencia, LocalDate fecha) {
 
         if (cantidad <= 0) return "La cantidad debe ser mayor a cero.";
 
-        boolean ok = inventarioService.registrarSalida(idRepuesto, cantidad, motivo, referencia);
+        boolean ok = registrarMovimiento(DiarioOperaciones.Operacion.SALIDA_REPUESTO,
+                idRepuesto, cantidad, motivo, referencia, fecha,
+                () -> inventarioService.registrarSalida(idRepuesto, cantidad, motivo, referencia, fecha));
 
         return ok ? "Salida registrada."
                   : "Stock insuficiente o ID no válido.";
@@ -132,13 +187,361 @@ public class InventarioRepuestosController {
      * @return mensaje indicando éxito o fallo
      */
     public String registrarAjuste(int idRepuesto, int nuevoStock, String motivo) {
+        return registrarAjuste(idRepuesto, nuevoStock, motivo, LocalDate.now());
+    }
+
+    /**
+     * Aplica un ajuste de inventario con la fecha indicada.
+     *
+     * @param fecha fecha del movimiento
+     * @return mensaje indicando éxito o fallo
+     */
+    public String registrarAjuste(int idRepuesto, int nuevoStock, String motivo, LocalDate fecha) {
 
         if (nuevoStock < 0) return "El stock no puede ser negativo.";
 
-        boolean ok = inventarioService.registrarAjuste(idRepuesto, nuevoStock, motivo);
+        boolean ok = SistemaMantenimiento.getInstancia().getDiario().aplicar(
+                inventarioService.getCerrojos(), idRepuesto,
+                () -> inventarioService.registrarAjuste(idRepuesto, nuevoStock, motivo, fecha),
+                DiarioOperaciones.Operacion.AJUSTE_REPUESTO, out -> {
+                    out.writeInt(idRepuesto);
+                    out.writeInt(nuevoStock);
+                    out.escribirTexto(motivo);
+                    out.escribirFecha(fecha);
+                });
 
-        return ok ? "Ajuste aplicado."
-                  : "No se pudo registrar el ajuste.";
+        if (ok) return "Ajuste aplicado.";
+        Repuesto r = inventarioService.buscarRepuestoPorId(idRepuesto);
+        return r != null && nuevoStock < r.getStockReservado()
+                ? "El stock no puede quedar por debajo de lo reservado (" + r.getStockReservado() + " unidades)."
+                : "No se pudo registrar el ajuste.";
+    }
+
+    /**
+     * Aplica una entrada o salida de repuestos y la registra en el diario,
+     * ambas con el cerrojo del repuesto tomado.
+     */
+    private boolean registrarMovimiento(DiarioOperaciones.Operacion operacion, int idRepuesto,
+                                        int cantidad, String motivo, String referencia,
+                                        LocalDate fecha, BooleanSupplier movimiento) {
+        return SistemaMantenimiento.getInstancia().getDiario().aplicar(
+                inventarioService.getCerrojos(), idRepuesto, movimiento,
+                operacion, out -> {
+                    out.writeInt(idRepuesto);
+                    out.writeInt(cantidad);
+                    out.escribirTexto(motivo);
+                    out.escribirTexto(referencia);
+                    out.escribirFecha(fecha);
+                });
+    }
+
+    /**
+     * Recupera los repuestos en su stock mínimo o por debajo, ordenados del
+     * mayor faltante al menor.
+     *
+     * @return repuestos que requieren reposición
+     */
+    public List<Repuesto> obtenerRepuestosBajoMinimo() {
+        return inventarioService.obtenerRepuestosBajoMinimo();
+    }
+
+    /**
+     * Suscribe un oyente a los cruces del stock mínimo de cualquier repuesto.
+     *
+     * @param oyente oyente a registrar
+     */
+    public void agregarOyenteStockMinimo(OyenteStockMinimo oyente) {
+        inventarioService.agregarOyenteStockMinimo(oyente);
+    }
+
+    /**
+     * Cancela la suscripción de un oyente.
+     *
+     * @param oyente oyente a quitar
+     */
+    public void quitarOyenteStockMinimo(OyenteStockMinimo oyente) {
+        inventarioService.quitarOyenteStockMinimo(oyente);
+    }
+
+    // ----------------- RESERVAS -----------------
+
+    /**
+     * Referencia con la que se reservan los repuestos de una orden correctiva.
+     *
+     * @param idOrden ID de la orden
+     * @return referencia de reserva
+     */
+    public static String referenciaOrdenCorrectiva(int idOrden) {
+        return "OC-" + idOrden;
+    }
+
+    /**
+     * Referencia con la que se reservan los repuestos de una orden preventiva.
+     *
+     * @param idOrden ID de la orden
+     * @return referencia de reserva
+     */
+    public static String referenciaOrdenPreventiva(int idOrden) {
+        return "OP-" + idOrden;
+    }
+
+    /**
+     * Reserva todos los repuestos que necesita una orden: o se apartan
+     * todas las cantidades o ninguna.
+     *
+     * @param referenciaOrden  referencia de la orden
+     * @param lineas           cantidad a reservar por ID de repuesto
+     * @param fecha            fecha de la reserva
+     * @param fechaVencimiento último día de validez, o null si no vence
+     * @return mensaje indicando el resultado de la operación
+     */
+    public String reservarRepuestos(String referenciaOrden, Map<Integer, Integer> lineas,
+                                    LocalDate fecha, LocalDate fechaVencimiento) {
+
+        String error = validarReserva(referenciaOrden, lineas, fecha, fechaVencimiento);
+        if (error != null) return error;
+
+        long turno = encolarReserva(referenciaOrden, lineas, fecha, fechaVencimiento);
+        SistemaMantenimiento.getInstancia().getDiario().esperar(turno);
+
+        return turno >= 0 ? "Repuestos reservados."
+                          : "No se pudo reservar (reserva existente, ID no válido o disponible insuficiente).";
+    }
+
+    /**
+     * Valida los datos de una reserva.
+     *
+     * @return mensaje de error, o null si son válidos
+     */
+    String validarReserva(String referenciaOrden, Map<Integer, Integer> lineas,
+                          LocalDate fecha, LocalDate fechaVencimiento) {
+        if (referenciaOrden == null || referenciaOrden.isBlank()) return "Debe indicar la orden.";
+        if (lineas == null || lineas.isEmpty()) return "Debe indicar los repuestos a reservar.";
+        for (Integer cantidad : lineas.values()) {
+            if (cantidad == null || cantidad <= 0) return "Las cantidades deben ser mayores a cero.";
+        }
+        if (fecha == null) return "Debe ingresar fecha válida.";
+        if (fechaVencimiento != null && fechaVencimiento.isBefore(fecha))
+            return "El vencimiento no puede ser anterior a la reserva.";
+        return null;
+    }
+
+    /**
+     * Crea la reserva con los cerrojos de sus repuestos tomados y la encola
+     * en el diario antes de liberarlos, sin esperar a que llegue a disco.
+     * Lo usan las órdenes, que además tienen tomado el cerrojo de la orden
+     * dentro de una escritura del diario.
+     *
+     * @return turno del diario, o -1 si no se pudo reservar
+     */
+    long encolarReserva(String referenciaOrden, Map<Integer, Integer> lineas,
+                        LocalDate fecha, LocalDate fechaVencimiento) {
+        DiarioOperaciones diario = SistemaMantenimiento.getInstancia().getDiario();
+        int[] ids = lineas.keySet().stream().mapToInt(Integer::intValue).toArray();
+
+        return diario.escribir(() -> inventarioService.getCerrojos().ejecutar(ids, () -> {
+            if (inventarioService.reservarRepuestos(referenciaOrden, lineas, fecha, fechaVencimiento) == null) {
+                return -1L;
+            }
+            return diario.encolar(DiarioOperaciones.Operacion.RESERVAR_REPUESTOS, out -> {
+                out.escribirTexto(referenciaOrden);
+                out.escribirFecha(fecha);
+                out.escribirFecha(fechaVencimiento);
+                out.writeInt(lineas.size());
+                for (Map.Entry<Integer, Integer> linea : lineas.entrySet()) {
+                    out.writeInt(linea.getKey());
+                    out.writeInt(linea.getValue());
+                }
+            });
+        }));
+    }
+
+    /**
+     * Convierte la reserva activa de una orden en salidas de inventario.
+     *
+     * @param referenciaOrden referencia de la orden
+     * @param motivo          motivo de las salidas
+     * @param fecha           fecha de los movimientos
+     * @return mensaje indicando el resultado de la operación
+     */
+    public String confirmarReserva(String referenciaOrden, String motivo, LocalDate fecha) {
+
+        if (fecha == null) return "Debe ingresar fecha válida.";
+
+        ReservaRepuestos reserva = inventarioService.buscarReserva(referenciaOrden);
+        if (reserva == null) return "La orden no tiene repuestos reservados.";
+
+        boolean ok = cerrarReserva(reserva,
+                () -> inventarioService.confirmarReserva(reserva, motivo, fecha),
+                DiarioOperaciones.Operacion.CONFIRMAR_RESERVA_REPUESTOS, out -> {
+                    out.escribirTexto(referenciaOrden);
+                    out.escribirTexto(motivo);
+                    out.escribirFecha(fecha);
+                });
+
+        return ok ? "Reserva confirmada como salida."
+                  : "No se pudo confirmar la reserva (ya cerrada o stock físico insuficiente).";
+    }
+
+    /**
+     * Libera la reserva activa de una orden y devuelve sus cantidades al disponible.
+     *
+     * @param referenciaOrden referencia de la orden
+     * @return mensaje indicando el resultado de la operación
+     */
+    public String liberarReserva(String referenciaOrden) {
+        ReservaRepuestos reserva = inventarioService.buscarReserva(referenciaOrden);
+        if (reserva == null) return "La orden no tiene repuestos reservados.";
+
+        return liberarReserva(reserva, ReservaRepuestos.EstadoReserva.LIBERADA)
+                ? "Reserva liberada."
+                : "La reserva ya estaba cerrada.";
+    }
+
+    /**
+     * Libera las reservas cuyo vencimiento ya pasó en la fecha indicada.
+     * Cada liberación queda en el diario como una operación propia.
+     *
+     * @param fecha fecha de referencia
+     * @return cantidad de reservas liberadas
+     */
+    public int liberarReservasVencidas(LocalDate fecha) {
+        if (fecha == null) return 0;
+
+        int liberadas = 0;
+        for (ReservaRepuestos reserva : inventarioService.obtenerReservasVencidas(fecha)) {
+            if (liberarReserva(reserva, ReservaRepuestos.EstadoReserva.VENCIDA)) liberadas++;
+        }
+        if (liberadas > 0) {
+            System.out.println("Reservas de repuestos vencidas liberadas: " + liberadas);
+        }
+        return liberadas;
+    }
+
+    boolean liberarReserva(ReservaRepuestos reserva, ReservaRepuestos.EstadoReserva estado) {
+        return cerrarReserva(reserva,
+                () -> inventarioService.liberarReserva(reserva, estado),
+                DiarioOperaciones.Operacion.LIBERAR_RESERVA_REPUESTOS, out -> {
+                    out.escribirTexto(reserva.getReferenciaOrden());
+                    out.escribirEnum(estado);
+                });
+    }
+
+    /**
+     * Cierra una reserva con los cerrojos de sus repuestos tomados y lo
+     * registra en el diario antes de liberarlos.
+     */
+    private boolean cerrarReserva(ReservaRepuestos reserva, BooleanSupplier cierre,
+                                  DiarioOperaciones.Operacion operacion,
+                                  DiarioOperaciones.Contenido contenido) {
+        DiarioOperaciones diario = SistemaMantenimiento.getInstancia().getDiario();
+        long turno = diario.escribir(() -> inventarioService.getCerrojos().ejecutar(reserva.idsRepuestos(), () ->
+                cierre.getAsBoolean() ? diario.encolar(operacion, contenido) : -1L));
+        diario.esperar(turno);
+        return turno >= 0;
+    }
+
+    /** Resultado de {@link #aplicarConReserva}. */
+    enum ResultadoCierre {
+        /** La orden cambió de estado y su reserva, si tenía, se cerró. */
+        APLICADO,
+        /** La orden no admitió el cambio de estado. */
+        RECHAZADO,
+        /** La reserva no cubre lo que se consumiría; la orden no se modificó. */
+        RESERVA_INSUFICIENTE
+    }
+
+    /** Turno ficticio con que se aborta un cierre cuya reserva no puede confirmarse. */
+    private static final long TURNO_RESERVA_INSUFICIENTE = -2L;
+
+    /**
+     * Aplica un cambio de estado de una orden y, en la misma operación del
+     * diario, cierra la reserva de repuestos de la orden si tiene una:
+     * la confirma como salidas o la libera. Los cerrojos se toman en el
+     * orden habitual (orden y luego repuestos), de modo que el registro
+     * queda ordenado respecto de otros movimientos de esos repuestos y al
+     * reproducirlo la reserva se cierra igual. Si hay que confirmar la
+     * reserva y el stock ya no la cubre, no se toca la orden ni el diario.
+     *
+     * @param cerrojosOrden   cerrojos del servicio de la orden
+     * @param idOrden         ID de la orden
+     * @param referenciaOrden referencia de reserva de la orden
+     * @param confirmar       true para convertir la reserva en salidas, false para liberarla
+     * @param motivo          motivo de las salidas, si se confirma
+     * @param fecha           fecha de las salidas, si se confirma
+     * @param accion          cambio de estado de la orden; devuelve si se aplicó
+     * @param operacion       operación de la orden a registrar
+     * @param contenido       datos de la operación
+     * @return resultado del cambio de estado de la orden
+     */
+    ResultadoCierre aplicarConReserva(CerrojosPorId cerrojosOrden, int idOrden, String referenciaOrden,
+                              boolean confirmar, String motivo, LocalDate fecha,
+                              BooleanSupplier accion, DiarioOperaciones.Operacion operacion,
+                              DiarioOperaciones.Contenido contenido) {
+        DiarioOperaciones diario = SistemaMantenimiento.getInstancia().getDiario();
+
+        long turno = diario.escribir(() -> cerrojosOrden.ejecutar(idOrden, () -> {
+            // Con el cerrojo de la orden tomado su reserva ya no cambia de repuestos
+            ReservaRepuestos reserva = inventarioService.buscarReserva(referenciaOrden);
+            int[] ids = reserva == null ? new int[0] : reserva.idsRepuestos();
+
+            return inventarioService.getCerrojos().ejecutar(ids, () -> {
+                // Se verifica antes del cambio de estado: después ya no se podría deshacer
+                if (confirmar && reserva != null && !inventarioService.puedeConfirmar(reserva)) {
+                    return TURNO_RESERVA_INSUFICIENTE;
+                }
+                if (!accion.getAsBoolean()) return -1L;
+                if (reserva != null) {
+                    boolean cerrada = confirmar
+                            ? inventarioService.confirmarReserva(reserva, motivo, fecha)
+                            : inventarioService.liberarReserva(reserva, ReservaRepuestos.EstadoReserva.LIBERADA);
+                    if (!cerrada) {
+                        System.err.println("No se pudo cerrar la reserva de repuestos " + referenciaOrden);
+                    }
+                }
+                return diario.encolar(operacion, contenido);
+            });
+        }));
+        diario.esperar(turno);
+        if (turno == TURNO_RESERVA_INSUFICIENTE) return ResultadoCierre.RESERVA_INSUFICIENTE;
+        return turno >= 0 ? ResultadoCierre.APLICADO : ResultadoCierre.RECHAZADO;
+    }
+
+    /**
+     * Busca la reserva activa de una orden.
+     *
+     * @param referenciaOrden referencia de la orden
+     * @return reserva activa o null si no tiene
+     */
+    public ReservaRepuestos buscarReserva(String referenciaOrden) {
+        return inventarioService.buscarReserva(referenciaOrden);
+    }
+
+    /**
+     * @return reservas activas
+     */
+    public List<ReservaRepuestos> obtenerReservas() {
+        return inventarioService.obtenerReservas();
+    }
+
+    /**
+     * Disponible para comprometer de un repuesto (stock no reservado).
+     *
+     * @param idRepuesto identificador del repuesto
+     * @return unidades disponibles
+     */
+    public int consultarDisponible(int idRepuesto) {
+        return inventarioService.consultarDisponible(idRepuesto);
+    }
+
+    /**
+     * Indica si todas las cantidades pedidas están disponibles.
+     *
+     * @param lineas cantidad requerida por ID de repuesto
+     * @return true si todas alcanzan
+     */
+    public boolean hayDisponible(Map<Integer, Integer> lineas) {
+        return lineas != null && inventarioService.hayDisponible(lineas);
     }
 
     /**
@@ -150,6 +553,94 @@ public class InventarioRepuestosController {
     public List<MovimientoRepuesto> obtenerMovimientos() {
         return inventarioService.obtenerMovimientos();
     }
-}
 
+    /**
+     * Consulta los movimientos registrados entre dos fechas.
+     *
+     * @param desde primer día incluido, o null sin límite
+     * @param hasta último día incluido, o null sin límite
+     * @return movimientos del rango, agrupados por mes
+     */
+    public List<MovimientoRepuesto> consultarMovimientos(LocalDate desde, LocalDate hasta) {
+        return inventarioService.consultarMovimientos(desde, hasta);
+    }
+
+    /**
+     * Consulta los movimientos de un repuesto entre dos fechas.
+     *
+     * @param idRepuesto identificador del repuesto
+     * @param desde      primer día incluido, o null sin límite
+     * @param hasta      último día incluido, o null sin límite
+     * @return movimientos del repuesto en el rango, agrupados por mes
+     */
+    public List<MovimientoRepuesto> consultarMovimientos(int idRepuesto, LocalDate desde, LocalDate hasta) {
+        return inventarioService.consultarMovimientos(idRepuesto, desde, hasta);
+    }
+
+    /**
+     * Obtiene los totales mensuales de entradas, salidas y ajustes.
+     *
+     * @param desde primer mes incluido, o null sin límite
+     * @param hasta último mes incluido, o null sin límite
+     * @return un resumen por mes con movimientos
+     */
+    public List<LibroMovimientos.ResumenMes> resumenMensual(YearMonth desde, YearMonth hasta) {
+        return inventarioService.resumenMensual(desde, hasta);
+    }
 
+    /**
+     * Obtiene los totales mensuales de entradas, salidas y ajustes de un repuesto.
+     *
+     * @param idRepuesto identificador del repuesto
+     * @param desde      primer mes incluido, o null sin límite
+     * @param hasta      último mes incluido, o null sin límite
+     * @return un resumen por mes en que el repuesto tuvo movimientos
+     */
+    public List<LibroMovimientos.ResumenMes> resumenMensual(int idRepuesto, YearMonth desde, YearMonth hasta) {
+        return inventarioService.resumenMensual(idRepuesto, desde, hasta);
+    }
+
+    /**
+     * Servicio de inventario, para operaciones de otros módulos que deben
+     * descontar repuestos de forma atómica con sus propios cambios.
+     *
+     * @return servicio de inventario de este controlador
+     */
+    InventarioRepuestosService getInventarioService() {
+        return inventarioService;
+    }
+
+    /**
+     * Incorpora los repuestos restaurados desde una instantánea, sin validar
+     * ni registrar en el diario de operaciones.
+     *
+     * @param repuestos repuestos a incorporar
+     */
+    public void cargarRepuestos(List<Repuesto> repuestos) {
+        int maximo = 0;
+        for (Repuesto repuesto : repuestos) {
+            inventarioService.agregarRepuesto(repuesto);
+            maximo = Math.max(maximo, repuesto.getId());
+        }
+        SistemaMantenimiento.getInstancia().getIdAllocator()
+                .observar(IdAllocator.Secuencia.REPUESTO, maximo);
+    }
+
+    /**
+     * Incorpora al historial los movimientos restaurados desde una instantánea.
+     *
+     * @param movimientos movimientos a incorporar, en orden cronológico
+     */
+    public void cargarMovimientos(List<MovimientoRepuesto> movimientos) {
+        inventarioService.agregarMovimientos(movimientos);
+    }
+
+    /**
+     * Incorpora las reservas activas restauradas desde una instantánea.
+     *
+     * @param reservas reservas a incorporar
+     */
+    public void cargarReservas(List<ReservaRepuestos> reservas) {
+        inventarioService.agregarReservas(reservas);
+    }
+}
@@ -1,8 +1,10 @@
 package org.example;
 
 import java.awt.*;
+import java.util.ArrayList;
 import java.util.List;
 import javax.swing.*;
+import javax.swing.table.DefaultTableModel;
 
 /**
  * Ventana Swing encargada de gestionar el módulo de
@@ -18,12 +20,35 @@ public class InventarioRepuestosFrame extends JFrame {
     /** Área de texto utilizada para mostrar el inventario disponible. */
     private JTextArea salida;
 
+    /** Avance y carga en curso del inventario. */
+    private JProgressBar barraCarga;
+    private CargaEnSegundoPlano<Repuesto, String> carga;
+
+    /** Carga inicial de la tabla de repuestos bajo mínimo. */
+    private CargaEnSegundoPlano<Repuesto, Repuesto> cargaBajoMinimo;
+
+    /** Avisos recibidos durante la carga inicial; null una vez aplicados o si la carga falló. */
+    private List<Runnable> avisosPendientes = new ArrayList<>();
+
     // Campos para agregar repuesto
     private JTextField txtId, txtNombre, txtDesc, txtStockIni, txtStockMin, txtUbicacion, txtCosto;
 
     // Campos para movimientos
     private JTextField txtMovId, txtCantidad, txtMotivo, txtReferencia, txtNuevoStock;
 
+    /** Repuestos bajo mínimo; se actualiza fila por fila con los avisos del inventario. */
+    private DefaultTableModel modeloBajoMinimo;
+
+    /** Fila de cada repuesto en {@link #modeloBajoMinimo}, por ID. */
+    private final IndiceEntero filasBajoMinimo = new IndiceEntero();
+
+    /** Oyente registrado mientras la ventana está abierta. */
+    private OyenteStockMinimo oyenteBajoMinimo;
+
+    /** Suscripciones a los cambios de stock y de disponible, que refrescan las filas bajo mínimo. */
+    private BusEventos.Suscripcion suscripcionStock;
+    private BusEventos.Suscripcion suscripcionDisponible;
+
     /**
      * Constructor principal: configura ventana, pestañas y componentes
      * de interacción.
@@ -45,10 +70,35 @@ public class InventarioRepuestosFrame extends JFrame {
         tabs.add("Registrar repuesto", panelAgregar());
         tabs.add("Movimientos", panelMovimientos());
         tabs.add("Inventario", panelLista());
+        tabs.add("Bajo mínimo", panelBajoMinimo());
 
         add(tabs, BorderLayout.CENTER);
     }
 
+    /**
+     * Cancela las cargas en curso y las suscripciones a los avisos de stock
+     * al cerrar la ventana.
+     */
+    @Override
+    public void dispose() {
+        CargaEnSegundoPlano.cancelar(carga);
+        CargaEnSegundoPlano.cancelar(cargaBajoMinimo);
+        avisosPendientes = null;
+        if (oyenteBajoMinimo != null) {
+            sistema.getInventarioRepuestosController().quitarOyenteStockMinimo(oyenteBajoMinimo);
+            oyenteBajoMinimo = null;
+        }
+        if (suscripcionStock != null) {
+            suscripcionStock.cancelar();
+            suscripcionStock = null;
+        }
+        if (suscripcionDisponible != null) {
+            suscripcionDisponible.cancelar();
+            suscripcionDisponible = null;
+        }
+        super.dispose();
+    }
+
     // ------------------------------------------------------------
     // PANEL: AGREGAR REPUESTO
     // ------------------------------------------------------------
@@ -67,7 +117,7 @@ public class InventarioRepuestosFrame extends JFrame {
         txtUbicacion = new JTextField();
         txtCosto = new JTextField();
 
-        p.add(new JLabel("ID:"));          p.add(txtId);
+        p.add(new JLabel("ID (vacío = automático):")); p.add(txtId);
         p.add(new JLabel("Nombre:"));      p.add(txtNombre);
         p.add(new JLabel("Descripción:")); p.add(txtDesc);
         p.add(new JLabel("Stock inicial:")); p.add(txtStockIni);
@@ -89,7 +139,8 @@ public class InventarioRepuestosFrame extends JFrame {
      */
     private void agregarRepuesto() {
         try {
-            int id = Integer.parseInt(txtId.getText());
+            // Si el ID se deja vacío el controlador lo asigna automáticamente
+            int id = txtId.getText().isBlank() ? 0 : Integer.parseInt(txtId.getText());
             int stockIni = Integer.parseInt(txtStockIni.getText());
             int stockMin = Integer.parseInt(txtStockMin.getText());
             double costo = Double.parseDouble(txtCosto.getText());
@@ -158,7 +209,8 @@ public class InventarioRepuestosFrame extends JFrame {
 
     /**
      * Registra una entrada de stock utilizando el controlador
-     * y actualiza la lista visible.
+     * y actualiza la lista visible. La tabla bajo mínimo se actualiza
+     * con el evento del movimiento.
      */
     private void registrarEntrada() {
         try {
@@ -241,33 +293,212 @@ public class InventarioRepuestosFrame extends JFrame {
         JButton btnCargar = new JButton("Actualizar Inventario");
         btnCargar.addActionListener(e -> cargarInventario());
 
+        barraCarga = CargaEnSegundoPlano.crearBarraProgreso();
+
         p.add(btnCargar, BorderLayout.NORTH);
         p.add(new JScrollPane(salida), BorderLayout.CENTER);
+        p.add(barraCarga, BorderLayout.SOUTH);
 
         return p;
     }
 
     /**
-     * Consulta el inventario por medio del controlador y
-     * lo muestra en el área de texto.
+     * Consulta el inventario por medio del controlador, en segundo plano,
+     * y lo muestra en el área de texto.
      */
     private void cargarInventario() {
+        CargaEnSegundoPlano.cancelar(carga);
         salida.setText("");
 
         System.out.println(">>> [InventarioFrame] Cargando inventario...");
 
-        List<Repuesto> lista = sistema.getInventarioRepuestosController().obtenerRepuestos();
+        carga = CargaEnSegundoPlano.iniciar(
+                sistema.getInventarioRepuestosController()::obtenerRepuestos,
+                Repuesto::toString,
+                CargaEnSegundoPlano.lineasDe(salida),
+                barraCarga,
+                cantidad -> {
+                    if (cantidad == 0) salida.append("No hay repuestos registrados.");
+                }
+        );
+    }
 
-        if (lista.isEmpty()) {
-            salida.append("No hay repuestos registrados.");
-            return;
+    // ------------------------------------------------------------
+    // PANEL: BAJO MÍNIMO
+    // ------------------------------------------------------------
+
+    /**
+     * Panel con los repuestos en su stock mínimo o por debajo, del mayor
+     * faltante al menor (a igual faltante, por ID). Se carga una vez y luego
+     * solo se insertan, quitan o actualizan las filas que cambian, cada una
+     * en su posición dentro de ese orden.
+     */
+    private JPanel panelBajoMinimo() {
+        JPanel p = new JPanel(new BorderLayout());
+
+        modeloBajoMinimo = new DefaultTableModel(
+                new Object[]{"ID", "Nombre", "Disponible", "Mínimo", "Faltante"}, 0
+        ) {
+            @Override
+            public boolean isCellEditable(int fila, int columna) {
+                return false;
+            }
+        };
+        p.add(new JScrollPane(new JTable(modeloBajoMinimo)), BorderLayout.CENTER);
+
+        // Se suscribe antes de la carga inicial para no perder cruces intermedios;
+        // los avisos que llegan mientras carga se aplican al terminar, y los
+        // repetidos se descartan al insertar.
+        oyenteBajoMinimo = new OyenteStockMinimo() {
+            @Override
+            public void repuestoBajoMinimo(Repuesto repuesto) {
+                SwingUtilities.invokeLater(() -> aplicarAviso(() -> agregarFilaBajoMinimo(repuesto)));
+            }
+
+            @Override
+            public void repuestoSobreMinimo(Repuesto repuesto) {
+                SwingUtilities.invokeLater(() -> aplicarAviso(() -> quitarFilaBajoMinimo(repuesto.getId())));
+            }
+        };
+        InventarioRepuestosController controller = sistema.getInventarioRepuestosController();
+        controller.agregarOyenteStockMinimo(oyenteBajoMinimo);
+
+        // Disponible y faltante de las filas que siguen bajo mínimo, ante
+        // cualquier movimiento o reserva (de esta ventana o de otra); una
+        // ráfaga sobre el mismo repuesto se aplica una sola vez
+        BusEventos bus = sistema.getBusEventos();
+        suscripcionStock = bus.suscribirAgrupado(
+                EventoDominio.StockMovido.class,
+                SwingUtilities::invokeLater,
+                EventoDominio.StockMovido::getIdRepuesto,
+                movidos -> movidos.forEach(m -> actualizarFilaBajoMinimo(m.getIdRepuesto()))
+        );
+        suscripcionDisponible = bus.suscribirAgrupado(
+                EventoDominio.DisponibleCambiado.class,
+                SwingUtilities::invokeLater,
+                EventoDominio.DisponibleCambiado::getIdRepuesto,
+                cambios -> cambios.forEach(c -> actualizarFilaBajoMinimo(c.getIdRepuesto()))
+        );
+        cargaBajoMinimo = CargaEnSegundoPlano.iniciar(
+                controller::obtenerRepuestosBajoMinimo,
+                r -> r,
+                lote -> lote.forEach(this::agregarFilaBajoMinimo),
+                null,
+                cantidad -> aplicarAvisosPendientes(),
+                // Si la carga falla la tabla queda parcial, pero los avisos
+                // guardados y los siguientes se aplican igual
+                this::aplicarAvisosPendientes
+        );
+
+        return p;
+    }
+
+    /** Aplica los avisos guardados durante la carga inicial y deja de guardarlos. */
+    private void aplicarAvisosPendientes() {
+        if (avisosPendientes == null) return;
+        List<Runnable> avisos = avisosPendientes;
+        avisosPendientes = null;
+        avisos.forEach(Runnable::run);
+    }
+
+    /** Aplica un aviso de stock mínimo, o lo guarda si la carga inicial no terminó. */
+    private void aplicarAviso(Runnable aviso) {
+        if (avisosPendientes != null) {
+            avisosPendientes.add(aviso);
+        } else {
+            aviso.run();
         }
+    }
 
-        for (Repuesto r : lista) {
-            salida.append(r.toString() + "\n");
+    /**
+     * Agrega la fila de un repuesto que cayó bajo mínimo, si no estaba, en su
+     * posición según el faltante. La carga inicial llega ya ordenada, así que
+     * cada fila cae al final.
+     */
+    private void agregarFilaBajoMinimo(Repuesto r) {
+        if (filasBajoMinimo.contiene(r.getId())) return;
+        int faltante = r.getStockMinimo() - r.getStockDisponible();
+        int fila = posicionBajoMinimo(0, modeloBajoMinimo.getRowCount(), faltante, r.getId());
+        modeloBajoMinimo.insertRow(fila, new Object[]{
+                r.getId(),
+                r.getNombre(),
+                r.getStockDisponible(),
+                r.getStockMinimo(),
+                faltante
+        });
+        reindexarBajoMinimo(fila, modeloBajoMinimo.getRowCount());
+    }
+
+    /** Quita la fila de un repuesto que volvió sobre su mínimo. */
+    private void quitarFilaBajoMinimo(int id) {
+        int fila = filasBajoMinimo.eliminar(id);
+        if (fila == IndiceEntero.AUSENTE) return;
+        modeloBajoMinimo.removeRow(fila);
+        reindexarBajoMinimo(fila, modeloBajoMinimo.getRowCount());
+    }
+
+    /**
+     * Refresca disponible y faltante de un repuesto que sigue bajo mínimo tras un
+     * movimiento o una reserva; si el faltante lo saca de su lugar, la fila se
+     * mueve a su nueva posición. Las demás filas no se tocan salvo las que
+     * quedan entre ambas posiciones.
+     */
+    private void actualizarFilaBajoMinimo(int id) {
+        int fila = filasBajoMinimo.obtener(id);
+        Repuesto r = sistema.getInventarioRepuestosController().buscarRepuesto(id);
+        if (fila == IndiceEntero.AUSENTE || r == null) return;
+
+        int faltante = r.getStockMinimo() - r.getStockDisponible();
+        modeloBajoMinimo.setValueAt(r.getStockDisponible(), fila, 2);
+        modeloBajoMinimo.setValueAt(faltante, fila, 4);
+
+        int total = modeloBajoMinimo.getRowCount();
+        int destino;
+        if (fila > 0 && !precedeBajoMinimo(fila - 1, faltante, id)) {
+            // Aumentó el faltante: sube entre las filas anteriores
+            destino = posicionBajoMinimo(0, fila, faltante, id);
+        } else if (fila < total - 1 && precedeBajoMinimo(fila + 1, faltante, id)) {
+            // Bajó el faltante: baja entre las filas siguientes
+            destino = posicionBajoMinimo(fila + 1, total, faltante, id) - 1;
+        } else {
+            return;
         }
+        modeloBajoMinimo.moveRow(fila, fila, destino);
+        reindexarBajoMinimo(Math.min(fila, destino), Math.max(fila, destino) + 1);
     }
-}
 
+    /**
+     * Búsqueda binaria en las filas {@code [desde, hasta)}, que están ordenadas.
+     *
+     * @return primera fila del rango que no precede a un repuesto con ese
+     *         faltante e ID, o {@code hasta}
+     */
+    private int posicionBajoMinimo(int desde, int hasta, int faltante, int id) {
+        while (desde < hasta) {
+            int medio = (desde + hasta) >>> 1;
+            if (precedeBajoMinimo(medio, faltante, id)) {
+                desde = medio + 1;
+            } else {
+                hasta = medio;
+            }
+        }
+        return desde;
+    }
 
+    /**
+     * @return true si la fila va antes que un repuesto con ese faltante e ID:
+     *         mayor faltante, o igual faltante y menor ID
+     */
+    private boolean precedeBajoMinimo(int fila, int faltante, int id) {
+        int faltanteFila = (int) modeloBajoMinimo.getValueAt(fila, 4);
+        if (faltanteFila != faltante) return faltanteFila > faltante;
+        return (int) modeloBajoMinimo.getValueAt(fila, 0) < id;
+    }
 
+    /** Vuelve a registrar en el índice la fila de cada repuesto en {@code [desde, hasta)}. */
+    private void reindexarBajoMinimo(int desde, int hasta) {
+        for (int i = desde; i < hasta; i++) {
+            filasBajoMinimo.asignar((int) modeloBajoMinimo.getValueAt(i, 0), i);
+        }
+    }
+}
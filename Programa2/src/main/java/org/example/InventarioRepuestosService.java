@@ -1,28 +1,75 @@
 package org.example;
 
 import java.time.LocalDate;
+import java.time.YearMonth;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BiConsumer;
+import java.util.function.BiPredicate;
 
 /**
  * Servicio encargado de gestionar el inventario de repuestos y
  * los movimientos relacionados (entradas, salidas y ajustes).
  * Funciona como capa lógica entre los controladores y los modelos.
+ *
+ * Es seguro para uso concurrente sin cerrojos: el stock de cada repuesto es
+ * un contador atómico (ver {@link Repuesto#descontarStock(int)}) y el
+ * historial admite agregados concurrentes con lectura sin bloqueo. Cada
+ * cambio de stock aplicado agrega exactamente un movimiento y publica un
+ * {@link EventoDominio.StockMovido} en el {@link BusEventos}.
+ *
+ * Las órdenes pueden reservar sus repuestos por adelantado
+ * ({@link #reservarRepuestos}); lo reservado se descuenta del disponible
+ * de cada repuesto, que es lo que validan las salidas y nuevas reservas.
+ * Reservar o liberar no mueve stock y publica en cambio un
+ * {@link EventoDominio.DisponibleCambiado} por repuesto.
+ *
+ * Además mantiene, movimiento a movimiento, el conjunto de repuestos en su
+ * stock mínimo o por debajo, ordenado por faltante; consultarlo no recorre
+ * el catálogo, y los {@link OyenteStockMinimo} registrados reciben aviso
+ * solo cuando un repuesto cruza el umbral.
  */
 public class InventarioRepuestosService {
 
-    /** Lista interna de repuestos registrados en el sistema. */
-    private List<Repuesto> repuestos;
+    /** Repositorio indexado por ID de los repuestos registrados en el sistema. */
+    private Repository<Repuesto> repuestos;
 
-    /** Historial de movimientos registrados sobre los repuestos. */
-    private List<MovimientoRepuesto> movimientos;
+    /** Historial de movimientos registrados sobre los repuestos, particionado por mes. */
+    private LibroMovimientos movimientos;
+
+    /** Reservas activas por referencia de orden. */
+    private final Map<String, ReservaRepuestos> reservas = new ConcurrentHashMap<>();
+
+    /** Entrada vigente en {@link #bajoMinimo} de cada repuesto que está en su mínimo o por debajo. */
+    private final Map<Integer, Faltante> faltantes = new ConcurrentHashMap<>();
+
+    /** Repuestos en su mínimo o por debajo, del mayor faltante al menor. */
+    private final NavigableSet<Faltante> bajoMinimo = new ConcurrentSkipListSet<>();
+
+    /** Suscriptores a los cruces del stock mínimo. */
+    private final List<OyenteStockMinimo> oyentes = new CopyOnWriteArrayList<>();
+
+    /**
+     * Cerrojos por ID de repuesto. El servicio no los necesita para sus
+     * invariantes; los usan los llamadores que deben ordenar otra acción
+     * (el diario de operaciones) con los movimientos de un repuesto.
+     */
+    private final CerrojosPorId cerrojos = new CerrojosPorId();
+
+    /** Bus donde se publica cada cambio de stock o disponible; el sistema asigna el compartido. */
+    private BusEventos bus = new BusEventos();
 
     /**
-     * Constructor que inicializa listas internas de inventario y movimientos.
+     * Constructor que inicializa las colecciones internas de inventario y movimientos.
      */
     public InventarioRepuestosService() {
-        this.repuestos = new ArrayList<>();
-        this.movimientos = new ArrayList<>();
+        this.repuestos = new Repository<>(Repuesto::getId);
+        this.movimientos = new LibroMovimientos();
     }
 
     // ----------------- CRUD REPUESTOS -----------------
@@ -34,12 +81,8 @@ public class InventarioRepuestosService {
      * @return true si se agregó correctamente, false si ya existe un repuesto con ese ID
      */
     public boolean agregarRepuesto(Repuesto repuesto) {
-        for (Repuesto r : repuestos) {
-            if (r.getId() == repuesto.getId()) {
-                return false; // ya existe
-            }
-        }
-        repuestos.add(repuesto);
+        if (!repuestos.agregar(repuesto)) return false;
+        actualizarBajoMinimo(repuesto);
         return true;
     }
 
@@ -50,41 +93,122 @@ public class InventarioRepuestosService {
      * @return instancia encontrada o null si no existe
      */
     public Repuesto buscarRepuestoPorId(int id) {
-        for (Repuesto r : repuestos) {
-            if (r.getId() == id) {
-                return r;
-            }
-        }
-        return null;
+        return repuestos.buscar(id);
     }
 
     /**
-     * Elimina un repuesto de la colección si existe.
+     * Elimina un repuesto de la colección si existe y no tiene unidades
+     * reservadas. La verificación y la baja se hacen con el cerrojo del
+     * repuesto, el mismo que toman las reservas.
      *
      * @param id identificador del repuesto a eliminar
-     * @return true si se eliminó, false si no existía
+     * @return true si se eliminó, false si no existía o alguna orden lo tiene reservado
      */
     public boolean eliminarRepuesto(int id) {
-        Repuesto r = buscarRepuestoPorId(id);
-        if (r != null) {
-            repuestos.remove(r);
+        return cerrojos.ejecutar(id, () -> {
+            Repuesto r = repuestos.buscar(id);
+            if (r == null || r.getStockReservado() > 0) return false;
+            Repuesto eliminado = repuestos.eliminar(id);
+            if (eliminado == null) return false;
+            Faltante anterior = faltantes.remove(id);
+            if (anterior != null) {
+                bajoMinimo.remove(anterior);
+                for (OyenteStockMinimo oyente : oyentes) oyente.repuestoSobreMinimo(eliminado);
+            }
             return true;
-        }
-        return false;
+        });
     }
 
     /**
      * Obtiene la lista completa de repuestos.
      */
     public List<Repuesto> obtenerRepuestos() {
-        return repuestos;
+        return repuestos.obtenerTodos();
     }
 
     /**
-     * Devuelve el historial de movimientos registrados.
+     * Devuelve el historial de movimientos registrados hasta este momento.
      */
     public List<MovimientoRepuesto> obtenerMovimientos() {
-        return movimientos;
+        return movimientos.vista();
+    }
+
+    /**
+     * Movimientos con fecha dentro del rango. Solo se recorren los meses que
+     * se solapan con el rango.
+     *
+     * @param desde primer día incluido, o null sin límite
+     * @param hasta último día incluido, o null sin límite
+     * @return movimientos del rango, por mes
+     */
+    public List<MovimientoRepuesto> consultarMovimientos(LocalDate desde, LocalDate hasta) {
+        return movimientos.consultar(desde, hasta);
+    }
+
+    /**
+     * Movimientos de un repuesto con fecha dentro del rango, leídos desde el
+     * índice por repuesto de cada mes.
+     *
+     * @param idRepuesto ID del repuesto
+     * @param desde      primer día incluido, o null sin límite
+     * @param hasta      último día incluido, o null sin límite
+     * @return movimientos del repuesto en el rango, por mes
+     */
+    public List<MovimientoRepuesto> consultarMovimientos(int idRepuesto, LocalDate desde, LocalDate hasta) {
+        return movimientos.consultar(idRepuesto, desde, hasta);
+    }
+
+    /**
+     * Totales precalculados por tipo de movimiento de cada mes del rango.
+     *
+     * @param desde primer mes incluido, o null sin límite
+     * @param hasta último mes incluido, o null sin límite
+     * @return un resumen por mes con movimientos
+     */
+    public List<LibroMovimientos.ResumenMes> resumenMensual(YearMonth desde, YearMonth hasta) {
+        return movimientos.resumenMensual(desde, hasta);
+    }
+
+    /**
+     * Totales precalculados por tipo de movimiento de un repuesto en cada mes del rango.
+     *
+     * @param idRepuesto ID del repuesto
+     * @param desde      primer mes incluido, o null sin límite
+     * @param hasta      último mes incluido, o null sin límite
+     * @return un resumen por mes en que el repuesto tuvo movimientos
+     */
+    public List<LibroMovimientos.ResumenMes> resumenMensual(int idRepuesto, YearMonth desde, YearMonth hasta) {
+        return movimientos.resumenMensual(idRepuesto, desde, hasta);
+    }
+
+    /**
+     * Cerrojos por ID de repuesto. Quien necesite que otra acción quede
+     * ordenada con un movimiento (por ejemplo, registrarlo en el diario de
+     * operaciones) puede ejecutarla con el mismo cerrojo tomado.
+     *
+     * @return cerrojos del inventario
+     */
+    public CerrojosPorId getCerrojos() {
+        return cerrojos;
+    }
+
+    /**
+     * Asigna el bus donde se publican los eventos del servicio.
+     *
+     * @param bus bus de eventos del sistema
+     */
+    void setBusEventos(BusEventos bus) {
+        this.bus = bus;
+    }
+
+    /**
+     * Agrega movimientos ya aplicados al historial (por ejemplo, al restaurar
+     * una instantánea); no modifica el stock.
+     *
+     * @param lote movimientos a agregar en orden cronológico
+     */
+    public void agregarMovimientos(List<MovimientoRepuesto> lote) {
+        movimientos.agregarTodos(lote);
     }
 
     // ----------------- MOVIMIENTOS DE INVENTARIO -----------------
@@ -100,6 +224,18 @@ public class InventarioRepuestosService {
      */
     public boolean registrarEntrada(int idRepuesto, int cantidad,
                                     String motivo, String referencia) {
+        return registrarEntrada(idRepuesto, cantidad, motivo, referencia, LocalDate.now());
+    }
+
+    /**
+     * Registra una entrada de inventario con la fecha indicada
+     * (por ejemplo, al reproducir el diario de operaciones).
+     *
+     * @param fecha fecha del movimiento
+     * @return true si fue válido y se registró, false si hubo error
+     */
+    public boolean registrarEntrada(int idRepuesto, int cantidad,
+                                    String motivo, String referencia, LocalDate fecha) {
 
         if (cantidad <= 0) return false;
 
@@ -107,18 +243,20 @@ public class InventarioRepuestosService {
         if (r == null) return false;
 
         // Incremento de stock
-        r.ajustarStock(cantidad);
+        r.incrementarStock(cantidad);
+        actualizarBajoMinimo(r);
 
         // Registro del movimiento
         MovimientoRepuesto mov = new MovimientoRepuesto(
-                LocalDate.now(),
+                fecha,
                 r,
                 cantidad,
                 MovimientoRepuesto.TipoMovimiento.ENTRADA,
                 motivo,
                 referencia
         );
-        movimientos.add(mov);
+        movimientos.agregar(mov);
+        publicarMovimiento(mov);
         return true;
     }
 
@@ -133,29 +271,39 @@ public class InventarioRepuestosService {
      */
     public boolean registrarSalida(int idRepuesto, int cantidad,
                                    String motivo, String referencia) {
+        return registrarSalida(idRepuesto, cantidad, motivo, referencia, LocalDate.now());
+    }
+
+    /**
+     * Registra una salida de inventario con la fecha indicada.
+     *
+     * @param fecha fecha del movimiento
+     * @return true si se registró correctamente o false si el stock fue insuficiente
+     */
+    public boolean registrarSalida(int idRepuesto, int cantidad,
+                                   String motivo, String referencia, LocalDate fecha) {
 
         if (cantidad <= 0) return false;
 
         Repuesto r = buscarRepuestoPorId(idRepuesto);
         if (r == null) return false;
 
-        // Validar que haya stock suficiente
-        if (r.getStockActual() < cantidad) {
+        // Validación y descuento en un solo paso atómico
+        if (!r.descontarStock(cantidad)) {
             return false;
         }
-
-        // Descuento de inventario
-        r.ajustarStock(-cantidad);
+        actualizarBajoMinimo(r);
 
         MovimientoRepuesto mov = new MovimientoRepuesto(
-                LocalDate.now(),
+                fecha,
                 r,
                 cantidad,
                 MovimientoRepuesto.TipoMovimiento.SALIDA,
                 motivo,
                 referencia
         );
-        movimientos.add(mov);
+        movimientos.agregar(mov);
+        publicarMovimiento(mov);
         return true;
     }
 
@@ -165,31 +313,48 @@ public class InventarioRepuestosService {
      * @param idRepuesto ID del repuesto
      * @param nuevoStock cantidad corregida
      * @param motivo razón del ajuste
-     * @return true si se aplicó el ajuste, false si el repuesto no existe o stock negativo
+     * @return true si se aplicó el ajuste, false si el repuesto no existe, el
+     *         stock es negativo o queda por debajo de lo reservado
      */
     public boolean registrarAjuste(int idRepuesto, int nuevoStock,
                                    String motivo) {
+        return registrarAjuste(idRepuesto, nuevoStock, motivo, LocalDate.now());
+    }
+
+    /**
+     * Ajuste directo de inventario con la fecha indicada.
+     *
+     * @param fecha fecha del movimiento
+     * @return true si se aplicó el ajuste, false si el repuesto no existe, el
+     *         stock es negativo o queda por debajo de lo reservado
+     */
+    public boolean registrarAjuste(int idRepuesto, int nuevoStock,
+                                   String motivo, LocalDate fecha) {
 
         if (nuevoStock < 0) return false;
 
         Repuesto r = buscarRepuestoPorId(idRepuesto);
         if (r == null) return false;
 
-        int stockAnterior = r.getStockActual();
+        // Reemplazo directo del stock; la diferencia se calcula contra el
+        // valor que efectivamente se reemplazó. No se acepta un conteo menor
+        // que lo reservado para órdenes.
+        int stockAnterior = r.reemplazarStock(nuevoStock);
+        if (stockAnterior < 0) return false;
         int diferencia = nuevoStock - stockAnterior;
+        actualizarBajoMinimo(r);
 
-        // Reemplazo directo del stock
-        r.setStockActual(nuevoStock);
-
+        // La diferencia conserva el signo: un conteo menor queda como ajuste negativo
         MovimientoRepuesto mov = new MovimientoRepuesto(
-                LocalDate.now(),
+                fecha,
                 r,
-                Math.abs(diferencia),
+                diferencia,
                 MovimientoRepuesto.TipoMovimiento.AJUSTE,
                 motivo,
                 "AJUSTE INV."
         );
-        movimientos.add(mov);
+        movimientos.agregar(mov);
+        publicarMovimiento(mov);
 
         return true;
     }
@@ -214,6 +379,399 @@ public class InventarioRepuestosService {
         // Internamente es una salida registrada como consumo de orden
         return registrarSalida(idRepuesto, cantidad, motivo, "ORDEN " + idOrdenReferencia);
     }
-}
 
+    /**
+     * Descuenta varios repuestos consumidos en una orden como una sola
+     * operación: si alguno no alcanza, no se descuenta ninguno. Cada
+     * descuento es atómico; si uno falla se devuelven los ya tomados y los
+     * movimientos solo se registran cuando todos se aplicaron.
+     *
+     * @param consumos          cantidad consumida por ID de repuesto
+     * @param motivo            motivo del uso
+     * @param idOrdenReferencia número o ID de orden asociado
+     * @param fecha             fecha de los movimientos
+     * @return true si se registraron todas las salidas
+     */
+    public boolean usarRepuestosEnOrden(Map<Integer, Integer> consumos,
+                                        String motivo,
+                                        String idOrdenReferencia,
+                                        LocalDate fecha) {
+        List<Repuesto> repuestosConsumidos = resolverLineas(consumos);
+        if (repuestosConsumidos == null) return false;
+
+        boolean descontados = aplicarATodos(repuestosConsumidos, consumos,
+                Repuesto::descontarStock, Repuesto::incrementarStock);
+        // También si se deshizo: otro movimiento pudo ver el descuento transitorio
+        repuestosConsumidos.forEach(this::actualizarBajoMinimo);
+        if (!descontados) return false;
+
+        registrarSalidas(repuestosConsumidos, consumos, motivo, "ORDEN " + idOrdenReferencia, fecha);
+        return true;
+    }
+
+    // ----------------- RESERVAS -----------------
+
+    /**
+     * Reserva todos los repuestos de una orden como una sola operación: o se
+     * apartan todas las cantidades o ninguna. Lo reservado deja de estar
+     * disponible para otras salidas y reservas, pero sigue en el stock
+     * físico hasta que la reserva se confirma.
+     *
+     * @param referenciaOrden  referencia de la orden; solo puede tener una reserva activa
+     * @param lineas           cantidad a reservar por ID de repuesto
+     * @param fecha            fecha de la reserva
+     * @param fechaVencimiento último día de validez, o null si no vence
+     * @return la reserva creada, o null si ya existía una para la orden,
+     *         algún repuesto no existe o el disponible no alcanza
+     */
+    public ReservaRepuestos reservarRepuestos(String referenciaOrden,
+                                              Map<Integer, Integer> lineas,
+                                              LocalDate fecha,
+                                              LocalDate fechaVencimiento) {
+        if (reservas.containsKey(referenciaOrden)) return null;
+
+        List<Repuesto> repuestosReservados = resolverLineas(lineas);
+        if (repuestosReservados == null) return null;
+
+        if (!aplicarATodos(repuestosReservados, lineas,
+                Repuesto::reservarStock, Repuesto::liberarStockReservado)) {
+            return null;
+        }
+
+        ReservaRepuestos reserva = new ReservaRepuestos(referenciaOrden, lineas, fecha, fechaVencimiento);
+        if (reservas.putIfAbsent(referenciaOrden, reserva) != null) {
+            // Otra reserva para la misma orden se registró mientras tanto
+            liberarCantidades(reserva);
+            return null;
+        }
+        // Lo reservado deja de contar como disponible para el stock mínimo
+        repuestosReservados.forEach(this::disponibleCambiado);
+        return reserva;
+    }
+
+    /**
+     * Busca la reserva activa de una orden.
+     *
+     * @param referenciaOrden referencia de la orden
+     * @return reserva activa o null si no tiene
+     */
+    public ReservaRepuestos buscarReserva(String referenciaOrden) {
+        return reservas.get(referenciaOrden);
+    }
+
+    /**
+     * @return reservas activas en este momento
+     */
+    public List<ReservaRepuestos> obtenerReservas() {
+        return new ArrayList<>(reservas.values());
+    }
+
+    /**
+     * Convierte una reserva activa en salidas de inventario: las cantidades
+     * reservadas salen del stock físico y se registra un movimiento SALIDA
+     * por repuesto.
+     *
+     * @param reserva reserva a confirmar
+     * @param motivo  motivo de las salidas
+     * @param fecha   fecha de los movimientos
+     * @return true si se confirmó; false si ya no estaba activa o un ajuste
+     *         dejó menos stock que lo reservado (en ese caso sigue activa)
+     */
+    public boolean confirmarReserva(ReservaRepuestos reserva, String motivo, LocalDate fecha) {
+        // Retirarla del mapa asegura que solo un llamador la cierra
+        if (!reservas.remove(reserva.getReferenciaOrden(), reserva)) return false;
+
+        Map<Integer, Integer> lineas = reserva.getLineas();
+        List<Repuesto> repuestosReservados = resolverLineas(lineas);
+        if (repuestosReservados == null) {
+            reservas.put(reserva.getReferenciaOrden(), reserva);
+            return false;
+        }
+        boolean consumidos = aplicarATodos(repuestosReservados, lineas,
+                Repuesto::consumirStockReservado, Repuesto::devolverStockReservado);
+        repuestosReservados.forEach(this::actualizarBajoMinimo);
+        if (!consumidos) {
+            reservas.put(reserva.getReferenciaOrden(), reserva);
+            return false;
+        }
+
+        reserva.setEstado(ReservaRepuestos.EstadoReserva.CONFIRMADA);
+        registrarSalidas(repuestosReservados, lineas, motivo,
+                "ORDEN " + reserva.getReferenciaOrden(), fecha);
+        return true;
+    }
+
+    /**
+     * Devuelve al disponible las cantidades de una reserva activa, por
+     * cancelación de la orden o por vencimiento.
+     *
+     * @param reserva reserva a liberar
+     * @param estado  {@link ReservaRepuestos.EstadoReserva#LIBERADA} o
+     *                {@link ReservaRepuestos.EstadoReserva#VENCIDA}
+     * @return true si se liberó; false si ya no estaba activa
+     */
+    public boolean liberarReserva(ReservaRepuestos reserva, ReservaRepuestos.EstadoReserva estado) {
+        if (!reservas.remove(reserva.getReferenciaOrden(), reserva)) return false;
+
+        liberarCantidades(reserva);
+        reserva.setEstado(estado);
+        return true;
+    }
+
+    /**
+     * Indica si una reserva puede confirmarse ahora: sigue activa, sus
+     * repuestos existen y el stock físico cubre cada línea. Con los
+     * cerrojos de sus repuestos tomados el resultado no cambia hasta
+     * liberarlos.
+     *
+     * @param reserva reserva a verificar
+     * @return true si {@link #confirmarReserva} la cerraría
+     */
+    public boolean puedeConfirmar(ReservaRepuestos reserva) {
+        if (reservas.get(reserva.getReferenciaOrden()) != reserva) return false;
+        for (Map.Entry<Integer, Integer> linea : reserva.getLineas().entrySet()) {
+            Repuesto r = buscarRepuestoPorId(linea.getKey());
+            if (r == null || r.getStockActual() < linea.getValue()) return false;
+        }
+        return true;
+    }
+
+    /**
+     * @param fecha fecha de referencia
+     * @return reservas activas cuya fecha de vencimiento ya pasó
+     */
+    public List<ReservaRepuestos> obtenerReservasVencidas(LocalDate fecha) {
+        List<ReservaRepuestos> vencidas = new ArrayList<>();
+        for (ReservaRepuestos reserva : reservas.values()) {
+            if (reserva.estaVencida(fecha)) vencidas.add(reserva);
+        }
+        return vencidas;
+    }
+
+    /**
+     * Disponible para comprometer de un repuesto: stock físico no reservado.
+     * Se lee de un contador precalculado, sin recorrer las reservas.
+     *
+     * @param idRepuesto ID del repuesto
+     * @return unidades disponibles, o 0 si el repuesto no existe
+     */
+    public int consultarDisponible(int idRepuesto) {
+        Repuesto r = buscarRepuestoPorId(idRepuesto);
+        return r == null ? 0 : r.getStockDisponible();
+    }
+
+    /**
+     * Indica si todas las cantidades pedidas están disponibles en este momento.
+     *
+     * @param lineas cantidad requerida por ID de repuesto
+     * @return true si todos los repuestos existen y alcanzan
+     */
+    public boolean hayDisponible(Map<Integer, Integer> lineas) {
+        for (Map.Entry<Integer, Integer> linea : lineas.entrySet()) {
+            if (consultarDisponible(linea.getKey()) < linea.getValue()) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Incorpora reservas activas restauradas desde una instantánea y vuelve a
+     * marcar sus cantidades como reservadas en cada repuesto.
+     *
+     * @param lote reservas a incorporar
+     */
+    public void agregarReservas(List<ReservaRepuestos> lote) {
+        for (ReservaRepuestos reserva : lote) {
+            if (reservas.putIfAbsent(reserva.getReferenciaOrden(), reserva) != null) continue;
+            for (Map.Entry<Integer, Integer> linea : reserva.getLineas().entrySet()) {
+                Repuesto r = buscarRepuestoPorId(linea.getKey());
+                if (r != null) {
+                    r.restaurarStockReservado(linea.getValue());
+                    disponibleCambiado(r);
+                }
+            }
+        }
+    }
+
+    // ----------------- STOCK MÍNIMO -----------------
+
+    /**
+     * Repuestos con el disponible en su mínimo o por debajo, del mayor faltante al menor.
+     * El costo depende solo de cuántos hay bajo mínimo, no del tamaño del
+     * catálogo.
+     *
+     * @return repuestos bajo mínimo en orden de gravedad
+     */
+    public List<Repuesto> obtenerRepuestosBajoMinimo() {
+        List<Repuesto> lista = new ArrayList<>(faltantes.size());
+        for (Faltante f : bajoMinimo) lista.add(f.repuesto);
+        return lista;
+    }
+
+    /**
+     * @return cantidad de repuestos en su mínimo o por debajo
+     */
+    public int contarRepuestosBajoMinimo() {
+        return faltantes.size();
+    }
+
+    /**
+     * Suscribe un oyente a los cruces del stock mínimo.
+     *
+     * @param oyente oyente a registrar
+     */
+    public void agregarOyenteStockMinimo(OyenteStockMinimo oyente) {
+        oyentes.add(oyente);
+    }
+
+    /**
+     * Cancela la suscripción de un oyente.
+     *
+     * @param oyente oyente a quitar
+     */
+    public void quitarOyenteStockMinimo(OyenteStockMinimo oyente) {
+        oyentes.remove(oyente);
+    }
 
+    /**
+     * Reubica un repuesto en el conjunto bajo mínimo según su disponible y
+     * avisa a los oyentes si cruzó el umbral. Se ejecuta con el cerrojo del
+     * repuesto y relee el stock dentro de él, de modo que la última
+     * actualización siempre refleja el último movimiento aunque varios se
+     * hayan aplicado en paralelo.
+     */
+    private void actualizarBajoMinimo(Repuesto r) {
+        cerrojos.ejecutar(r.getId(), () -> {
+            // Si el repuesto ya no está en el inventario no se vuelve a indexar
+            if (repuestos.buscar(r.getId()) != r) return null;
+
+            Faltante anterior = faltantes.get(r.getId());
+            if (r.estaBajoMinimo()) {
+                Faltante actual = new Faltante(r, r.getStockMinimo() - r.getStockDisponible());
+                if (anterior != null && anterior.cantidad == actual.cantidad) return null;
+
+                if (anterior != null) bajoMinimo.remove(anterior);
+                bajoMinimo.add(actual);
+                faltantes.put(r.getId(), actual);
+                if (anterior == null) {
+                    for (OyenteStockMinimo oyente : oyentes) oyente.repuestoBajoMinimo(r);
+                }
+            } else if (anterior != null) {
+                bajoMinimo.remove(anterior);
+                faltantes.remove(r.getId());
+                for (OyenteStockMinimo oyente : oyentes) oyente.repuestoSobreMinimo(r);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Posición de un repuesto en el conjunto bajo mínimo. Es inmutable: cuando
+     * el faltante cambia se reemplaza la entrada.
+     */
+    private static final class Faltante implements Comparable<Faltante> {
+        private final Repuesto repuesto;
+        private final int cantidad;
+
+        Faltante(Repuesto repuesto, int cantidad) {
+            this.repuesto = repuesto;
+            this.cantidad = cantidad;
+        }
+
+        @Override
+        public int compareTo(Faltante otro) {
+            int c = Integer.compare(otro.cantidad, cantidad);
+            return c != 0 ? c : Integer.compare(repuesto.getId(), otro.repuesto.getId());
+        }
+    }
+
+    // ----------------- AUXILIARES -----------------
+
+    /**
+     * Busca los repuestos de cada línea, en el orden del mapa.
+     *
+     * @return repuestos encontrados, o null si alguno no existe o su cantidad no es positiva
+     */
+    private List<Repuesto> resolverLineas(Map<Integer, Integer> lineas) {
+        if (lineas.isEmpty()) return null;
+        List<Repuesto> encontrados = new ArrayList<>(lineas.size());
+        for (Map.Entry<Integer, Integer> linea : lineas.entrySet()) {
+            Repuesto r = buscarRepuestoPorId(linea.getKey());
+            if (r == null || linea.getValue() == null || linea.getValue() <= 0) return null;
+            encontrados.add(r);
+        }
+        return encontrados;
+    }
+
+    /**
+     * Aplica una operación atómica a cada línea en orden. Si una falla, se
+     * deshacen las ya aplicadas y no queda ningún cambio.
+     *
+     * @param repuestos  repuestos de las líneas, en el orden del mapa
+     * @param cantidades cantidad por ID de repuesto
+     * @param operacion  operación condicional sobre un repuesto
+     * @param deshacer   operación inversa
+     * @return true si se aplicó a todas las líneas
+     */
+    private static boolean aplicarATodos(List<Repuesto> repuestos,
+                                         Map<Integer, Integer> cantidades,
+                                         BiPredicate<Repuesto, Integer> operacion,
+                                         BiConsumer<Repuesto, Integer> deshacer) {
+        int aplicadas = 0;
+        for (Integer cantidad : cantidades.values()) {
+            if (!operacion.test(repuestos.get(aplicadas), cantidad)) break;
+            aplicadas++;
+        }
+        if (aplicadas == repuestos.size()) return true;
+
+        int i = 0;
+        for (Integer cantidad : cantidades.values()) {
+            if (i == aplicadas) break;
+            deshacer.accept(repuestos.get(i++), cantidad);
+        }
+        return false;
+    }
+
+    private void liberarCantidades(ReservaRepuestos reserva) {
+        for (Map.Entry<Integer, Integer> linea : reserva.getLineas().entrySet()) {
+            Repuesto r = buscarRepuestoPorId(linea.getKey());
+            if (r != null) {
+                r.liberarStockReservado(linea.getValue());
+                disponibleCambiado(r);
+            }
+        }
+    }
+
+    /** Registra juntas las salidas de varias líneas ya descontadas. */
+    private void registrarSalidas(List<Repuesto> repuestos, Map<Integer, Integer> cantidades,
+                                  String motivo, String referencia, LocalDate fecha) {
+        List<MovimientoRepuesto> salidas = new ArrayList<>(repuestos.size());
+        int i = 0;
+        for (Integer cantidad : cantidades.values()) {
+            salidas.add(new MovimientoRepuesto(
+                    fecha,
+                    repuestos.get(i++),
+                    cantidad,
+                    MovimientoRepuesto.TipoMovimiento.SALIDA,
+                    motivo,
+                    referencia
+            ));
+        }
+        movimientos.agregarTodos(salidas);
+        salidas.forEach(this::publicarMovimiento);
+    }
+
+    /**
+     * Reubica en el stock mínimo un repuesto cuyo disponible cambió por una
+     * reserva y publica el disponible que quedó.
+     */
+    private void disponibleCambiado(Repuesto r) {
+        actualizarBajoMinimo(r);
+        bus.publicar(new EventoDominio.DisponibleCambiado(r.getId(), r.getStockDisponible()));
+    }
+
+    /** Publica un movimiento ya aplicado, con el stock que dejó. */
+    private void publicarMovimiento(MovimientoRepuesto mov) {
+        Repuesto r = mov.getRepuesto();
+        bus.publicar(new EventoDominio.StockMovido(r.getId(), mov.getTipo(), mov.getCantidad(), r.getStockActual()));
+    }
+}
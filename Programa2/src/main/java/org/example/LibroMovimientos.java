@@ -0,0 +1,291 @@
+package org.example;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Libro de movimientos de inventario particionado por mes.
+ *
+ * Además del historial completo en orden de registro, cada movimiento se
+ * ubica en la partición del mes de su fecha. Cada partición guarda sus
+ * movimientos, un índice por repuesto (posiciones dentro de la partición)
+ * y acumulados por tipo de movimiento, tanto del mes como de cada repuesto
+ * en ese mes. Así una consulta por rango de fechas solo recorre los meses
+ * que se solapan con el rango, una consulta por repuesto solo sus
+ * movimientos, y los resúmenes mensuales se leen ya calculados.
+ *
+ * Los escritores se serializan entre sí; los lectores no bloquean y ven
+ * prefijos consistentes de cada partición.
+ */
+public class LibroMovimientos {
+
+    private static final MovimientoRepuesto.TipoMovimiento[] TIPOS =
+            MovimientoRepuesto.TipoMovimiento.values();
+
+    /** Historial completo en orden de registro. */
+    private final RegistroConcurrente<MovimientoRepuesto> todos = new RegistroConcurrente<>();
+
+    /** Particiones por mes, en orden cronológico. */
+    private final NavigableMap<YearMonth, Particion> particiones = new ConcurrentSkipListMap<>();
+
+    /**
+     * Registra un movimiento.
+     *
+     * @param movimiento movimiento a registrar
+     */
+    public synchronized void agregar(MovimientoRepuesto movimiento) {
+        todos.agregar(movimiento);
+        indexar(movimiento);
+    }
+
+    /**
+     * Registra varios movimientos; el historial completo los publica juntos.
+     *
+     * @param lote movimientos a registrar, en orden
+     */
+    public synchronized void agregarTodos(List<? extends MovimientoRepuesto> lote) {
+        todos.agregarTodos(lote);
+        for (MovimientoRepuesto movimiento : lote) {
+            indexar(movimiento);
+        }
+    }
+
+    private void indexar(MovimientoRepuesto m) {
+        if (m.getFecha() == null) return;
+
+        Particion p = particiones.computeIfAbsent(YearMonth.from(m.getFecha()), Particion::new);
+        int posicion = p.movimientos.tamanio();
+        p.movimientos.agregar(m);
+        p.total.sumar(m);
+
+        if (m.getRepuesto() != null) {
+            IndiceRepuesto indice = p.porRepuesto.computeIfAbsent(
+                    m.getRepuesto().getId(), id -> new IndiceRepuesto());
+            indice.posiciones.agregar(posicion);
+            indice.acumulado.sumar(m);
+        }
+    }
+
+    /**
+     * @return prefijo consistente del historial completo, en orden de registro
+     */
+    public List<MovimientoRepuesto> vista() {
+        return todos.vista();
+    }
+
+    /** @return cantidad de movimientos registrados */
+    public int tamanio() {
+        return todos.tamanio();
+    }
+
+    // ----------------- CONSULTAS POR RANGO -----------------
+
+    /**
+     * Movimientos con fecha dentro del rango, por mes y dentro de cada mes en
+     * orden de registro. Solo se recorren los meses que se solapan con el rango.
+     *
+     * @param desde primer día incluido, o null sin límite
+     * @param hasta último día incluido, o null sin límite
+     * @return movimientos del rango
+     */
+    public List<MovimientoRepuesto> consultar(LocalDate desde, LocalDate hasta) {
+        List<MovimientoRepuesto> resultado = new ArrayList<>();
+        for (Particion p : particionesEntre(desde, hasta)) {
+            List<MovimientoRepuesto> lista = p.movimientos.vista();
+            if (p.contenidaEn(desde, hasta)) {
+                resultado.addAll(lista);
+            } else {
+                for (MovimientoRepuesto m : lista) {
+                    if (dentro(m.getFecha(), desde, hasta)) resultado.add(m);
+                }
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Movimientos de un repuesto con fecha dentro del rango. Usa el índice por
+     * repuesto de cada mes, sin recorrer los movimientos de otros repuestos.
+     *
+     * @param idRepuesto ID del repuesto
+     * @param desde      primer día incluido, o null sin límite
+     * @param hasta      último día incluido, o null sin límite
+     * @return movimientos del repuesto en el rango
+     */
+    public List<MovimientoRepuesto> consultar(int idRepuesto, LocalDate desde, LocalDate hasta) {
+        List<MovimientoRepuesto> resultado = new ArrayList<>();
+        for (Particion p : particionesEntre(desde, hasta)) {
+            IndiceRepuesto indice = p.porRepuesto.get(idRepuesto);
+            if (indice == null) continue;
+
+            // Las posiciones se leen antes que la lista: una posición publicada
+            // siempre apunta a un movimiento ya publicado en la partición
+            int[] posiciones = indice.posiciones.copia();
+            List<MovimientoRepuesto> lista = p.movimientos.vista();
+            boolean completa = p.contenidaEn(desde, hasta);
+            for (int posicion : posiciones) {
+                MovimientoRepuesto m = lista.get(posicion);
+                if (completa || dentro(m.getFecha(), desde, hasta)) resultado.add(m);
+            }
+        }
+        return resultado;
+    }
+
+    private Collection<Particion> particionesEntre(LocalDate desde, LocalDate hasta) {
+        if (desde != null && hasta != null && hasta.isBefore(desde)) return List.of();
+        NavigableMap<YearMonth, Particion> rango = particiones;
+        if (desde != null) rango = rango.tailMap(YearMonth.from(desde), true);
+        if (hasta != null) rango = rango.headMap(YearMonth.from(hasta), true);
+        return rango.values();
+    }
+
+    private static boolean dentro(LocalDate fecha, LocalDate desde, LocalDate hasta) {
+        return (desde == null || !fecha.isBefore(desde)) && (hasta == null || !fecha.isAfter(hasta));
+    }
+
+    // ----------------- RESÚMENES MENSUALES -----------------
+
+    /**
+     * Resumen precalculado de cada mes con movimientos dentro del rango.
+     *
+     * @param desde primer mes incluido, o null sin límite
+     * @param hasta último mes incluido, o null sin límite
+     * @return un resumen por mes, en orden cronológico
+     */
+    public List<ResumenMes> resumenMensual(YearMonth desde, YearMonth hasta) {
+        List<ResumenMes> resumen = new ArrayList<>();
+        for (Particion p : mesesEntre(desde, hasta)) {
+            resumen.add(p.total.resumen(p.mes));
+        }
+        return resumen;
+    }
+
+    /**
+     * Resumen precalculado de un repuesto en cada mes del rango en que tuvo movimientos.
+     *
+     * @param idRepuesto ID del repuesto
+     * @param desde      primer mes incluido, o null sin límite
+     * @param hasta      último mes incluido, o null sin límite
+     * @return un resumen por mes, en orden cronológico
+     */
+    public List<ResumenMes> resumenMensual(int idRepuesto, YearMonth desde, YearMonth hasta) {
+        List<ResumenMes> resumen = new ArrayList<>();
+        for (Particion p : mesesEntre(desde, hasta)) {
+            IndiceRepuesto indice = p.porRepuesto.get(idRepuesto);
+            if (indice != null) resumen.add(indice.acumulado.resumen(p.mes));
+        }
+        return resumen;
+    }
+
+    private Collection<Particion> mesesEntre(YearMonth desde, YearMonth hasta) {
+        if (desde != null && hasta != null && hasta.isBefore(desde)) return List.of();
+        NavigableMap<YearMonth, Particion> rango = particiones;
+        if (desde != null) rango = rango.tailMap(desde, true);
+        if (hasta != null) rango = rango.headMap(hasta, true);
+        return rango.values();
+    }
+
+    /**
+     * Totales de un mes (o de un repuesto en un mes) por tipo de movimiento.
+     * Es una copia: no cambia con movimientos posteriores.
+     */
+    public static final class ResumenMes {
+        private final YearMonth mes;
+        private final long[] cantidades;
+        private final long[] movimientos;
+
+        ResumenMes(YearMonth mes, long[] cantidades, long[] movimientos) {
+            this.mes = mes;
+            this.cantidades = cantidades;
+            this.movimientos = movimientos;
+        }
+
+        /** @return mes resumido */
+        public YearMonth getMes() {
+            return mes;
+        }
+
+        /**
+         * @param tipo tipo de movimiento
+         * @return unidades movidas con ese tipo en el mes; para AJUSTE es
+         *         el neto de las correcciones, que puede ser negativo
+         */
+        public long getCantidad(MovimientoRepuesto.TipoMovimiento tipo) {
+            return cantidades[tipo.ordinal()];
+        }
+
+        /**
+         * @param tipo tipo de movimiento
+         * @return cantidad de movimientos de ese tipo en el mes
+         */
+        public long getMovimientos(MovimientoRepuesto.TipoMovimiento tipo) {
+            return movimientos[tipo.ordinal()];
+        }
+
+        @Override
+        public String toString() {
+            return "ResumenMes{" +
+                    "mes=" + mes +
+                    ", cantidades=" + Arrays.toString(cantidades) +
+                    ", movimientos=" + Arrays.toString(movimientos) +
+                    '}';
+        }
+    }
+
+    // ----------------- ESTRUCTURAS INTERNAS -----------------
+
+    /** Movimientos de un mes con su índice por repuesto y sus totales. */
+    private static final class Particion {
+        final YearMonth mes;
+        final RegistroConcurrente<MovimientoRepuesto> movimientos = new RegistroConcurrente<>();
+        final Map<Integer, IndiceRepuesto> porRepuesto = new ConcurrentHashMap<>();
+        final Acumulado total = new Acumulado();
+
+        Particion(YearMonth mes) {
+            this.mes = mes;
+        }
+
+        /** @return true si todo el mes cae dentro del rango */
+        boolean contenidaEn(LocalDate desde, LocalDate hasta) {
+            return (desde == null || !desde.isAfter(mes.atDay(1)))
+                    && (hasta == null || !hasta.isBefore(mes.atEndOfMonth()));
+        }
+    }
+
+    /** Unidades y cantidad de movimientos por tipo. */
+    private static final class Acumulado {
+        final AtomicLongArray cantidades = new AtomicLongArray(TIPOS.length);
+        final AtomicLongArray movimientos = new AtomicLongArray(TIPOS.length);
+
+        void sumar(MovimientoRepuesto m) {
+            int tipo = m.getTipo().ordinal();
+            cantidades.addAndGet(tipo, m.getCantidad());
+            movimientos.incrementAndGet(tipo);
+        }
+
+        ResumenMes resumen(YearMonth mes) {
+            long[] c = new long[TIPOS.length];
+            long[] n = new long[TIPOS.length];
+            for (int i = 0; i < TIPOS.length; i++) {
+                c[i] = cantidades.get(i);
+                n[i] = movimientos.get(i);
+            }
+            return new ResumenMes(mes, c, n);
+        }
+    }
+
+    /** Posiciones de los movimientos de un repuesto dentro de su partición, con sus totales. */
+    private static final class IndiceRepuesto {
+        final Acumulado acumulado = new Acumulado();
+        final ListaEnterosCreciente posiciones = new ListaEnterosCreciente();
+    }
+}
@@ -0,0 +1,56 @@
+package org.example;
+
+import java.util.Arrays;
+
+/**
+ * Lista de enteros que solo crece, con un escritor a la vez y lectores sin
+ * bloqueo.
+ *
+ * El arreglo solo se reemplaza por copias más grandes y el tamaño se
+ * publica después de escribir el valor, de modo que un lector que lee
+ * primero el tamaño ve todos los valores anteriores. La usan los índices
+ * de posiciones u ordinales que se agregan en orden de registro
+ * ({@link LibroMovimientos}, {@link IndiceAuditoria}).
+ */
+final class ListaEnterosCreciente {
+
+    private volatile int[] valores = new int[4];
+    private volatile int tamanio;
+
+    /**
+     * Agrega un valor al final. No debe llamarse desde dos hilos a la vez.
+     *
+     * @param valor valor a agregar
+     */
+    void agregar(int valor) {
+        int n = tamanio;
+        int[] actuales = valores;
+        if (n == actuales.length) {
+            actuales = Arrays.copyOf(actuales, n << 1);
+            valores = actuales;
+        }
+        actuales[n] = valor;
+        tamanio = n + 1;
+    }
+
+    /** @return copia de los valores publicados, en orden de agregado */
+    int[] copia() {
+        int n = tamanio;
+        return Arrays.copyOf(valores, n);
+    }
+
+    /**
+     * Copia del prefijo de valores menores a un límite; solo tiene sentido si
+     * se agregaron en orden ascendente.
+     *
+     * @param limite primer valor excluido
+     * @return copia de los valores menores a {@code limite}
+     */
+    int[] copiaMenoresA(int limite) {
+        int n = tamanio;
+        int[] actuales = valores;
+        int hasta = n;
+        while (hasta > 0 && actuales[hasta - 1] >= limite) hasta--;
+        return Arrays.copyOf(actuales, hasta);
+    }
+}
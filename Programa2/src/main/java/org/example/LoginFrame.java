@@ -19,6 +19,9 @@ public class LoginFrame extends JFrame {
     /** Referencia al sistema principal para acceder a controladores y contexto. */
     private SistemaMantenimiento sistema;
 
+    /** Botón de ingreso; se deshabilita mientras se verifican las credenciales. */
+    private JButton btnIngresar;
+
     /**
      * Constructor de la interfaz de Login.
      *
@@ -29,7 +32,7 @@ public class LoginFrame extends JFrame {
 
         setTitle("Sistema de Mantenimiento - Login");
         setSize(350, 200);
-        setDefaultCloseOperation(EXIT_ON_CLOSE);
+        setDefaultCloseOperation(DISPOSE_ON_CLOSE);
         setLocationRelativeTo(null);
 
         // Panel para los campos de formulario
@@ -44,7 +47,7 @@ public class LoginFrame extends JFrame {
         panel.add(txtPassword);
 
         // Botón de acción principal
-        JButton btnIngresar = new JButton("Ingresar");
+        btnIngresar = new JButton("Ingresar");
         btnIngresar.addActionListener(e -> login());
 
         panel.add(new JLabel()); // Espacio vacío para alineación estética
@@ -55,7 +58,9 @@ public class LoginFrame extends JFrame {
 
     /**
      * Método asociado al botón de ingresar.
-     * Captura los datos, valida campos, autentica y carga menú principal.
+     * Captura los datos, valida campos y autentica fuera del hilo de eventos
+     * (verificar la contraseña tarda); el resultado se muestra en
+     * {@link #resultadoLogin}.
      */
     private void login() {
         String user = txtUsuario.getText().trim();
@@ -73,11 +78,37 @@ public class LoginFrame extends JFrame {
         }
 
         // Consulta al controlador de usuarios para validar credenciales
-        Usuario u = sistema.getUsuarioController().obtenerUsuarioAutenticado(user, pass);
+        btnIngresar.setEnabled(false);
+        setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+        sistema.getUsuarioController().obtenerUsuarioAutenticadoEnSegundoPlano(user, pass)
+                .whenComplete((u, error) -> SwingUtilities.invokeLater(() -> resultadoLogin(u, error)));
+    }
+
+    /**
+     * Muestra el resultado de la autenticación en el hilo de eventos: abre el
+     * menú principal o informa el error y permite reintentar.
+     *
+     * @param u     usuario autenticado, o null si las credenciales no son válidas
+     * @param error excepción de la verificación, o null
+     */
+    private void resultadoLogin(Usuario u, Throwable error) {
+        btnIngresar.setEnabled(true);
+        setCursor(Cursor.getDefaultCursor());
+
+        if (error != null) {
+            System.err.println("Error al verificar credenciales: " + error);
+            JOptionPane.showMessageDialog(
+                    this,
+                    "No se pudo verificar las credenciales.",
+                    "Error de autenticación",
+                    JOptionPane.ERROR_MESSAGE
+            );
+            return;
+        }
 
         if (u != null) {
             // Registrar sesión en el sistema
-            sistema.login(u);
+            Sesion sesion = sistema.login(u);
 
             JOptionPane.showMessageDialog(
                     this,
@@ -85,7 +116,7 @@ public class LoginFrame extends JFrame {
             );
 
             // Abrir interfaz principal y cerrar login
-            new MainMenuFrame(sistema).setVisible(true);
+            new MainMenuFrame(sistema, sesion).setVisible(true);
             dispose();
 
         } else {
@@ -18,8 +18,12 @@ public class Main {
         // Crear u obtener la instancia general del sistema
         SistemaMantenimiento sistema = SistemaMantenimiento.getInstance();
 
+        // Recuperar el estado guardado en el diario de operaciones
+        sistema.recuperarEstado();
+
         // --------------------------------------------------------------
         // CARGA DE DATOS DE PRUEBA
+        // (los IDs ya recuperados o asignados se rechazan)
         // --------------------------------------------------------------
 
         // Registrar un usuario con rol administrador
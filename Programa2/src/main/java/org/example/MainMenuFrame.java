@@ -1,17 +1,42 @@
 package org.example;
 
 import java.awt.*;
+import java.awt.event.AWTEventListener;
+import java.util.Collections;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.TimeUnit;
 import javax.swing.*;
 
 /**
  * Ventana principal del sistema.
  * Presenta un menú con accesos a los distintos módulos del sistema
  * y controla la visibilidad según el rol del usuario autenticado.
+ *
+ * Cada ventana de menú pertenece a una sesión; cada botón comprueba que
+ * siga abierta y, si venció por inactividad, vuelve al login. La actividad
+ * se registra con cualquier tecla o clic en el menú o en las ventanas que
+ * se abrieron desde él, no solo con los botones del menú.
  */
 public class MainMenuFrame extends JFrame {
 
     private SistemaMantenimiento sistema;
 
+    /** Sesión del operador que usa este menú. */
+    private Sesion sesion;
+
+    /** Tiempo mínimo entre dos registros de actividad de los eventos de teclado y ratón. */
+    private static final long INTERVALO_ACTIVIDAD = TimeUnit.SECONDS.toNanos(5);
+
+    /** Ventanas abiertas desde este menú; su actividad cuenta para la sesión. */
+    private final Set<Window> ventanas = Collections.newSetFromMap(new WeakHashMap<>());
+
+    /** Oyente global de teclado y ratón, registrado mientras el menú está abierto. */
+    private final AWTEventListener oyenteActividad = this::registrarActividad;
+
+    /** Último registro de actividad ({@link System#nanoTime}); solo se usa en el hilo de eventos. */
+    private long ultimaActividad = System.nanoTime();
+
     // Botones del menú (necesarios para habilitar/deshabilitar según rol)
     private JButton btnUsuarios;
     private JButton btnTecnicos;
@@ -28,13 +53,17 @@ public class MainMenuFrame extends JFrame {
      * Constructor que recibe el sistema central para interactuar con sus controladores.
      *
      * @param sistema instancia única del sistema de mantenimiento
+     * @param sesion  sesión abierta por el login
      */
-    public MainMenuFrame(SistemaMantenimiento sistema) {
+    public MainMenuFrame(SistemaMantenimiento sistema, Sesion sesion) {
         this.sistema = sistema;
+        this.sesion = sesion;
 
         setTitle("Sistema de Mantenimiento - Menú Principal");
         setSize(650, 450);
-        setDefaultCloseOperation(EXIT_ON_CLOSE);
+        // Cerrar la ventana cierra solo esta sesión; el programa termina
+        // cuando no queda ninguna ventana abierta
+        setDefaultCloseOperation(DISPOSE_ON_CLOSE);
         setLocationRelativeTo(null);
 
         // Panel principal con distribución en cuadrícula
@@ -42,15 +71,15 @@ public class MainMenuFrame extends JFrame {
         panel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
 
         // Creación y asociación de cada botón con su acción correspondiente
-        btnUsuarios = btn("Usuarios", () -> new UsuarioFrame(sistema).setVisible(true));
-        btnTecnicos = btn("Técnicos", () -> new TecnicoFrame(sistema).setVisible(true));
-        btnEquipos = btn("Equipos", () -> new EquipoFrame(sistema).setVisible(true));
-        btnPreventivas = btn("Órdenes Preventivas", () -> new OrdenPreventivaFrame(sistema).setVisible(true));
-        btnCorrectivas = btn("Órdenes Correctivas", () -> new OrdenCorrectivaFrame(sistema).setVisible(true));
-        btnInventario = btn("Inventario Repuestos", () -> new InventarioRepuestosFrame(sistema).setVisible(true));
-        btnProgramas = btn("Programas Preventivos", () -> new ProgramaPreventivoFrame(sistema).setVisible(true));
-        btnReportes = btn("Reportes", () -> new ReportesFrame(sistema).setVisible(true));
-        btnAuditoria = btn("Auditoría", () -> new AuditoriaFrame(sistema).setVisible(true));
+        btnUsuarios = btn("Usuarios", () -> abrir(new UsuarioFrame(sistema)));
+        btnTecnicos = btn("Técnicos", () -> abrir(new TecnicoFrame(sistema)));
+        btnEquipos = btn("Equipos", () -> abrir(new EquipoFrame(sistema)));
+        btnPreventivas = btn("Órdenes Preventivas", () -> abrir(new OrdenPreventivaFrame(sistema)));
+        btnCorrectivas = btn("Órdenes Correctivas", () -> abrir(new OrdenCorrectivaFrame(sistema)));
+        btnInventario = btn("Inventario Repuestos", () -> abrir(new InventarioRepuestosFrame(sistema)));
+        btnProgramas = btn("Programas Preventivos", () -> abrir(new ProgramaPreventivoFrame(sistema)));
+        btnReportes = btn("Reportes", () -> abrir(new ReportesFrame(sistema)));
+        btnAuditoria = btn("Auditoría", () -> abrir(new AuditoriaFrame(sistema)));
 
         // Botón especial de cierre de sesión
         btnCerrarSesion = btn("Cerrar Sesión", this::cerrarSesion);
@@ -67,10 +96,10 @@ public class MainMenuFrame extends JFrame {
         panel.add(btnProgramas);
         panel.add(btnReportes);
         panel.add(btnAuditoria);
-        panel.add(btn("Fallas", () -> new FallaFrame(sistema).setVisible(true)));
-        panel.add(btn("Consulta Mantenimiento", () -> new ConsultaMantenimientoFrame(sistema).setVisible(true)));
-        panel.add(btn("Gráfico Costos", () -> new GraficoCostosFrame(sistema).setVisible(true)));
-        panel.add(btn("Gráfico Estados", () -> new GraficoEstadosFrame(sistema).setVisible(true)));
+        panel.add(btn("Fallas", () -> abrir(new FallaFrame(sistema, sesion))));
+        panel.add(btn("Consulta Mantenimiento", () -> abrir(new ConsultaMantenimientoFrame(sistema))));
+        panel.add(btn("Gráfico Costos", () -> abrir(new GraficoCostosFrame(sistema))));
+        panel.add(btn("Gráfico Estados", () -> abrir(new GraficoEstadosFrame(sistema))));
 
         // Espacios de relleno para diseño
         panel.add(new JLabel());
@@ -81,6 +110,10 @@ public class MainMenuFrame extends JFrame {
 
         add(panel);
 
+        // Antes del control de acceso, que puede cerrar la ventana (y quitar el oyente)
+        Toolkit.getDefaultToolkit().addAWTEventListener(oyenteActividad,
+                AWTEvent.KEY_EVENT_MASK | AWTEvent.MOUSE_EVENT_MASK | AWTEvent.MOUSE_WHEEL_EVENT_MASK);
+
         // Aplicación de restricciones por rol del usuario después de crear los botones
         aplicarControlDeAcceso();
     }
@@ -91,10 +124,10 @@ public class MainMenuFrame extends JFrame {
      */
     private void aplicarControlDeAcceso() {
         try {
-            Usuario usuarioActual = sistema.getUsuarioActual();
+            Sesion vigente = sesion == null ? null : sistema.obtenerSesion(sesion.getToken());
 
             // Validación inicial de sesión
-            if (usuarioActual == null) {
+            if (vigente == null) {
                 System.err.println("ERROR: No hay usuario logueado en el sistema");
                 JOptionPane.showMessageDialog(this,
                         "Error: No se detectó un usuario logueado.\nSerá redirigido al login.",
@@ -106,7 +139,8 @@ public class MainMenuFrame extends JFrame {
                 return;
             }
 
-            Rol rol = usuarioActual.getRol();
+            Usuario usuarioActual = vigente.getUsuario();
+            Rol rol = vigente.getRol();
 
             // Mostrar nombre y rol en título
             setTitle("Sistema de Mantenimiento - " + usuarioActual.getNombreCompleto() +
@@ -185,7 +219,7 @@ public class MainMenuFrame extends JFrame {
         );
 
         if (confirm == JOptionPane.YES_OPTION) {
-            sistema.logout();
+            sistema.logout(sesion);
             dispose();
 
             JOptionPane.showMessageDialog(null,
@@ -197,8 +231,69 @@ public class MainMenuFrame extends JFrame {
         }
     }
 
+    /**
+     * Cierra la sesión (si sigue abierta) junto con la ventana, sea por el
+     * botón, por cerrar la ventana o por vencimiento.
+     */
+    @Override
+    public void dispose() {
+        Toolkit.getDefaultToolkit().removeAWTEventListener(oyenteActividad);
+        if (sesion != null) sistema.logout(sesion);
+        super.dispose();
+    }
+
+    /** Muestra una ventana abierta desde el menú y la asocia a esta sesión. */
+    private void abrir(Window ventana) {
+        ventanas.add(ventana);
+        ventana.setVisible(true);
+    }
+
+    /**
+     * Registra la actividad de la sesión ante una tecla o un clic en el menú
+     * o en una ventana abierta desde él (o en un diálogo de ellas). Se
+     * registra a lo sumo cada {@link #INTERVALO_ACTIVIDAD}; si la sesión ya
+     * venció, el aviso lo da el próximo botón del menú.
+     */
+    private void registrarActividad(AWTEvent evento) {
+        if (sesion == null || !(evento.getSource() instanceof Component origen)) return;
+        if (!perteneceALaSesion(origen)) return;
+
+        long ahora = System.nanoTime();
+        if (ahora - ultimaActividad < INTERVALO_ACTIVIDAD) return;
+        ultimaActividad = ahora;
+        sistema.obtenerSesion(sesion.getToken());
+    }
+
+    /** @return true si el componente está en el menú o en una ventana abierta desde él */
+    private boolean perteneceALaSesion(Component componente) {
+        Window ventana = componente instanceof Window propia ? propia : SwingUtilities.getWindowAncestor(componente);
+        for (; ventana != null; ventana = ventana.getOwner()) {
+            if (ventana == this || ventanas.contains(ventana)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Comprueba que la sesión siga abierta y registra la actividad. Si se
+     * cerró por inactividad, lo informa y vuelve al login.
+     *
+     * @return true si la sesión sigue abierta
+     */
+    private boolean sesionVigente() {
+        if (sistema.obtenerSesion(sesion.getToken()) != null) return true;
+
+        JOptionPane.showMessageDialog(this,
+                "La sesión se cerró por inactividad.\nIngrese nuevamente.",
+                "Sesión vencida",
+                JOptionPane.WARNING_MESSAGE);
+        dispose();
+        new LoginFrame(sistema).setVisible(true);
+        return false;
+    }
+
     /**
      * Método de utilidad para crear botones uniformes con su acción.
+     * La acción solo se ejecuta si la sesión sigue abierta.
      *
      * @param texto  etiqueta del botón
      * @param action operación ejecutada al presionar el botón
@@ -206,7 +301,9 @@ public class MainMenuFrame extends JFrame {
      */
     private JButton btn(String texto, Runnable action) {
         JButton b = new JButton(texto);
-        b.addActionListener(e -> action.run());
+        b.addActionListener(e -> {
+            if (sesionVigente()) action.run();
+        });
         b.setFont(new Font("Arial", Font.PLAIN, 12));
         b.setFocusPainted(false);
         return b;
@@ -0,0 +1,353 @@
+package org.example;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.swing.event.EventListenerList;
+import javax.swing.event.TreeModelListener;
+import javax.swing.tree.TreeModel;
+import javax.swing.tree.TreePath;
+
+/**
+ * Modelo del árbol de consulta de mantenimiento: equipos, sus componentes,
+ * su programa preventivo con las fases, y sus órdenes correctivas.
+ *
+ * Cada nodo guarda la entidad que representa y crea sus hijos recién
+ * cuando el árbol los pide, es decir, al expandirlo; después los conserva.
+ * La raíz no recorre los equipos: solo crea el nodo de los que se piden.
+ * Las órdenes correctivas de un equipo se obtienen de su índice por
+ * equipo, sin recorrer las demás órdenes. Construir el modelo cuesta lo
+ * mismo con cualquier cantidad de equipos.
+ *
+ * Un JTree con alto de fila variable mide cada fila al expandir un nodo y
+ * pide así todos los equipos. Para que mostrar la raíz expandida cueste
+ * solo las filas visibles, el árbol debe usar alto de fila fijo y
+ * {@link javax.swing.JTree#setLargeModel(boolean) modelo grande}, como
+ * hace {@link ConsultaMantenimientoFrame}.
+ *
+ * El contenido corresponde al momento en que se construyó cada nodo; para
+ * ver cambios se crea un modelo nuevo.
+ */
+public class ModeloArbolMantenimiento implements TreeModel {
+
+    private final Raiz raiz;
+    private final OrdenCorrectivaController ordenController;
+    private final EventListenerList oyentes = new EventListenerList();
+
+    /**
+     * @param equipos         equipos a mostrar, en orden (normalmente la lista inmutable del servicio)
+     * @param ordenController controlador de las órdenes correctivas
+     */
+    public ModeloArbolMantenimiento(List<Equipo> equipos, OrdenCorrectivaController ordenController) {
+        this.raiz = new Raiz(equipos);
+        this.ordenController = ordenController;
+    }
+
+    // ======================================================
+    // NODOS
+    // ======================================================
+
+    /** Nodo del árbol; el texto de {@link #toString()} es el que se muestra. */
+    public abstract static class Nodo {
+
+        /** Hijos ya creados; null mientras no se pidieron. */
+        private List<Nodo> hijos;
+
+        /** @return true si el nodo nunca tiene hijos */
+        boolean esHoja() {
+            return false;
+        }
+
+        /** Crea los hijos; se invoca una sola vez, la primera vez que se piden. */
+        abstract List<Nodo> crearHijos(ModeloArbolMantenimiento modelo);
+
+        int cantidadHijos(ModeloArbolMantenimiento modelo) {
+            return hijos(modelo).size();
+        }
+
+        Nodo hijo(ModeloArbolMantenimiento modelo, int indice) {
+            return hijos(modelo).get(indice);
+        }
+
+        int indiceDe(ModeloArbolMantenimiento modelo, Object hijo) {
+            return hijos == null ? -1 : hijos.indexOf(hijo);
+        }
+
+        private List<Nodo> hijos(ModeloArbolMantenimiento modelo) {
+            if (hijos == null) hijos = crearHijos(modelo);
+            return hijos;
+        }
+    }
+
+    /** Raíz: un hijo por equipo, creado solo cuando se muestra. */
+    static final class Raiz extends Nodo {
+        private final List<Equipo> equipos;
+        private final Map<Integer, NodoEquipo> creados = new HashMap<>();
+
+        Raiz(List<Equipo> equipos) {
+            this.equipos = equipos;
+        }
+
+        /** No se usa: los hijos se crean de a uno en {@link #hijo}. */
+        @Override
+        List<Nodo> crearHijos(ModeloArbolMantenimiento modelo) {
+            return Collections.emptyList();
+        }
+
+        @Override
+        int cantidadHijos(ModeloArbolMantenimiento modelo) {
+            return equipos.size();
+        }
+
+        @Override
+        Nodo hijo(ModeloArbolMantenimiento modelo, int indice) {
+            return creados.computeIfAbsent(indice, i -> new NodoEquipo(equipos.get(i), i));
+        }
+
+        @Override
+        int indiceDe(ModeloArbolMantenimiento modelo, Object hijo) {
+            if (!(hijo instanceof NodoEquipo nodo)) return -1;
+            return creados.get(nodo.indice) == nodo ? nodo.indice : -1;
+        }
+
+        @Override
+        public String toString() {
+            return "Equipos";
+        }
+    }
+
+    /** Equipo: sus componentes, su programa preventivo (si tiene) y sus correctivas. */
+    public static final class NodoEquipo extends Nodo {
+        private final Equipo equipo;
+        private final int indice;
+
+        NodoEquipo(Equipo equipo, int indice) {
+            this.equipo = equipo;
+            this.indice = indice;
+        }
+
+        /** @return equipo representado */
+        public Equipo getEquipo() {
+            return equipo;
+        }
+
+        @Override
+        List<Nodo> crearHijos(ModeloArbolMantenimiento modelo) {
+            List<Nodo> hijos = new ArrayList<>();
+            for (Equipo componente : equipo.getComponentes()) {
+                hijos.add(new NodoComponente(componente));
+            }
+            if (equipo.getProgramaPreventivo() != null) {
+                hijos.add(new NodoPrograma(equipo, equipo.getProgramaPreventivo()));
+            }
+            hijos.add(new NodoCorrectivas(equipo));
+            return hijos;
+        }
+
+        @Override
+        public String toString() {
+            return "EQUIPO: " + equipo.getId() + " - " + equipo.getDescripcion();
+        }
+    }
+
+    /** Componente de un equipo. */
+    public static final class NodoComponente extends Nodo {
+        private final Equipo componente;
+
+        NodoComponente(Equipo componente) {
+            this.componente = componente;
+        }
+
+        /** @return equipo que actúa como componente */
+        public Equipo getComponente() {
+            return componente;
+        }
+
+        @Override
+        boolean esHoja() {
+            return true;
+        }
+
+        @Override
+        List<Nodo> crearHijos(ModeloArbolMantenimiento modelo) {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public String toString() {
+            return "COMPONENTE: " + componente.getId() + " - " + componente.getDescripcion();
+        }
+    }
+
+    /** Programa preventivo de un equipo, con sus fases. */
+    public static final class NodoPrograma extends Nodo {
+        private final Equipo equipo;
+        private final ProgramaPreventivo programa;
+
+        NodoPrograma(Equipo equipo, ProgramaPreventivo programa) {
+            this.equipo = equipo;
+            this.programa = programa;
+        }
+
+        /** @return programa representado */
+        public ProgramaPreventivo getPrograma() {
+            return programa;
+        }
+
+        @Override
+        List<Nodo> crearHijos(ModeloArbolMantenimiento modelo) {
+            List<Nodo> hijos = new ArrayList<>();
+            for (FasePreventiva fase : programa.getFases()) {
+                hijos.add(new NodoFase(equipo, fase));
+            }
+            return hijos;
+        }
+
+        @Override
+        public String toString() {
+            return "PROGRAMA: " + programa.getNombrePrograma();
+        }
+    }
+
+    /** Fase del programa preventivo de un equipo. */
+    public static final class NodoFase extends Nodo {
+        private final Equipo equipo;
+        private final FasePreventiva fase;
+
+        NodoFase(Equipo equipo, FasePreventiva fase) {
+            this.equipo = equipo;
+            this.fase = fase;
+        }
+
+        /** @return equipo cuyo programa contiene la fase */
+        public Equipo getEquipo() {
+            return equipo;
+        }
+
+        /** @return fase representada */
+        public FasePreventiva getFase() {
+            return fase;
+        }
+
+        @Override
+        boolean esHoja() {
+            return true;
+        }
+
+        @Override
+        List<Nodo> crearHijos(ModeloArbolMantenimiento modelo) {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public String toString() {
+            return "FASE " + fase.getNumeroFase() + ": " + fase.getDescripcion();
+        }
+    }
+
+    /** Agrupa las órdenes correctivas de un equipo; las busca al expandirse. */
+    public static final class NodoCorrectivas extends Nodo {
+        private final Equipo equipo;
+
+        NodoCorrectivas(Equipo equipo) {
+            this.equipo = equipo;
+        }
+
+        /** @return equipo cuyas órdenes se agrupan */
+        public Equipo getEquipo() {
+            return equipo;
+        }
+
+        @Override
+        List<Nodo> crearHijos(ModeloArbolMantenimiento modelo) {
+            List<Nodo> hijos = new ArrayList<>();
+            for (int id : modelo.ordenController.obtenerIdsOrdenesPorEquipo(equipo.getId())) {
+                OrdenCorrectiva orden = modelo.ordenController.buscarOrdenPorId(id);
+                // Eliminada entre la lectura del índice y la búsqueda
+                if (orden != null) hijos.add(new NodoOrdenCorrectiva(orden));
+            }
+            return hijos;
+        }
+
+        @Override
+        public String toString() {
+            return "Correctivas";
+        }
+    }
+
+    /** Orden correctiva de un equipo. */
+    public static final class NodoOrdenCorrectiva extends Nodo {
+        private final OrdenCorrectiva orden;
+
+        NodoOrdenCorrectiva(OrdenCorrectiva orden) {
+            this.orden = orden;
+        }
+
+        /** @return orden representada */
+        public OrdenCorrectiva getOrden() {
+            return orden;
+        }
+
+        @Override
+        boolean esHoja() {
+            return true;
+        }
+
+        @Override
+        List<Nodo> crearHijos(ModeloArbolMantenimiento modelo) {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public String toString() {
+            return "OC-" + orden.getIdOrdenCorrectiva() + " " + orden.getEstado();
+        }
+    }
+
+    // ======================================================
+    // TREE MODEL
+    // ======================================================
+
+    @Override
+    public Object getRoot() {
+        return raiz;
+    }
+
+    @Override
+    public Object getChild(Object padre, int indice) {
+        return ((Nodo) padre).hijo(this, indice);
+    }
+
+    @Override
+    public int getChildCount(Object padre) {
+        return ((Nodo) padre).cantidadHijos(this);
+    }
+
+    @Override
+    public boolean isLeaf(Object nodo) {
+        return ((Nodo) nodo).esHoja();
+    }
+
+    @Override
+    public int getIndexOfChild(Object padre, Object hijo) {
+        if (padre == null || hijo == null) return -1;
+        return ((Nodo) padre).indiceDe(this, hijo);
+    }
+
+    /** El árbol no es editable. */
+    @Override
+    public void valueForPathChanged(TreePath ruta, Object valor) {
+    }
+
+    @Override
+    public void addTreeModelListener(TreeModelListener oyente) {
+        oyentes.add(TreeModelListener.class, oyente);
+    }
+
+    @Override
+    public void removeTreeModelListener(TreeModelListener oyente) {
+        oyentes.remove(TreeModelListener.class, oyente);
+    }
+}
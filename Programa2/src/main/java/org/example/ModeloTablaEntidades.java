@@ -0,0 +1,583 @@
+package org.example;
+
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+import javax.swing.JProgressBar;
+import javax.swing.JTable;
+import javax.swing.JTextField;
+import javax.swing.SwingUtilities;
+import javax.swing.SwingWorker;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.table.AbstractTableModel;
+import javax.swing.table.TableColumn;
+
+/**
+ * Modelo de tabla que muestra las entidades de un servicio sin copiarlas.
+ *
+ * Solo guarda los IDs de las filas visibles, en el orden mostrado; cada
+ * celda se lee al pintarla, buscando la entidad por ID en el repositorio
+ * del servicio. Una tabla de un millón de filas ocupa así un arreglo de
+ * enteros, sin importar cuántas columnas tenga.
+ *
+ * El filtro (texto contenido en cualquier columna, sin distinguir
+ * mayúsculas) y el orden por columna se calculan en el modelo, en un hilo
+ * de fondo, y reemplazan la lista de IDs de una vez. Después, las altas,
+ * bajas y modificaciones avisadas por el repositorio se aplican fila por
+ * fila con eventos de inserción, borrado o actualización, sin reconstruir
+ * la tabla. Los avisos se agrupan en el hilo de eventos. Un grupo de más
+ * de {@link #UMBRAL_FILA_POR_FILA} cambios se aplica en una sola pasada
+ * sobre las filas, para no buscar cada ID por separado; si llegan más de
+ * {@link #UMBRAL_RECALCULO} se recalcula todo en segundo plano.
+ *
+ * Todos los métodos públicos deben invocarse en el hilo de eventos.
+ *
+ * @param <T> tipo de entidad mostrada
+ */
+public class ModeloTablaEntidades<T> extends AbstractTableModel {
+
+    private static final long serialVersionUID = 1L;
+
+    /** Cambios agrupados a partir de los cuales conviene recalcular todo. */
+    public static final int UMBRAL_RECALCULO = 1000;
+
+    /**
+     * Cambios agrupados hasta los que se aplican fila por fila. Cada uno
+     * busca su fila recorriendo la lista; con más cambios se reubican todos
+     * en una sola pasada.
+     */
+    public static final int UMBRAL_FILA_POR_FILA = 32;
+
+    /**
+     * Columna de la tabla: nombre y forma de obtener el valor de la entidad.
+     *
+     * @param <T> tipo de entidad
+     */
+    public static final class Columna<T> {
+        private final String nombre;
+        private final Function<? super T, ?> valor;
+
+        /**
+         * @param nombre título de la columna
+         * @param valor  obtiene el valor de la celda a partir de la entidad
+         */
+        public Columna(String nombre, Function<? super T, ?> valor) {
+            this.nombre = nombre;
+            this.valor = valor;
+        }
+    }
+
+    private final List<Columna<T>> columnas;
+    private final Supplier<? extends List<? extends T>> fuente;
+    private final IntFunction<? extends T> buscar;
+    private final ToIntFunction<? super T> extractorId;
+    private final Consumer<OyenteRepositorio<T>> suscribir;
+    private final Consumer<OyenteRepositorio<T>> desuscribir;
+
+    /** IDs visibles en el orden mostrado; las posiciones desde {@link #filas} no se usan. */
+    private int[] ids = new int[0];
+    private int filas;
+
+    /** Columna de orden (-1 = orden de registro) y sentido. */
+    private int columnaOrden = -1;
+    private boolean ascendente = true;
+
+    /** Filtro en minúsculas; vacío si no se filtra. */
+    private String filtro = "";
+
+    /** Recálculo en curso, o null. */
+    private SwingWorker<int[], Void> recalculo;
+
+    /** IDs avisados durante un recálculo, para aplicarlos al terminar; null si no hay recálculo. */
+    private List<Integer> cambiosDuranteRecalculo;
+
+    /** IDs avisados por el repositorio y todavía no aplicados; se cargan desde cualquier hilo. */
+    private final Set<Integer> cambiados = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean aplicacionPendiente = new AtomicBoolean();
+
+    private final OyenteRepositorio<T> oyente = new OyenteRepositorio<T>() {
+        @Override
+        public void entidadAgregada(T entidad) {
+            avisar(entidad);
+        }
+
+        @Override
+        public void entidadActualizada(T entidad) {
+            avisar(entidad);
+        }
+
+        @Override
+        public void entidadEliminada(T entidad) {
+            avisar(entidad);
+        }
+    };
+
+    private JProgressBar progreso;
+
+    /**
+     * Crea el modelo; no muestra nada hasta {@link #conectar()}.
+     *
+     * @param columnas    columnas de la tabla
+     * @param fuente      listado completo del servicio (se invoca en segundo plano)
+     * @param buscar      búsqueda por ID en el servicio
+     * @param extractorId obtiene el ID de una entidad
+     * @param suscribir   suscribe un oyente al repositorio del servicio
+     * @param desuscribir cancela esa suscripción
+     */
+    public ModeloTablaEntidades(List<Columna<T>> columnas,
+                                Supplier<? extends List<? extends T>> fuente,
+                                IntFunction<? extends T> buscar,
+                                ToIntFunction<? super T> extractorId,
+                                Consumer<OyenteRepositorio<T>> suscribir,
+                                Consumer<OyenteRepositorio<T>> desuscribir) {
+        this.columnas = List.copyOf(columnas);
+        this.fuente = fuente;
+        this.buscar = buscar;
+        this.extractorId = extractorId;
+        this.suscribir = suscribir;
+        this.desuscribir = desuscribir;
+    }
+
+    /**
+     * Se suscribe a los cambios del repositorio y hace la primera carga.
+     */
+    public void conectar() {
+        suscribir.accept(oyente);
+        recalcular();
+    }
+
+    /**
+     * Cancela la suscripción y el recálculo en curso; se invoca al cerrar la ventana.
+     */
+    public void desconectar() {
+        desuscribir.accept(oyente);
+        if (recalculo != null) recalculo.cancel(true);
+        cambiados.clear();
+    }
+
+    /**
+     * Barra que se muestra mientras se recalcula el filtro o el orden.
+     *
+     * @param progreso barra de progreso, o null
+     */
+    public void setProgreso(JProgressBar progreso) {
+        this.progreso = progreso;
+    }
+
+    // ======================================================
+    // TABLE MODEL
+    // ======================================================
+
+    @Override
+    public int getRowCount() {
+        return filas;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return columnas.size();
+    }
+
+    @Override
+    public String getColumnName(int columna) {
+        return columnas.get(columna).nombre;
+    }
+
+    @Override
+    public Object getValueAt(int fila, int columna) {
+        T entidad = buscar.apply(ids[fila]);
+        // Eliminada en otro hilo; el aviso de la baja está en camino
+        if (entidad == null) return null;
+        return columnas.get(columna).valor.apply(entidad);
+    }
+
+    /**
+     * @param fila fila del modelo
+     * @return ID de la entidad mostrada en la fila
+     */
+    public int getId(int fila) {
+        return ids[fila];
+    }
+
+    // ======================================================
+    // FILTRO Y ORDEN
+    // ======================================================
+
+    /**
+     * Muestra solo las entidades con algún valor que contenga el texto.
+     *
+     * @param texto texto buscado; vacío o null para mostrar todas
+     */
+    public void filtrar(String texto) {
+        String nuevo = texto == null ? "" : texto.trim().toLowerCase(Locale.ROOT);
+        if (nuevo.equals(filtro)) return;
+        filtro = nuevo;
+        recalcular();
+    }
+
+    /**
+     * Ordena por una columna; si ya era la de orden, invierte el sentido.
+     *
+     * @param columna columna del modelo, o -1 para el orden de registro
+     */
+    public void ordenarPor(int columna) {
+        if (columna == columnaOrden) {
+            ascendente = !ascendente;
+        } else {
+            columnaOrden = columna;
+            ascendente = true;
+        }
+        recalcular();
+    }
+
+    /**
+     * Vuelve a leer el listado completo y aplica filtro y orden en segundo
+     * plano; mientras tanto la tabla sigue mostrando el contenido anterior.
+     */
+    public void recalcular() {
+        if (recalculo != null) recalculo.cancel(true);
+        if (cambiosDuranteRecalculo == null) cambiosDuranteRecalculo = new ArrayList<>();
+        if (progreso != null) {
+            progreso.setIndeterminate(true);
+            progreso.setString("Cargando...");
+            progreso.setVisible(true);
+        }
+
+        String filtroActual = filtro;
+        Comparator<T> orden = comparador();
+        SwingWorker<int[], Void> nuevo = new SwingWorker<>() {
+            @Override
+            protected int[] doInBackground() {
+                return calcularIds(filtroActual, orden);
+            }
+
+            @Override
+            protected void done() {
+                // Uno cancelado o reemplazado no toca la tabla
+                if (isCancelled() || recalculo != this) return;
+                recalculo = null;
+                if (progreso != null) progreso.setVisible(false);
+                try {
+                    reemplazar(get());
+                } catch (InterruptedException | ExecutionException e) {
+                    System.err.println("Error al cargar la tabla: " + e);
+                }
+                List<Integer> pendientes = cambiosDuranteRecalculo;
+                cambiosDuranteRecalculo = null;
+                aplicarLote(pendientes);
+            }
+        };
+        recalculo = nuevo;
+        nuevo.execute();
+    }
+
+    /** Filtra y ordena el listado completo; se ejecuta en segundo plano. */
+    @SuppressWarnings("unchecked")
+    private int[] calcularIds(String filtroActual, Comparator<T> orden) {
+        List<? extends T> lista = fuente.get();
+        Object[] visibles = new Object[lista.size()];
+        int n = 0;
+        for (T entidad : lista) {
+            if (Thread.currentThread().isInterrupted()) return new int[0];
+            if (cumpleFiltro(entidad, filtroActual)) visibles[n++] = entidad;
+        }
+        if (orden != null) {
+            Arrays.sort(visibles, 0, n, (a, b) -> orden.compare((T) a, (T) b));
+        }
+        int[] resultado = new int[n];
+        for (int i = 0; i < n; i++) {
+            resultado[i] = extractorId.applyAsInt((T) visibles[i]);
+        }
+        return resultado;
+    }
+
+    private void reemplazar(int[] nuevos) {
+        ids = nuevos;
+        filas = nuevos.length;
+        fireTableDataChanged();
+    }
+
+    private boolean cumpleFiltro(T entidad, String texto) {
+        if (texto.isEmpty()) return true;
+        for (Columna<T> columna : columnas) {
+            Object valor = columna.valor.apply(entidad);
+            if (valor != null && String.valueOf(valor).toLowerCase(Locale.ROOT).contains(texto)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** @return comparador de la columna de orden, o null si se usa el orden de registro */
+    private Comparator<T> comparador() {
+        if (columnaOrden < 0) return null;
+        Function<? super T, ?> valor = columnas.get(columnaOrden).valor;
+        Comparator<T> porValor = (a, b) -> compararValores(valor.apply(a), valor.apply(b));
+        return ascendente ? porValor : porValor.reversed();
+    }
+
+    /** Compara valores de celda: nulos primero, luego el orden natural, o el texto si no son comparables. */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static int compararValores(Object a, Object b) {
+        if (a == b) return 0;
+        if (a == null) return -1;
+        if (b == null) return 1;
+        if (a instanceof Comparable && a.getClass() == b.getClass()) {
+            return ((Comparable) a).compareTo(b);
+        }
+        return String.valueOf(a).compareToIgnoreCase(String.valueOf(b));
+    }
+
+    // ======================================================
+    // CAMBIOS FILA POR FILA
+    // ======================================================
+
+    /** Registra el cambio de una entidad; puede llamarse desde cualquier hilo. */
+    private void avisar(T entidad) {
+        cambiados.add(extractorId.applyAsInt(entidad));
+        if (aplicacionPendiente.compareAndSet(false, true)) {
+            SwingUtilities.invokeLater(this::aplicarCambios);
+        }
+    }
+
+    /** Aplica los cambios acumulados, o recalcula si son demasiados. */
+    private void aplicarCambios() {
+        aplicacionPendiente.set(false);
+        List<Integer> lote = new ArrayList<>();
+        for (Iterator<Integer> it = cambiados.iterator(); it.hasNext(); ) {
+            lote.add(it.next());
+            it.remove();
+        }
+        aplicarLote(lote);
+    }
+
+    /** Aplica un grupo de cambios de la forma que menos cueste según su tamaño. */
+    private void aplicarLote(List<Integer> lote) {
+        if (lote.size() > UMBRAL_RECALCULO) {
+            recalcular();
+        } else if (cambiosDuranteRecalculo != null) {
+            // El recálculo reemplazará las filas; los cambios se aplican después
+            cambiosDuranteRecalculo.addAll(lote);
+        } else if (lote.size() > UMBRAL_FILA_POR_FILA) {
+            reubicar(lote);
+        } else {
+            for (int id : lote) aplicarCambio(id);
+        }
+    }
+
+    /**
+     * Compara la entidad actual con su fila (si tiene) y emite el evento que
+     * corresponda: inserción, borrado, actualización, o borrado e inserción
+     * si cambió su posición en el orden.
+     */
+    private void aplicarCambio(int id) {
+        if (cambiosDuranteRecalculo != null) {
+            // El recálculo reemplazará las filas; el cambio se aplica después
+            cambiosDuranteRecalculo.add(id);
+            return;
+        }
+
+        T entidad = buscar.apply(id);
+        boolean visible = entidad != null && cumpleFiltro(entidad, filtro);
+        int fila = filaDe(id);
+
+        if (fila < 0) {
+            if (visible) insertar(id, entidad);
+        } else if (!visible) {
+            quitar(fila);
+        } else if (!enPosicion(fila, entidad)) {
+            quitar(fila);
+            insertar(id, entidad);
+        } else {
+            fireTableRowsUpdated(fila, fila);
+        }
+    }
+
+    /**
+     * Aplica un grupo de cambios en una sola pasada sobre las filas: quita
+     * los IDs cambiados que ya no se ven y ubica los visibles donde les
+     * corresponde (sin orden, los que ya estaban conservan su fila y los
+     * nuevos van al final; con orden, se intercalan por búsqueda binaria
+     * entre las demás filas). Recorre la tabla una vez, en lugar de una vez
+     * por cambio, y se avisa con un único evento.
+     */
+    private void reubicar(List<Integer> lote) {
+        // ID cambiado → 0 si ya no se ve, 1 si se ve, 2 si ya se ubicó
+        IndiceEntero estado = new IndiceEntero(lote.size());
+        List<T> visibles = new ArrayList<>(lote.size());
+        for (int id : lote) {
+            if (estado.contiene(id)) continue;
+            T entidad = buscar.apply(id);
+            boolean visible = entidad != null && cumpleFiltro(entidad, filtro);
+            estado.asignar(id, visible ? 1 : 0);
+            if (visible) visibles.add(entidad);
+        }
+
+        Comparator<T> orden = comparador();
+        int[] nuevos = new int[filas + visibles.size()];
+        int n = 0;
+        if (orden == null) {
+            for (int i = 0; i < filas; i++) {
+                int id = ids[i];
+                int marca = estado.obtener(id);
+                if (marca == IndiceEntero.AUSENTE) {
+                    nuevos[n++] = id;
+                } else if (marca == 1) {
+                    nuevos[n++] = id;
+                    estado.asignar(id, 2);
+                }
+            }
+            for (T entidad : visibles) {
+                int id = extractorId.applyAsInt(entidad);
+                if (estado.obtener(id) == 1) nuevos[n++] = id;
+            }
+        } else {
+            // Filas que no cambiaron, todavía ordenadas
+            int[] quedan = new int[filas];
+            int m = 0;
+            for (int i = 0; i < filas; i++) {
+                if (!estado.contiene(ids[i])) quedan[m++] = ids[i];
+            }
+            // Cada reubicada se ubica por búsqueda binaria y los tramos
+            // intermedios se copian enteros: k·log(n) comparaciones
+            visibles.sort(orden);
+            int desde = 0;
+            for (T entidad : visibles) {
+                int hasta = posicionEn(quedan, desde, m, entidad, orden);
+                System.arraycopy(quedan, desde, nuevos, n, hasta - desde);
+                n += hasta - desde;
+                nuevos[n++] = extractorId.applyAsInt(entidad);
+                desde = hasta;
+            }
+            System.arraycopy(quedan, desde, nuevos, n, m - desde);
+            n += m - desde;
+        }
+        reemplazar(n == nuevos.length ? nuevos : Arrays.copyOf(nuevos, n));
+    }
+
+    /** @return fila que muestra el ID, o -1 */
+    private int filaDe(int id) {
+        for (int i = 0; i < filas; i++) {
+            if (ids[i] == id) return i;
+        }
+        return -1;
+    }
+
+    /** true si la entidad sigue ordenada respecto de sus vecinas. */
+    private boolean enPosicion(int fila, T entidad) {
+        Comparator<T> orden = comparador();
+        if (orden == null) return true;
+        T anterior = fila > 0 ? buscar.apply(ids[fila - 1]) : null;
+        T siguiente = fila + 1 < filas ? buscar.apply(ids[fila + 1]) : null;
+        return (anterior == null || orden.compare(anterior, entidad) <= 0)
+                && (siguiente == null || orden.compare(entidad, siguiente) <= 0);
+    }
+
+    private void insertar(int id, T entidad) {
+        int fila = posicionDeInsercion(entidad);
+        if (filas == ids.length) {
+            ids = Arrays.copyOf(ids, Math.max(16, filas + (filas >> 1)));
+        }
+        System.arraycopy(ids, fila, ids, fila + 1, filas - fila);
+        ids[fila] = id;
+        filas++;
+        fireTableRowsInserted(fila, fila);
+    }
+
+    private void quitar(int fila) {
+        System.arraycopy(ids, fila + 1, ids, fila, filas - fila - 1);
+        filas--;
+        fireTableRowsDeleted(fila, fila);
+    }
+
+    /** Sin orden, al final (orden de registro); con orden, búsqueda binaria después de los iguales. */
+    private int posicionDeInsercion(T entidad) {
+        Comparator<T> orden = comparador();
+        if (orden == null) return filas;
+        return posicionEn(ids, 0, filas, entidad, orden);
+    }
+
+    /** @return posición de la entidad entre {@code desde} y {@code hasta} de la lista ordenada, después de las iguales */
+    private int posicionEn(int[] lista, int desde, int hasta, T entidad, Comparator<T> orden) {
+        int bajo = desde;
+        int alto = hasta;
+        while (bajo < alto) {
+            int medio = (bajo + alto) >>> 1;
+            T otra = buscar.apply(lista[medio]);
+            if (otra == null || orden.compare(otra, entidad) <= 0) {
+                bajo = medio + 1;
+            } else {
+                alto = medio;
+            }
+        }
+        return bajo;
+    }
+
+    // ======================================================
+    // ENLACE CON COMPONENTES
+    // ======================================================
+
+    /**
+     * Ordena por la columna cuyo encabezado se pulsa, marcando en el
+     * encabezado la columna y el sentido del orden.
+     *
+     * @param tabla tabla que usa este modelo
+     */
+    public void conectarEncabezado(JTable tabla) {
+        tabla.getTableHeader().addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                int vista = tabla.columnAtPoint(e.getPoint());
+                if (vista < 0) return;
+                ordenarPor(tabla.convertColumnIndexToModel(vista));
+
+                for (int i = 0; i < tabla.getColumnCount(); i++) {
+                    TableColumn columna = tabla.getColumnModel().getColumn(i);
+                    int indice = columna.getModelIndex();
+                    String marca = indice == columnaOrden ? (ascendente ? " ▲" : " ▼") : "";
+                    columna.setHeaderValue(getColumnName(indice) + marca);
+                }
+                tabla.getTableHeader().repaint();
+            }
+        });
+    }
+
+    /**
+     * Aplica como filtro el texto del campo cada vez que cambia.
+     *
+     * @param campo campo de búsqueda
+     */
+    public void conectarFiltro(JTextField campo) {
+        campo.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                filtrar(campo.getText());
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                filtrar(campo.getText());
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                filtrar(campo.getText());
+            }
+        });
+    }
+}
@@ -13,7 +13,8 @@ public class MovimientoRepuesto {
      * Tipos posibles de movimientos de inventario.
      * ENTRADA: incremento del stock.
      * SALIDA: consumo o baja del stock.
-     * AJUSTE: corrección manual del inventario por diferencias físicas.
+     * AJUSTE: corrección manual del inventario por diferencias físicas;
+     *         su cantidad lleva el signo de la corrección.
      */
     public enum TipoMovimiento {
         ENTRADA,
@@ -23,7 +24,7 @@ public class MovimientoRepuesto {
 
     private LocalDate fecha;      // Fecha en que ocurrió el movimiento
     private Repuesto repuesto;   // Repuesto afectado por el movimiento
-    private int cantidad;        // Magnitud del movimiento (siempre positiva)
+    private int cantidad;        // Magnitud del movimiento (con signo en los ajustes)
     private TipoMovimiento tipo; // Tipo de operación realizada
     private String motivo;       // Razón del movimiento (compra, uso, ajuste, etc.)
     private String referencia;   // Documento o entidad relacionada (orden, factura, etc.)
@@ -33,7 +34,8 @@ public class MovimientoRepuesto {
      *
      * @param fecha      fecha en que se registró el movimiento
      * @param repuesto   repuesto afectado
-     * @param cantidad   cantidad aplicada (siempre positiva)
+     * @param cantidad   cantidad aplicada; positiva salvo en AJUSTE, donde
+     *                   es negativa si el conteo bajó el stock
      * @param tipo       tipo de movimiento realizado
      * @param motivo     descripción o justificación de la acción
      * @param referencia referencia documental o código asociado
@@ -70,6 +72,20 @@ public class MovimientoRepuesto {
         return cantidad;
     }
 
+    /**
+     * Efecto del movimiento sobre el stock: suma en entradas, resta en
+     * salidas y aplica el signo del ajuste. La suma de las variaciones de
+     * un repuesto reconstruye su stock.
+     *
+     * @return unidades que el movimiento agregó (o quitó, si es negativo)
+     */
+    public int getVariacion() {
+        return switch (tipo) {
+            case ENTRADA, AJUSTE -> cantidad;
+            case SALIDA -> -cantidad;
+        };
+    }
+
     /** @return tipo del movimiento realizado */
     public TipoMovimiento getTipo() {
         return tipo;
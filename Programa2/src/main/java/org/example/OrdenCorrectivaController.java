@@ -2,6 +2,8 @@ package org.example;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Controlador encargado de gestionar las operaciones de alto nivel
@@ -24,7 +26,11 @@ public class OrdenCorrectivaController {
      * Registra una nueva orden correctiva en el sistema,
      * validando previamente la información ingresada.
      *
-     * @param idOrden            identificador único de la orden
+     * Un ID digitado debe ser posterior a los ya asignados por la secuencia
+     * del sistema (ver {@link IdAllocator#reclamar}); al reproducir el diario
+     * el ID ya fue validado y solo se informa a la secuencia.
+     *
+     * @param idOrden            identificador único de la orden, o 0 para asignarlo automáticamente
      * @param fechaReporte       fecha en que se reporta la falla
      * @param equipoAsociado     equipo afectado por la falla
      * @param descripcionFalla   descripción reportada de la falla
@@ -42,7 +48,7 @@ public class OrdenCorrectivaController {
                                        OrdenCorrectiva.Prioridad prioridad,
                                        String diagnosticoInicial) {
 
-        if (idOrden <= 0) return "El ID debe ser mayor que cero.";
+        if (idOrden < 0) return "El ID no puede ser negativo.";
         if (fechaReporte == null) return "Debe ingresar fecha de reporte.";
         if (equipoAsociado == null) return "Debe seleccionar un equipo.";
         if (descripcionFalla == null || descripcionFalla.isBlank()) return "Debe indicar la falla.";
@@ -50,6 +56,14 @@ public class OrdenCorrectivaController {
         if (prioridad == null) return "Debe indicar prioridad.";
         if (diagnosticoInicial == null) diagnosticoInicial = "";
 
+        IdAllocator ids = SistemaMantenimiento.getInstancia().getIdAllocator();
+        boolean registrando = SistemaMantenimiento.getInstancia().getDiario().isActivo();
+        if (idOrden == 0) {
+            idOrden = ids.siguiente(IdAllocator.Secuencia.ORDEN_CORRECTIVA);
+        } else if (registrando && !ids.reclamar(IdAllocator.Secuencia.ORDEN_CORRECTIVA, idOrden)) {
+            return "El ID " + idOrden + " ya fue asignado por el sistema; deje el campo vacío para obtener uno nuevo.";
+        }
+
         OrdenCorrectiva nueva = new OrdenCorrectiva(
                 idOrden,
                 fechaReporte,
@@ -60,10 +74,50 @@ public class OrdenCorrectivaController {
                 diagnosticoInicial
         );
 
-        boolean ok = ordenService.agregarOrdenCorrectiva(nueva);
+        // La creación se encola con el cerrojo de la orden tomado, antes que
+        // cualquier operación posterior sobre ella; el del equipo impide que
+        // se elimine o cambie de estado mientras tanto
+        int id = idOrden;
+        String diagnostico = diagnosticoInicial;
+        boolean ok = SistemaMantenimiento.getInstancia().getDiario().aplicar(
+                cerrojosEquipos(), equipoAsociado.getId(),
+                ordenService.getCerrojos(), id,
+                () -> equipoService().buscarEquipoPorId(equipoAsociado.getId()) != null
+                        && ordenService.agregarOrdenCorrectiva(nueva),
+                DiarioOperaciones.Operacion.CREAR_ORDEN_CORRECTIVA, out -> {
+                    out.writeInt(id);
+                    out.escribirFecha(fechaReporte);
+                    out.writeInt(equipoAsociado.getId());
+                    out.escribirTexto(descripcionFalla);
+                    out.escribirTexto(causaFalla);
+                    out.escribirEnum(prioridad);
+                    out.escribirTexto(diagnostico);
+                });
+        if (ok) {
+            ids.observar(IdAllocator.Secuencia.ORDEN_CORRECTIVA, idOrden);
+        }
 
         return ok ? "Orden registrada con éxito."
-                  : "Ya existe una orden con ese ID.";
+                  : "No se pudo registrar (ID duplicado o equipo eliminado).";
+    }
+
+    /** @return cerrojos de los equipos, tomados antes que los de las órdenes */
+    private static CerrojosPorId cerrojosEquipos() {
+        return equipoService().getCerrojos();
+    }
+
+    private static EquipoService equipoService() {
+        return SistemaMantenimiento.getInstancia().getEquipoController().getEquipoService();
+    }
+
+    /**
+     * Obtiene un ID nuevo para una orden correctiva desde la secuencia del sistema.
+     *
+     * @return identificador que ninguna otra orden ha usado
+     */
+    public int generarIdOrden() {
+        return SistemaMantenimiento.getInstancia().getIdAllocator()
+                .siguiente(IdAllocator.Secuencia.ORDEN_CORRECTIVA);
     }
 
     /**
@@ -78,7 +132,18 @@ public class OrdenCorrectivaController {
     public String iniciarAtencion(int idOrden, LocalDate fechaAtencion) {
         if (fechaAtencion == null) return "Ingrese fecha válida.";
 
-        boolean ok = ordenService.iniciarAtencion(idOrden, fechaAtencion);
+        // Con el cerrojo del equipo tomado no cambia de estado mientras la orden pasa a EN_PROCESO
+        OrdenCorrectiva orden = ordenService.buscarOrdenCorrectivaPorId(idOrden);
+        int idEquipo = orden == null || orden.getEquipoAsociado() == null ? 0 : orden.getEquipoAsociado().getId();
+
+        boolean ok = SistemaMantenimiento.getInstancia().getDiario().aplicar(
+                cerrojosEquipos(), idEquipo,
+                ordenService.getCerrojos(), idOrden,
+                () -> ordenService.iniciarAtencion(idOrden, fechaAtencion),
+                DiarioOperaciones.Operacion.INICIAR_ORDEN_CORRECTIVA, out -> {
+                    out.writeInt(idOrden);
+                    out.escribirFecha(fechaAtencion);
+                });
 
         return ok ? "Atención iniciada correctamente."
                   : "No se pudo iniciar la atención.";
@@ -86,6 +151,8 @@ public class OrdenCorrectivaController {
 
     /**
      * Finaliza una orden asignando información técnica y económica.
+     * Si la orden tiene repuestos reservados, la reserva se confirma como
+     * salida de inventario.
      *
      * @param idOrden              orden a finalizar
      * @param fechaFinalizacion    fecha de cierre
@@ -109,21 +176,79 @@ public class OrdenCorrectivaController {
         if (costo < 0) return "El costo no puede ser negativo.";
         if (horasTrabajadas < 0) return "Las horas trabajadas no pueden ser negativas.";
 
-        boolean ok = ordenService.finalizarOrdenCorrectiva(
-                idOrden,
-                fechaFinalizacion,
-                accionesRealizadas,
-                observacionesFinales,
-                costo,
-                horasTrabajadas
-        );
+        InventarioRepuestosController.ResultadoCierre resultado =
+                SistemaMantenimiento.getInstancia().getInventarioRepuestosController().aplicarConReserva(
+                ordenService.getCerrojos(), idOrden,
+                InventarioRepuestosController.referenciaOrdenCorrectiva(idOrden),
+                true, "Consumo en orden correctiva", fechaFinalizacion,
+                () -> ordenService.finalizarOrdenCorrectiva(
+                        idOrden,
+                        fechaFinalizacion,
+                        accionesRealizadas,
+                        observacionesFinales,
+                        costo,
+                        horasTrabajadas
+                ),
+                DiarioOperaciones.Operacion.FINALIZAR_ORDEN_CORRECTIVA, out -> {
+                    out.writeInt(idOrden);
+                    out.escribirFecha(fechaFinalizacion);
+                    out.escribirTexto(accionesRealizadas);
+                    out.escribirTexto(observacionesFinales);
+                    out.writeDouble(costo);
+                    out.writeDouble(horasTrabajadas);
+                });
 
-        return ok ? "Orden finalizada correctamente."
-                  : "No se pudo finalizar la orden.";
+        return switch (resultado) {
+            case APLICADO -> "Orden finalizada correctamente.";
+            case RESERVA_INSUFICIENTE -> "No se pudo finalizar: el stock ya no cubre los repuestos reservados.";
+            case RECHAZADO -> "No se pudo finalizar la orden.";
+        };
+    }
+
+    /**
+     * Reserva todos los repuestos que necesita una orden antes de atenderla:
+     * si alguno no tiene disponible suficiente no se reserva ninguno. La
+     * reserva se confirma al finalizar la orden y se libera si se marca
+     * como no reparada.
+     *
+     * @param idOrden          ID de la orden
+     * @param lineas           cantidad a reservar por ID de repuesto
+     * @param fecha            fecha de la reserva
+     * @param fechaVencimiento último día de validez, o null si no vence
+     *
+     * @return mensaje de resultado
+     */
+    public String reservarRepuestos(int idOrden,
+                                    Map<Integer, Integer> lineas,
+                                    LocalDate fecha,
+                                    LocalDate fechaVencimiento) {
+
+        InventarioRepuestosController inventario =
+                SistemaMantenimiento.getInstancia().getInventarioRepuestosController();
+        String referencia = InventarioRepuestosController.referenciaOrdenCorrectiva(idOrden);
+        String error = inventario.validarReserva(referencia, lineas, fecha, fechaVencimiento);
+        if (error != null) return error;
+
+        // Con el cerrojo de la orden tomado no puede cerrarse mientras se reserva
+        DiarioOperaciones diario = SistemaMantenimiento.getInstancia().getDiario();
+        long turno = diario.escribir(() -> ordenService.getCerrojos().ejecutar(idOrden, () -> {
+            OrdenCorrectiva orden = ordenService.buscarOrdenCorrectivaPorId(idOrden);
+            if (orden == null
+                    || orden.getEstado() == OrdenCorrectiva.EstadoOrden.COMPLETADA
+                    || orden.getEstado() == OrdenCorrectiva.EstadoOrden.NO_REPARADA) {
+                return -1L;
+            }
+            return inventario.encolarReserva(referencia, lineas, fecha, fechaVencimiento);
+        }));
+        diario.esperar(turno);
+
+        return turno >= 0 ? "Repuestos reservados para la orden."
+                          : "No se pudo reservar (orden cerrada, reserva existente o disponible insuficiente).";
     }
 
     /**
      * Marca una orden como no reparada, registrando motivo del resultado.
+     * Si la orden tiene repuestos reservados, se liberan.
      *
      * @param idOrden ID de la orden asociada
      * @param motivo  explicación del por qué no fue reparada
@@ -133,12 +258,44 @@ public class OrdenCorrectivaController {
     public String marcarNoReparada(int idOrden, String motivo) {
         if (motivo == null || motivo.isBlank()) return "Debe indicar motivo.";
 
-        boolean ok = ordenService.marcarNoReparada(idOrden, motivo);
+        boolean ok = SistemaMantenimiento.getInstancia().getInventarioRepuestosController().aplicarConReserva(
+                ordenService.getCerrojos(), idOrden,
+                InventarioRepuestosController.referenciaOrdenCorrectiva(idOrden),
+                false, null, null,
+                () -> ordenService.marcarNoReparada(idOrden, motivo),
+                DiarioOperaciones.Operacion.MARCAR_NO_REPARADA_ORDEN_CORRECTIVA, out -> {
+                    out.writeInt(idOrden);
+                    out.escribirTexto(motivo);
+                }) == InventarioRepuestosController.ResultadoCierre.APLICADO;
 
         return ok ? "Orden marcada como no reparada."
                   : "No se pudo actualizar.";
     }
 
+    /**
+     * Corrige el costo de reparación de una orden finalizada; el costo
+     * acumulado de su equipo se ajusta en consecuencia.
+     *
+     * @param idOrden ID de la orden
+     * @param costo   nuevo costo de reparación
+     *
+     * @return mensaje de resultado
+     */
+    public String actualizarCostoReparacion(int idOrden, double costo) {
+        if (costo < 0) return "El costo no puede ser negativo.";
+
+        boolean ok = SistemaMantenimiento.getInstancia().getDiario().aplicar(
+                ordenService.getCerrojos(), idOrden,
+                () -> ordenService.actualizarCostoReparacion(idOrden, costo),
+                DiarioOperaciones.Operacion.ACTUALIZAR_COSTO_ORDEN_CORRECTIVA, out -> {
+                    out.writeInt(idOrden);
+                    out.writeDouble(costo);
+                });
+
+        return ok ? "Costo actualizado correctamente."
+                  : "No se pudo actualizar el costo (la orden no existe o no está finalizada).";
+    }
+
     /**
      * Obtiene la lista completa de órdenes correctivas registradas..
      *
@@ -148,6 +305,16 @@ public class OrdenCorrectivaController {
         return ordenService.obtenerOrdenesCorrectivas();
     }
 
+    /**
+     * Servicio de órdenes correctivas, para módulos que leen su información
+     * sin pasar por las validaciones del controlador (por ejemplo, los reportes).
+     *
+     * @return servicio de órdenes de este controlador
+     */
+    OrdenCorrectivaService getOrdenService() {
+        return ordenService;
+    }
+
     /**
      * Busca y devuelve una orden correctiva según su ID.
      * Útil para validación y consultas desde la interfaz UI.
@@ -159,8 +326,97 @@ public class OrdenCorrectivaController {
         return ordenService.buscarOrdenCorrectivaPorId(id);
     }
 
-}
+    /**
+     * Cuenta las órdenes correctivas asociadas a un equipo.
+     *
+     * @param idEquipo identificador del equipo
+     * @return número de órdenes correctivas del equipo
+     */
+    public int contarOrdenesPorEquipo(int idEquipo) {
+        return (int) ordenService.contarOrdenesCorrectivasPorEquipo(idEquipo);
+    }
+
+    /**
+     * Cuenta las órdenes correctivas de un equipo en un estado determinado.
+     *
+     * @param idEquipo identificador del equipo
+     * @param estado   estado consultado
+     * @return número de órdenes del equipo en ese estado
+     */
+    public int contarOrdenesPorEquipo(int idEquipo, OrdenCorrectiva.EstadoOrden estado) {
+        return ordenService.contarOrdenesCorrectivasPorEquipo(idEquipo, estado);
+    }
+
+    /**
+     * IDs de las órdenes correctivas de un equipo, en orden de registro,
+     * obtenidos del índice por equipo sin recorrer todas las órdenes.
+     *
+     * @param idEquipo identificador del equipo
+     * @return copia de solo lectura de los IDs
+     */
+    public Set<Integer> obtenerIdsOrdenesPorEquipo(int idEquipo) {
+        return ordenService.obtenerIdsOrdenesPorEquipo(idEquipo);
+    }
+
+    /**
+     * @param estado estado consultado
+     * @return cantidad de órdenes correctivas en ese estado, sin recorrerlas
+     */
+    public int contarOrdenesPorEstado(OrdenCorrectiva.EstadoOrden estado) {
+        return ordenService.contarOrdenesPorEstado(estado);
+    }
+
+    /**
+     * @param prioridad prioridad consultada
+     * @return cantidad de órdenes correctivas con esa prioridad, sin recorrerlas
+     */
+    public int contarOrdenesPorPrioridad(OrdenCorrectiva.Prioridad prioridad) {
+        return ordenService.contarOrdenesPorPrioridad(prioridad);
+    }
 
+    /**
+     * Suscribe un oyente a los cambios de los contadores por estado y por
+     * prioridad (por ejemplo, un gráfico o un panel de indicadores).
+     *
+     * @param oyente oyente a registrar
+     */
+    public void agregarOyenteContadores(OyenteContadores oyente) {
+        ordenService.agregarOyenteContadores(oyente);
+    }
 
+    /**
+     * Cancela la suscripción de un oyente de contadores.
+     *
+     * @param oyente oyente a quitar
+     */
+    public void quitarOyenteContadores(OyenteContadores oyente) {
+        ordenService.quitarOyenteContadores(oyente);
+    }
 
+    /**
+     * Costos de mantenimiento correctivo acumulados por equipo, alineados
+     * con los IDs recibidos. No recorre las órdenes.
+     *
+     * @param idsEquipos IDs de los equipos
+     * @return costo acumulado de cada equipo
+     */
+    public double[] obtenerCostosPorEquipo(int[] idsEquipos) {
+        return ordenService.obtenerCostosPorEquipo(idsEquipos);
+    }
 
+    /**
+     * Incorpora las órdenes restauradas desde una instantánea, sin validar
+     * ni registrar en el diario de operaciones.
+     *
+     * @param ordenes órdenes a incorporar
+     */
+    public void cargarOrdenes(List<OrdenCorrectiva> ordenes) {
+        int maximo = 0;
+        for (OrdenCorrectiva orden : ordenes) {
+            ordenService.agregarOrdenCorrectiva(orden);
+            maximo = Math.max(maximo, orden.getIdOrdenCorrectiva());
+        }
+        SistemaMantenimiento.getInstancia().getIdAllocator()
+                .observar(IdAllocator.Secuencia.ORDEN_CORRECTIVA, maximo);
+    }
+}
@@ -2,7 +2,6 @@ package org.example;
 
 import java.awt.*;
 import java.time.LocalDate;
-import java.util.List;
 import javax.swing.*;
 
 /**
@@ -23,6 +22,10 @@ public class OrdenCorrectivaFrame extends JFrame {
 
     private JTextArea salida;
 
+    /** Avance y carga en curso del listado. */
+    private JProgressBar barraCarga;
+    private CargaEnSegundoPlano<OrdenCorrectiva, String> carga;
+
     /**
      * Constructor principal que construye la interfaz
      * y configura pestañas de operación.
@@ -65,7 +68,7 @@ public class OrdenCorrectivaFrame extends JFrame {
         txtDiagnostico = new JTextField();
         comboPrioridad = new JComboBox<>(OrdenCorrectiva.Prioridad.values());
 
-        p.add(new JLabel("ID Orden:"));       p.add(txtId);
+        p.add(new JLabel("ID Orden (vacío = automático):")); p.add(txtId);
         p.add(new JLabel("ID Equipo:"));      p.add(txtEquipoId);
         p.add(new JLabel("Descripción falla:")); p.add(txtFalla);
         p.add(new JLabel("Causa falla:"));    p.add(txtCausa);
@@ -86,7 +89,6 @@ public class OrdenCorrectivaFrame extends JFrame {
      */
     private void registrarOrden() {
         try {
-            int id = Integer.parseInt(txtId.getText());
             int idEquipo = Integer.parseInt(txtEquipoId.getText());
 
             Equipo eq = sistema.getEquipoController().buscarEquipo(idEquipo);
@@ -96,7 +98,10 @@ public class OrdenCorrectivaFrame extends JFrame {
                 return;
             }
 
-            System.out.println(">>> [CorrectivaFrame] Creando orden " + id);
+            // Si el ID se deja vacío el controlador lo asigna automáticamente
+            int id = txtId.getText().isBlank() ? 0 : Integer.parseInt(txtId.getText());
+
+            System.out.println(">>> [CorrectivaFrame] Creando orden " + (id == 0 ? "(ID automático)" : id));
 
             String resultado = sistema.getOrdenCorrectivaController().crearOrdenCorrectiva(
                     id,
@@ -271,30 +276,42 @@ public class OrdenCorrectivaFrame extends JFrame {
         JButton btn = new JButton("Actualizar listado");
         btn.addActionListener(e -> cargarOrdenes());
 
+        barraCarga = CargaEnSegundoPlano.crearBarraProgreso();
+
         p.add(btn, BorderLayout.NORTH);
         p.add(new JScrollPane(salida), BorderLayout.CENTER);
+        p.add(barraCarga, BorderLayout.SOUTH);
 
         return p;
     }
 
     /**
-     * Carga órdenes existentes y las muestra en consola y panel.
+     * Carga órdenes existentes en segundo plano y las muestra en el panel.
      */
     private void cargarOrdenes() {
+        CargaEnSegundoPlano.cancelar(carga);
         salida.setText("");
 
         System.out.println(">>> [CorrectivaFrame] Cargando órdenes...");
 
-        List<OrdenCorrectiva> lista = sistema.getOrdenCorrectivaController().obtenerOrdenes();
-
-        if (lista.isEmpty()) {
-            salida.append("No hay órdenes registradas.");
-            return;
-        }
+        carga = CargaEnSegundoPlano.iniciar(
+                sistema.getOrdenCorrectivaController()::obtenerOrdenes,
+                OrdenCorrectiva::toString,
+                CargaEnSegundoPlano.lineasDe(salida),
+                barraCarga,
+                cantidad -> {
+                    if (cantidad == 0) salida.append("No hay órdenes registradas.");
+                }
+        );
+    }
 
-        for (OrdenCorrectiva oc : lista) {
-            salida.append(oc.toString() + "\n");
-        }
+    /**
+     * Cancela la carga del listado al cerrar la ventana.
+     */
+    @Override
+    public void dispose() {
+        CargaEnSegundoPlano.cancelar(carga);
+        super.dispose();
     }
 
     // ======================================================
@@ -1,8 +1,8 @@
 package org.example;
 
 import java.time.LocalDate;
-import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Servicio encargado de gestionar las operaciones sobre
@@ -10,16 +10,37 @@ import java.util.List;
  * de estados, materiales, tiempos y consultas.
  *
  * Actúa como capa de negocio para {@link OrdenCorrectivaController}.
+ *
+ * Es seguro para uso concurrente: las operaciones sobre una orden se
+ * serializan con el cerrojo de su ID ({@link #getCerrojos()}).
  */
 public class OrdenCorrectivaService {
 
-    private List<OrdenCorrectiva> ordenesCorrectivas;
+    private Repository<OrdenCorrectiva> ordenesCorrectivas;
+
+    /** Índice secundario de órdenes y contadores por estado para cada equipo. */
+    private IndiceOrdenesPorEquipo<OrdenCorrectiva.EstadoOrden> indicePorEquipo;
+
+    /** Cantidad de órdenes en cada estado, para gráficos e indicadores. */
+    private final ContadorPorEnum<OrdenCorrectiva.EstadoOrden> contadorEstados =
+            new ContadorPorEnum<>(OrdenCorrectiva.EstadoOrden.class);
+
+    /** Cantidad de órdenes con cada prioridad. */
+    private final ContadorPorEnum<OrdenCorrectiva.Prioridad> contadorPrioridades =
+            new ContadorPorEnum<>(OrdenCorrectiva.Prioridad.class);
+
+    /** Cerrojos por ID de orden que serializan los cambios de cada orden. */
+    private final CerrojosPorId cerrojos = new CerrojosPorId();
+
+    /** Bus donde se publican altas, bajas, transiciones y costos; el sistema asigna el compartido. */
+    private BusEventos bus = new BusEventos();
 
     /**
-     * Constructor — inicializa la lista interna de órdenes correctivas.
+     * Constructor — inicializa el repositorio interno de órdenes correctivas.
      */
     public OrdenCorrectivaService() {
-        this.ordenesCorrectivas = new ArrayList<>();
+        this.ordenesCorrectivas = new Repository<>(OrdenCorrectiva::getIdOrdenCorrectiva);
+        this.indicePorEquipo = new IndiceOrdenesPorEquipo<>(OrdenCorrectiva.EstadoOrden.class);
     }
 
     /**
@@ -29,13 +50,20 @@ public class OrdenCorrectivaService {
      * @return true si se agregó, false si existe otra con mismo ID
      */
     public boolean agregarOrdenCorrectiva(OrdenCorrectiva orden) {
-        for (OrdenCorrectiva o : ordenesCorrectivas) {
-            if (o.getIdOrdenCorrectiva() == orden.getIdOrdenCorrectiva()) {
+        return cerrojos.ejecutar(orden.getIdOrdenCorrectiva(), () -> {
+            if (!ordenesCorrectivas.agregar(orden)) {
                 return false; // Ya existe una orden con ese ID
             }
-        }
-        ordenesCorrectivas.add(orden);
-        return true;
+            if (orden.getEquipoAsociado() != null) {
+                indicePorEquipo.registrar(orden.getEquipoAsociado().getId(),
+                        orden.getIdOrdenCorrectiva(), orden.getEstado(), orden.getCostoReparacion());
+            }
+            contadorEstados.sumar(orden.getEstado());
+            contadorPrioridades.sumar(orden.getPrioridad());
+            bus.publicar(new EventoDominio.OrdenCreada(orden.getIdOrdenCorrectiva(), idEquipo(orden),
+                    orden.getEstado(), orden.getPrioridad()));
+            return true;
+        });
     }
 
     /**
@@ -45,12 +73,7 @@ public class OrdenCorrectivaService {
      * @return instancia encontrada o null si no existe
      */
     public OrdenCorrectiva buscarOrdenCorrectivaPorId(int idOrden) {
-        for (OrdenCorrectiva o : ordenesCorrectivas) {
-            if (o.getIdOrdenCorrectiva() == idOrden) {
-                return o;
-            }
-        }
-        return null;
+        return ordenesCorrectivas.buscar(idOrden);
     }
 
     /**
@@ -60,12 +83,83 @@ public class OrdenCorrectivaService {
      * @return true si se eliminó, false si no existe
      */
     public boolean eliminarOrdenCorrectiva(int idOrden) {
-        OrdenCorrectiva orden = buscarOrdenCorrectivaPorId(idOrden);
-        if (orden != null) {
-            ordenesCorrectivas.remove(orden);
+        return cerrojos.ejecutar(idOrden, () -> {
+            OrdenCorrectiva orden = ordenesCorrectivas.eliminar(idOrden);
+            if (orden == null) return false;
+
+            if (orden.getEquipoAsociado() != null) {
+                indicePorEquipo.eliminar(orden.getEquipoAsociado().getId(), idOrden, orden.getEstado(),
+                        orden.getCostoReparacion());
+            }
+            contadorEstados.restar(orden.getEstado());
+            contadorPrioridades.restar(orden.getPrioridad());
+            // El costo de la orden deja de sumar al de su equipo
+            if (orden.getCostoReparacion() != 0) {
+                bus.publicar(new EventoDominio.CostoOrdenCambiado(idOrden, idEquipo(orden),
+                        orden.getCostoReparacion(), 0));
+            }
+            bus.publicar(new EventoDominio.OrdenEliminada(idOrden, idEquipo(orden), orden.getEstado()));
             return true;
+        });
+    }
+
+    /**
+     * Cerrojos por ID de orden, para ejecutar otra acción (por ejemplo,
+     * registrarla en el diario de operaciones) ordenada con un cambio de la orden.
+     *
+     * @return cerrojos de las órdenes correctivas
+     */
+    public CerrojosPorId getCerrojos() {
+        return cerrojos;
+    }
+
+    /**
+     * Asigna el bus donde se publican los eventos del servicio.
+     *
+     * @param bus bus de eventos del sistema
+     */
+    void setBusEventos(BusEventos bus) {
+        this.bus = bus;
+    }
+
+    /** @return ID del equipo de la orden, o 0 si no tiene */
+    private static int idEquipo(OrdenCorrectiva orden) {
+        return orden.getEquipoAsociado() != null ? orden.getEquipoAsociado().getId() : 0;
+    }
+
+    /**
+     * Actualiza el índice por equipo y los contadores por estado después de
+     * que una orden cambió de estado, y publica la transición.
+     *
+     * @param orden orden modificada
+     * @param anterior estado que tenía antes del cambio
+     */
+    private void registrarTransicion(OrdenCorrectiva orden, OrdenCorrectiva.EstadoOrden anterior) {
+        if (orden.getEquipoAsociado() != null) {
+            indicePorEquipo.cambiarEstado(orden.getEquipoAsociado().getId(), anterior, orden.getEstado());
+        }
+        contadorEstados.mover(anterior, orden.getEstado());
+        if (anterior != orden.getEstado()) {
+            bus.publicar(new EventoDominio.OrdenEstadoCambiado(orden.getIdOrdenCorrectiva(), idEquipo(orden),
+                    anterior, orden.getEstado()));
+        }
+    }
+
+    /**
+     * Actualiza el costo acumulado del equipo después de que cambió el costo
+     * de una orden, y publica el cambio.
+     *
+     * @param orden orden modificada
+     * @param anterior costo que tenía antes del cambio
+     */
+    private void registrarCosto(OrdenCorrectiva orden, double anterior) {
+        if (orden.getEquipoAsociado() != null) {
+            indicePorEquipo.cambiarCosto(orden.getEquipoAsociado().getId(), anterior, orden.getCostoReparacion());
+        }
+        if (anterior != orden.getCostoReparacion()) {
+            bus.publicar(new EventoDominio.CostoOrdenCambiado(orden.getIdOrdenCorrectiva(), idEquipo(orden),
+                    anterior, orden.getCostoReparacion()));
         }
-        return false;
     }
 
     /**
@@ -77,16 +171,20 @@ public class OrdenCorrectivaService {
      * @return true si se realizó el cambio; false si falla validación
      */
     public boolean iniciarAtencion(int idOrden, LocalDate fechaAtencion) {
-        OrdenCorrectiva orden = buscarOrdenCorrectivaPorId(idOrden);
-        if (orden == null) return false;
+        return cerrojos.ejecutar(idOrden, () -> {
+            OrdenCorrectiva orden = buscarOrdenCorrectivaPorId(idOrden);
+            if (orden == null) return false;
 
-        // Validación de fechas
-        if (fechaAtencion.isBefore(orden.getFechaReporte())) {
-            return false;
-        }
+            // Validación de fechas
+            if (fechaAtencion.isBefore(orden.getFechaReporte())) {
+                return false;
+            }
 
-        orden.iniciarAtencion(fechaAtencion);
-        return true;
+            OrdenCorrectiva.EstadoOrden anterior = orden.getEstado();
+            orden.iniciarAtencion(fechaAtencion);
+            registrarTransicion(orden, anterior);
+            return true;
+        });
     }
 
     /**
@@ -107,25 +205,31 @@ public class OrdenCorrectivaService {
                                             String observacionesFinales,
                                             double costo,
                                             double horasTrabajadas) {
+        return cerrojos.ejecutar(idOrden, () -> {
+            OrdenCorrectiva orden = buscarOrdenCorrectivaPorId(idOrden);
+            if (orden == null) return false;
 
-        OrdenCorrectiva orden = buscarOrdenCorrectivaPorId(idOrden);
-        if (orden == null) return false;
+            // No se puede finalizar si no se inició
+            if (orden.getFechaAtencion() == null) return false;
 
-        // No se puede finalizar si no se inició
-        if (orden.getFechaAtencion() == null) return false;
+            // La finalización no puede ser antes que la fecha de atención
+            if (fechaFinalizacion.isBefore(orden.getFechaAtencion())) return false;
 
-        // La finalización no puede ser antes que la fecha de atención
-        if (fechaFinalizacion.isBefore(orden.getFechaAtencion())) return false;
+            OrdenCorrectiva.EstadoOrden anterior = orden.getEstado();
+            double costoAnterior = orden.getCostoReparacion();
+            orden.finalizarOrden(
+                    fechaFinalizacion,
+                    accionesRealizadas,
+                    observacionesFinales,
+                    costo,
+                    horasTrabajadas
+            );
+            registrarTransicion(orden, anterior);
+            registrarCosto(orden, costoAnterior);
+            bus.publicar(new EventoDominio.OrdenCompletada(idOrden, idEquipo(orden), costo, horasTrabajadas));
 
-        orden.finalizarOrden(
-                fechaFinalizacion,
-                accionesRealizadas,
-                observacionesFinales,
-                costo,
-                horasTrabajadas
-        );
-
-        return true;
+            return true;
+        });
     }
 
     /**
@@ -137,13 +241,36 @@ public class OrdenCorrectivaService {
      * @return true si se aplicó el cambio
      */
     public boolean marcarNoReparada(int idOrden, String motivo) {
-        OrdenCorrectiva orden = buscarOrdenCorrectivaPorId(idOrden);
-        if (orden == null) return false;
+        return cerrojos.ejecutar(idOrden, () -> {
+            OrdenCorrectiva orden = buscarOrdenCorrectivaPorId(idOrden);
+            if (orden == null) return false;
+
+            OrdenCorrectiva.EstadoOrden anterior = orden.getEstado();
+            orden.setEstado(OrdenCorrectiva.EstadoOrden.NO_REPARADA);
+            orden.setObservacionesFinales("NO REPARADA: " + motivo);
+            registrarTransicion(orden, anterior);
+
+            return true;
+        });
+    }
 
-        orden.setEstado(OrdenCorrectiva.EstadoOrden.NO_REPARADA);
-        orden.setObservacionesFinales("NO REPARADA: " + motivo);
+    /**
+     * Corrige el costo de reparación de una orden ya finalizada.
+     *
+     * @param idOrden ID de la orden
+     * @param costo nuevo costo
+     * @return true si se actualizó; false si la orden no existe o no está completada
+     */
+    public boolean actualizarCostoReparacion(int idOrden, double costo) {
+        return cerrojos.ejecutar(idOrden, () -> {
+            OrdenCorrectiva orden = buscarOrdenCorrectivaPorId(idOrden);
+            if (orden == null || orden.getEstado() != OrdenCorrectiva.EstadoOrden.COMPLETADA) return false;
 
-        return true;
+            double anterior = orden.getCostoReparacion();
+            orden.setCostoReparacion(costo);
+            registrarCosto(orden, anterior);
+            return true;
+        });
     }
 
     /**
@@ -154,11 +281,13 @@ public class OrdenCorrectivaService {
      * @return true si se agregó, false si la orden no existe
      */
     public boolean agregarMaterial(int idOrden, String material) {
-        OrdenCorrectiva orden = buscarOrdenCorrectivaPorId(idOrden);
-        if (orden == null) return false;
+        return cerrojos.ejecutar(idOrden, () -> {
+            OrdenCorrectiva orden = buscarOrdenCorrectivaPorId(idOrden);
+            if (orden == null) return false;
 
-        orden.agregarMaterial(material);
-        return true;
+            orden.agregarMaterial(material);
+            return true;
+        });
     }
 
     /**
@@ -169,11 +298,13 @@ public class OrdenCorrectivaService {
      * @return true si se registró, false si orden inexistente o valor inválido
      */
     public boolean registrarTiempo(int idOrden, double horas) {
-        OrdenCorrectiva orden = buscarOrdenCorrectivaPorId(idOrden);
-        if (orden == null || horas < 0) return false;
+        return cerrojos.ejecutar(idOrden, () -> {
+            OrdenCorrectiva orden = buscarOrdenCorrectivaPorId(idOrden);
+            if (orden == null || horas < 0) return false;
 
-        orden.setTiempoEmpleadoHoras(horas);
-        return true;
+            orden.setTiempoEmpleadoHoras(horas);
+            return true;
+        });
     }
 
     /**
@@ -182,7 +313,7 @@ public class OrdenCorrectivaService {
      * @return lista completa de órdenes correctivas
      */
     public List<OrdenCorrectiva> obtenerOrdenesCorrectivas() {
-        return ordenesCorrectivas;
+        return ordenesCorrectivas.obtenerTodos();
     }
 
     /**
@@ -192,9 +323,86 @@ public class OrdenCorrectivaService {
      * @return número de órdenes asociadas
      */
     public long contarOrdenesCorrectivasPorEquipo(int idEquipo) {
-        return obtenerOrdenesCorrectivas().stream()
-                .filter(oc -> oc.getEquipoAsociado().getId() == idEquipo)
-                .count();
+        return indicePorEquipo.contar(idEquipo);
+    }
+
+    /**
+     * Cuenta las órdenes correctivas de un equipo que se encuentran en un estado dado.
+     *
+     * @param idEquipo ID del equipo
+     * @param estado estado consultado
+     * @return número de órdenes del equipo en ese estado
+     */
+    public int contarOrdenesCorrectivasPorEquipo(int idEquipo, OrdenCorrectiva.EstadoOrden estado) {
+        return indicePorEquipo.contar(idEquipo, estado);
+    }
+
+    /**
+     * @param estado estado consultado
+     * @return cantidad de órdenes correctivas en ese estado, en O(1)
+     */
+    public int contarOrdenesPorEstado(OrdenCorrectiva.EstadoOrden estado) {
+        return contadorEstados.obtener(estado);
+    }
+
+    /**
+     * @param prioridad prioridad consultada
+     * @return cantidad de órdenes correctivas con esa prioridad, en O(1)
+     */
+    public int contarOrdenesPorPrioridad(OrdenCorrectiva.Prioridad prioridad) {
+        return contadorPrioridades.obtener(prioridad);
+    }
+
+    /**
+     * Suscribe un oyente a los cambios de los contadores por estado y por prioridad.
+     *
+     * @param oyente oyente a registrar
+     */
+    public void agregarOyenteContadores(OyenteContadores oyente) {
+        contadorEstados.agregarOyente(oyente);
+        contadorPrioridades.agregarOyente(oyente);
+    }
+
+    /**
+     * Cancela la suscripción de un oyente de contadores.
+     *
+     * @param oyente oyente a quitar
+     */
+    public void quitarOyenteContadores(OyenteContadores oyente) {
+        contadorEstados.quitarOyente(oyente);
+        contadorPrioridades.quitarOyente(oyente);
+    }
+
+    /**
+     * Costo acumulado de las órdenes correctivas de un equipo, mantenido al
+     * finalizar, corregir el costo o eliminar sus órdenes.
+     *
+     * @param idEquipo ID del equipo
+     * @return suma de los costos de reparación del equipo
+     */
+    public double obtenerCostoPorEquipo(int idEquipo) {
+        return indicePorEquipo.costo(idEquipo);
+    }
+
+    /**
+     * Costos acumulados de varios equipos en un arreglo alineado con los
+     * IDs; cada consulta es O(1), sin recorrer las órdenes.
+     *
+     * @param idsEquipos IDs de los equipos
+     * @return costo de cada equipo; 0 para los que no tienen órdenes
+     */
+    public double[] obtenerCostosPorEquipo(int[] idsEquipos) {
+        return indicePorEquipo.costos(idsEquipos);
+    }
+
+    /**
+     * Devuelve los IDs de las órdenes correctivas asociadas a un equipo.
+     *
+     * @param idEquipo ID del equipo
+     * @return conjunto de solo lectura con los IDs de sus órdenes
+     */
+    public Set<Integer> obtenerIdsOrdenesPorEquipo(int idEquipo) {
+        return indicePorEquipo.obtenerIdsOrdenes(idEquipo);
     }
 }
 
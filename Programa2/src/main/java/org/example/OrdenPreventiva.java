@@ -91,6 +91,7 @@ public class OrdenPreventiva {
     public void setFechaEjecucion(LocalDate fechaEjecucion) { this.fechaEjecucion = fechaEjecucion; }
 
     public LocalDate getFechaCancelacion() { return fechaCancelacion; }
+    public void setFechaCancelacion(LocalDate fechaCancelacion) { this.fechaCancelacion = fechaCancelacion; }
 
     public EstadoOrden getEstado() { return estado; }
     public void setEstado(EstadoOrden estado) { this.estado = estado; }
@@ -120,6 +121,7 @@ public class OrdenPreventiva {
     public void agregarMaterial(String material) { this.materialesUtilizados.add(material); }
 
     public String getFirmaDigitalTecnico() { return firmaDigitalTecnico; }
+    public void setFirmaDigitalTecnico(String firmaDigitalTecnico) { this.firmaDigitalTecnico = firmaDigitalTecnico; }
 
     // ---------------------- MÉTODOS FUNCIONALES ----------------------
 
@@ -1,7 +1,11 @@
 package org.example;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
 
 /**
  * Controlador encargado de gestionar operaciones sobre órdenes preventivas.
@@ -23,7 +27,11 @@ public class OrdenPreventivaController {
     /**
      * Registra una nueva orden preventiva desde una interfaz de usuario.
      *
-     * @param idOrden identificador único
+     * Un ID digitado debe ser posterior a los ya asignados por la secuencia
+     * del sistema (ver {@link IdAllocator#reclamar}); al reproducir el diario
+     * el ID ya fue validado y solo se informa a la secuencia.
+     *
+     * @param idOrden identificador único, o 0 para asignarlo automáticamente
      * @param fecha fecha programada
      * @param equipo equipo asociado
      * @param fase fase preventiva asignada
@@ -36,15 +44,26 @@ public class OrdenPreventivaController {
                                        FasePreventiva fase,
                                        Tecnico tecnico) {
 
-        if (idOrden <= 0) return "ID inválido.";
+        if (idOrden < 0) return "ID inválido.";
         if (fecha == null) return "Debe ingresar fecha válida.";
         if (equipo == null) return "Debe seleccionar un equipo.";
         if (fase == null) return "Debe seleccionar una fase.";
 
-        boolean ok = ordenService.crearOrdenPreventiva(idOrden, fecha, equipo, fase, tecnico);
+        IdAllocator ids = SistemaMantenimiento.getInstancia().getIdAllocator();
+        boolean registrando = SistemaMantenimiento.getInstancia().getDiario().isActivo();
+        if (idOrden == 0) {
+            idOrden = ids.siguiente(IdAllocator.Secuencia.ORDEN_PREVENTIVA);
+        } else if (registrando && !ids.reclamar(IdAllocator.Secuencia.ORDEN_PREVENTIVA, idOrden)) {
+            return "El ID " + idOrden + " ya fue asignado por el sistema; deje el campo vacío para obtener uno nuevo.";
+        }
+
+        boolean ok = aplicarCreacion(idOrden, fecha, equipo, fase, tecnico);
+        if (ok) {
+            ids.observar(IdAllocator.Secuencia.ORDEN_PREVENTIVA, idOrden);
+        }
 
         return ok ? "Orden registrada con éxito."
-                  : "No se pudo registrar (ID duplicado).";
+                  : "No se pudo registrar (ID duplicado, equipo eliminado o ya existe una orden para ese equipo, fase y fecha).";
     }
 
     /**
@@ -63,12 +82,129 @@ public class OrdenPreventivaController {
                                                 FasePreventiva fase,
                                                 Tecnico tecnico) {
 
-        boolean ok = ordenService.crearOrdenPreventiva(idOrden, fecha, equipo, fase, tecnico);
+        boolean ok = aplicarCreacion(idOrden, fecha, equipo, fase, tecnico);
+        if (ok) {
+            SistemaMantenimiento.getInstancia().getIdAllocator()
+                    .observar(IdAllocator.Secuencia.ORDEN_PREVENTIVA, idOrden);
+        }
 
         return ok ? "Orden preventiva generada automáticamente."
                   : "La orden ya existe.";
     }
 
+    /**
+     * Registra un lote de órdenes generadas automáticamente (programador o
+     * generación por flota) y lo anota en el diario. Las órdenes se insertan
+     * y se encolan con los cerrojos de todo el lote tomados; la espera a
+     * disco se hace una sola vez al final, por lo que el lote suele
+     * persistirse en un único volcado del escritor.
+     *
+     * @param lote órdenes generadas, con IDs ya asignados por la secuencia
+     * @return órdenes efectivamente agregadas; las repetidas se omiten
+     */
+    public List<OrdenPreventiva> registrarOrdenesGeneradas(List<OrdenPreventiva> lote) {
+        if (lote.isEmpty()) return Collections.emptyList();
+
+        int[] ids = new int[lote.size()];
+        int[] idsEquipos = new int[lote.size()];
+        for (int i = 0; i < ids.length; i++) {
+            OrdenPreventiva orden = lote.get(i);
+            ids[i] = orden.getIdOrden();
+            idsEquipos[i] = orden.getEquipoAsociado() == null ? 0 : orden.getEquipoAsociado().getId();
+        }
+
+        DiarioOperaciones diario = SistemaMantenimiento.getInstancia().getDiario();
+        long[] turno = {0};
+        List<OrdenPreventiva> agregadas = diario.escribir(() -> ordenService.ejecutarAlta(() ->
+                cerrojosEquipos().ejecutar(idsEquipos, () -> ordenService.getCerrojos().ejecutar(ids, () -> {
+                    // Se descartan las órdenes de equipos eliminados desde que se generaron
+                    List<OrdenPreventiva> vigentes = new ArrayList<>(lote.size());
+                    for (OrdenPreventiva o : lote) {
+                        if (existeEquipo(o.getEquipoAsociado())) vigentes.add(o);
+                    }
+                    List<OrdenPreventiva> nuevas = ordenService.agregarOrdenesPreventivas(vigentes);
+                    for (OrdenPreventiva o : nuevas) {
+                        turno[0] = diario.encolar(DiarioOperaciones.Operacion.CREAR_ORDEN_PREVENTIVA,
+                                contenidoCreacion(o.getIdOrden(), o.getFechaProgramada(),
+                                        o.getEquipoAsociado(), o.getFase(), o.getTecnicoAsignado()));
+                    }
+                    return nuevas;
+                }))));
+        diario.esperar(turno[0]);
+        return agregadas;
+    }
+
+    /**
+     * Ejecuta una generación masiva de órdenes en exclusiva frente a las
+     * demás altas ({@link OrdenPreventivaService#ejecutarGeneracion}). La
+     * generación corre dentro de una escritura del diario, que se toma
+     * antes que el cerrojo de altas como en cualquier otra alta.
+     *
+     * @param generacion cálculo y registro de las órdenes
+     * @param <R>        tipo del resultado
+     * @return resultado de la generación
+     */
+    public <R> R ejecutarGeneracion(Supplier<R> generacion) {
+        return SistemaMantenimiento.getInstancia().getDiario().escribir(() ->
+                ordenService.ejecutarGeneracion(generacion));
+    }
+
+    /**
+     * Crea la orden con su cerrojo tomado y la encola en el diario antes de
+     * liberarlo, para que ninguna operación posterior sobre la orden quede
+     * registrada antes que su creación. También se toma el cerrojo del
+     * equipo, para que no se elimine mientras se le asocia la orden.
+     */
+    private boolean aplicarCreacion(int idOrden, LocalDate fecha, Equipo equipo,
+                                    FasePreventiva fase, Tecnico tecnico) {
+        DiarioOperaciones diario = SistemaMantenimiento.getInstancia().getDiario();
+        int idEquipo = equipo == null ? 0 : equipo.getId();
+        long turno = diario.escribir(() -> ordenService.ejecutarAlta(() ->
+                cerrojosEquipos().ejecutar(idEquipo, () -> ordenService.getCerrojos().ejecutar(idOrden, () ->
+                        existeEquipo(equipo) && ordenService.crearOrdenPreventiva(idOrden, fecha, equipo, fase, tecnico)
+                                ? diario.encolar(DiarioOperaciones.Operacion.CREAR_ORDEN_PREVENTIVA,
+                                        contenidoCreacion(idOrden, fecha, equipo, fase, tecnico))
+                                : -1L))));
+        diario.esperar(turno);
+        return turno >= 0;
+    }
+
+    /** @return cerrojos de los equipos, tomados antes que los de las órdenes */
+    private static CerrojosPorId cerrojosEquipos() {
+        return SistemaMantenimiento.getInstancia().getEquipoController().getEquipoService().getCerrojos();
+    }
+
+    /** @return true si el equipo sigue registrado; se consulta con su cerrojo tomado */
+    private static boolean existeEquipo(Equipo equipo) {
+        return equipo != null
+                && SistemaMantenimiento.getInstancia().getEquipoController().buscarEquipo(equipo.getId()) != null;
+    }
+
+    /**
+     * Datos de la creación de una orden en el diario; equipo, fase y técnico
+     * se guardan como referencias.
+     */
+    private static DiarioOperaciones.Contenido contenidoCreacion(int idOrden, LocalDate fecha, Equipo equipo,
+                                                                FasePreventiva fase, Tecnico tecnico) {
+        return out -> {
+            out.writeInt(idOrden);
+            out.escribirFecha(fecha);
+            out.writeInt(equipo.getId());
+            ReproductorDiario.escribirFase(out, fase);
+            out.writeInt(tecnico == null ? 0 : tecnico.getIdTecnico());
+        };
+    }
+
+    /**
+     * Obtiene un ID nuevo para una orden preventiva desde la secuencia del sistema.
+     *
+     * @return identificador que ninguna otra orden ha usado
+     */
+    public int generarIdOrden() {
+        return SistemaMantenimiento.getInstancia().getIdAllocator()
+                .siguiente(IdAllocator.Secuencia.ORDEN_PREVENTIVA);
+    }
+
     /**
      * Marca una orden como iniciada.
      *
@@ -78,7 +214,13 @@ public class OrdenPreventivaController {
      */
     public String iniciarOrden(int idOrden, LocalDate fecha) {
 
-        boolean ok = ordenService.iniciarOrden(idOrden, fecha);
+        boolean ok = SistemaMantenimiento.getInstancia().getDiario().aplicar(
+                ordenService.getCerrojos(), idOrden,
+                () -> ordenService.iniciarOrden(idOrden, fecha),
+                DiarioOperaciones.Operacion.INICIAR_ORDEN_PREVENTIVA, out -> {
+                    out.writeInt(idOrden);
+                    out.escribirFecha(fecha);
+                });
 
         return ok ? "Orden iniciada correctamente."
                   : "No se pudo iniciar la orden.";
@@ -86,6 +228,8 @@ public class OrdenPreventivaController {
 
     /**
      * Completa una orden preventiva registrado diagnóstico, tiempo y técnico.
+     * Si la orden tiene repuestos reservados, la reserva se confirma como
+     * salida de inventario.
      *
      * @param idOrden id de la orden
      * @param fecha fecha de finalización
@@ -103,14 +247,131 @@ public class OrdenPreventivaController {
         if (diagFinal == null || diagFinal.isBlank()) return "Debe ingresar diagnóstico final.";
         if (tiempo < 0) return "Tiempo inválido.";
 
-        boolean ok = ordenService.completarOrden(idOrden, fecha, tiempo, diagFinal, tecnico);
+        InventarioRepuestosController.ResultadoCierre resultado =
+                SistemaMantenimiento.getInstancia().getInventarioRepuestosController().aplicarConReserva(
+                ordenService.getCerrojos(), idOrden,
+                InventarioRepuestosController.referenciaOrdenPreventiva(idOrden),
+                true, "Consumo en orden preventiva", fecha,
+                () -> ordenService.completarOrden(idOrden, fecha, tiempo, diagFinal, tecnico),
+                DiarioOperaciones.Operacion.COMPLETAR_ORDEN_PREVENTIVA, out -> {
+                    out.writeInt(idOrden);
+                    out.escribirFecha(fecha);
+                    out.writeDouble(tiempo);
+                    out.escribirTexto(diagFinal);
+                    out.writeInt(tecnico == null ? 0 : tecnico.getIdTecnico());
+                });
+
+        return switch (resultado) {
+            case APLICADO -> "Orden completada correctamente.";
+            case RESERVA_INSUFICIENTE -> "No se pudo completar: el stock ya no cubre los repuestos reservados.";
+            case RECHAZADO -> "No se pudo completar (¿Estado incorrecto?).";
+        };
+    }
 
-        return ok ? "Orden completada correctamente."
-                  : "No se pudo completar (¿Estado incorrecto?).";
+    /**
+     * Completa una orden preventiva descontando del inventario los repuestos
+     * consumidos, en una sola operación: si algún repuesto no tiene stock
+     * suficiente no se descuenta ninguno y la orden sigue en ejecución.
+     *
+     * @param idOrden id de la orden
+     * @param fecha fecha de finalización
+     * @param tiempo horas reales trabajadas
+     * @param diagFinal diagnóstico final
+     * @param tecnico técnico ejecutante
+     * @param consumos cantidad consumida por ID de repuesto
+     * @return mensaje de resultado
+     */
+    public String completarOrdenConRepuestos(int idOrden,
+                                             LocalDate fecha,
+                                             double tiempo,
+                                             String diagFinal,
+                                             Tecnico tecnico,
+                                             Map<Integer, Integer> consumos) {
+
+        if (diagFinal == null || diagFinal.isBlank()) return "Debe ingresar diagnóstico final.";
+        if (tiempo < 0) return "Tiempo inválido.";
+        if (consumos == null || consumos.isEmpty()) return "Debe indicar los repuestos consumidos.";
+
+        InventarioRepuestosService inventario = SistemaMantenimiento.getInstancia()
+                .getInventarioRepuestosController().getInventarioService();
+        DiarioOperaciones diario = SistemaMantenimiento.getInstancia().getDiario();
+        int[] idsRepuestos = consumos.keySet().stream().mapToInt(Integer::intValue).toArray();
+
+        // Mismo orden de cerrojos que el servicio (orden y luego repuestos); el
+        // registro se encola con todos tomados para quedar ordenado en el diario
+        // respecto de otros movimientos de esos repuestos.
+        long turno = diario.escribir(() -> ordenService.getCerrojos().ejecutar(idOrden, () ->
+                inventario.getCerrojos().ejecutar(idsRepuestos, () -> {
+                    // Una orden con reserva se completa con completarOrden, que la confirma
+                    if (inventario.buscarReserva(
+                            InventarioRepuestosController.referenciaOrdenPreventiva(idOrden)) != null) {
+                        return -1L;
+                    }
+                    if (!ordenService.completarOrdenConRepuestos(idOrden, fecha, tiempo, diagFinal,
+                            tecnico, consumos, inventario)) {
+                        return -1L;
+                    }
+                    return diario.encolar(DiarioOperaciones.Operacion.COMPLETAR_ORDEN_PREVENTIVA_CON_REPUESTOS,
+                            out -> {
+                                out.writeInt(idOrden);
+                                out.escribirFecha(fecha);
+                                out.writeDouble(tiempo);
+                                out.escribirTexto(diagFinal);
+                                out.writeInt(tecnico == null ? 0 : tecnico.getIdTecnico());
+                                out.writeInt(consumos.size());
+                                for (Map.Entry<Integer, Integer> consumo : consumos.entrySet()) {
+                                    out.writeInt(consumo.getKey());
+                                    out.writeInt(consumo.getValue());
+                                }
+                            });
+                })));
+        diario.esperar(turno);
+
+        return turno >= 0 ? "Orden completada y repuestos descontados."
+                          : "No se pudo completar (estado incorrecto, repuestos reservados o stock insuficiente).";
     }
 
     /**
-     * Cancela una orden preventiva registrando observación.
+     * Reserva los repuestos que necesitará una orden que aún no termina.
+     * La reserva se confirma al completar la orden y se libera si se cancela.
+     *
+     * @param idOrden          id de la orden
+     * @param lineas           cantidad a reservar por ID de repuesto
+     * @param fecha            fecha de la reserva
+     * @param fechaVencimiento último día de validez, o null si no vence
+     * @return mensaje de resultado
+     */
+    public String reservarRepuestos(int idOrden,
+                                    Map<Integer, Integer> lineas,
+                                    LocalDate fecha,
+                                    LocalDate fechaVencimiento) {
+
+        InventarioRepuestosController inventario =
+                SistemaMantenimiento.getInstancia().getInventarioRepuestosController();
+        String referencia = InventarioRepuestosController.referenciaOrdenPreventiva(idOrden);
+        String error = inventario.validarReserva(referencia, lineas, fecha, fechaVencimiento);
+        if (error != null) return error;
+
+        // Con el cerrojo de la orden tomado no puede completarse ni cancelarse mientras se reserva
+        DiarioOperaciones diario = SistemaMantenimiento.getInstancia().getDiario();
+        long turno = diario.escribir(() -> ordenService.getCerrojos().ejecutar(idOrden, () -> {
+            OrdenPreventiva orden = ordenService.buscarOrdenPreventivaPorId(idOrden);
+            if (orden == null
+                    || orden.getEstado() == OrdenPreventiva.EstadoOrden.COMPLETADA
+                    || orden.getEstado() == OrdenPreventiva.EstadoOrden.CANCELADA) {
+                return -1L;
+            }
+            return inventario.encolarReserva(referencia, lineas, fecha, fechaVencimiento);
+        }));
+        diario.esperar(turno);
+
+        return turno >= 0 ? "Repuestos reservados para la orden."
+                          : "No se pudo reservar (orden cerrada, reserva existente o disponible insuficiente).";
+    }
+
+    /**
+     * Cancela una orden preventiva registrando observación. Si la orden
+     * tiene repuestos reservados, se liberan.
      *
      * @param idOrden identificador de la orden
      * @param motivo texto de cancelación
@@ -120,7 +381,15 @@ public class OrdenPreventivaController {
 
         if (motivo == null || motivo.isBlank()) return "Debe ingresar motivo.";
 
-        boolean ok = ordenService.cancelarOrden(idOrden, motivo);
+        boolean ok = SistemaMantenimiento.getInstancia().getInventarioRepuestosController().aplicarConReserva(
+                ordenService.getCerrojos(), idOrden,
+                InventarioRepuestosController.referenciaOrdenPreventiva(idOrden),
+                false, null, null,
+                () -> ordenService.cancelarOrden(idOrden, motivo),
+                DiarioOperaciones.Operacion.CANCELAR_ORDEN_PREVENTIVA, out -> {
+                    out.writeInt(idOrden);
+                    out.escribirTexto(motivo);
+                }) == InventarioRepuestosController.ResultadoCierre.APLICADO;
 
         return ok ? "Orden cancelada correctamente."
                   : "No se pudo cancelar.";
@@ -137,7 +406,13 @@ public class OrdenPreventivaController {
 
         if (material == null || material.isBlank()) return "Debe ingresar material.";
 
-        boolean ok = ordenService.agregarMaterial(idOrden, material);
+        boolean ok = SistemaMantenimiento.getInstancia().getDiario().aplicar(
+                ordenService.getCerrojos(), idOrden,
+                () -> ordenService.agregarMaterial(idOrden, material),
+                DiarioOperaciones.Operacion.AGREGAR_MATERIAL_ORDEN_PREVENTIVA, out -> {
+                    out.writeInt(idOrden);
+                    out.escribirTexto(material);
+                });
 
         return ok ? "Material registrado."
                   : "No se pudo registrar material.";
@@ -151,11 +426,66 @@ public class OrdenPreventivaController {
     public List<OrdenPreventiva> obtenerOrdenes() {
         return ordenService.obtenerOrdenes();
     }
-}
-
 
+    /**
+     * @param estado estado consultado
+     * @return cantidad de órdenes preventivas en ese estado, sin recorrerlas
+     */
+    public int contarOrdenesPorEstado(OrdenPreventiva.EstadoOrden estado) {
+        return ordenService.contarOrdenesPorEstado(estado);
+    }
 
+    /**
+     * Suscribe un oyente a los cambios de los contadores por estado.
+     *
+     * @param oyente oyente a registrar
+     */
+    public void agregarOyenteContadores(OyenteContadores oyente) {
+        ordenService.agregarOyenteContadores(oyente);
+    }
 
+    /**
+     * Cancela la suscripción de un oyente de contadores.
+     *
+     * @param oyente oyente a quitar
+     */
+    public void quitarOyenteContadores(OyenteContadores oyente) {
+        ordenService.quitarOyenteContadores(oyente);
+    }
 
+    /**
+     * Servicio de órdenes preventivas, para módulos que leen su información
+     * sin pasar por las validaciones del controlador (por ejemplo, los reportes).
+     *
+     * @return servicio de órdenes de este controlador
+     */
+    OrdenPreventivaService getOrdenService() {
+        return ordenService;
+    }
 
+    /**
+     * Cuenta las órdenes preventivas asociadas a un equipo.
+     *
+     * @param idEquipo identificador del equipo
+     * @return número de órdenes preventivas del equipo
+     */
+    public int contarOrdenesPorEquipo(int idEquipo) {
+        return (int) ordenService.contarOrdenesPorEquipo(idEquipo);
+    }
 
+    /**
+     * Incorpora las órdenes restauradas desde una instantánea, sin validar
+     * ni registrar en el diario de operaciones.
+     *
+     * @param ordenes órdenes a incorporar
+     */
+    public void cargarOrdenes(List<OrdenPreventiva> ordenes) {
+        ordenService.agregarOrdenesPreventivas(ordenes);
+        int maximo = 0;
+        for (OrdenPreventiva o : ordenes) {
+            maximo = Math.max(maximo, o.getIdOrden());
+        }
+        SistemaMantenimiento.getInstancia().getIdAllocator()
+                .observar(IdAllocator.Secuencia.ORDEN_PREVENTIVA, maximo);
+    }
+}
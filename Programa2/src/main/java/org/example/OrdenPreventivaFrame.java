@@ -2,7 +2,7 @@ package org.example;
 
 import java.awt.*;
 import java.time.LocalDate;
-import java.util.List;
+import java.util.concurrent.ExecutionException;
 import javax.swing.*;
 
 /**
@@ -26,6 +26,11 @@ public class OrdenPreventivaFrame extends JFrame {
     private JComboBox<Tecnico> cmbTecnico;
     private JTextArea txtLista;
 
+    // ---- Cargas en segundo plano ----
+    private JProgressBar barraCarga;
+    private CargaEnSegundoPlano<OrdenPreventiva, String> cargaLista;
+    private SwingWorker<Void, Void> cargaCombos;
+
     // ---- Controladores utilizados ----
     private OrdenPreventivaController ordenController;
     private EquipoController equipoController;
@@ -60,7 +65,7 @@ public class OrdenPreventivaFrame extends JFrame {
         // ============================
         JPanel form = new JPanel(new GridLayout(4, 4, 5, 5));
 
-        form.add(new JLabel("ID Orden:"));
+        form.add(new JLabel("ID Orden (vacío = automático):"));
         txtIdOrden = new JTextField();
         form.add(txtIdOrden);
 
@@ -136,7 +141,13 @@ public class OrdenPreventivaFrame extends JFrame {
 
         JScrollPane scroll = new JScrollPane(txtLista);
         scroll.setPreferredSize(new Dimension(900, 300));
-        add(scroll, BorderLayout.SOUTH);
+
+        barraCarga = CargaEnSegundoPlano.crearBarraProgreso();
+
+        JPanel panelLista = new JPanel(new BorderLayout());
+        panelLista.add(scroll, BorderLayout.CENTER);
+        panelLista.add(barraCarga, BorderLayout.SOUTH);
+        add(panelLista, BorderLayout.SOUTH);
 
         cargarDatos();
         listar();
@@ -144,18 +155,41 @@ public class OrdenPreventivaFrame extends JFrame {
 
     /**
      * Recarga combos de equipos, técnicos y fases desde los controladores.
+     * Las listas se leen en segundo plano y cada combo recibe su modelo
+     * completo de una sola vez.
      */
     private void cargarDatos() {
-        cmbEquipo.removeAllItems();
-        for (Equipo e : equipoController.obtenerEquipos()) cmbEquipo.addItem(e);
-
-        cmbTecnico.removeAllItems();
-        List<Tecnico> tecnicos = tecnicoController.listarTecnicos();
-        for (Tecnico t : tecnicos) cmbTecnico.addItem(t);
+        CargaEnSegundoPlano.cancelar(cargaCombos);
+        cargaCombos = new SwingWorker<>() {
+            private Equipo[] equipos;
+            private Tecnico[] tecnicos;
+            private FasePreventiva[] fases;
+
+            @Override
+            protected Void doInBackground() {
+                equipos = equipoController.obtenerEquipos().toArray(new Equipo[0]);
+                tecnicos = tecnicoController.listarTecnicos().toArray(new Tecnico[0]);
+                fases = programaController.obtenerProgramas().stream()
+                        .flatMap(p -> p.getFases().stream())
+                        .toArray(FasePreventiva[]::new);
+                return null;
+            }
 
-        cmbFase.removeAllItems();
-        for (ProgramaPreventivo p : programaController.obtenerProgramas())
-            for (FasePreventiva f : p.getFases()) cmbFase.addItem(f);
+            @Override
+            protected void done() {
+                if (isCancelled()) return;
+                try {
+                    get();
+                } catch (InterruptedException | ExecutionException e) {
+                    System.err.println("Error al cargar equipos, técnicos y fases: " + e);
+                    return;
+                }
+                cmbEquipo.setModel(new DefaultComboBoxModel<>(equipos));
+                cmbTecnico.setModel(new DefaultComboBoxModel<>(tecnicos));
+                cmbFase.setModel(new DefaultComboBoxModel<>(fases));
+            }
+        };
+        cargaCombos.execute();
     }
 
     /**
@@ -164,12 +198,8 @@ public class OrdenPreventivaFrame extends JFrame {
     private void crearOrden() {
         try {
 
-            if (txtIdOrden.getText().isBlank()) {
-                JOptionPane.showMessageDialog(this, "Debe ingresar un ID de orden.");
-                return;
-            }
-
-            int id = Integer.parseInt(txtIdOrden.getText());
+            // Si el ID se deja vacío el controlador lo asigna automáticamente
+            int id = txtIdOrden.getText().isBlank() ? 0 : Integer.parseInt(txtIdOrden.getText());
             LocalDate fecha = LocalDate.parse(txtFechaProgramada.getText());
             Equipo equipo = (Equipo) cmbEquipo.getSelectedItem();
             FasePreventiva fase = (FasePreventiva) cmbFase.getSelectedItem();
@@ -247,9 +277,25 @@ public class OrdenPreventivaFrame extends JFrame {
 
     /** Lista todas las órdenes en la UI. */
     private void listar() {
+        CargaEnSegundoPlano.cancelar(cargaLista);
         txtLista.setText("");
-        for (OrdenPreventiva o : ordenController.obtenerOrdenes())
-            txtLista.append(o.toString() + "\n");
+        cargaLista = CargaEnSegundoPlano.iniciar(
+                ordenController::obtenerOrdenes,
+                OrdenPreventiva::toString,
+                CargaEnSegundoPlano.lineasDe(txtLista),
+                barraCarga,
+                null
+        );
+    }
+
+    /**
+     * Cancela las cargas en curso al cerrar la ventana.
+     */
+    @Override
+    public void dispose() {
+        CargaEnSegundoPlano.cancelar(cargaLista);
+        CargaEnSegundoPlano.cancelar(cargaCombos);
+        super.dispose();
     }
 
     /** Limpia campos del formulario superior. */
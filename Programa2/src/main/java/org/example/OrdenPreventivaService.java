@@ -2,7 +2,14 @@ package org.example;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
 
 /**
  * Servicio encargado de administrar las operaciones relacionadas con
@@ -11,15 +18,101 @@ import java.util.List;
  * Provee funciones CRUD (crear, buscar, eliminar) y acciones operativas:
  * iniciar, completar, cancelar, agregar material, validar estados y
  * obtener estadísticas.
+ *
+ * Es seguro para uso concurrente: las operaciones sobre una orden se
+ * serializan con el cerrojo de su ID ({@link #getCerrojos()}) y las
+ * consultas no se bloquean.
  */
 public class OrdenPreventivaService {
 
-    /** Lista interna que almacena las órdenes preventivas registradas */
-    private List<OrdenPreventiva> ordenesPreventivas;
+    /** Repositorio indexado por ID que almacena las órdenes preventivas registradas */
+    private Repository<OrdenPreventiva> ordenesPreventivas;
+
+    /** Índice secundario de órdenes y contadores por estado para cada equipo */
+    private IndiceOrdenesPorEquipo<OrdenPreventiva.EstadoOrden> indicePorEquipo;
+
+    /**
+     * Índice de programación: (equipo, fase, fecha programada) → ID de la
+     * orden registrada con esa combinación. Hay a lo sumo una orden por
+     * combinación; el alta la reserva de forma atómica, de modo que dos
+     * generadores concurrentes no pueden duplicarla.
+     */
+    private Map<ClaveProgramacion, Integer> indiceProgramacion;
+
+    /** Cantidad de órdenes registradas por ID de programa preventivo. */
+    private final Map<Integer, Integer> ordenesPorPrograma = new ConcurrentHashMap<>();
+
+    /**
+     * Programa al que pertenecía la fase de cada orden al registrarla; la
+     * baja descuenta de ese programa aunque la fase se haya quitado después.
+     */
+    private final Map<Integer, Integer> programaPorOrden = new ConcurrentHashMap<>();
+
+    /** Cerrojos por ID de orden que serializan los cambios de cada orden. */
+    private final CerrojosPorId cerrojos = new CerrojosPorId();
+
+    /**
+     * Las altas lo toman en modo compartido; una generación masiva lo toma en
+     * modo exclusivo para que ninguna otra alta se intercale con ella.
+     */
+    private final ReentrantReadWriteLock cerrojoAltas = new ReentrantReadWriteLock();
+
+    /** Cantidad de órdenes en cada estado, para gráficos e indicadores. */
+    private final ContadorPorEnum<OrdenPreventiva.EstadoOrden> contadorEstados =
+            new ContadorPorEnum<>(OrdenPreventiva.EstadoOrden.class);
+
+    /** Bus donde se publican altas, transiciones y bajas; el sistema asigna el compartido. */
+    private BusEventos bus = new BusEventos();
 
     /** Constructor: inicializa la estructura de almacenamiento */
     public OrdenPreventivaService() {
-        this.ordenesPreventivas = new ArrayList<>();
+        this.ordenesPreventivas = new Repository<>(OrdenPreventiva::getIdOrden);
+        this.indicePorEquipo = new IndiceOrdenesPorEquipo<>(OrdenPreventiva.EstadoOrden.class);
+        this.indiceProgramacion = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Clave compuesta que identifica una orden programada:
+     * equipo, número de fase y día programado (día epoch).
+     */
+    private static final class ClaveProgramacion {
+        private final int idEquipo;
+        private final int numeroFase;
+        private final long diaEpoch;
+
+        ClaveProgramacion(int idEquipo, int numeroFase, LocalDate fecha) {
+            this.idEquipo = idEquipo;
+            this.numeroFase = numeroFase;
+            this.diaEpoch = fecha.toEpochDay();
+        }
+
+        /** @return clave de la orden o null si le faltan equipo, fase o fecha */
+        static ClaveProgramacion de(OrdenPreventiva orden) {
+            if (orden.getEquipoAsociado() == null || orden.getFase() == null
+                    || orden.getFechaProgramada() == null) {
+                return null;
+            }
+            return new ClaveProgramacion(orden.getEquipoAsociado().getId(),
+                    orden.getFase().getNumeroFase(), orden.getFechaProgramada());
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof ClaveProgramacion)) return false;
+            ClaveProgramacion otra = (ClaveProgramacion) o;
+            return idEquipo == otra.idEquipo
+                    && numeroFase == otra.numeroFase
+                    && diaEpoch == otra.diaEpoch;
+        }
+
+        @Override
+        public int hashCode() {
+            int h = idEquipo;
+            h = 31 * h + numeroFase;
+            h = 31 * h + Long.hashCode(diaEpoch);
+            return h;
+        }
     }
 
     // --------------------------------------------------------------------
@@ -27,19 +120,143 @@ public class OrdenPreventivaService {
     // --------------------------------------------------------------------
 
     /**
-     * Registra una nueva orden preventiva.
+     * Registra una nueva orden preventiva. La combinación equipo/fase/fecha
+     * se reserva en el índice de programación antes del alta, en un solo
+     * paso atómico: si otra orden ya la tiene, esta se omite.
      *
      * @param orden objeto de OrdenPreventiva
      * @return true si se agregó correctamente, false si ya existe un ID igual
+     *         o una orden para el mismo equipo, fase y fecha
      */
     public boolean agregarOrdenPreventiva(OrdenPreventiva orden) {
-        for (OrdenPreventiva o : ordenesPreventivas) {
-            if (o.getIdOrden() == orden.getIdOrden()) {
-                return false; // Ya existe una orden con ese ID
-            }
+        cerrojoAltas.readLock().lock();
+        try {
+            return cerrojos.ejecutar(orden.getIdOrden(), () -> {
+                ClaveProgramacion clave = ClaveProgramacion.de(orden);
+                if (clave != null && indiceProgramacion.putIfAbsent(clave, orden.getIdOrden()) != null) {
+                    return false; // Ya hay una orden para ese equipo, fase y fecha
+                }
+                if (!ordenesPreventivas.agregar(orden)) {
+                    if (clave != null) indiceProgramacion.remove(clave, orden.getIdOrden());
+                    return false; // Ya existe una orden con ese ID
+                }
+                registrarAlta(orden);
+                return true;
+            });
+        } finally {
+            cerrojoAltas.readLock().unlock();
+        }
+    }
+
+    /**
+     * Registra un lote de órdenes preventivas en una sola operación: toma
+     * los cerrojos de todas las órdenes a la vez, reserva sus combinaciones
+     * equipo/fase/fecha y las inserta en el repositorio con un único
+     * cerrojo exclusivo. Las órdenes cuyo ID o combinación ya exista se
+     * omiten.
+     *
+     * @param lote órdenes a registrar
+     * @return órdenes efectivamente agregadas, en el orden del lote
+     */
+    public List<OrdenPreventiva> agregarOrdenesPreventivas(List<OrdenPreventiva> lote) {
+        if (lote.isEmpty()) return Collections.emptyList();
+
+        int[] ids = new int[lote.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = lote.get(i).getIdOrden();
+        }
+
+        cerrojoAltas.readLock().lock();
+        try {
+            return cerrojos.ejecutar(ids, () -> {
+                // Reservar las combinaciones; las que ya tienen orden se omiten
+                List<OrdenPreventiva> reservadas = new ArrayList<>(lote.size());
+                for (OrdenPreventiva orden : lote) {
+                    ClaveProgramacion clave = ClaveProgramacion.de(orden);
+                    if (clave == null || indiceProgramacion.putIfAbsent(clave, orden.getIdOrden()) == null) {
+                        reservadas.add(orden);
+                    }
+                }
+
+                List<OrdenPreventiva> agregadas = ordenesPreventivas.agregarTodos(reservadas);
+
+                // Liberar las combinaciones de las órdenes rechazadas por ID repetido
+                if (agregadas.size() != reservadas.size()) {
+                    Set<OrdenPreventiva> aceptadas = Collections.newSetFromMap(new IdentityHashMap<>());
+                    aceptadas.addAll(agregadas);
+                    for (OrdenPreventiva orden : reservadas) {
+                        ClaveProgramacion clave = ClaveProgramacion.de(orden);
+                        if (clave != null && !aceptadas.contains(orden)) {
+                            indiceProgramacion.remove(clave, orden.getIdOrden());
+                        }
+                    }
+                }
+
+                for (OrdenPreventiva orden : agregadas) {
+                    registrarAlta(orden);
+                }
+                return agregadas;
+            });
+        } finally {
+            cerrojoAltas.readLock().unlock();
+        }
+    }
+
+    /**
+     * Ejecuta un alta en modo compartido con las demás altas. Quien va a
+     * tomar cerrojos de órdenes antes de llamar al alta (por ejemplo, para
+     * registrarla en el diario) debe envolverla aquí, de modo que este
+     * cerrojo se tome siempre antes que los de las órdenes.
+     *
+     * @param alta acción que registra una o más órdenes
+     * @param <R>  tipo del resultado
+     * @return resultado del alta
+     */
+    public <R> R ejecutarAlta(Supplier<R> alta) {
+        cerrojoAltas.readLock().lock();
+        try {
+            return alta.get();
+        } finally {
+            cerrojoAltas.readLock().unlock();
+        }
+    }
+
+    /**
+     * Ejecuta una generación masiva de órdenes en exclusiva: mientras dura,
+     * ninguna otra alta se registra en el servicio, de modo que las
+     * candidatas calculadas al principio siguen vigentes al registrarlas.
+     * Las altas que llegan entre tanto esperan a que termine.
+     *
+     * @param generacion cálculo y registro de las órdenes
+     * @param <R>        tipo del resultado
+     * @return resultado de la generación
+     */
+    public <R> R ejecutarGeneracion(Supplier<R> generacion) {
+        cerrojoAltas.writeLock().lock();
+        try {
+            return generacion.get();
+        } finally {
+            cerrojoAltas.writeLock().unlock();
         }
-        ordenesPreventivas.add(orden);
-        return true;
+    }
+
+    /**
+     * Actualiza los índices secundarios y contadores tras el alta de una orden.
+     * Requiere el cerrojo de la orden.
+     */
+    private void registrarAlta(OrdenPreventiva orden) {
+        if (orden.getEquipoAsociado() != null) {
+            indicePorEquipo.registrar(orden.getEquipoAsociado().getId(), orden.getIdOrden(), orden.getEstado());
+        }
+        contadorEstados.sumar(orden.getEstado());
+        ProgramaPreventivo programa = orden.getFase() != null ? orden.getFase().getPrograma() : null;
+        if (programa != null) {
+            ordenesPorPrograma.merge(programa.getIdPrograma(), 1, Integer::sum);
+            programaPorOrden.put(orden.getIdOrden(), programa.getIdPrograma());
+        }
+        // Al final, para que un suscriptor sincrónico ya vea índices y contadores al día
+        bus.publicar(new EventoDominio.OrdenPreventivaCreada(orden.getIdOrden(), idEquipo(orden),
+                orden.getFechaProgramada(), orden.getEstado()));
     }
 
     /**
@@ -49,12 +266,7 @@ public class OrdenPreventivaService {
      * @return objeto OrdenPreventiva si existe, null si no se encuentra
      */
     public OrdenPreventiva buscarOrdenPreventivaPorId(int idOrden) {
-        for (OrdenPreventiva o : ordenesPreventivas) {
-            if (o.getIdOrden() == idOrden) {
-                return o;
-            }
-        }
-        return null;
+        return ordenesPreventivas.buscar(idOrden);
     }
 
     /**
@@ -64,17 +276,118 @@ public class OrdenPreventivaService {
      * @return true si se eliminó, false si no existe
      */
     public boolean eliminarOrdenPreventiva(int idOrden) {
-        OrdenPreventiva orden = buscarOrdenPreventivaPorId(idOrden);
-        if (orden != null) {
-            ordenesPreventivas.remove(orden);
+        return cerrojos.ejecutar(idOrden, () -> {
+            OrdenPreventiva orden = ordenesPreventivas.eliminar(idOrden);
+            if (orden == null) return false;
+
+            if (orden.getEquipoAsociado() != null) {
+                indicePorEquipo.eliminar(orden.getEquipoAsociado().getId(), idOrden, orden.getEstado());
+            }
+            contadorEstados.restar(orden.getEstado());
+            ClaveProgramacion clave = ClaveProgramacion.de(orden);
+            if (clave != null) {
+                indiceProgramacion.remove(clave, idOrden);
+            }
+            Integer idPrograma = programaPorOrden.remove(idOrden);
+            if (idPrograma != null) {
+                ordenesPorPrograma.computeIfPresent(idPrograma,
+                        (id, cantidad) -> cantidad == 1 ? null : cantidad - 1);
+            }
+            bus.publicar(new EventoDominio.OrdenPreventivaEliminada(idOrden, idEquipo(orden), orden.getEstado()));
             return true;
+        });
+    }
+
+    /**
+     * Indica si ya existe una orden para el equipo, la fase y la fecha indicados.
+     * Consulta el índice de programación, por lo que su costo no depende
+     * de la cantidad de órdenes registradas. Sirve para descartar candidatas
+     * sin gastar IDs; la comprobación definitiva la hace el alta.
+     *
+     * @param idEquipo   ID del equipo
+     * @param numeroFase número de la fase preventiva
+     * @param fecha      fecha programada
+     * @return true si ya existe una orden con esa combinación
+     */
+    public boolean existeOrdenProgramada(int idEquipo, int numeroFase, LocalDate fecha) {
+        return indiceProgramacion.containsKey(new ClaveProgramacion(idEquipo, numeroFase, fecha));
+    }
+
+    /**
+     * Actualiza el índice por equipo y los contadores por estado después de
+     * que una orden cambió de estado.
+     *
+     * @param orden    orden modificada
+     * @param anterior estado que tenía antes del cambio
+     */
+    private void registrarTransicion(OrdenPreventiva orden, OrdenPreventiva.EstadoOrden anterior) {
+        if (orden.getEquipoAsociado() != null) {
+            indicePorEquipo.cambiarEstado(orden.getEquipoAsociado().getId(), anterior, orden.getEstado());
+        }
+        contadorEstados.mover(anterior, orden.getEstado());
+
+        if (anterior == orden.getEstado()) return;
+        bus.publicar(new EventoDominio.OrdenPreventivaEstadoCambiado(orden.getIdOrden(), idEquipo(orden),
+                anterior, orden.getEstado()));
+        if (orden.getEstado() == OrdenPreventiva.EstadoOrden.COMPLETADA) {
+            bus.publicar(new EventoDominio.OrdenPreventivaCompletada(orden.getIdOrden(), idEquipo(orden),
+                    orden.getFechaEjecucion(), orden.getTiempoRealHoras()));
         }
-        return false;
+    }
+
+    /** @return ID del equipo de la orden, o 0 si no tiene */
+    private static int idEquipo(OrdenPreventiva orden) {
+        return orden.getEquipoAsociado() != null ? orden.getEquipoAsociado().getId() : 0;
+    }
+
+    /**
+     * @param estado estado consultado
+     * @return cantidad de órdenes preventivas en ese estado, en O(1)
+     */
+    public int contarOrdenesPorEstado(OrdenPreventiva.EstadoOrden estado) {
+        return contadorEstados.obtener(estado);
+    }
+
+    /**
+     * Suscribe un oyente a los cambios de los contadores por estado.
+     *
+     * @param oyente oyente a registrar
+     */
+    public void agregarOyenteContadores(OyenteContadores oyente) {
+        contadorEstados.agregarOyente(oyente);
+    }
+
+    /**
+     * Cancela la suscripción de un oyente de contadores.
+     *
+     * @param oyente oyente a quitar
+     */
+    public void quitarOyenteContadores(OyenteContadores oyente) {
+        contadorEstados.quitarOyente(oyente);
+    }
+
+    /**
+     * Asigna el bus donde se publican los eventos del servicio.
+     *
+     * @param bus bus de eventos del sistema
+     */
+    void setBusEventos(BusEventos bus) {
+        this.bus = bus;
+    }
+
+    /**
+     * Cerrojos por ID de orden, para ejecutar otra acción (por ejemplo,
+     * registrarla en el diario de operaciones) ordenada con un cambio de la orden.
+     *
+     * @return cerrojos de las órdenes preventivas
+     */
+    public CerrojosPorId getCerrojos() {
+        return cerrojos;
     }
 
     /** @return lista actual de órdenes preventivas */
     public List<OrdenPreventiva> obtenerOrdenesPreventivas() {
-        return ordenesPreventivas;
+        return ordenesPreventivas.obtenerTodos();
     }
 
     // --------------------------------------------------------------------
@@ -89,19 +402,22 @@ public class OrdenPreventivaService {
      * @return true si se pudo iniciar, false si no aplica
      */
     public boolean iniciarOrdenPreventiva(int idOrden, LocalDate fechaInicio) {
+        return cerrojos.ejecutar(idOrden, () -> {
+            OrdenPreventiva orden = buscarOrdenPreventivaPorId(idOrden);
 
-        OrdenPreventiva orden = buscarOrdenPreventivaPorId(idOrden);
+            if (orden == null) return false;
 
-        if (orden == null) return false;
-
-        // Regla: no puede iniciar si está cancelada o completada
-        if (orden.getEstado() == OrdenPreventiva.EstadoOrden.CANCELADA ||
-            orden.getEstado() == OrdenPreventiva.EstadoOrden.COMPLETADA) {
-            return false;
-        }
+            // Regla: no puede iniciar si está cancelada o completada
+            if (orden.getEstado() == OrdenPreventiva.EstadoOrden.CANCELADA ||
+                orden.getEstado() == OrdenPreventiva.EstadoOrden.COMPLETADA) {
+                return false;
+            }
 
-        orden.iniciarOrden(fechaInicio);
-        return true;
+            OrdenPreventiva.EstadoOrden anterior = orden.getEstado();
+            orden.iniciarOrden(fechaInicio);
+            registrarTransicion(orden, anterior);
+            return true;
+        });
     }
 
     /**
@@ -114,38 +430,45 @@ public class OrdenPreventivaService {
                                             double tiempoRealHoras,
                                             String diagnosticoFinal,
                                             Tecnico tecnico) {
+        return cerrojos.ejecutar(idOrden, () -> {
+            OrdenPreventiva orden = buscarOrdenPreventivaPorId(idOrden);
 
-        OrdenPreventiva orden = buscarOrdenPreventivaPorId(idOrden);
-
-        if (orden == null) return false;
-        if (orden.getEstado() == OrdenPreventiva.EstadoOrden.CANCELADA) return false;
+            if (orden == null) return false;
+            if (orden.getEstado() == OrdenPreventiva.EstadoOrden.CANCELADA) return false;
 
-        // Validación de fecha lógica
-        if (fechaReal.isBefore(orden.getFechaProgramada())) {
-            return false;
-        }
+            // Validación de fecha lógica
+            if (fechaReal.isBefore(orden.getFechaProgramada())) {
+                return false;
+            }
 
-        orden.completarOrden(
-              fechaReal,
-              tiempoRealHoras,
-              diagnosticoFinal,
-              tecnico
-        );
+            OrdenPreventiva.EstadoOrden anterior = orden.getEstado();
+            orden.completarOrden(
+                  fechaReal,
+                  tiempoRealHoras,
+                  diagnosticoFinal,
+                  tecnico
+            );
+            registrarTransicion(orden, anterior);
 
-        return true;
+            return true;
+        });
     }
 
     /**
      * Cancela una orden preventiva con un motivo.
      */
     public boolean cancelarOrdenPreventiva(int idOrden, String motivo) {
-        OrdenPreventiva orden = buscarOrdenPreventivaPorId(idOrden);
+        return cerrojos.ejecutar(idOrden, () -> {
+            OrdenPreventiva orden = buscarOrdenPreventivaPorId(idOrden);
 
-        if (orden == null) return false;
-        if (orden.getEstado() == OrdenPreventiva.EstadoOrden.COMPLETADA) return false;
+            if (orden == null) return false;
+            if (orden.getEstado() == OrdenPreventiva.EstadoOrden.COMPLETADA) return false;
 
-        orden.cancelarOrden(motivo);
-        return true;
+            OrdenPreventiva.EstadoOrden anterior = orden.getEstado();
+            orden.cancelarOrden(motivo);
+            registrarTransicion(orden, anterior);
+            return true;
+        });
     }
 
     // --------------------------------------------------------------------
@@ -158,14 +481,16 @@ public class OrdenPreventivaService {
      * @return true si se agregó, false si orden no existe o material vacío
      */
     public boolean agregarMaterialAOrden(int idOrden, String material) {
-        OrdenPreventiva orden = buscarOrdenPreventivaPorId(idOrden);
+        return cerrojos.ejecutar(idOrden, () -> {
+            OrdenPreventiva orden = buscarOrdenPreventivaPorId(idOrden);
 
-        if (orden == null || material == null || material.isBlank()) {
-            return false;
-        }
+            if (orden == null || material == null || material.isBlank()) {
+                return false;
+            }
 
-        orden.agregarMaterial(material);
-        return true;
+            orden.agregarMaterial(material);
+            return true;
+        });
     }
 
     // --------------------------------------------------------------------
@@ -189,13 +514,17 @@ public class OrdenPreventivaService {
      * Marca la finalización de una orden sin registrar tiempo / técnico.
      */
     public boolean finalizarOrdenPreventiva(int idOrden, LocalDate fechaRealizacion, String resultado) {
-        OrdenPreventiva op = buscarOrdenPreventivaPorId(idOrden);
-        if (op == null) return false;
-
-        op.setEstado(OrdenPreventiva.EstadoOrden.COMPLETADA);
-        op.setFechaEjecucion(fechaRealizacion);
-        op.setDiagnosticoFinal(resultado);
-        return true;
+        return cerrojos.ejecutar(idOrden, () -> {
+            OrdenPreventiva op = buscarOrdenPreventivaPorId(idOrden);
+            if (op == null) return false;
+
+            OrdenPreventiva.EstadoOrden anterior = op.getEstado();
+            op.setEstado(OrdenPreventiva.EstadoOrden.COMPLETADA);
+            op.setFechaEjecucion(fechaRealizacion);
+            op.setDiagnosticoFinal(resultado);
+            registrarTransicion(op, anterior);
+            return true;
+        });
     }
 
     // --------------------------------------------------------------------
@@ -206,9 +535,29 @@ public class OrdenPreventivaService {
      * Cuenta cuántas órdenes preventivas están asociadas a un equipo específico.
      */
     public long contarOrdenesPorEquipo(int idEquipo) {
-        return obtenerOrdenesPreventivas().stream()
-                .filter(op -> op.getEquipoAsociado().getId() == idEquipo)
-                .count();
+        return indicePorEquipo.contar(idEquipo);
+    }
+
+    /**
+     * Cuenta las órdenes preventivas de un equipo que se encuentran en un estado dado.
+     */
+    public int contarOrdenesPorEquipo(int idEquipo, OrdenPreventiva.EstadoOrden estado) {
+        return indicePorEquipo.contar(idEquipo, estado);
+    }
+
+    /**
+     * Indica si hay órdenes registradas para alguna fase del programa indicado.
+     * Consulta un contador por programa, sin recorrer las órdenes.
+     */
+    public boolean tieneOrdenesDePrograma(int idPrograma) {
+        return ordenesPorPrograma.containsKey(idPrograma);
+    }
+
+    /**
+     * Devuelve los IDs de las órdenes preventivas asociadas a un equipo.
+     */
+    public Set<Integer> obtenerIdsOrdenesPorEquipo(int idEquipo) {
+        return indicePorEquipo.obtenerIdsOrdenes(idEquipo);
     }
 
     // --------------------------------------------------------------------
@@ -225,10 +574,8 @@ public class OrdenPreventivaService {
                                     Tecnico tecnico) {
 
         // Validación: evitar repetir ID
-        for (OrdenPreventiva op : ordenesPreventivas) {
-            if (op.getIdOrden() == idOrden) {
-                return false;
-            }
+        if (ordenesPreventivas.contiene(idOrden)) {
+            return false;
         }
 
         OrdenPreventiva nueva = new OrdenPreventiva(
@@ -239,59 +586,101 @@ public class OrdenPreventivaService {
                 tecnico
         );
 
-        ordenesPreventivas.add(nueva);
-        return true;
+        return agregarOrdenPreventiva(nueva);
     }
 
     /**
      * Inicia una orden. Solo procede si está programada.
      */
     public boolean iniciarOrden(int id, LocalDate fecha) {
-        OrdenPreventiva op = buscarOrdenPreventivaPorId(id);
-        if (op == null) return false;
-        if (op.getEstado() != OrdenPreventiva.EstadoOrden.PROGRAMADA) return false;
+        return cerrojos.ejecutar(id, () -> {
+            OrdenPreventiva op = buscarOrdenPreventivaPorId(id);
+            if (op == null) return false;
+            if (op.getEstado() != OrdenPreventiva.EstadoOrden.PROGRAMADA) return false;
 
-        op.iniciarOrden(fecha);
-        return true;
+            op.iniciarOrden(fecha);
+            registrarTransicion(op, OrdenPreventiva.EstadoOrden.PROGRAMADA);
+            return true;
+        });
     }
 
     /**
      * Completa una orden. Solo procede si estaba en ejecución.
      */
     public boolean completarOrden(int id, LocalDate fecha, double tiempo, String diag, Tecnico tecnico) {
-        OrdenPreventiva op = buscarOrdenPreventivaPorId(id);
-        if (op == null) return false;
-        if (op.getEstado() != OrdenPreventiva.EstadoOrden.EN_PROCESO) return false;
+        return cerrojos.ejecutar(id, () -> {
+            OrdenPreventiva op = buscarOrdenPreventivaPorId(id);
+            if (op == null) return false;
+            if (op.getEstado() != OrdenPreventiva.EstadoOrden.EN_PROCESO) return false;
 
-        op.completarOrden(fecha, tiempo, diag, tecnico);
-        return true;
+            op.completarOrden(fecha, tiempo, diag, tecnico);
+            registrarTransicion(op, OrdenPreventiva.EstadoOrden.EN_PROCESO);
+            return true;
+        });
+    }
+
+    /**
+     * Completa una orden en ejecución descontando del inventario los repuestos
+     * consumidos, como una sola operación: si algún repuesto no alcanza, no se
+     * descuenta ninguno y la orden sigue en ejecución.
+     *
+     * Se toma primero el cerrojo de la orden y luego los de los repuestos; el
+     * inventario nunca toma cerrojos de órdenes, así que el orden es fijo.
+     *
+     * @param consumos   cantidad consumida por ID de repuesto
+     * @param inventario servicio que registra las salidas de repuestos
+     * @return true si la orden se completó y se descontaron todos los repuestos
+     */
+    public boolean completarOrdenConRepuestos(int id, LocalDate fecha, double tiempo, String diag,
+                                              Tecnico tecnico, Map<Integer, Integer> consumos,
+                                              InventarioRepuestosService inventario) {
+        return cerrojos.ejecutar(id, () -> {
+            OrdenPreventiva op = buscarOrdenPreventivaPorId(id);
+            if (op == null) return false;
+            if (op.getEstado() != OrdenPreventiva.EstadoOrden.EN_PROCESO) return false;
+
+            if (!inventario.usarRepuestosEnOrden(consumos, "Consumo en orden preventiva",
+                    String.valueOf(id), fecha)) {
+                return false;
+            }
+
+            op.completarOrden(fecha, tiempo, diag, tecnico);
+            registrarTransicion(op, OrdenPreventiva.EstadoOrden.EN_PROCESO);
+            return true;
+        });
     }
 
     /**
      * Cancela una orden si aún no ha sido finalizada.
      */
     public boolean cancelarOrden(int id, String motivo) {
-        OrdenPreventiva op = buscarOrdenPreventivaPorId(id);
-        if (op == null) return false;
-        if (op.getEstado() == OrdenPreventiva.EstadoOrden.COMPLETADA) return false;
-
-        op.cancelarOrden(motivo);
-        return true;
+        return cerrojos.ejecutar(id, () -> {
+            OrdenPreventiva op = buscarOrdenPreventivaPorId(id);
+            if (op == null) return false;
+            if (op.getEstado() == OrdenPreventiva.EstadoOrden.COMPLETADA) return false;
+
+            OrdenPreventiva.EstadoOrden anterior = op.getEstado();
+            op.cancelarOrden(motivo);
+            registrarTransicion(op, anterior);
+            return true;
+        });
     }
 
     /**
      * Agrega material consumido en la orden.
      */
     public boolean agregarMaterial(int id, String material) {
-        OrdenPreventiva op = buscarOrdenPreventivaPorId(id);
-        if (op == null) return false;
-        op.agregarMaterial(material);
-        return true;
+        return cerrojos.ejecutar(id, () -> {
+            OrdenPreventiva op = buscarOrdenPreventivaPorId(id);
+            if (op == null) return false;
+            op.agregarMaterial(material);
+            return true;
+        });
     }
 
     /** Devuelve todas las órdenes preventivas registradas */
     public List<OrdenPreventiva> obtenerOrdenes() {
-        return ordenesPreventivas;
+        return ordenesPreventivas.obtenerTodos();
     }
 }
 
@@ -0,0 +1,18 @@
+package org.example;
+
+/**
+ * Recibe avisos cuando cambia algún contador de órdenes por estado o por
+ * prioridad.
+ *
+ * El aviso se emite desde el hilo que aplicó el cambio, con el cerrojo de
+ * la orden tomado, y no indica qué contador cambió: el oyente vuelve a
+ * leer los que le interesan, en O(1). Las implementaciones deben ser
+ * breves; una interfaz gráfica debe pasar el trabajo a su propio hilo y
+ * conviene que agrupe los avisos que lleguen antes de repintar.
+ */
+@FunctionalInterface
+public interface OyenteContadores {
+
+    /** Uno o más contadores cambiaron. */
+    void contadoresCambiados();
+}
@@ -0,0 +1,37 @@
+package org.example;
+
+/**
+ * Recibe avisos cuando cambia el contenido de un {@link Repository}.
+ *
+ * Los avisos se emiten desde el hilo que hizo el cambio, después de
+ * aplicarlo. Entre hilos distintos pueden llegar en otro orden que los
+ * cambios (por ejemplo, el alta y la baja de un mismo ID), por lo que quien
+ * necesite el estado exacto debe consultarlo al procesar el aviso. Las
+ * implementaciones deben ser breves; una interfaz gráfica debe pasar el
+ * trabajo a su propio hilo.
+ *
+ * @param <T> tipo de entidad del repositorio
+ */
+public interface OyenteRepositorio<T> {
+
+    /**
+     * Se registró una entidad nueva.
+     *
+     * @param entidad entidad agregada
+     */
+    void entidadAgregada(T entidad);
+
+    /**
+     * Cambiaron los datos de una entidad registrada.
+     *
+     * @param entidad entidad modificada
+     */
+    void entidadActualizada(T entidad);
+
+    /**
+     * Se eliminó una entidad.
+     *
+     * @param entidad entidad eliminada
+     */
+    void entidadEliminada(T entidad);
+}
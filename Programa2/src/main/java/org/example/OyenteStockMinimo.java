@@ -0,0 +1,28 @@
+package org.example;
+
+/**
+ * Recibe avisos cuando un repuesto cruza su stock mínimo.
+ *
+ * Los avisos se emiten solo al cruzar el umbral, no en cada movimiento, y
+ * desde el hilo que aplicó el movimiento con el cerrojo del repuesto
+ * tomado, por lo que llegan en orden para cada repuesto. Las
+ * implementaciones deben ser breves; una interfaz gráfica debe pasar el
+ * trabajo a su propio hilo.
+ */
+public interface OyenteStockMinimo {
+
+    /**
+     * El stock del repuesto quedó en su mínimo o por debajo.
+     *
+     * @param repuesto repuesto afectado
+     */
+    void repuestoBajoMinimo(Repuesto repuesto);
+
+    /**
+     * El stock del repuesto volvió a superar su mínimo, o el repuesto se
+     * eliminó del inventario.
+     *
+     * @param repuesto repuesto afectado
+     */
+    void repuestoSobreMinimo(Repuesto repuesto);
+}
@@ -0,0 +1,74 @@
+package org.example;
+
+import java.util.List;
+
+/**
+ * Una página del resultado de una consulta de auditoría.
+ *
+ * Solo los registros de la página están materializados; del resto se
+ * conoce únicamente la cantidad total de coincidencias.
+ */
+public class PaginaAuditoria {
+
+    private final List<AuditoriaMantenimiento> registros;
+    private final int pagina;
+    private final int tamanioPagina;
+    private final int total;
+
+    /**
+     * @param registros     registros de la página, en orden cronológico de registro
+     * @param pagina        número de página, desde 0
+     * @param tamanioPagina registros por página
+     * @param total         coincidencias totales de la consulta
+     */
+    public PaginaAuditoria(List<AuditoriaMantenimiento> registros, int pagina, int tamanioPagina, int total) {
+        this.registros = registros;
+        this.pagina = pagina;
+        this.tamanioPagina = tamanioPagina;
+        this.total = total;
+    }
+
+    /** @return registros de esta página */
+    public List<AuditoriaMantenimiento> getRegistros() {
+        return registros;
+    }
+
+    /** @return número de página, desde 0 */
+    public int getPagina() {
+        return pagina;
+    }
+
+    /** @return registros por página */
+    public int getTamanioPagina() {
+        return tamanioPagina;
+    }
+
+    /** @return coincidencias totales de la consulta */
+    public int getTotal() {
+        return total;
+    }
+
+    /** @return cantidad de páginas del resultado (al menos 1) */
+    public int getTotalPaginas() {
+        return Math.max(1, (total + tamanioPagina - 1) / tamanioPagina);
+    }
+
+    /** @return true si hay una página anterior */
+    public boolean hayAnterior() {
+        return pagina > 0;
+    }
+
+    /** @return true si hay una página siguiente */
+    public boolean haySiguiente() {
+        return (long) (pagina + 1) * tamanioPagina < total;
+    }
+
+    @Override
+    public String toString() {
+        return "PaginaAuditoria{" +
+                "pagina=" + pagina +
+                ", tamanioPagina=" + tamanioPagina +
+                ", total=" + total +
+                '}';
+    }
+}
@@ -103,6 +103,7 @@ public class ProgramaPreventivo {
      */
     public void agregarFase(FasePreventiva fase) {
         this.fases.add(fase);
+        fase.setPrograma(this);
     }
 
     /**
@@ -111,7 +112,9 @@ public class ProgramaPreventivo {
      * @param fase fase a eliminar
      */
     public void eliminarFase(FasePreventiva fase) {
-        this.fases.remove(fase);
+        if (this.fases.remove(fase)) {
+            fase.setPrograma(null);
+        }
     }
 
     /**
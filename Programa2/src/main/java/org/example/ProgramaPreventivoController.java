@@ -1,6 +1,7 @@
 package org.example;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -26,7 +27,11 @@ public class ProgramaPreventivoController {
     /**
      * Crea un nuevo programa preventivo realizando validaciones previas.
      *
-     * @param idPrograma identificador del programa
+     * Un ID digitado debe ser posterior a los ya asignados por el sistema
+     * (ver {@link IdAllocator#reclamar}); al reproducir el diario solo se
+     * informa a la secuencia.
+     *
+     * @param idPrograma identificador del programa, o 0 para asignarlo automáticamente
      * @param nombre nombre descriptivo del programa
      * @param objetivo propósito del mantenimiento preventivo
      * @param fechaCreacion fecha en que se registra el programa
@@ -39,12 +44,20 @@ public class ProgramaPreventivoController {
                                           LocalDate fechaCreacion,
                                           String responsable) {
 
-        if (idPrograma <= 0) return "El ID debe ser mayor que cero.";
+        if (idPrograma < 0) return "El ID no puede ser negativo.";
         if (nombre == null || nombre.isBlank()) return "El nombre no puede estar vacío.";
         if (objetivo == null || objetivo.isBlank()) return "Debe definir un objetivo.";
         if (fechaCreacion == null) return "Debe ingresar una fecha válida.";
         if (responsable == null || responsable.isBlank()) return "Debe ingresar un responsable.";
 
+        IdAllocator ids = SistemaMantenimiento.getInstancia().getIdAllocator();
+        boolean registrando = SistemaMantenimiento.getInstancia().getDiario().isActivo();
+        if (idPrograma == 0) {
+            idPrograma = ids.siguiente(IdAllocator.Secuencia.PROGRAMA_PREVENTIVO);
+        } else if (registrando && !ids.reclamar(IdAllocator.Secuencia.PROGRAMA_PREVENTIVO, idPrograma)) {
+            return "El ID " + idPrograma + " ya fue asignado por el sistema; deje el campo vacío para obtener uno nuevo.";
+        }
+
         ProgramaPreventivo nuevo = new ProgramaPreventivo(
                 idPrograma,
                 nombre,
@@ -53,7 +66,18 @@ public class ProgramaPreventivoController {
                 responsable
         );
 
-        boolean creado = programaService.agregarProgramaPreventivo(nuevo);
+        boolean creado = SistemaMantenimiento.getInstancia().getDiario().aplicar(
+                () -> programaService.agregarProgramaPreventivo(nuevo),
+                DiarioOperaciones.Operacion.CREAR_PROGRAMA, out -> {
+                    out.writeInt(nuevo.getIdPrograma());
+                    out.escribirTexto(nombre);
+                    out.escribirTexto(objetivo);
+                    out.escribirFecha(fechaCreacion);
+                    out.escribirTexto(responsable);
+                });
+        if (creado) {
+            ids.observar(IdAllocator.Secuencia.PROGRAMA_PREVENTIVO, idPrograma);
+        }
 
         return creado ? "Programa creado exitosamente."
                       : "Ya existe un programa con ese ID.";
@@ -82,7 +106,9 @@ public class ProgramaPreventivoController {
             return "No puede eliminarse — El programa tiene órdenes preventivas ya generadas.";
         }
 
-        boolean eliminado = programaService.eliminarProgramaPreventivo(idPrograma);
+        boolean eliminado = SistemaMantenimiento.getInstancia().getDiario().aplicar(
+                () -> programaService.eliminarProgramaPreventivo(idPrograma),
+                DiarioOperaciones.Operacion.ELIMINAR_PROGRAMA, out -> out.writeInt(idPrograma));
 
         return eliminado ? "Programa eliminado correctamente."
                          : "No se encontró el programa.";
@@ -99,7 +125,12 @@ public class ProgramaPreventivoController {
 
         if (fase == null) return "Debe seleccionar una fase válida.";
 
-        boolean agregado = programaService.agregarFaseAPrograma(idPrograma, fase);
+        boolean agregado = SistemaMantenimiento.getInstancia().getDiario().aplicar(
+                () -> programaService.agregarFaseAPrograma(idPrograma, fase),
+                DiarioOperaciones.Operacion.AGREGAR_FASE_PROGRAMA, out -> {
+                    out.writeInt(idPrograma);
+                    ReproductorDiario.escribirContenidoFase(out, fase);
+                });
 
         return agregado ? "Fase agregada correctamente."
                         : "No se pudo agregar la fase (Programa no encontrado).";
@@ -114,12 +145,142 @@ public class ProgramaPreventivoController {
      */
     public String eliminarFaseDePrograma(int idPrograma, int numeroFase) {
 
-        boolean eliminado = programaService.eliminarFaseDePrograma(idPrograma, numeroFase);
+        boolean eliminado = SistemaMantenimiento.getInstancia().getDiario().aplicar(
+                () -> programaService.eliminarFaseDePrograma(idPrograma, numeroFase),
+                DiarioOperaciones.Operacion.ELIMINAR_FASE_PROGRAMA, out -> {
+                    out.writeInt(idPrograma);
+                    out.writeInt(numeroFase);
+                });
 
         return eliminado ? "Fase eliminada correctamente."
                          : "No se pudo eliminar la fase.";
     }
 
+    /**
+     * Agrega una tarea a una fase de un programa.
+     *
+     * @param idPrograma programa origen
+     * @param numeroFase número de la fase dentro del programa
+     * @param tarea      descripción de la tarea
+     * @return mensaje del resultado
+     */
+    public String agregarTareaAFase(int idPrograma, int numeroFase, String tarea) {
+
+        if (tarea == null || tarea.isBlank()) return "Debe indicar una tarea.";
+
+        FasePreventiva fase = buscarFase(idPrograma, numeroFase);
+        if (fase == null) return "Fase no encontrada.";
+
+        SistemaMantenimiento.getInstancia().getDiario().aplicar(
+                () -> {
+                    fase.agregarTarea(tarea);
+                    return true;
+                },
+                DiarioOperaciones.Operacion.AGREGAR_TAREA_FASE, out -> {
+                    out.writeInt(idPrograma);
+                    out.writeInt(numeroFase);
+                    out.escribirTexto(tarea);
+                });
+        return "Tarea agregada a fase " + numeroFase + ".";
+    }
+
+    /**
+     * Agrega un recurso necesario a una fase de un programa.
+     *
+     * @param idPrograma programa origen
+     * @param numeroFase número de la fase dentro del programa
+     * @param recurso    recurso requerido
+     * @return mensaje del resultado
+     */
+    public String agregarRecursoAFase(int idPrograma, int numeroFase, String recurso) {
+
+        if (recurso == null || recurso.isBlank()) return "Debe indicar un recurso.";
+
+        FasePreventiva fase = buscarFase(idPrograma, numeroFase);
+        if (fase == null) return "Fase no encontrada.";
+
+        SistemaMantenimiento.getInstancia().getDiario().aplicar(
+                () -> {
+                    fase.agregarRecurso(recurso);
+                    return true;
+                },
+                DiarioOperaciones.Operacion.AGREGAR_RECURSO_FASE, out -> {
+                    out.writeInt(idPrograma);
+                    out.writeInt(numeroFase);
+                    out.escribirTexto(recurso);
+                });
+        return "Recurso agregado a fase " + numeroFase + ".";
+    }
+
+    /**
+     * Actualiza frecuencia, tiempo estimado y observaciones de una fase.
+     *
+     * @param idPrograma    programa origen
+     * @param numeroFase    número de la fase dentro del programa
+     * @param frecuencia    nueva frecuencia
+     * @param tiempoHoras   tiempo estimado en horas
+     * @param observaciones observaciones de la fase
+     * @return mensaje del resultado
+     */
+    public String actualizarFase(int idPrograma, int numeroFase,
+                                 FasePreventiva.Frecuencia frecuencia,
+                                 double tiempoHoras, String observaciones) {
+
+        if (frecuencia == null) return "Debe indicar una frecuencia.";
+        if (tiempoHoras < 0) return "El tiempo estimado no puede ser negativo.";
+
+        FasePreventiva fase = buscarFase(idPrograma, numeroFase);
+        if (fase == null) return "Fase no encontrada.";
+
+        SistemaMantenimiento.getInstancia().getDiario().aplicar(
+                () -> {
+                    fase.setFrecuencia(frecuencia);
+                    fase.setTiempoEstimadoHoras(tiempoHoras);
+                    fase.setObservaciones(observaciones);
+                    return true;
+                },
+                DiarioOperaciones.Operacion.ACTUALIZAR_FASE, out -> {
+                    out.writeInt(idPrograma);
+                    out.writeInt(numeroFase);
+                    out.escribirEnum(frecuencia);
+                    out.writeDouble(tiempoHoras);
+                    out.escribirTexto(observaciones);
+                });
+        return "Cambios guardados en fase " + numeroFase + ".";
+    }
+
+    /**
+     * Genera las órdenes preventivas que falten en todos los equipos que usan
+     * el programa, repartiendo los equipos entre varios hilos. Se invoca
+     * después de revisar el programa; con una flota grande puede tardar, por
+     * lo que la interfaz la ejecuta fuera del hilo de eventos.
+     *
+     * @param idPrograma programa revisado
+     * @return mensaje con la cantidad de órdenes creadas
+     */
+    public String generarOrdenesDePrograma(int idPrograma) {
+        if (programaService.buscarProgramaPreventivo(idPrograma) == null) {
+            return "No se encontró el programa.";
+        }
+
+        SistemaMantenimiento sistema = SistemaMantenimiento.getInstancia();
+        List<Equipo> equipos = new ArrayList<>();
+        for (Equipo equipo : sistema.getEquipoController().obtenerEquipos()) {
+            ProgramaPreventivo programa = equipo.getProgramaPreventivo();
+            if (programa != null && programa.getIdPrograma() == idPrograma) equipos.add(equipo);
+        }
+        if (equipos.isEmpty()) return "Ningún equipo tiene asignado el programa.";
+
+        int creadas = programaService.generarOrdenesParaFlota(equipos, sistema.getOrdenPreventivaController());
+        return "Órdenes preventivas generadas: " + creadas + " (" + equipos.size() + " equipos).";
+    }
+
+    /** @return fase del programa indicado o null si alguno no existe */
+    private FasePreventiva buscarFase(int idPrograma, int numeroFase) {
+        ProgramaPreventivo programa = programaService.buscarProgramaPreventivo(idPrograma);
+        return programa == null ? null : programa.obtenerFase(numeroFase);
+    }
+
     /**
      * Retorna la lista de programas preventivos registrados.
      *
@@ -128,7 +289,31 @@ public class ProgramaPreventivoController {
     public List<ProgramaPreventivo> obtenerProgramas() {
         return programaService.obtenerProgramasPreventivos();
     }
-}
-
 
+    /**
+     * Servicio de programas preventivos, para módulos que leen su
+     * información sin pasar por las validaciones del controlador (por
+     * ejemplo, los reportes).
+     *
+     * @return servicio de programas de este controlador
+     */
+    ProgramaPreventivoService getProgramaService() {
+        return programaService;
+    }
 
+    /**
+     * Incorpora los programas restaurados desde una instantánea, sin validar
+     * ni registrar en el diario de operaciones.
+     *
+     * @param programas programas a incorporar
+     */
+    public void cargarProgramas(List<ProgramaPreventivo> programas) {
+        int maximo = 0;
+        for (ProgramaPreventivo programa : programas) {
+            programaService.agregarProgramaPreventivo(programa);
+            maximo = Math.max(maximo, programa.getIdPrograma());
+        }
+        SistemaMantenimiento.getInstancia().getIdAllocator()
+                .observar(IdAllocator.Secuencia.PROGRAMA_PREVENTIVO, maximo);
+    }
+}
@@ -3,6 +3,7 @@ package org.example;
 import java.awt.*;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
 import javax.swing.*;
 
 /**
@@ -13,6 +14,7 @@ import javax.swing.*;
  * Registrar fases preventivas
  * Editar fases de un programa
  * Consultar detalles de un programa
+ * Generar las órdenes de los equipos que usan un programa
  * Listar todos los programas existentes
  *
  * Esta clase actúa como interfaz gráfica conectada al SistemaMantenimiento,
@@ -37,6 +39,9 @@ public class ProgramaPreventivoFrame extends JFrame {
     // Campo para mostrar el listado general de programas
     private JTextArea areaListado;
 
+    /** Generación de órdenes en curso, o null. */
+    private SwingWorker<String, Void> generacion;
+
     /**
      * Constructor principal que construye la vista y configura pestañas.
      * @param sistema referencia del sistema de mantenimiento
@@ -64,6 +69,13 @@ public class ProgramaPreventivoFrame extends JFrame {
         add(tabs, BorderLayout.CENTER);
     }
 
+    /** Al cerrar la ventana la generación en curso sigue hasta terminar; solo se descarta su aviso. */
+    @Override
+    public void dispose() {
+        generacion = null;
+        super.dispose();
+    }
+
     // =========================================================
     // TAB 1: REGISTRAR PROGRAMA
     // =========================================================
@@ -83,7 +95,7 @@ public class ProgramaPreventivoFrame extends JFrame {
         txtObjetivo.setLineWrap(true);
         txtObjetivo.setWrapStyleWord(true);
 
-        form.add(new JLabel("ID Programa:"));
+        form.add(new JLabel("ID Programa (vacío = automático):"));
         form.add(txtId);
 
         form.add(new JLabel("Nombre del programa:"));
@@ -114,7 +126,8 @@ public class ProgramaPreventivoFrame extends JFrame {
      */
     private void registrarPrograma() {
         try {
-            int id = Integer.parseInt(txtId.getText().trim());
+            // Si el ID se deja vacío el controlador lo asigna automáticamente
+            int id = txtId.getText().isBlank() ? 0 : Integer.parseInt(txtId.getText().trim());
             String nombre = txtNombre.getText().trim();
             String responsable = txtResponsable.getText().trim();
             String objetivo = txtObjetivo.getText().trim();
@@ -152,6 +165,15 @@ public class ProgramaPreventivoFrame extends JFrame {
         JButton btnBuscar = new JButton("Ver detalle");
         btnBuscar.addActionListener(e -> cargarDetallePrograma());
 
+        JButton btnGenerar = new JButton("Generar órdenes");
+        btnGenerar.addActionListener(e -> {
+            try {
+                generarOrdenes(Integer.parseInt(txtIdDetalle.getText().trim()));
+            } catch (NumberFormatException ex) {
+                JOptionPane.showMessageDialog(this, "ID inválido.");
+            }
+        });
+
         txtIdEliminar = new JTextField(10);
         JButton btnEliminar = new JButton("Eliminar programa");
         btnEliminar.addActionListener(e -> eliminarPrograma());
@@ -159,6 +181,7 @@ public class ProgramaPreventivoFrame extends JFrame {
         arriba.add(new JLabel("ID Programa:"));
         arriba.add(txtIdDetalle);
         arriba.add(btnBuscar);
+        arriba.add(btnGenerar);
 
         arriba.add(new JLabel("   ID para eliminar:"));
         arriba.add(txtIdEliminar);
@@ -230,6 +253,40 @@ public class ProgramaPreventivoFrame extends JFrame {
         }
     }
 
+    /**
+     * Genera en segundo plano las órdenes de los equipos que usan el programa
+     * y avisa el resultado al terminar. Si ya hay una generación en curso no
+     * se inicia otra.
+     */
+    private void generarOrdenes(int idPrograma) {
+        if (generacion != null && !generacion.isDone()) {
+            JOptionPane.showMessageDialog(this, "Ya hay una generación de órdenes en curso.");
+            return;
+        }
+
+        System.out.println(">>> [ProgPrevFrame] Generando órdenes del programa ID=" + idPrograma);
+
+        SwingWorker<String, Void> tarea = new SwingWorker<>() {
+            @Override
+            protected String doInBackground() {
+                return sistema.getProgramaPreventivoController().generarOrdenesDePrograma(idPrograma);
+            }
+
+            @Override
+            protected void done() {
+                if (generacion != this) return;
+                try {
+                    JOptionPane.showMessageDialog(ProgramaPreventivoFrame.this, get());
+                } catch (InterruptedException | ExecutionException e) {
+                    System.err.println("Error al generar órdenes del programa " + idPrograma + ": " + e);
+                    JOptionPane.showMessageDialog(ProgramaPreventivoFrame.this, "Error al generar las órdenes.");
+                }
+            }
+        };
+        generacion = tarea;
+        tarea.execute();
+    }
+
     /**
      * Solicita al sistema la eliminación de un programa preventivo.
      */
@@ -349,6 +406,11 @@ public class ProgramaPreventivoFrame extends JFrame {
 
                 JOptionPane.showMessageDialog(this, r);
 
+                // La fase nueva puede requerir órdenes en los equipos del programa
+                if (sistema.getProgramaPreventivoController().buscarPrograma(idProg) != null) {
+                    generarOrdenes(idProg);
+                }
+
             } catch (Exception ex) {
                 JOptionPane.showMessageDialog(this, "Datos inválidos.");
             }
@@ -427,21 +489,9 @@ public class ProgramaPreventivoFrame extends JFrame {
                 int pId = Integer.parseInt(txtProgId.getText());
                 int num = Integer.parseInt(txtNumFase.getText());
 
-                ProgramaPreventivo programa = sistema.getProgramaPreventivoController().buscarPrograma(pId);
-
-                if (programa == null) {
-                    JOptionPane.showMessageDialog(this, "Programa no encontrado.");
-                    return;
-                }
-
-                FasePreventiva fase = programa.obtenerFase(num);
-                if (fase == null) {
-                    JOptionPane.showMessageDialog(this, "Fase no encontrada.");
-                    return;
-                }
-
-                fase.agregarTarea(txtNuevaTarea.getText());
-                salida.append("Tarea agregada a fase " + num + "\n");
+                String res = sistema.getProgramaPreventivoController()
+                        .agregarTareaAFase(pId, num, txtNuevaTarea.getText());
+                salida.append(res + "\n");
 
             } catch (Exception ex) {
                 JOptionPane.showMessageDialog(this, "Datos inválidos.");
@@ -453,21 +503,9 @@ public class ProgramaPreventivoFrame extends JFrame {
                 int pId = Integer.parseInt(txtProgId.getText());
                 int num = Integer.parseInt(txtNumFase.getText());
 
-                ProgramaPreventivo programa = sistema.getProgramaPreventivoController().buscarPrograma(pId);
-
-                if (programa == null) {
-                    JOptionPane.showMessageDialog(this, "Programa no encontrado.");
-                    return;
-                }
-
-                FasePreventiva fase = programa.obtenerFase(num);
-                if (fase == null) {
-                    JOptionPane.showMessageDialog(this, "Fase no encontrada.");
-                    return;
-                }
-
-                fase.agregarRecurso(txtNuevoRecurso.getText());
-                salida.append("Recurso agregado a fase " + num + "\n");
+                String res = sistema.getProgramaPreventivoController()
+                        .agregarRecursoAFase(pId, num, txtNuevoRecurso.getText());
+                salida.append(res + "\n");
 
             } catch (Exception ex) {
                 JOptionPane.showMessageDialog(this, "Datos inválidos.");
@@ -479,24 +517,12 @@ public class ProgramaPreventivoFrame extends JFrame {
                 int pId = Integer.parseInt(txtProgId.getText());
                 int num = Integer.parseInt(txtNumFase.getText());
 
-                ProgramaPreventivo programa = sistema.getProgramaPreventivoController().buscarPrograma(pId);
-
-                if (programa == null) {
-                    JOptionPane.showMessageDialog(this, "Programa no encontrado.");
-                    return;
-                }
-
-                FasePreventiva fase = programa.obtenerFase(num);
-                if (fase == null) {
-                    JOptionPane.showMessageDialog(this, "Fase no encontrada.");
-                    return;
-                }
-
-                fase.setFrecuencia((FasePreventiva.Frecuencia) comboFrecuencia.getSelectedItem());
-                fase.setTiempoEstimadoHoras(Double.parseDouble(txtTiempoHoras.getText()));
-                fase.setObservaciones(txtObs.getText());
-
-                salida.append("Cambios guardados en fase " + num + "\n");
+                String res = sistema.getProgramaPreventivoController().actualizarFase(
+                        pId, num,
+                        (FasePreventiva.Frecuencia) comboFrecuencia.getSelectedItem(),
+                        Double.parseDouble(txtTiempoHoras.getText()),
+                        txtObs.getText());
+                salida.append(res + "\n");
 
             } catch (Exception ex) {
                 JOptionPane.showMessageDialog(this, "Datos inválidos.");
@@ -2,7 +2,15 @@ package org.example;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveTask;
 
 /**
  * Servicio encargado de administrar la lógica de negocio relacionada con los
@@ -19,12 +27,15 @@ import java.util.List;
  */
 public class ProgramaPreventivoService {
 
-    /** Lista que almacena todos los programas preventivos registrados */
-    private List<ProgramaPreventivo> programasPreventivos;
+    /** Repositorio indexado por ID con todos los programas preventivos registrados */
+    private Repository<ProgramaPreventivo> programasPreventivos;
 
-    /** Constructor: inicializa lista interna */
+    /** Cerrojos por ID que serializan las modificaciones de cada programa. */
+    private final CerrojosPorId cerrojos = new CerrojosPorId();
+
+    /** Constructor: inicializa el repositorio interno */
     public ProgramaPreventivoService() {
-        this.programasPreventivos = new ArrayList<>();
+        this.programasPreventivos = new Repository<>(ProgramaPreventivo::getIdPrograma);
     }
 
     // ======================================================
@@ -38,21 +49,14 @@ public class ProgramaPreventivoService {
      * @return true si fue agregado, false si ya existía un programa con ese ID
      */
     public boolean agregarProgramaPreventivo(ProgramaPreventivo programa) {
-        for (ProgramaPreventivo p : programasPreventivos) {
-            if (p.getIdPrograma() == programa.getIdPrograma()) {
-                return false; // duplicado
-            }
-        }
-
-        programasPreventivos.add(programa);
-        return true;
+        return programasPreventivos.agregar(programa);
     }
 
     /**
      * Obtiene la lista completa de programas preventivos registrados.
      */
     public List<ProgramaPreventivo> obtenerProgramasPreventivos() {
-        return programasPreventivos;
+        return programasPreventivos.obtenerTodos();
     }
 
     /**
@@ -61,12 +65,7 @@ public class ProgramaPreventivoService {
      * @return el programa encontrado o null si no existe
      */
     public ProgramaPreventivo buscarProgramaPreventivo(int idPrograma) {
-        for (ProgramaPreventivo p : programasPreventivos) {
-            if (p.getIdPrograma() == idPrograma) {
-                return p;
-            }
-        }
-        return null;
+        return programasPreventivos.buscar(idPrograma);
     }
 
     /**
@@ -75,12 +74,7 @@ public class ProgramaPreventivoService {
      * @return true si fue eliminado, false en caso contrario
      */
     public boolean eliminarProgramaPreventivo(int idPrograma) {
-        ProgramaPreventivo programaAEliminar = buscarProgramaPreventivo(idPrograma);
-        if (programaAEliminar != null) {
-            programasPreventivos.remove(programaAEliminar);
-            return true;
-        }
-        return false;
+        return programasPreventivos.eliminar(idPrograma) != null;
     }
 
     // ======================================================
@@ -93,12 +87,14 @@ public class ProgramaPreventivoService {
      * @return true si se pudo agregar, false si no existe el programa
      */
     public boolean agregarFaseAPrograma(int idPrograma, FasePreventiva fase) {
-        ProgramaPreventivo programa = buscarProgramaPreventivo(idPrograma);
-        if (programa != null) {
-            programa.agregarFase(fase);
-            return true;
-        }
-        return false;
+        return cerrojos.ejecutar(idPrograma, () -> {
+            ProgramaPreventivo programa = buscarProgramaPreventivo(idPrograma);
+            if (programa != null) {
+                programa.agregarFase(fase);
+                return true;
+            }
+            return false;
+        });
     }
 
     /**
@@ -107,30 +103,31 @@ public class ProgramaPreventivoService {
      * @return true si la fase existía y se eliminó, false si no se encontró
      */
     public boolean eliminarFaseDePrograma(int idPrograma, int numeroFase) {
-        ProgramaPreventivo programa = buscarProgramaPreventivo(idPrograma);
-        if (programa != null) {
-            FasePreventiva fase = programa.obtenerFase(numeroFase);
-            if (fase != null) {
-                programa.eliminarFase(fase);
-                return true;
+        return cerrojos.ejecutar(idPrograma, () -> {
+            ProgramaPreventivo programa = buscarProgramaPreventivo(idPrograma);
+            if (programa != null) {
+                FasePreventiva fase = programa.obtenerFase(numeroFase);
+                if (fase != null) {
+                    programa.eliminarFase(fase);
+                    return true;
+                }
             }
-        }
-        return false;
+            return false;
+        });
     }
 
     // ======================================================
     // GENERACIÓN DE ID AUTOMÁTICO
     // ======================================================
 
-    /** Contador interno utilizado para emitir IDs incrementalmente */
-    private int contadorOrdenes = 1;
-
     /**
-     * Genera un ID incremental simple para órdenes preventivas.
-     * Puede reemplazarse por lógica persistente o de base de datos.
+     * Genera un ID para órdenes preventivas desde la secuencia compartida
+     * del sistema, que es segura entre hilos y no se repite entre reinicios.
      */
     public int generarIdOrden() {
-        return contadorOrdenes++;
+        return SistemaMantenimiento.getInstancia()
+                .getIdAllocator()
+                .siguiente(IdAllocator.Secuencia.ORDEN_PREVENTIVA);
     }
 
     // ======================================================
@@ -140,16 +137,13 @@ public class ProgramaPreventivoService {
     /**
      * Verifica si un programa preventivo tiene órdenes preventivas ya generadas.
      * Si es así, el sistema no permitirá eliminar el programa.
+     * Consulta el contador por programa del servicio de órdenes.
      */
     public boolean tieneOrdenesGeneradas(int idPrograma) {
         return SistemaMantenimiento.getInstancia()
                 .getOrdenPreventivaController()
-                .obtenerOrdenes()
-                .stream()
-                .anyMatch(op ->
-                        op.getFase() != null
-                        && op.getFase().getPrograma() != null
-                        && op.getFase().getPrograma().getIdPrograma() == idPrograma);
+                .getOrdenService()
+                .tieneOrdenesDePrograma(idPrograma);
     }
 
     // ======================================================
@@ -162,8 +156,174 @@ public class ProgramaPreventivoService {
      *
      * Se omite si el equipo está desechado
      * Si una orden ya existe para una fase/fecha, no se duplica
+     * Las órdenes se registran a través del controlador, que las anota en el diario
+     *
+     * Es la generación por flota con un único equipo.
+     *
+     * @return cantidad de órdenes creadas
+     */
+    public int generarOrdenesParaEquipo(Equipo equipo, OrdenPreventivaController ordenController) {
+        return generarOrdenesParaFlota(List.of(equipo), ordenController);
+    }
+
+    // ======================================================
+    // GENERACIÓN MASIVA PARA TODA LA FLOTA
+    // ======================================================
+
+    /** Cantidad de equipos por debajo de la cual una tarea no se subdivide. */
+    private static final int EQUIPOS_POR_TAREA = 256;
+
+    /** Cantidad de órdenes que se registran por lote durante la fusión. */
+    private static final int TAMANIO_LOTE = 4096;
+
+    /**
+     * Hilos de la generación por flota. Es un pool propio y no el común para
+     * que una generación de toda la flota no ocupe los hilos que comparten el
+     * resto de las tareas paralelas del proceso; sus hilos son de fondo y se
+     * retiran solos cuando quedan inactivos.
+     */
+    private static final ForkJoinPool GENERACION = new ForkJoinPool(
+            Runtime.getRuntime().availableProcessors(),
+            pool -> {
+                ForkJoinWorkerThread hilo = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+                hilo.setName("generacion-preventiva-" + hilo.getPoolIndex());
+                return hilo;
+            },
+            null, false);
+
+    /**
+     * Orden preventiva candidata: combinación equipo/fase/fecha que aún no
+     * tiene orden registrada al momento de calcularse.
+     */
+    private static final class Candidata {
+        private final Equipo equipo;
+        private final FasePreventiva fase;
+        private final LocalDate fecha;
+
+        Candidata(Equipo equipo, FasePreventiva fase, LocalDate fecha) {
+            this.equipo = equipo;
+            this.fase = fase;
+            this.fecha = fecha;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Candidata)) return false;
+            Candidata otra = (Candidata) o;
+            return equipo.getId() == otra.equipo.getId()
+                    && fase.getNumeroFase() == otra.fase.getNumeroFase()
+                    && fecha.equals(otra.fecha);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(equipo.getId(), fase.getNumeroFase(), fecha);
+        }
+    }
+
+    /**
+     * Genera las órdenes preventivas de toda una flota repartiendo los equipos
+     * entre los hilos de un {@link ForkJoinPool} propio de la generación.
+     *
+     * Las fases de cada programa se copian antes de repartir, con el cerrojo
+     * del programa, de modo que una fase agregada o quitada en paralelo no
+     * altera el cálculo a medias. Cada tarea calcula sus candidatas sin
+     * modificar el almacén de órdenes;
+     * los resultados se concatenan en el mismo orden de la lista de equipos y
+     * luego se registran por lotes con IDs de un bloque reservado. Por eso el
+     * resultado es idéntico al de llamar {@link #generarOrdenesParaEquipo}
+     * secuencialmente sobre cada equipo. La generación corre en exclusiva
+     * ({@link OrdenPreventivaController#ejecutarGeneracion}): las demás altas
+     * esperan a que termine. Cada lote se anota en el diario de operaciones.
+     *
+     * @param equipos         flota sobre la cual generar
+     * @param ordenController controlador que registra las órdenes
+     * @return cantidad de órdenes creadas
+     */
+    public int generarOrdenesParaFlota(List<Equipo> equipos, OrdenPreventivaController ordenController) {
+        OrdenPreventivaService ordenService = ordenController.getOrdenService();
+        return ordenController.ejecutarGeneracion(() -> {
+            Map<Integer, List<FasePreventiva>> fases = copiarFases(equipos);
+            List<Candidata> candidatas = GENERACION
+                    .invoke(new TareaCandidatas(equipos, 0, equipos.size(), fases, ordenService));
+            return registrarCandidatas(candidatas, ordenController);
+        });
+    }
+
+    /**
+     * Copia, con el cerrojo de cada programa, las fases de los programas
+     * asignados a la flota.
+     *
+     * @return fases por ID de programa
+     */
+    private Map<Integer, List<FasePreventiva>> copiarFases(List<Equipo> equipos) {
+        Map<Integer, List<FasePreventiva>> fases = new HashMap<>();
+        for (Equipo equipo : equipos) {
+            ProgramaPreventivo programa = equipo.getProgramaPreventivo();
+            if (programa == null || fases.containsKey(programa.getIdPrograma())) continue;
+            fases.put(programa.getIdPrograma(), cerrojos.ejecutar(programa.getIdPrograma(),
+                    () -> new ArrayList<>(programa.getFases())));
+        }
+        return fases;
+    }
+
+    /**
+     * Tarea recursiva que divide un rango de la flota hasta un tamaño
+     * manejable y calcula las candidatas de cada equipo.
+     */
+    private final class TareaCandidatas extends RecursiveTask<List<Candidata>> {
+        private static final long serialVersionUID = 1L;
+
+        private final List<Equipo> equipos;
+        private final int desde;
+        private final int hasta;
+        private final Map<Integer, List<FasePreventiva>> fases;
+        private final OrdenPreventivaService ordenService;
+
+        TareaCandidatas(List<Equipo> equipos, int desde, int hasta,
+                        Map<Integer, List<FasePreventiva>> fases, OrdenPreventivaService ordenService) {
+            this.equipos = equipos;
+            this.desde = desde;
+            this.hasta = hasta;
+            this.fases = fases;
+            this.ordenService = ordenService;
+        }
+
+        @Override
+        protected List<Candidata> compute() {
+            if (hasta - desde <= EQUIPOS_POR_TAREA) {
+                List<Candidata> resultado = new ArrayList<>();
+                for (int i = desde; i < hasta; i++) {
+                    calcularCandidatas(equipos.get(i), fases, ordenService, resultado);
+                }
+                return resultado;
+            }
+
+            int medio = (desde + hasta) >>> 1;
+            TareaCandidatas izquierda = new TareaCandidatas(equipos, desde, medio, fases, ordenService);
+            TareaCandidatas derecha = new TareaCandidatas(equipos, medio, hasta, fases, ordenService);
+            izquierda.fork();
+            List<Candidata> resultado = derecha.compute();
+            List<Candidata> primeras = izquierda.join();
+
+            // Se conserva el orden de la flota: primero la mitad izquierda
+            primeras.addAll(resultado);
+            return primeras;
+        }
+    }
+
+    /**
+     * Calcula las órdenes que corresponden a un equipo según su programa y
+     * que todavía no existen. No modifica el almacén de órdenes.
+     *
+     * @param equipo       equipo a evaluar
+     * @param fases        fases copiadas de cada programa, por ID
+     * @param ordenService servicio consultado para detectar órdenes existentes
+     * @param destino      lista donde se agregan las candidatas
      */
-    public void generarOrdenesParaEquipo(Equipo equipo, OrdenPreventivaService ordenService) {
+    private static void calcularCandidatas(Equipo equipo, Map<Integer, List<FasePreventiva>> fases,
+                                           OrdenPreventivaService ordenService, List<Candidata> destino) {
 
         // Evitar generar para equipos dados de baja
         if (equipo.getEstado() == Equipo.EstadoEquipo.DESECHADO)
@@ -172,9 +332,14 @@ public class ProgramaPreventivoService {
         ProgramaPreventivo programa = equipo.getProgramaPreventivo();
         if (programa == null) return;
 
+        // Se le cambió el programa después de copiar las fases: se omite y
+        // queda para la próxima generación de su programa nuevo
+        List<FasePreventiva> fasesPrograma = fases.get(programa.getIdPrograma());
+        if (fasesPrograma == null) return;
+
         LocalDate base = equipo.getFechaPuestaEnServicio();
 
-        for (FasePreventiva fase : programa.getFases()) {
+        for (FasePreventiva fase : fasesPrograma) {
 
             // Si ciclos = 0 → se considera infinito pero se acota a un máximo de 6
             int ciclos = fase.getCantidadCiclos() == 0 ? 6 : fase.getCantidadCiclos();
@@ -183,28 +348,57 @@ public class ProgramaPreventivoService {
 
                 LocalDate fecha = base.plusDays(fase.getIntervaloDias() * i);
 
-                // Validar que no exista otra orden igual
-                boolean existe = ordenService.obtenerOrdenesPreventivas()
-                        .stream()
-                        .anyMatch(op ->
-                                op.getEquipoAsociado().getId() == equipo.getId()
-                                && op.getFase().getNumeroFase() == fase.getNumeroFase()
-                                && op.getFechaProgramada().equals(fecha)
-                        );
-
-                // Evitar insertos duplicados
-                if (!existe) {
-                    ordenService.crearOrdenPreventiva(
-                            generarIdOrden(),
-                            fecha,
-                            equipo,
-                            fase,
-                            null // técnico se asigna luego
-                    );
+                // Validar que no exista otra orden igual (índice equipo/fase/fecha)
+                if (!ordenService.existeOrdenProgramada(equipo.getId(), fase.getNumeroFase(), fecha)) {
+                    destino.add(new Candidata(equipo, fase, fecha));
                 }
             }
         }
     }
 
-}
+    /**
+     * Registra las candidatas por lotes a través del controlador de órdenes,
+     * que anota cada lote en el diario, usando IDs de un bloque reservado.
+     * Se vuelve a consultar el índice antes de cada alta para descartar
+     * candidatas repetidas dentro del mismo cálculo.
+     *
+     * @return cantidad de órdenes creadas
+     */
+    private int registrarCandidatas(List<Candidata> candidatas, OrdenPreventivaController ordenController) {
+        if (candidatas.isEmpty()) return 0;
 
+        OrdenPreventivaService ordenService = ordenController.getOrdenService();
+
+        int siguienteId = SistemaMantenimiento.getInstancia()
+                .getIdAllocator()
+                .reservarBloque(IdAllocator.Secuencia.ORDEN_PREVENTIVA, candidatas.size());
+
+        int creadas = 0;
+        List<OrdenPreventiva> lote = new ArrayList<>(Math.min(candidatas.size(), TAMANIO_LOTE));
+        Set<Candidata> enLote = new HashSet<>();
+
+        for (Candidata c : candidatas) {
+            // Evitar insertos duplicados, incluso frente a órdenes del lote en curso
+            if (ordenService.existeOrdenProgramada(c.equipo.getId(), c.fase.getNumeroFase(), c.fecha)
+                    || !enLote.add(c)) {
+                continue;
+            }
+
+            lote.add(new OrdenPreventiva(
+                    siguienteId++,
+                    c.fecha,
+                    c.equipo,
+                    c.fase,
+                    null // técnico se asigna luego
+            ));
+
+            if (lote.size() == TAMANIO_LOTE) {
+                creadas += ordenController.registrarOrdenesGeneradas(lote).size();
+                lote.clear();
+                enLote.clear();
+            }
+        }
+        creadas += ordenController.registrarOrdenesGeneradas(lote).size();
+        return creadas;
+    }
+}
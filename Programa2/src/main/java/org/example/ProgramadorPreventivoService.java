@@ -1,7 +1,11 @@
 package org.example;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Servicio responsable de automatizar la generación de órdenes preventivas
@@ -24,24 +28,78 @@ public class ProgramadorPreventivoService {
     /** Servicio que administra programas preventivos asignados a equipos */
     private ProgramaPreventivoService programaService;
 
-    /** Servicio encargado de registrar y almacenar órdenes preventivas */
-    private OrdenPreventivaService ordenService;
+    /** Controlador que registra las órdenes preventivas y las anota en el diario */
+    private OrdenPreventivaController ordenController;
+
+    /** Cantidad de órdenes generadas que se registran juntas en el diario. */
+    private static final int TAMANIO_LOTE = 4096;
+
+    /**
+     * Equipos a los que se les asignó o cambió el programa desde la última
+     * ejecución, con la fecha de la asignación. Se ponen al día con las
+     * fechas procesadas desde esa fecha; las anteriores no les corresponden.
+     */
+    private final Map<Integer, LocalDate> equiposPorRevisar = new ConcurrentHashMap<>();
+
+    /** ID del programa que tenía cada equipo en el último aviso (0 = sin programa). */
+    private final Map<Integer, Integer> programaPorEquipo = new ConcurrentHashMap<>();
 
     /**
      * Constructor del programador automático.
      *
      * @param equipoService servicio usado para listar equipos
      * @param programaService servicio que administra programas y fases preventivas
-     * @param ordenService servicio encargado de crear órdenes preventivas
+     * @param ordenController controlador que registra las órdenes preventivas
      */
     public ProgramadorPreventivoService(EquipoService equipoService,
                                         ProgramaPreventivoService programaService,
-                                        OrdenPreventivaService ordenService) {
+                                        OrdenPreventivaController ordenController) {
 
         this.equipoService = equipoService;
         this.programaService = programaService;
-        this.ordenService = ordenService;
+        this.ordenController = ordenController;
         this.calendario = new CalendarioMantenimiento();
+
+        // Solo un cambio de programa obliga a revisar el equipo; las demás
+        // ediciones (nombre, ubicación, ...) no cambian sus órdenes
+        equipoService.agregarOyenteEquipos(new OyenteRepositorio<Equipo>() {
+            @Override
+            public void entidadAgregada(Equipo equipo) {
+                revisarPrograma(equipo);
+            }
+
+            @Override
+            public void entidadActualizada(Equipo equipo) {
+                revisarPrograma(equipo);
+            }
+
+            @Override
+            public void entidadEliminada(Equipo equipo) {
+                equiposPorRevisar.remove(equipo.getId());
+                programaPorEquipo.remove(equipo.getId());
+            }
+        });
+        // Los equipos ya registrados parten con su programa actual
+        for (Equipo equipo : equipoService.obtenerEquipos()) {
+            programaPorEquipo.putIfAbsent(equipo.getId(), idPrograma(equipo));
+        }
+    }
+
+    /**
+     * Encola el equipo si su programa cambió desde el último aviso. Los
+     * avisos de un equipo llegan con su cerrojo tomado, en orden.
+     */
+    private void revisarPrograma(Equipo equipo) {
+        int actual = idPrograma(equipo);
+        Integer anterior = programaPorEquipo.put(equipo.getId(), actual);
+        if (actual != 0 && (anterior == null || anterior != actual)) {
+            equiposPorRevisar.put(equipo.getId(), LocalDate.now());
+        }
+    }
+
+    private static int idPrograma(Equipo equipo) {
+        ProgramaPreventivo programa = equipo.getProgramaPreventivo();
+        return programa == null ? 0 : programa.getIdPrograma();
     }
 
     /**
@@ -54,54 +112,107 @@ public class ProgramadorPreventivoService {
     }
 
     /**
-     * Recorre las fechas pendientes del calendario y genera automáticamente
-     * órdenes preventivas para todos los equipos que tengan un programa preventivo.
+     * Recorre las fechas del calendario que vencieron desde la ejecución anterior
+     * y genera automáticamente órdenes preventivas para todos los equipos que
+     * tengan un programa preventivo. Los equipos a los que se les asignó un
+     * programa desde la ejecución anterior se ponen además al día con las
+     * fechas ya procesadas a partir del día de la asignación, sin generar
+     * órdenes para fechas anteriores. El costo depende solo del trabajo nuevo.
      *
      * Cada fase del programa del equipo se traduce en una orden preventiva independiente.
+     * Las combinaciones equipo/fase/fecha ya generadas se omiten, por lo que
+     * ejecutar el proceso varias veces no duplica órdenes. Las ejecuciones
+     * se serializan sobre el programador. Las órdenes se registran por lotes
+     * a través del controlador, que las anota en el diario de operaciones.
      * No asigna técnico en esta versión del sistema — queda SIN ASIGNAR.
      */
-    public void generarOrdenesPendientes() {
+    public synchronized void generarOrdenesPendientes() {
 
-        // Obtener todas las fechas vencidas o igual a hoy
-        List<LocalDate> pendientes = calendario.obtenerFechasPendientes();
+        List<OrdenPreventiva> lote = new ArrayList<>();
+
+        // Poner al día a los equipos con programa asignado desde la última
+        // ejecución, con las fechas ya procesadas (antes de avanzar la marca)
+        if (!equiposPorRevisar.isEmpty()) {
+            LocalDate desde = null;
+            for (LocalDate asignacion : equiposPorRevisar.values()) {
+                if (desde == null || asignacion.isBefore(desde)) desde = asignacion;
+            }
+            List<LocalDate> procesadas = calendario.obtenerFechasProcesadas(desde);
+
+            Iterator<Map.Entry<Integer, LocalDate>> it = equiposPorRevisar.entrySet().iterator();
+            while (it.hasNext()) {
+                Map.Entry<Integer, LocalDate> pendiente = it.next();
+                it.remove();
+                Equipo equipo = equipoService.buscarEquipoPorId(pendiente.getKey());
+                if (equipo == null) continue;
+                for (LocalDate fecha : procesadas) {
+                    if (!fecha.isBefore(pendiente.getValue())) generarParaEquipo(equipo, fecha, lote);
+                }
+            }
+        }
 
-        for (LocalDate fecha : pendientes) {
+        // Obtener solo las fechas que vencieron desde la última ejecución
+        for (LocalDate fecha : calendario.tomarFechasPorProcesar(LocalDate.now())) {
 
             // Obtener todos los equipos en el sistema
-            List<Equipo> equipos = equipoService.obtenerEquipos();
+            for (Equipo equipo : equipoService.obtenerEquipos()) {
+                generarParaEquipo(equipo, fecha, lote);
+            }
+        }
+        ordenController.registrarOrdenesGeneradas(lote);
+    }
 
-            for (Equipo equipo : equipos) {
+    /**
+     * Genera las órdenes de un equipo para una fecha, una por cada fase de
+     * su programa preventivo, omitiendo las que ya existen. Las órdenes se
+     * acumulan en el lote, que se registra al llenarse.
+     *
+     * @param equipo equipo a procesar
+     * @param fecha fecha programada
+     * @param lote órdenes pendientes de registrar
+     */
+    private void generarParaEquipo(Equipo equipo, LocalDate fecha, List<OrdenPreventiva> lote) {
 
-                // Recuperar el programa preventivo del equipo
-                ProgramaPreventivo programa = equipo.getProgramaPreventivo();
-                if (programa == null) continue; // equipos sin programa no generan órdenes
+        // Recuperar el programa preventivo del equipo
+        ProgramaPreventivo programa = equipo.getProgramaPreventivo();
+        if (programa == null) return; // equipos sin programa no generan órdenes
 
-                // Por cada fase del programa se genera una orden individual
-                for (FasePreventiva fase : programa.getFases()) {
+        // Por cada fase del programa se genera una orden individual
+        for (FasePreventiva fase : programa.getFases()) {
 
-                    OrdenPreventiva nueva = new OrdenPreventiva(
-                            generarIdAuto(),  // ID generado temporalmente
-                            fecha,
-                            equipo,
-                            fase,
-                            null   // técnico aún no asignado
-                    );
+            // Si la orden de esta fase y fecha ya fue generada no se pide un ID;
+            // si otro generador la registra entre tanto, el alta la rechaza
+            if (ordenController.getOrdenService()
+                    .existeOrdenProgramada(equipo.getId(), fase.getNumeroFase(), fecha)) {
+                continue;
+            }
 
-                    // Registrar orden en el sistema
-                    ordenService.agregarOrdenPreventiva(nueva);
-                }
+            lote.add(new OrdenPreventiva(
+                    generarIdAuto(),  // ID de la secuencia del sistema
+                    fecha,
+                    equipo,
+                    fase,
+                    null   // técnico aún no asignado
+            ));
+
+            // Registrar el lote en el sistema; se omiten las combinaciones que ya existan
+            if (lote.size() == TAMANIO_LOTE) {
+                ordenController.registrarOrdenesGeneradas(lote);
+                lote.clear();
             }
         }
     }
 
     /**
-     * Generador simple de identificadores aleatorios para órdenes preventivas.
-     * Se usa en lugar de un secuencial real para evitar colisiones mínimas.
+     * Obtiene el siguiente identificador de la secuencia de órdenes preventivas.
+     * La secuencia es monótona, por lo que los IDs generados nunca colisionan.
      *
-     * @return identificador entero pseudo-único
+     * @return identificador único para la nueva orden
      */
     private int generarIdAuto() {
-        return (int) (Math.random() * 100000);
+        return SistemaMantenimiento.getInstancia()
+                .getIdAllocator()
+                .siguiente(IdAllocator.Secuencia.ORDEN_PREVENTIVA);
     }
 }
 
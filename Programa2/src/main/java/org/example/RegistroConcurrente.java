@@ -0,0 +1,117 @@
+package org.example;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Lista de solo agregado para historiales (auditoría, movimientos,
+ * cambios de estado) con lectura sin bloqueo.
+ *
+ * Los elementos se guardan en segmentos de tamaño fijo que nunca se
+ * copian ni se modifican una vez escritos. Los escritores se serializan
+ * entre sí; cada agregado publica el nuevo tamaño con una escritura
+ * volátil, y un lector que lee ese tamaño ve todos los elementos
+ * anteriores. Por eso {@link #vista()} es O(1) y entrega un prefijo
+ * consistente que puede recorrerse mientras otros hilos siguen agregando.
+ *
+ * @param <T> tipo de elemento registrado
+ */
+public class RegistroConcurrente<T> {
+
+    private static final int BITS_SEGMENTO = 10;
+    private static final int TAMANIO_SEGMENTO = 1 << BITS_SEGMENTO;
+    private static final int MASCARA_SEGMENTO = TAMANIO_SEGMENTO - 1;
+
+    /** Directorio de segmentos; se reemplaza por uno más grande al llenarse. */
+    private volatile Object[][] segmentos = new Object[4][];
+
+    /** Cantidad de elementos publicados. */
+    private volatile int tamanio;
+
+    /**
+     * Agrega un elemento al final.
+     *
+     * @param elemento elemento a registrar
+     */
+    public synchronized void agregar(T elemento) {
+        int n = tamanio;
+        segmentoPara(n)[n & MASCARA_SEGMENTO] = elemento;
+        tamanio = n + 1;
+    }
+
+    /**
+     * Agrega varios elementos y los publica juntos.
+     *
+     * @param elementos elementos a registrar, en orden
+     */
+    public synchronized void agregarTodos(List<? extends T> elementos) {
+        int n = tamanio;
+        for (T elemento : elementos) {
+            segmentoPara(n)[n & MASCARA_SEGMENTO] = elemento;
+            n++;
+        }
+        tamanio = n;
+    }
+
+    /** Devuelve el segmento que contiene la posición, creándolo si hace falta. */
+    private Object[] segmentoPara(int posicion) {
+        int s = posicion >>> BITS_SEGMENTO;
+        Object[][] directorio = segmentos;
+        if (s == directorio.length) {
+            directorio = Arrays.copyOf(directorio, directorio.length << 1);
+            segmentos = directorio;
+        }
+        Object[] segmento = directorio[s];
+        if (segmento == null) {
+            segmento = new Object[TAMANIO_SEGMENTO];
+            directorio[s] = segmento;
+        }
+        return segmento;
+    }
+
+    /** @return cantidad de elementos registrados */
+    public int tamanio() {
+        return tamanio;
+    }
+
+    /**
+     * Devuelve una vista inmodificable de los elementos registrados hasta
+     * este momento; los que se agreguen después no aparecen en ella.
+     *
+     * @return prefijo consistente del registro
+     */
+    public List<T> vista() {
+        int n = tamanio;
+        return new Vista(segmentos, n);
+    }
+
+    /**
+     * Prefijo fijo del registro. El directorio se lee después del tamaño,
+     * por lo que contiene todos los segmentos de ese prefijo.
+     */
+    private class Vista extends AbstractList<T> implements RandomAccess {
+        private final Object[][] directorio;
+        private final int n;
+
+        Vista(Object[][] directorio, int n) {
+            this.directorio = directorio;
+            this.n = n;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public T get(int i) {
+            if (i < 0 || i >= n) {
+                throw new IndexOutOfBoundsException("Índice: " + i + ", tamaño: " + n);
+            }
+            return (T) directorio[i >>> BITS_SEGMENTO][i & MASCARA_SEGMENTO];
+        }
+
+        @Override
+        public int size() {
+            return n;
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package org.example;
+
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Sesiones abiertas en el sistema, por token.
+ *
+ * Permite que varios usuarios trabajen a la vez sobre la misma instancia:
+ * cada operador conserva su {@link Sesion} y la presenta en cada acceso
+ * con {@link #obtener}, que además registra la actividad. Una sesión sin
+ * actividad durante más que el tiempo de inactividad se cierra: un
+ * temporizador de fondo las revisa periódicamente y {@link #obtener} tampoco
+ * devuelve una sesión vencida aunque el temporizador todavía no haya pasado.
+ *
+ * Es seguro para uso concurrente. Cada sesión se cierra una sola vez, sea
+ * por {@link #cerrar} o por inactividad; en el segundo caso se avisa al
+ * oyente indicado al construir.
+ */
+public class RegistroSesiones implements AutoCloseable {
+
+    private static final int BYTES_TOKEN = 32;
+
+    private final SecureRandom aleatorio = new SecureRandom();
+    private final Map<String, Sesion> sesiones = new ConcurrentHashMap<>();
+    private final AtomicLong numeros = new AtomicLong();
+
+    private final long inactividadMaxima;
+    private final Consumer<Sesion> alExpirar;
+    private final ScheduledExecutorService temporizador;
+
+    /**
+     * Crea el registro e inicia el temporizador de vencimiento.
+     *
+     * @param inactividad tiempo sin actividad tras el cual se cierra una sesión
+     * @param alExpirar   recibe cada sesión cerrada por inactividad (en el
+     *                    hilo del temporizador o en el que llamó a {@link #obtener})
+     * @throws IllegalArgumentException si el tiempo de inactividad no es positivo
+     */
+    public RegistroSesiones(Duration inactividad, Consumer<Sesion> alExpirar) {
+        if (inactividad.isZero() || inactividad.isNegative()) {
+            throw new IllegalArgumentException("El tiempo de inactividad debe ser positivo.");
+        }
+        this.inactividadMaxima = inactividad.toNanos();
+        this.alExpirar = alExpirar;
+
+        this.temporizador = Executors.newSingleThreadScheduledExecutor(tarea -> {
+            Thread hilo = new Thread(tarea, "sesiones-vencimiento");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        // Revisa varias veces por período, de modo que ninguna sesión quede
+        // abierta mucho más allá de su vencimiento
+        long periodo = Math.max(TimeUnit.SECONDS.toNanos(1),
+                Math.min(inactividadMaxima / 4, TimeUnit.MINUTES.toNanos(1)));
+        temporizador.scheduleWithFixedDelay(this::expirarInactivas, periodo, periodo, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Abre una sesión para un usuario ya autenticado.
+     *
+     * @param usuario usuario autenticado
+     * @return sesión nueva, con su token
+     */
+    public Sesion iniciar(Usuario usuario) {
+        byte[] bytes = new byte[BYTES_TOKEN];
+        aleatorio.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        Sesion sesion = new Sesion(token, numeros.incrementAndGet(), usuario);
+        sesiones.put(token, sesion);
+        return sesion;
+    }
+
+    /**
+     * Obtiene una sesión abierta y registra la actividad.
+     *
+     * @param token token de la sesión
+     * @return sesión, o null si no existe, se cerró o venció
+     */
+    public Sesion obtener(String token) {
+        if (token == null) return null;
+        Sesion sesion = sesiones.get(token);
+        if (sesion == null) return null;
+        if (sesion.inactividad(System.nanoTime()) > inactividadMaxima) {
+            expirar(sesion);
+            return null;
+        }
+        sesion.registrarActividad();
+        return sesion;
+    }
+
+    /**
+     * Cierra una sesión.
+     *
+     * @param token token de la sesión
+     * @return sesión cerrada, o null si ya no estaba abierta
+     */
+    public Sesion cerrar(String token) {
+        return token == null ? null : sesiones.remove(token);
+    }
+
+    /**
+     * @return sesiones abiertas, sin un orden determinado
+     */
+    public List<Sesion> obtenerSesiones() {
+        return new ArrayList<>(sesiones.values());
+    }
+
+    /**
+     * @return cantidad de sesiones abiertas
+     */
+    public int contarSesiones() {
+        return sesiones.size();
+    }
+
+    /** Cierra las sesiones que superaron el tiempo de inactividad. */
+    void expirarInactivas() {
+        long ahora = System.nanoTime();
+        for (Sesion sesion : sesiones.values()) {
+            if (sesion.inactividad(ahora) > inactividadMaxima) expirar(sesion);
+        }
+    }
+
+    private void expirar(Sesion sesion) {
+        // Solo quien la retira avisa: el temporizador y obtener pueden coincidir
+        if (!sesiones.remove(sesion.getToken(), sesion)) return;
+        try {
+            alExpirar.accept(sesion);
+        } catch (RuntimeException e) {
+            System.err.println("Error al cerrar la sesión " + sesion.getNumero() + ": " + e);
+        }
+    }
+
+    /** Detiene el temporizador; las sesiones abiertas no se cierran. */
+    @Override
+    public void close() {
+        temporizador.shutdownNow();
+    }
+}
@@ -1,5 +1,9 @@
 package org.example;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.List;
 
 /**
@@ -8,9 +12,22 @@ import java.util.List;
  *
  * Su propósito es centralizar consultas de información para generar
  * reportes estructurados en texto.
+ *
+ * Cada reporte se escribe directamente en un {@link Appendable} a medida
+ * que se recorren las entidades, sin armar antes el texto completo; las
+ * variantes que devuelven String solo sirven para reportes pequeños. Para
+ * la flota completa el único punto de entrada es
+ * {@link #guardarReporteGeneral(Path)}, que escribe el PDF página por página
+ * y mantiene el uso de memoria constante sin importar el tamaño del reporte.
  */
 public class ReporteGeneralMantenimiento {
 
+    /** Tamaño de la fuente del PDF del reporte general, en puntos. */
+    private static final int TAMANIO_FUENTE_PDF = 10;
+
+    /** Interlineado del PDF del reporte general, en puntos. */
+    private static final int INTERLINEADO_PDF = 14;
+
     private EquipoService equipoService;
     private OrdenPreventivaService ordenPreventivaService;
     private OrdenCorrectivaService ordenCorrectivaService;
@@ -30,156 +47,232 @@ public class ReporteGeneralMantenimiento {
         this.programaPreventivoService = programaPreventivoService;
     }
 
+    // ======================================================
+    // REPORTES EN TEXTO
+    // ======================================================
+
     /**
      * Genera un reporte con la información básica de los equipos registrados.
      *
      * @return reporte textual con datos de equipos.
      */
     public String generarReporteEquipos() {
+        return enTexto(this::escribirReporteEquipos);
+    }
+
+    /**
+     * Genera un reporte con el listado de órdenes preventivas registradas.
+     *
+     * @return texto resumen de órdenes preventivas.
+     */
+    public String generarReporteOrdenesPreventivas() {
+        return enTexto(this::escribirReporteOrdenesPreventivas);
+    }
 
+    /**
+     * Genera un reporte con la información sobre órdenes correctivas registradas.
+     *
+     * @return texto resumen de órdenes correctivas.
+     */
+    public String generarReporteOrdenesCorrectivas() {
+        return enTexto(this::escribirReporteOrdenesCorrectivas);
+    }
+
+    /**
+     * Genera un reporte con la información básica de los programas preventivos.
+     *
+     * @return texto resumen de programas preventivos.
+     */
+    public String generarReporteProgramasPreventivos() {
+        return enTexto(this::escribirReporteProgramasPreventivos);
+    }
+
+    /**
+     * Genera un reporte consolidado que integra los reportes
+     * de equipos, órdenes preventivas, correctivas y programas preventivos.
+     *
+     * @return texto completo del reporte general.
+     */
+    public String generarReporteGeneral() {
+        return enTexto(this::escribirReporteGeneral);
+    }
+
+    /** Escritura de un reporte sobre un destino. */
+    private interface Seccion {
+        void escribir(Appendable out) throws IOException;
+    }
+
+    private static String enTexto(Seccion seccion) {
         StringBuilder sb = new StringBuilder();
-        sb.append("====== REPORTE DE EQUIPOS ======\n\n");
+        try {
+            seccion.escribir(sb);
+        } catch (IOException e) {
+            // StringBuilder no produce errores de E/S
+            throw new UncheckedIOException(e);
+        }
+        return sb.toString();
+    }
+
+    // ======================================================
+    // REPORTES EN FLUJO
+    // ======================================================
+
+    /**
+     * Escribe el reporte general directamente en un archivo PDF,
+     * reemplazándolo si existe. Puede tardar con la flota completa, por lo
+     * que no debe llamarse desde el hilo de eventos.
+     *
+     * @param archivo ruta del archivo de destino
+     * @throws IOException si falla la escritura
+     */
+    public void guardarReporteGeneral(Path archivo) throws IOException {
+        try (EscritorPdf pdf = new EscritorPdf(Files.newOutputStream(archivo), TAMANIO_FUENTE_PDF, INTERLINEADO_PDF)) {
+            escribirReporteGeneral(pdf);
+        }
+    }
+
+    /**
+     * Escribe el reporte consolidado de equipos, órdenes preventivas,
+     * correctivas y programas preventivos.
+     *
+     * @param out destino del reporte
+     * @throws IOException si falla la escritura
+     */
+    public void escribirReporteGeneral(Appendable out) throws IOException {
+        out.append("========= REPORTE GENERAL MANTENIMIENTO =========\n\n");
+
+        escribirReporteEquipos(out);
+        out.append("\n");
+        escribirReporteOrdenesPreventivas(out);
+        out.append("\n");
+        escribirReporteOrdenesCorrectivas(out);
+        out.append("\n");
+        escribirReporteProgramasPreventivos(out);
+        out.append("\n");
+
+        out.append("======== FIN DEL REPORTE ========");
+    }
+
+    /**
+     * Escribe el reporte de equipos registrados.
+     *
+     * @param out destino del reporte
+     * @throws IOException si falla la escritura
+     */
+    public void escribirReporteEquipos(Appendable out) throws IOException {
+        out.append("====== REPORTE DE EQUIPOS ======\n\n");
 
         List<Equipo> equipos = equipoService.obtenerEquipos();
 
         if (equipos.isEmpty()) {
-            sb.append("No hay equipos registrados.\n");
-            return sb.toString();
+            out.append("No hay equipos registrados.\n");
+            return;
         }
 
         for (Equipo eq : equipos) {
-            sb.append("ID: ").append(eq.getId()).append("\n");
-            sb.append("Descripción: ").append(eq.getDescripcion()).append("\n");
-            sb.append("Ubicación: ").append(eq.getUbicacion()).append("\n");
-            sb.append("Estado: ").append(eq.getEstado()).append("\n");
-            sb.append("Modelo: ").append(eq.getModelo()).append("\n");
-            sb.append("----------\n");
+            linea(out, "ID: ", eq.getId());
+            linea(out, "Descripción: ", eq.getDescripcion());
+            linea(out, "Ubicación: ", eq.getUbicacion());
+            linea(out, "Estado: ", eq.getEstado());
+            linea(out, "Modelo: ", eq.getModelo());
+            out.append("----------\n");
         }
-
-        return sb.toString();
     }
 
     /**
-     * Genera un reporte con el listado de órdenes preventivas registradas.
+     * Escribe el reporte de órdenes preventivas registradas.
      *
-     * @return texto resumen de órdenes preventivas.
+     * @param out destino del reporte
+     * @throws IOException si falla la escritura
      */
-    public String generarReporteOrdenesPreventivas() {
-
-        StringBuilder sb = new StringBuilder();
-        sb.append("====== REPORTE ÓRDENES PREVENTIVAS ======\n\n");
+    public void escribirReporteOrdenesPreventivas(Appendable out) throws IOException {
+        out.append("====== REPORTE ÓRDENES PREVENTIVAS ======\n\n");
 
         List<OrdenPreventiva> lista = ordenPreventivaService.obtenerOrdenesPreventivas();
 
         if (lista.isEmpty()) {
-            sb.append("No existen órdenes preventivas registradas.\n");
-            return sb.toString();
+            out.append("No existen órdenes preventivas registradas.\n");
+            return;
         }
 
         for (OrdenPreventiva op : lista) {
-            sb.append("ID Orden: ").append(op.getIdOrden()).append("\n");
-            sb.append("Equipo: ").append(op.getEquipoAsociado().getDescripcion()).append("\n");
-            sb.append("Fase: ").append(op.getFase().getDescripcion()).append("\n");
-            sb.append("Estado: ").append(op.getEstado()).append("\n");
-            sb.append("Fecha Programada: ").append(op.getFechaProgramada()).append("\n");
+            linea(out, "ID Orden: ", op.getIdOrden());
+            linea(out, "Equipo: ", op.getEquipoAsociado().getDescripcion());
+            linea(out, "Fase: ", op.getFase().getDescripcion());
+            linea(out, "Estado: ", op.getEstado());
+            linea(out, "Fecha Programada: ", op.getFechaProgramada());
 
             if (op.getFechaEjecucion() != null) {
-                sb.append("Fecha Ejecución: ").append(op.getFechaEjecucion()).append("\n");
-                sb.append("Técnico: ").append(op.getTecnicoAsignado()).append("\n");
-                sb.append("Diagnóstico Final: ").append(op.getDiagnosticoFinal()).append("\n");
+                linea(out, "Fecha Ejecución: ", op.getFechaEjecucion());
+                linea(out, "Técnico: ", op.getTecnicoAsignado());
+                linea(out, "Diagnóstico Final: ", op.getDiagnosticoFinal());
             }
 
-            sb.append("----------\n");
+            out.append("----------\n");
         }
-
-        return sb.toString();
     }
 
     /**
-     * Genera un reporte con la información sobre órdenes correctivas registradas.
+     * Escribe el reporte de órdenes correctivas registradas.
      *
-     * @return texto resumen de órdenes correctivas.
+     * @param out destino del reporte
+     * @throws IOException si falla la escritura
      */
-    public String generarReporteOrdenesCorrectivas() {
-
-        StringBuilder sb = new StringBuilder();
-        sb.append("====== REPORTE ÓRDENES CORRECTIVAS ======\n\n");
+    public void escribirReporteOrdenesCorrectivas(Appendable out) throws IOException {
+        out.append("====== REPORTE ÓRDENES CORRECTIVAS ======\n\n");
 
         List<OrdenCorrectiva> lista = ordenCorrectivaService.obtenerOrdenesCorrectivas();
 
         if (lista.isEmpty()) {
-            sb.append("No existen órdenes correctivas registradas.\n");
-            return sb.toString();
+            out.append("No existen órdenes correctivas registradas.\n");
+            return;
         }
 
         for (OrdenCorrectiva oc : lista) {
-            sb.append("ID Orden: ").append(oc.getIdOrdenCorrectiva()).append("\n");
-            sb.append("Equipo: ").append(oc.getEquipoAsociado().getDescripcion()).append("\n");
-            sb.append("Estado: ").append(oc.getEstado()).append("\n");
-            sb.append("Fecha Reporte: ").append(oc.getFechaReporte()).append("\n");
-            sb.append("Descripción Falla: ").append(oc.getDescripcionFalla()).append("\n");
-            sb.append("Causa: ").append(oc.getCausaFalla()).append("\n");
+            linea(out, "ID Orden: ", oc.getIdOrdenCorrectiva());
+            linea(out, "Equipo: ", oc.getEquipoAsociado().getDescripcion());
+            linea(out, "Estado: ", oc.getEstado());
+            linea(out, "Fecha Reporte: ", oc.getFechaReporte());
+            linea(out, "Descripción Falla: ", oc.getDescripcionFalla());
+            linea(out, "Causa: ", oc.getCausaFalla());
 
             if (oc.getFechaFinalizacion() != null) {
-                sb.append("Fecha Finalización: ").append(oc.getFechaFinalizacion()).append("\n");
-                sb.append("Acciones: ").append(oc.getAccionesRealizadas()).append("\n");
-                sb.append("Costo: ").append(oc.getCostoReparacion()).append("\n");
+                linea(out, "Fecha Finalización: ", oc.getFechaFinalizacion());
+                linea(out, "Acciones: ", oc.getAccionesRealizadas());
+                linea(out, "Costo: ", oc.getCostoReparacion());
             }
 
-            sb.append("----------\n");
+            out.append("----------\n");
         }
-
-        return sb.toString();
     }
 
     /**
-     * Genera un reporte con la información básica de los programas preventivos.
+     * Escribe el reporte de programas preventivos.
      *
-     * @return texto resumen de programas preventivos.
+     * @param out destino del reporte
+     * @throws IOException si falla la escritura
      */
-    public String generarReporteProgramasPreventivos() {
-
-        StringBuilder sb = new StringBuilder();
-        sb.append("====== REPORTE PROGRAMAS PREVENTIVOS ======\n\n");
+    public void escribirReporteProgramasPreventivos(Appendable out) throws IOException {
+        out.append("====== REPORTE PROGRAMAS PREVENTIVOS ======\n\n");
 
         List<ProgramaPreventivo> programas = programaPreventivoService.obtenerProgramasPreventivos();
 
         if (programas.isEmpty()) {
-            sb.append("No existen programas preventivos registrados.\n");
-            return sb.toString();
+            out.append("No existen programas preventivos registrados.\n");
+            return;
         }
 
         for (ProgramaPreventivo pp : programas) {
-            sb.append("ID Programa: ").append(pp.getIdPrograma()).append("\n");
-            sb.append("Fecha Creación: ").append(pp.getFechaCreacion()).append("\n");
-            sb.append("Responsable: ").append(pp.getResponsable()).append("\n");
-            sb.append("Fases registradas: ").append(pp.getFases().size()).append("\n");
-            sb.append("----------\n");
+            linea(out, "ID Programa: ", pp.getIdPrograma());
+            linea(out, "Fecha Creación: ", pp.getFechaCreacion());
+            linea(out, "Responsable: ", pp.getResponsable());
+            linea(out, "Fases registradas: ", pp.getFases().size());
+            out.append("----------\n");
         }
-
-        return sb.toString();
     }
 
-    /**
-     * Genera un reporte consolidado que integra los reportes
-     * de equipos, órdenes preventivas, correctivas y programas preventivos.
-     *
-     * @return texto completo del reporte general.
-     */
-    public String generarReporteGeneral() {
-
-        StringBuilder sb = new StringBuilder();
-
-        sb.append("========= REPORTE GENERAL MANTENIMIENTO =========\n\n");
-
-        sb.append(generarReporteEquipos()).append("\n");
-        sb.append(generarReporteOrdenesPreventivas()).append("\n");
-        sb.append(generarReporteOrdenesCorrectivas()).append("\n");
-        sb.append(generarReporteProgramasPreventivos()).append("\n");
-
-        sb.append("======== FIN DEL REPORTE ========");
-
-        return sb.toString();
+    /** Escribe "etiqueta valor" y un salto de línea, sin concatenar en memoria. */
+    private static void linea(Appendable out, String etiqueta, Object valor) throws IOException {
+        out.append(etiqueta).append(String.valueOf(valor)).append('\n');
     }
 }
-
@@ -1,19 +1,30 @@
 package org.example;
 
 import java.awt.*;
-import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
 import javax.swing.*;
 
 /**
  * Ventana para visualización y exportación de reportes del sistema
  * relacionados con usuarios, técnicos, equipos, órdenes preventivas,
- * correctivas, inventario de repuestos y auditoría.
+ * correctivas, inventario de repuestos y auditoría. El reporte general
+ * de mantenimiento se escribe directamente en un archivo PDF, en segundo
+ * plano.
  */
 public class ReportesFrame extends JFrame {
 
     private SistemaMantenimiento sistema;
     private JTextArea areaSalida;
+    private JButton btnGenerar;
+    private JProgressBar barraCarga;
+
+    /** Escritura del reporte general en curso, o null. */
+    private SwingWorker<Void, Void> escrituraGeneral;
 
     /**
      * Constructor que recibe el sistema de mantenimiento como dependencia.
@@ -34,12 +45,13 @@ public class ReportesFrame extends JFrame {
                 "Órdenes Preventivas",
                 "Órdenes Correctivas",
                 "Inventario de Repuestos",
-                "Auditoría del Sistema"
+                "Auditoría del Sistema",
+                "Reporte General (archivo)"
         };
 
         JComboBox<String> combo = new JComboBox<>(opciones);
 
-        JButton btnGenerar = new JButton("Generar Reporte");
+        btnGenerar = new JButton("Generar Reporte");
         btnGenerar.addActionListener(e -> generarReporte(combo.getSelectedItem().toString()));
 
         JButton btnExportar = new JButton("Exportar Reporte");
@@ -57,6 +69,9 @@ public class ReportesFrame extends JFrame {
         areaSalida = new JTextArea();
         areaSalida.setEditable(false);
         add(new JScrollPane(areaSalida), BorderLayout.CENTER);
+
+        barraCarga = CargaEnSegundoPlano.crearBarraProgreso();
+        add(barraCarga, BorderLayout.SOUTH);
     }
 
     /**
@@ -93,6 +108,10 @@ public class ReportesFrame extends JFrame {
             case "Auditoría del Sistema":
                 mostrarAuditoria();
                 break;
+
+            case "Reporte General (archivo)":
+                guardarReporteGeneral();
+                break;
         }
     }
 
@@ -133,99 +152,78 @@ public class ReportesFrame extends JFrame {
         lista.forEach(a -> areaSalida.append(a + "\n"));
     }
 
-    // ==================== Exportar reporte generado a PDF simple ==================== //
+    // ==================== Reporte general directo a archivo ==================== //
 
     /**
-     * Exporta el contenido del área de texto a un archivo PDF simple generado manualmente.
+     * Escribe el reporte general de mantenimiento directamente en un PDF,
+     * sin cargarlo en el área de texto: con la flota completa puede ocupar
+     * cientos de MB. La escritura corre en segundo plano; mientras dura se
+     * muestra la barra de progreso y no se puede generar otro reporte.
      */
-    private void exportarReporte() {
-
-        if (areaSalida.getText().isBlank()) {
-            JOptionPane.showMessageDialog(this, "Nada para exportar");
-            return;
-        }
-
-        try {
-            String ruta = System.getProperty("user.home") + "/Documents/reporte.pdf";
-            FileOutputStream fos = new FileOutputStream(ruta);
-
-            // Cabecera básica PDF
-            fos.write("%PDF-1.4\n".getBytes());
-
-            // OBJETO 1: Catálogo
-            long pos1 = fos.getChannel().position();
-            fos.write("1 0 obj << /Type /Catalog /Pages 2 0 R >> endobj\n".getBytes());
-
-            // OBJETO 2: Conjunto de páginas
-            long pos2 = fos.getChannel().position();
-            fos.write("2 0 obj << /Type /Pages /Kids [3 0 R] /Count 1 >> endobj\n".getBytes());
-
-            // OBJETO 3: Página
-            long pos3 = fos.getChannel().position();
-            fos.write(
-                ("3 0 obj << /Type /Page /Parent 2 0 R /MediaBox [0 0 595 842] " +
-                "/Contents 4 0 R /Resources << /Font << /F1 5 0 R >> >> >> endobj\n").getBytes()
-            );
-
-            // Construcción del contenido de texto PDF
-            StringBuilder contenido = new StringBuilder();
-            contenido.append("BT\n");
-            contenido.append("/F1 12 Tf\n");
-
-            int y = 800;
-
-            for (String linea : areaSalida.getText().split("\n")) {
+    private void guardarReporteGeneral() {
+        if (escrituraGeneral != null && !escrituraGeneral.isDone()) return;
+
+        Path ruta = Paths.get(System.getProperty("user.home"), "Documents", "reporte_general.pdf");
+        areaSalida.setText("Generando reporte general en:\n" + ruta + "\n");
+        btnGenerar.setEnabled(false);
+        barraCarga.setIndeterminate(true);
+        barraCarga.setString("Generando reporte general...");
+        barraCarga.setVisible(true);
+
+        escrituraGeneral = new SwingWorker<>() {
+            @Override
+            protected Void doInBackground() throws IOException {
+                sistema.crearReporteGeneral().guardarReporteGeneral(ruta);
+                return null;
+            }
 
-                if (y < 50) {
-                    y = 800;
+            @Override
+            protected void done() {
+                barraCarga.setVisible(false);
+                btnGenerar.setEnabled(true);
+                if (isCancelled()) return;
+                try {
+                    get();
+                    areaSalida.setText("Reporte general guardado en:\n" + ruta + "\n");
+                } catch (InterruptedException | ExecutionException e) {
+                    Throwable causa = e.getCause() != null ? e.getCause() : e;
+                    areaSalida.setText("");
+                    JOptionPane.showMessageDialog(ReportesFrame.this,
+                            "Error guardando el reporte general:\n" + causa.getMessage());
                 }
-
-                contenido.append(String.format("1 0 0 1 40 %d Tm\n", y));
-                contenido.append("("
-                        + linea.replace("(", "[").replace(")", "]")
-                        + ") Tj\n");
-
-                y -= 16;
             }
+        };
+        escrituraGeneral.execute();
+    }
 
-            contenido.append("ET\n");
-
-            byte[] datos = contenido.toString().getBytes();
-
-            // OBJETO 4: Stream de contenido
-            long pos4 = fos.getChannel().position();
-            fos.write(("4 0 obj << /Length " + datos.length + " >> stream\n").getBytes());
-            fos.write(datos);
-            fos.write("\nendstream\nendobj\n".getBytes());
-
-            // OBJETO 5: Fuente
-            long pos5 = fos.getChannel().position();
-            fos.write("5 0 obj << /Type /Font /Subtype /Type1 /BaseFont /Helvetica >> endobj\n".getBytes());
-
-            // Construcción del índice xref
-            long startxref = fos.getChannel().position();
-            fos.write("xref\n".getBytes());
-            fos.write("0 6\n".getBytes());
-            fos.write("0000000000 65535 f \n".getBytes());
-            fos.write(String.format("%010d 00000 n \n", pos1).getBytes());
-            fos.write(String.format("%010d 00000 n \n", pos2).getBytes());
-            fos.write(String.format("%010d 00000 n \n", pos3).getBytes());
-            fos.write(String.format("%010d 00000 n \n", pos4).getBytes());
-            fos.write(String.format("%010d 00000 n \n", pos5).getBytes());
-
-            // Trailer final
-            fos.write(("trailer << /Size 6 /Root 1 0 R >>\nstartxref\n" +
-                    startxref + "\n%%EOF").getBytes());
+    // ==================== Exportar reporte generado a PDF ==================== //
 
-            fos.close();
+    /**
+     * Exporta el contenido del área de texto a un PDF de varias páginas,
+     * escribiendo cada página a medida que se completa.
+     */
+    private void exportarReporte() {
 
-            JOptionPane.showMessageDialog(this, "PDF exportado en:\n" + ruta);
+        if (areaSalida.getText().isBlank()) {
+            JOptionPane.showMessageDialog(this, "Nada para exportar");
+            return;
+        }
 
+        Path ruta = Paths.get(System.getProperty("user.home"), "Documents", "reporte.pdf");
+        try (EscritorPdf pdf = new EscritorPdf(Files.newOutputStream(ruta), 12, 16)) {
+            pdf.escribirLineas(areaSalida.getDocument());
+            JOptionPane.showMessageDialog(this, "PDF generado en:\n" + ruta);
         } catch (Exception e) {
             JOptionPane.showMessageDialog(this, "Error al exportar PDF: " + e.getMessage());
         }
     }
 
+    /** Al cerrar la ventana se cancela la escritura en curso del reporte general. */
+    @Override
+    public void dispose() {
+        CargaEnSegundoPlano.cancelar(escrituraGeneral);
+        super.dispose();
+    }
 }
 
 
@@ -0,0 +1,335 @@
+package org.example;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.ToIntFunction;
+
+/**
+ * Almacén genérico en memoria para entidades identificadas por un ID entero.
+ *
+ * Combina un {@link IndiceEntero} (ID → posición) con un arreglo que conserva
+ * el orden de inserción. Así la búsqueda, el registro con validación de ID
+ * duplicado y la eliminación cuestan O(1), mientras que la vista devuelta por
+ * {@link #obtenerTodos()} mantiene el mismo orden estable que tenían las
+ * listas de los servicios.
+ *
+ * Las eliminaciones dejan un hueco en el arreglo; los huecos se compactan de
+ * forma diferida cuando superan la mitad del almacenamiento o cuando hace
+ * falta espacio, de modo que el costo se amortiza entre las operaciones.
+ *
+ * Es seguro para uso concurrente. Las escrituras toman el cerrojo exclusivo
+ * de un {@link StampedLock}; las búsquedas por ID se resuelven con lectura
+ * optimista, sin escribir en memoria compartida, por lo que escalan con la
+ * cantidad de hilos lectores. El listado completo se entrega como una copia
+ * inmutable que se reutiliza mientras no haya escrituras.
+ *
+ * Los {@link OyenteRepositorio} registrados reciben aviso de cada alta y
+ * baja, ya fuera del cerrojo. Como las entidades se modifican fuera del
+ * repositorio, los servicios avisan de esas modificaciones con
+ * {@link #notificarActualizacion(Object)}.
+ *
+ * @param <T> tipo de entidad almacenada
+ */
+public class Repository<T> {
+
+    /** Función que extrae el identificador de cada entidad. */
+    private final ToIntFunction<T> extractorId;
+
+    /** Índice primario: ID de la entidad → posición en {@link #elementos}. */
+    private final IndiceEntero indice;
+
+    /** Entidades en orden de inserción; las posiciones eliminadas quedan en null. */
+    private Object[] elementos;
+
+    /** Posiciones usadas del arreglo, incluyendo huecos. */
+    private int ocupadas;
+
+    /** Cantidad de huecos pendientes de compactar. */
+    private int huecos;
+
+    /** Protege todos los campos anteriores. */
+    private final StampedLock cerrojo = new StampedLock();
+
+    /**
+     * Copia inmutable del contenido entregada por {@link #obtenerTodos()};
+     * null cuando una escritura la invalidó.
+     */
+    private volatile List<T> instantanea = Collections.emptyList();
+
+    /** Oyentes de altas, bajas y modificaciones. */
+    private final List<OyenteRepositorio<T>> oyentes = new CopyOnWriteArrayList<>();
+
+    /**
+     * Crea un repositorio vacío.
+     *
+     * @param extractorId función que obtiene el ID de cada entidad
+     */
+    public Repository(ToIntFunction<T> extractorId) {
+        this.extractorId = extractorId;
+        this.indice = new IndiceEntero();
+        this.elementos = new Object[16];
+    }
+
+    /**
+     * Registra una entidad si su ID no existe previamente.
+     *
+     * @param entidad entidad a registrar
+     * @return true si se agregó; false si ya existía otra con el mismo ID
+     */
+    public boolean agregar(T entidad) {
+        int id = extractorId.applyAsInt(entidad);
+        long sello = cerrojo.writeLock();
+        try {
+            if (indice.contiene(id)) {
+                return false;
+            }
+            if (ocupadas == elementos.length) {
+                if (huecos > 0) {
+                    compactar();
+                }
+                if (ocupadas == elementos.length) {
+                    elementos = Arrays.copyOf(elementos, elementos.length << 1);
+                }
+            }
+            elementos[ocupadas] = entidad;
+            indice.asignar(id, ocupadas);
+            ocupadas++;
+            instantanea = null;
+        } finally {
+            cerrojo.unlockWrite(sello);
+        }
+        for (OyenteRepositorio<T> oyente : oyentes) oyente.entidadAgregada(entidad);
+        return true;
+    }
+
+    /**
+     * Registra varias entidades tomando el cerrojo exclusivo una sola vez.
+     * Las que tienen un ID ya registrado, incluso dentro del mismo lote, se
+     * omiten.
+     *
+     * @param entidades entidades a registrar, en orden
+     * @return entidades efectivamente agregadas, en el mismo orden
+     */
+    public List<T> agregarTodos(List<T> entidades) {
+        List<T> agregadas = new ArrayList<>(entidades.size());
+        long sello = cerrojo.writeLock();
+        try {
+            for (T entidad : entidades) {
+                int id = extractorId.applyAsInt(entidad);
+                if (indice.contiene(id)) {
+                    continue;
+                }
+                if (ocupadas == elementos.length) {
+                    if (huecos > 0) {
+                        compactar();
+                    }
+                    if (ocupadas == elementos.length) {
+                        elementos = Arrays.copyOf(elementos,
+                                Math.max(elementos.length << 1, ocupadas + entidades.size()));
+                    }
+                }
+                elementos[ocupadas] = entidad;
+                indice.asignar(id, ocupadas);
+                ocupadas++;
+                agregadas.add(entidad);
+            }
+            if (!agregadas.isEmpty()) {
+                instantanea = null;
+            }
+        } finally {
+            cerrojo.unlockWrite(sello);
+        }
+        for (T entidad : agregadas) {
+            for (OyenteRepositorio<T> oyente : oyentes) oyente.entidadAgregada(entidad);
+        }
+        return agregadas;
+    }
+
+    /**
+     * Busca una entidad por su ID.
+     *
+     * @param id identificador buscado
+     * @return entidad encontrada o null si no existe
+     */
+    @SuppressWarnings("unchecked")
+    public T buscar(int id) {
+        long sello = cerrojo.tryOptimisticRead();
+        if (sello != 0) {
+            try {
+                Object[] arreglo = elementos;
+                int posicion = indice.obtener(id);
+                Object encontrado = posicion == IndiceEntero.AUSENTE ? null : arreglo[posicion];
+                if (cerrojo.validate(sello)) {
+                    return (T) encontrado;
+                }
+            } catch (ArrayIndexOutOfBoundsException e) {
+                // Lectura cruzada con una escritura: se repite con cerrojo
+            }
+        }
+        sello = cerrojo.readLock();
+        try {
+            int posicion = indice.obtener(id);
+            return posicion == IndiceEntero.AUSENTE ? null : (T) elementos[posicion];
+        } finally {
+            cerrojo.unlockRead(sello);
+        }
+    }
+
+    /**
+     * Indica si existe una entidad con el ID indicado.
+     *
+     * @param id identificador buscado
+     * @return true si está registrado
+     */
+    public boolean contiene(int id) {
+        long sello = cerrojo.tryOptimisticRead();
+        if (sello != 0) {
+            try {
+                boolean contiene = indice.contiene(id);
+                if (cerrojo.validate(sello)) {
+                    return contiene;
+                }
+            } catch (ArrayIndexOutOfBoundsException e) {
+                // Lectura cruzada con una escritura: se repite con cerrojo
+            }
+        }
+        sello = cerrojo.readLock();
+        try {
+            return indice.contiene(id);
+        } finally {
+            cerrojo.unlockRead(sello);
+        }
+    }
+
+    /**
+     * Elimina la entidad con el ID indicado.
+     *
+     * @param id identificador a eliminar
+     * @return entidad eliminada o null si no existía
+     */
+    @SuppressWarnings("unchecked")
+    public T eliminar(int id) {
+        T eliminado;
+        long sello = cerrojo.writeLock();
+        try {
+            int posicion = indice.eliminar(id);
+            if (posicion == IndiceEntero.AUSENTE) {
+                return null;
+            }
+            eliminado = (T) elementos[posicion];
+            elementos[posicion] = null;
+            huecos++;
+            instantanea = null;
+
+            if (huecos > (ocupadas >> 1)) {
+                compactar();
+            }
+        } finally {
+            cerrojo.unlockWrite(sello);
+        }
+        for (OyenteRepositorio<T> oyente : oyentes) oyente.entidadEliminada(eliminado);
+        return eliminado;
+    }
+
+    /**
+     * Avisa a los oyentes que cambiaron los datos de una entidad registrada.
+     *
+     * @param entidad entidad modificada
+     */
+    public void notificarActualizacion(T entidad) {
+        for (OyenteRepositorio<T> oyente : oyentes) oyente.entidadActualizada(entidad);
+    }
+
+    /**
+     * Suscribe un oyente a las altas, bajas y modificaciones.
+     *
+     * @param oyente oyente a registrar
+     */
+    public void agregarOyente(OyenteRepositorio<T> oyente) {
+        oyentes.add(oyente);
+    }
+
+    /**
+     * Cancela la suscripción de un oyente.
+     *
+     * @param oyente oyente a quitar
+     */
+    public void quitarOyente(OyenteRepositorio<T> oyente) {
+        oyentes.remove(oyente);
+    }
+
+    /** @return cantidad de entidades registradas */
+    public int tamanio() {
+        long sello = cerrojo.tryOptimisticRead();
+        int tamanio = ocupadas - huecos;
+        if (cerrojo.validate(sello)) {
+            return tamanio;
+        }
+        sello = cerrojo.readLock();
+        try {
+            return ocupadas - huecos;
+        } finally {
+            cerrojo.unlockRead(sello);
+        }
+    }
+
+    /**
+     * Devuelve las entidades en orden de inserción como una copia inmutable y
+     * consistente: no refleja los cambios posteriores, y puede recorrerse
+     * mientras otros hilos escriben. Mientras el repositorio no cambie se
+     * entrega la misma copia, sin costo.
+     *
+     * @return lista inmodificable con las entidades registradas
+     */
+    @SuppressWarnings("unchecked")
+    public List<T> obtenerTodos() {
+        List<T> copia = instantanea;
+        if (copia != null) {
+            return copia;
+        }
+        long sello = cerrojo.readLock();
+        try {
+            copia = instantanea;
+            if (copia == null) {
+                Object[] vivos = new Object[ocupadas - huecos];
+                int n = 0;
+                for (int i = 0; i < ocupadas; i++) {
+                    if (elementos[i] != null) vivos[n++] = elementos[i];
+                }
+                // Se publica con el cerrojo tomado: ninguna escritura puede
+                // invalidarla entre la copia y la asignación
+                copia = (List<T>) Collections.unmodifiableList(Arrays.asList(vivos));
+                instantanea = copia;
+            }
+            return copia;
+        } finally {
+            cerrojo.unlockRead(sello);
+        }
+    }
+
+    /**
+     * Elimina los huecos dejados por las eliminaciones, desplazando las
+     * entidades restantes sin alterar su orden relativo. Requiere el cerrojo
+     * exclusivo.
+     */
+    @SuppressWarnings("unchecked")
+    private void compactar() {
+        int destino = 0;
+        for (int origen = 0; origen < ocupadas; origen++) {
+            Object e = elementos[origen];
+            if (e == null) continue;
+            if (origen != destino) {
+                elementos[destino] = e;
+                indice.asignar(extractorId.applyAsInt((T) e), destino);
+            }
+            destino++;
+        }
+        Arrays.fill(elementos, destino, ocupadas, null);
+        ocupadas = destino;
+        huecos = 0;
+    }
+}
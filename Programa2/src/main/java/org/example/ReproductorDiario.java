@@ -0,0 +1,268 @@
+package org.example;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Traduce los registros del {@link DiarioOperaciones} a llamadas sobre los
+ * controladores del sistema, reconstruyendo el estado en el mismo orden en
+ * que se produjo.
+ *
+ * Las referencias a otras entidades se guardan en el diario como IDs y se
+ * resuelven aquí contra el estado ya reproducido; un ID 0 representa una
+ * referencia vacía. También concentra la codificación de los objetos que
+ * los controladores reciben completos (fases y componentes).
+ */
+public class ReproductorDiario implements DiarioOperaciones.Reproductor {
+
+    private final SistemaMantenimiento sistema;
+
+    /**
+     * @param sistema sistema cuyos controladores reciben las operaciones
+     */
+    public ReproductorDiario(SistemaMantenimiento sistema) {
+        this.sistema = sistema;
+    }
+
+    @Override
+    public void aplicar(DiarioOperaciones.Operacion operacion, DiarioOperaciones.Entrada in)
+            throws IOException {
+
+        EquipoController equipos = sistema.getEquipoController();
+        OrdenPreventivaController preventivas = sistema.getOrdenPreventivaController();
+        OrdenCorrectivaController correctivas = sistema.getOrdenCorrectivaController();
+        InventarioRepuestosController inventario = sistema.getInventarioRepuestosController();
+        ProgramaPreventivoController programas = sistema.getProgramaPreventivoController();
+
+        switch (operacion) {
+            case CREAR_EQUIPO -> {
+                Equipo e = leerEquipo(in);
+                equipos.crearEquipo(e.getId(), e.getDescripcion(), e.getTipo(), e.getUbicacion(),
+                        e.getFabricante(), e.getSerie(), e.getFechaAdquisicion(),
+                        e.getFechaPuestaEnServicio(), e.getMesesVidaUtil(), e.getCostoInicial(),
+                        e.getEstado(), e.getModelo(), e.getDimensiones(), e.getPeso());
+            }
+            case ELIMINAR_EQUIPO -> equipos.eliminarEquipo(in.readInt());
+            case ACTUALIZAR_UBICACION_EQUIPO -> equipos.actualizarUbicacion(in.readInt(), in.leerTexto());
+            case ACTUALIZAR_ESTADO_EQUIPO ->
+                    equipos.actualizarEstado(in.readInt(), in.leerEnum(Equipo.EstadoEquipo.class));
+            case ASIGNAR_PROGRAMA_EQUIPO -> {
+                int idEquipo = in.readInt();
+                equipos.asignarProgramaPreventivo(idEquipo, programas.buscarPrograma(in.readInt()));
+            }
+            case AGREGAR_COMPONENTE_EQUIPO -> equipos.agregarComponente(in.readInt(), leerEquipo(in));
+
+            case CREAR_ORDEN_PREVENTIVA -> {
+                int idOrden = in.readInt();
+                LocalDate fecha = in.leerFecha();
+                Equipo equipo = equipos.buscarEquipo(in.readInt());
+                FasePreventiva fase = leerFase(in);
+                Tecnico tecnico = buscarTecnico(in.readInt());
+                preventivas.crearOrdenDesdeAutoGeneracion(idOrden, fecha, equipo, fase, tecnico);
+            }
+            case INICIAR_ORDEN_PREVENTIVA -> preventivas.iniciarOrden(in.readInt(), in.leerFecha());
+            case COMPLETAR_ORDEN_PREVENTIVA -> {
+                int idOrden = in.readInt();
+                LocalDate fecha = in.leerFecha();
+                double tiempo = in.readDouble();
+                String diagnostico = in.leerTexto();
+                preventivas.completarOrden(idOrden, fecha, tiempo, diagnostico, buscarTecnico(in.readInt()));
+            }
+            case COMPLETAR_ORDEN_PREVENTIVA_CON_REPUESTOS -> {
+                int idOrden = in.readInt();
+                LocalDate fecha = in.leerFecha();
+                double tiempo = in.readDouble();
+                String diagnostico = in.leerTexto();
+                Tecnico tecnico = buscarTecnico(in.readInt());
+                Map<Integer, Integer> consumos = new LinkedHashMap<>();
+                for (int n = in.readInt(); n > 0; n--) {
+                    consumos.put(in.readInt(), in.readInt());
+                }
+                preventivas.completarOrdenConRepuestos(idOrden, fecha, tiempo, diagnostico, tecnico, consumos);
+            }
+            case CANCELAR_ORDEN_PREVENTIVA -> preventivas.cancelarOrden(in.readInt(), in.leerTexto());
+            case AGREGAR_MATERIAL_ORDEN_PREVENTIVA -> preventivas.agregarMaterial(in.readInt(), in.leerTexto());
+
+            case CREAR_ORDEN_CORRECTIVA -> {
+                int idOrden = in.readInt();
+                LocalDate fecha = in.leerFecha();
+                Equipo equipo = equipos.buscarEquipo(in.readInt());
+                correctivas.crearOrdenCorrectiva(idOrden, fecha, equipo, in.leerTexto(), in.leerTexto(),
+                        in.leerEnum(OrdenCorrectiva.Prioridad.class), in.leerTexto());
+            }
+            case INICIAR_ORDEN_CORRECTIVA -> correctivas.iniciarAtencion(in.readInt(), in.leerFecha());
+            case FINALIZAR_ORDEN_CORRECTIVA -> correctivas.finalizarOrden(in.readInt(), in.leerFecha(),
+                    in.leerTexto(), in.leerTexto(), in.readDouble(), in.readDouble());
+            case MARCAR_NO_REPARADA_ORDEN_CORRECTIVA -> correctivas.marcarNoReparada(in.readInt(), in.leerTexto());
+            case ACTUALIZAR_COSTO_ORDEN_CORRECTIVA ->
+                    correctivas.actualizarCostoReparacion(in.readInt(), in.readDouble());
+
+            case AGREGAR_REPUESTO -> inventario.agregarRepuesto(in.readInt(), in.leerTexto(), in.leerTexto(),
+                    in.readInt(), in.readInt(), in.leerTexto(), in.readDouble());
+            case ENTRADA_REPUESTO -> inventario.registrarEntrada(in.readInt(), in.readInt(),
+                    in.leerTexto(), in.leerTexto(), in.leerFecha());
+            case SALIDA_REPUESTO -> inventario.registrarSalida(in.readInt(), in.readInt(),
+                    in.leerTexto(), in.leerTexto(), in.leerFecha());
+            case AJUSTE_REPUESTO -> inventario.registrarAjuste(in.readInt(), in.readInt(),
+                    in.leerTexto(), in.leerFecha());
+            case RESERVAR_REPUESTOS -> {
+                String referencia = in.leerTexto();
+                LocalDate fecha = in.leerFecha();
+                LocalDate vencimiento = in.leerFecha();
+                Map<Integer, Integer> lineas = new LinkedHashMap<>();
+                for (int n = in.readInt(); n > 0; n--) {
+                    lineas.put(in.readInt(), in.readInt());
+                }
+                inventario.reservarRepuestos(referencia, lineas, fecha, vencimiento);
+            }
+            case CONFIRMAR_RESERVA_REPUESTOS -> inventario.confirmarReserva(in.leerTexto(),
+                    in.leerTexto(), in.leerFecha());
+            case LIBERAR_RESERVA_REPUESTOS -> {
+                String referencia = in.leerTexto();
+                ReservaRepuestos reserva = inventario.buscarReserva(referencia);
+                if (reserva != null) {
+                    inventario.liberarReserva(reserva, in.leerEnum(ReservaRepuestos.EstadoReserva.class));
+                }
+            }
+
+            case CREAR_PROGRAMA -> programas.crearProgramaPreventivo(in.readInt(), in.leerTexto(),
+                    in.leerTexto(), in.leerFecha(), in.leerTexto());
+            case ELIMINAR_PROGRAMA -> programas.eliminarPrograma(in.readInt());
+            case AGREGAR_FASE_PROGRAMA -> programas.agregarFaseAPrograma(in.readInt(), leerContenidoFase(in));
+            case ELIMINAR_FASE_PROGRAMA -> programas.eliminarFaseDePrograma(in.readInt(), in.readInt());
+            case AGREGAR_TAREA_FASE -> programas.agregarTareaAFase(in.readInt(), in.readInt(), in.leerTexto());
+            case AGREGAR_RECURSO_FASE -> programas.agregarRecursoAFase(in.readInt(), in.readInt(), in.leerTexto());
+            case ACTUALIZAR_FASE -> programas.actualizarFase(in.readInt(), in.readInt(),
+                    in.leerEnum(FasePreventiva.Frecuencia.class), in.readDouble(), in.leerTexto());
+
+            case CREAR_FALLA -> sistema.getFallaController().crearFalla(in.readInt(), in.leerTexto());
+            case ELIMINAR_FALLA -> sistema.getFallaController().eliminarFalla(in.readInt());
+
+            case CREAR_TECNICO -> sistema.getTecnicoController().crearTecnico(in.readInt(), in.leerTexto(),
+                    in.leerTexto(), in.leerTexto(), in.leerTexto());
+            case CAMBIAR_ESTADO_TECNICO -> sistema.getTecnicoController().cambiarEstado(in.readInt(), in.readBoolean());
+            case AGREGAR_CERTIFICACION_TECNICO ->
+                    sistema.getTecnicoController().agregarCertificacion(in.readInt(), in.leerTexto());
+            case ELIMINAR_TECNICO -> sistema.getTecnicoController().eliminarTecnico(in.readInt());
+
+            // Los diarios anteriores guardan la contraseña en claro; decodificar la convierte
+            case CREAR_USUARIO -> sistema.getUsuarioController().crearUsuario(in.readInt(), in.leerTexto(),
+                    in.leerTexto(), HashPassword.decodificar(in.leerTexto()), in.leerEnum(Rol.class),
+                    in.leerTexto(), in.leerTexto());
+            case CAMBIAR_ESTADO_USUARIO ->
+                    sistema.getUsuarioController().cambiarEstadoUsuario(in.readInt(), in.readBoolean());
+            case CAMBIAR_PASSWORD_USUARIO -> sistema.getUsuarioController().cambiarPassword(in.readInt(),
+                    HashPassword.decodificar(in.leerTexto()));
+            case ELIMINAR_USUARIO -> sistema.getUsuarioController().eliminarUsuario(in.readInt());
+
+            // Solo en diarios anteriores a los segmentos de auditoría
+            case REGISTRAR_AUDITORIA -> sistema.getAuditoriaController().cargarRegistros(List.of(
+                    new AuditoriaMantenimiento(in.leerTexto(), in.leerTexto(), in.leerTexto(), in.leerTexto(),
+                            in.leerFechaHora())));
+        }
+    }
+
+    private Tecnico buscarTecnico(int id) {
+        return id == 0 ? null : sistema.getTecnicoController().buscarTecnico(id);
+    }
+
+    // ======================================================
+    // CODIFICACIÓN DE OBJETOS COMPLETOS
+    // ======================================================
+
+    /**
+     * Escribe los datos de registro de un equipo.
+     *
+     * @param out    flujo del diario
+     * @param equipo equipo a codificar
+     */
+    public static void escribirEquipo(DiarioOperaciones.Salida out, Equipo equipo) throws IOException {
+        out.writeInt(equipo.getId());
+        out.escribirTexto(equipo.getDescripcion());
+        out.escribirTexto(equipo.getTipo());
+        out.escribirTexto(equipo.getUbicacion());
+        out.escribirTexto(equipo.getFabricante());
+        out.escribirTexto(equipo.getSerie());
+        out.escribirFecha(equipo.getFechaAdquisicion());
+        out.escribirFecha(equipo.getFechaPuestaEnServicio());
+        out.writeInt(equipo.getMesesVidaUtil());
+        out.writeDouble(equipo.getCostoInicial());
+        out.escribirEnum(equipo.getEstado());
+        out.escribirTexto(equipo.getModelo());
+        out.escribirTexto(equipo.getDimensiones());
+        out.writeDouble(equipo.getPeso());
+    }
+
+    private static Equipo leerEquipo(DiarioOperaciones.Entrada in) throws IOException {
+        return new Equipo(in.readInt(), in.leerTexto(), in.leerTexto(), in.leerTexto(),
+                in.leerTexto(), in.leerTexto(), in.leerFecha(), in.leerFecha(), in.readInt(),
+                in.readDouble(), in.leerEnum(Equipo.EstadoEquipo.class), in.leerTexto(),
+                in.leerTexto(), in.readDouble());
+    }
+
+    /**
+     * Escribe una referencia a una fase. Si ya pertenece a un programa basta
+     * con el programa y el número; si no, se escribe su contenido completo.
+     *
+     * @param out  flujo del diario
+     * @param fase fase a codificar
+     */
+    public static void escribirFase(DiarioOperaciones.Salida out, FasePreventiva fase) throws IOException {
+        ProgramaPreventivo programa = fase.getPrograma();
+        out.writeInt(programa == null ? 0 : programa.getIdPrograma());
+        if (programa != null) {
+            out.writeInt(fase.getNumeroFase());
+        } else {
+            escribirContenidoFase(out, fase);
+        }
+    }
+
+    /**
+     * Escribe todos los datos de una fase.
+     *
+     * @param out  flujo del diario
+     * @param fase fase a codificar
+     */
+    public static void escribirContenidoFase(DiarioOperaciones.Salida out, FasePreventiva fase)
+            throws IOException {
+        out.writeInt(fase.getNumeroFase());
+        out.escribirTexto(fase.getDescripcion());
+        out.escribirEnum(fase.getFrecuencia());
+        out.writeInt(fase.getIntervaloDias());
+        out.writeInt(fase.getCantidadCiclos());
+        out.writeDouble(fase.getTiempoEstimadoHoras());
+        out.escribirTexto(fase.getObservaciones());
+        out.writeInt(fase.getTareas().size());
+        for (String tarea : fase.getTareas()) out.escribirTexto(tarea);
+        out.writeInt(fase.getRecursosNecesarios().size());
+        for (String recurso : fase.getRecursosNecesarios()) out.escribirTexto(recurso);
+    }
+
+    private FasePreventiva leerFase(DiarioOperaciones.Entrada in) throws IOException {
+        int idPrograma = in.readInt();
+        if (idPrograma == 0) {
+            return leerContenidoFase(in);
+        }
+        int numeroFase = in.readInt();
+        ProgramaPreventivo programa = sistema.getProgramaPreventivoController().buscarPrograma(idPrograma);
+        return programa == null ? null : programa.obtenerFase(numeroFase);
+    }
+
+    private static FasePreventiva leerContenidoFase(DiarioOperaciones.Entrada in) throws IOException {
+        int numeroFase = in.readInt();
+        String descripcion = in.leerTexto();
+        FasePreventiva.Frecuencia frecuencia = in.leerEnum(FasePreventiva.Frecuencia.class);
+        int intervaloDias = in.readInt();
+        int ciclos = in.readInt();
+        FasePreventiva fase = new FasePreventiva(numeroFase, descripcion, intervaloDias, ciclos);
+        fase.setFrecuencia(frecuencia);
+        fase.setTiempoEstimadoHoras(in.readDouble());
+        fase.setObservaciones(in.leerTexto());
+        for (int i = in.readInt(); i > 0; i--) fase.agregarTarea(in.leerTexto());
+        for (int i = in.readInt(); i > 0; i--) fase.agregarRecurso(in.leerTexto());
+        return fase;
+    }
+}
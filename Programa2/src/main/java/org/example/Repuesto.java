@@ -1,15 +1,28 @@
 package org.example;
 
+import java.util.concurrent.atomic.AtomicLong;
+
 /**
  * Representa un repuesto o consumible del inventario de mantenimiento.
  * Lleva control de stock, ubicación en almacén y costo unitario.
+ *
+ * El stock es un contador atómico: entradas, salidas y ajustes son
+ * linealizables sin cerrojos, y una salida solo descuenta si hay
+ * existencias suficientes en el mismo instante en que se aplica.
+ *
+ * Junto al stock físico se lleva la cantidad reservada para órdenes
+ * (ver {@link ReservaRepuestos}). Ambos comparten una sola palabra atómica
+ * (stock en los 32 bits altos, reservado en los bajos), así que el
+ * disponible para comprometer, stock menos reservado, se obtiene con una
+ * lectura y se valida en el mismo compare-and-set que lo modifica.
  */
 public class Repuesto {
 
     private int id;
     private String nombre;
     private String descripcion;
-    private int stockActual;
+    /** Stock físico y cantidad reservada, empaquetados; ver {@link #empaquetar}. */
+    private final AtomicLong existencias;
     private int stockMinimo;
     private String ubicacionAlmacen; // Estantería, pasillo, etc.
     private double costoUnitario;
@@ -30,7 +43,7 @@ public class Repuesto {
         this.id = id;
         this.nombre = nombre;
         this.descripcion = descripcion;
-        this.stockActual = Math.max(stockActual, 0);
+        this.existencias = new AtomicLong(empaquetar(Math.max(stockActual, 0), 0));
         this.stockMinimo = stockMinimo;
         this.ubicacionAlmacen = ubicacionAlmacen;
         this.costoUnitario = costoUnitario;
@@ -57,7 +70,23 @@ public class Repuesto {
     }
 
     public int getStockActual() {
-        return stockActual;
+        return stock(existencias.get());
+    }
+
+    /**
+     * @return unidades reservadas para órdenes y aún no consumidas
+     */
+    public int getStockReservado() {
+        return reservado(existencias.get());
+    }
+
+    /**
+     * Disponible para comprometer: stock físico que no está reservado.
+     *
+     * @return unidades libres; cero si un ajuste dejó el stock por debajo de lo reservado
+     */
+    public int getStockDisponible() {
+        return disponible(existencias.get());
     }
 
     public int getStockMinimo() {
@@ -83,31 +112,168 @@ public class Repuesto {
 
     // ---------------- MÉTODOS DE INVENTARIO ----------------
 
+    private static long empaquetar(int stock, int reservado) {
+        return ((long) stock << 32) | (reservado & 0xFFFFFFFFL);
+    }
+
+    private static int stock(long valor) {
+        return (int) (valor >>> 32);
+    }
+
+    private static int reservado(long valor) {
+        return (int) valor;
+    }
+
+    private static int disponible(long valor) {
+        return Math.max(stock(valor) - reservado(valor), 0);
+    }
+
     /**
      * Ajusta el stock sumando la cantidad indicada.
      * Puede ser positiva (entrada) o negativa (consumo).
      * Si el resultado es menor a cero, el stock se corrige a cero.
      */
     public void ajustarStock(int delta) {
-        this.stockActual += delta;
-        if (this.stockActual < 0) {
-            this.stockActual = 0;
+        existencias.updateAndGet(v -> empaquetar(Math.max(stock(v) + delta, 0), reservado(v)));
+    }
+
+    /**
+     * Suma existencias al stock.
+     *
+     * @param cantidad unidades que ingresan (positiva)
+     * @return stock resultante
+     */
+    public int incrementarStock(int cantidad) {
+        return stock(existencias.addAndGet((long) cantidad << 32));
+    }
+
+    /**
+     * Descuenta existencias solo si alcanzan sin tocar lo reservado. La
+     * comparación y el descuento se aplican juntos con compare-and-set, por
+     * lo que dos salidas concurrentes nunca dejan el stock negativo ni
+     * pierden una actualización.
+     *
+     * @param cantidad unidades a descontar (positiva)
+     * @return true si se descontó; false si el disponible era insuficiente
+     */
+    public boolean descontarStock(int cantidad) {
+        while (true) {
+            long actual = existencias.get();
+            if (disponible(actual) < cantidad) {
+                return false;
+            }
+            if (existencias.compareAndSet(actual, actual - ((long) cantidad << 32))) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Reemplaza el stock por un valor contado y devuelve el que había,
+     * en una sola operación atómica. Lo reservado no cambia, por lo que un
+     * conteo menor que lo reservado se rechaza: esas unidades ya están
+     * comprometidas con órdenes.
+     *
+     * @param nuevoStock stock contado; los negativos se corrigen a cero
+     * @return stock anterior al reemplazo, o -1 si el conteo es menor que lo reservado
+     */
+    public int reemplazarStock(int nuevoStock) {
+        int stock = Math.max(nuevoStock, 0);
+        while (true) {
+            long actual = existencias.get();
+            if (stock < reservado(actual)) {
+                return -1;
+            }
+            if (existencias.compareAndSet(actual, empaquetar(stock, reservado(actual)))) {
+                return stock(actual);
+            }
+        }
+    }
+
+    /**
+     * Aparta unidades del disponible para una orden. El stock físico no
+     * cambia hasta que la reserva se consume.
+     *
+     * @param cantidad unidades a reservar (positiva)
+     * @return true si se reservó; false si el disponible era insuficiente
+     */
+    public boolean reservarStock(int cantidad) {
+        while (true) {
+            long actual = existencias.get();
+            if (disponible(actual) < cantidad) {
+                return false;
+            }
+            if (existencias.compareAndSet(actual, actual + cantidad)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Devuelve al disponible unidades reservadas que no se consumirán.
+     *
+     * @param cantidad unidades reservadas a liberar
+     */
+    public void liberarStockReservado(int cantidad) {
+        existencias.updateAndGet(v -> empaquetar(stock(v), Math.max(reservado(v) - cantidad, 0)));
+    }
+
+    /**
+     * Consume unidades reservadas: salen del stock físico y de lo reservado
+     * a la vez.
+     *
+     * @param cantidad unidades reservadas a consumir
+     * @return true si se consumieron; false si un ajuste dejó menos stock que el reservado
+     */
+    public boolean consumirStockReservado(int cantidad) {
+        while (true) {
+            long actual = existencias.get();
+            if (stock(actual) < cantidad || reservado(actual) < cantidad) {
+                return false;
+            }
+            if (existencias.compareAndSet(actual,
+                    empaquetar(stock(actual) - cantidad, reservado(actual) - cantidad))) {
+                return true;
+            }
         }
     }
 
+    /**
+     * Deshace un {@link #consumirStockReservado(int)}: las unidades vuelven
+     * al stock físico y a lo reservado.
+     *
+     * @param cantidad unidades consumidas a devolver
+     */
+    public void devolverStockReservado(int cantidad) {
+        existencias.addAndGet(((long) cantidad << 32) + cantidad);
+    }
+
+    /**
+     * Marca como reservadas unidades de una reserva ya existente, sin validar
+     * el disponible (por ejemplo, al restaurar una instantánea).
+     *
+     * @param cantidad unidades reservadas
+     */
+    public void restaurarStockReservado(int cantidad) {
+        existencias.updateAndGet(v -> empaquetar(stock(v), reservado(v) + cantidad));
+    }
+
     /**
      * Ajusta el stock con una asignación directa.
-     * Se asegura que nunca quede negativo.
+     * Se asegura que nunca quede negativo ni por debajo de lo reservado;
+     * en ese caso el stock no cambia.
      */
     public void setStockActual(int stockActual) {
-        this.stockActual = Math.max(stockActual, 0);
+        reemplazarStock(stockActual);
     }
 
     /**
-     * Indica si el stock está por debajo del mínimo definido.
+     * Indica si el disponible (stock no reservado) está por debajo del
+     * mínimo definido: lo reservado ya está comprometido con órdenes y no
+     * cubre nuevas necesidades.
      */
     public boolean estaBajoMinimo() {
-        return stockActual <= stockMinimo;
+        return getStockDisponible() <= stockMinimo;
     }
 
     @Override
@@ -115,7 +281,8 @@ public class Repuesto {
         return "Repuesto{" +
                 "id=" + id +
                 ", nombre='" + nombre + '\'' +
-                ", stockActual=" + stockActual +
+                ", stockActual=" + getStockActual() +
+                ", stockReservado=" + getStockReservado() +
                 ", stockMinimo=" + stockMinimo +
                 ", ubicacionAlmacen='" + ubicacionAlmacen + '\'' +
                 ", costoUnitario=" + costoUnitario +
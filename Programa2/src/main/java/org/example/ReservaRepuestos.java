@@ -0,0 +1,110 @@
+package org.example;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Representa la reserva de un conjunto de repuestos para una orden.
+ * Mientras está activa, las cantidades quedan apartadas del disponible de
+ * cada repuesto sin salir del stock físico; al completarse la orden se
+ * convierten en salidas y, si se cancela o vence, se liberan.
+ */
+public class ReservaRepuestos {
+
+    /**
+     * Estados de una reserva.
+     * ACTIVA: cantidades apartadas a la espera de la orden.
+     * CONFIRMADA: consumida como salidas de inventario.
+     * LIBERADA: devuelta al disponible por cancelación.
+     * VENCIDA: devuelta al disponible por superar su fecha de vencimiento.
+     */
+    public enum EstadoReserva {
+        ACTIVA,
+        CONFIRMADA,
+        LIBERADA,
+        VENCIDA
+    }
+
+    private final String referenciaOrden;       // Orden a la que pertenece la reserva
+    private final Map<Integer, Integer> lineas; // Cantidad reservada por ID de repuesto
+    private final LocalDate fechaReserva;       // Fecha en que se creó
+    private final LocalDate fechaVencimiento;   // Último día de validez; null si no vence
+    private volatile EstadoReserva estado;
+
+    /**
+     * Crea una reserva activa.
+     *
+     * @param referenciaOrden  referencia de la orden (ver {@link InventarioRepuestosController})
+     * @param lineas           cantidad reservada por ID de repuesto
+     * @param fechaReserva     fecha de creación
+     * @param fechaVencimiento último día de validez, o null si no vence
+     */
+    public ReservaRepuestos(String referenciaOrden,
+                            Map<Integer, Integer> lineas,
+                            LocalDate fechaReserva,
+                            LocalDate fechaVencimiento) {
+
+        this.referenciaOrden = referenciaOrden;
+        this.lineas = Collections.unmodifiableMap(new LinkedHashMap<>(lineas));
+        this.fechaReserva = fechaReserva;
+        this.fechaVencimiento = fechaVencimiento;
+        this.estado = EstadoReserva.ACTIVA;
+    }
+
+    // --- Getters ---
+
+    /** @return referencia de la orden asociada */
+    public String getReferenciaOrden() {
+        return referenciaOrden;
+    }
+
+    /** @return cantidad reservada por ID de repuesto, en el orden en que se pidió */
+    public Map<Integer, Integer> getLineas() {
+        return lineas;
+    }
+
+    /** @return fecha de creación */
+    public LocalDate getFechaReserva() {
+        return fechaReserva;
+    }
+
+    /** @return último día de validez, o null si no vence */
+    public LocalDate getFechaVencimiento() {
+        return fechaVencimiento;
+    }
+
+    /** @return estado actual */
+    public EstadoReserva getEstado() {
+        return estado;
+    }
+
+    void setEstado(EstadoReserva estado) {
+        this.estado = estado;
+    }
+
+    /**
+     * @param fecha fecha de referencia
+     * @return true si la reserva tiene vencimiento y ya pasó en esa fecha
+     */
+    public boolean estaVencida(LocalDate fecha) {
+        return fechaVencimiento != null && fechaVencimiento.isBefore(fecha);
+    }
+
+    /** @return IDs de los repuestos reservados */
+    int[] idsRepuestos() {
+        return lineas.keySet().stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    @Override
+    public String toString() {
+        return "ReservaRepuestos{" +
+                "referenciaOrden='" + referenciaOrden + '\'' +
+                ", lineas=" + lineas +
+                ", fechaReserva=" + fechaReserva +
+                ", fechaVencimiento=" + fechaVencimiento +
+                ", estado=" + estado +
+                '}';
+    }
+}
@@ -0,0 +1,80 @@
+package org.example;
+
+import java.time.LocalDateTime;
+
+/**
+ * Sesión abierta por un usuario autenticado.
+ *
+ * Se identifica por un token aleatorio, que solo conoce quien inició la
+ * sesión; para registros y auditoría se usa el número correlativo, nunca el
+ * token. El rol se fija al iniciar: un cambio de rol rige desde la sesión
+ * siguiente.
+ */
+public class Sesion {
+
+    private final String token;
+    private final long numero;
+    private final Usuario usuario;
+    private final Rol rol;
+    private final LocalDateTime inicio;
+
+    /** Última actividad, en {@link System#nanoTime()}. */
+    private volatile long ultimaActividad;
+
+    /**
+     * @param token   identificador secreto de la sesión
+     * @param numero  número correlativo, para mostrar y auditar
+     * @param usuario usuario autenticado
+     */
+    Sesion(String token, long numero, Usuario usuario) {
+        this.token = token;
+        this.numero = numero;
+        this.usuario = usuario;
+        this.rol = usuario.getRol();
+        this.inicio = LocalDateTime.now();
+        this.ultimaActividad = System.nanoTime();
+    }
+
+    public String getToken() {
+        return token;
+    }
+
+    public long getNumero() {
+        return numero;
+    }
+
+    public Usuario getUsuario() {
+        return usuario;
+    }
+
+    public Rol getRol() {
+        return rol;
+    }
+
+    public LocalDateTime getInicio() {
+        return inicio;
+    }
+
+    /** Marca la sesión como usada ahora. */
+    void registrarActividad() {
+        ultimaActividad = System.nanoTime();
+    }
+
+    /**
+     * @param ahora instante de referencia, en {@link System#nanoTime()}
+     * @return nanosegundos desde la última actividad
+     */
+    long inactividad(long ahora) {
+        return ahora - ultimaActividad;
+    }
+
+    @Override
+    public String toString() {
+        return "Sesion{" +
+                "numero=" + numero +
+                ", usuario='" + usuario.getUsername() + '\'' +
+                ", rol=" + rol +
+                ", inicio=" + inicio +
+                '}';
+    }
+}
@@ -1,15 +1,48 @@
 package org.example;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
 /**
  * Clase principal del sistema de mantenimiento.
  * Implementa el patrón Singleton para garantizar una única instancia global,
  * la cual gestiona y provee acceso a todos los controladores del sistema.
  *
- * Además, administra la sesión del usuario autenticado y registra la auditoría
- * básica de ingreso y salida del sistema.
+ * Además, administra las sesiones de los usuarios autenticados (varias a la
+ * vez, ver {@link RegistroSesiones}) y registra en auditoría el ingreso y la
+ * salida de cada una.
  */
 public class SistemaMantenimiento {
 
+    /**
+     * Directorio donde el sistema guarda sus archivos de datos.
+     * Se declara antes de la instancia para estar inicializado al construirla.
+     * Puede cambiarse con la propiedad de sistema {@code programa2.datos}.
+     */
+    public static final Path DIRECTORIO_DATOS =
+            Paths.get(System.getProperty("programa2.datos", "datos"));
+
+    /**
+     * Minutos sin actividad tras los cuales se cierra una sesión. Puede
+     * cambiarse con la propiedad de sistema {@code programa2.sesion.inactividad}.
+     * Se declara antes de la instancia, igual que {@link #DIRECTORIO_DATOS}.
+     */
+    public static final long MINUTOS_INACTIVIDAD_SESION =
+            Long.getLong("programa2.sesion.inactividad", 30);
+
+    /**
+     * Minutos entre revisiones de reservas de repuestos vencidas. Puede
+     * cambiarse con la propiedad de sistema {@code programa2.reservas.revision}.
+     */
+    public static final long MINUTOS_REVISION_RESERVAS =
+            Long.getLong("programa2.reservas.revision", 60);
+
     /**
      * Instancia única del sistema (patrón Singleton).
      */
@@ -24,10 +57,17 @@ public class SistemaMantenimiento {
         return instancia;
     }
 
-    /**
-     * Usuario autenticado actualmente en el sistema.
-     */
-    private Usuario usuarioActual;
+    /** Asignador de IDs compartido por todos los módulos. */
+    private IdAllocator idAllocator = new IdAllocator(DIRECTORIO_DATOS.resolve("ids.properties"));
+
+    /** Diario donde se registran las operaciones que modifican el estado. */
+    private DiarioOperaciones diario = new DiarioOperaciones(DIRECTORIO_DATOS.resolve("diario.bin"));
+
+    /** Instantánea binaria del estado, base sobre la que se reproduce el diario. */
+    private final Path archivoInstantanea = DIRECTORIO_DATOS.resolve("instantanea.bin");
+
+    /** Operaciones en el diario a partir de las cuales conviene compactarlo en una instantánea. */
+    public static final int REGISTROS_POR_INSTANTANEA = 100_000;
 
     // Controllers
     private UsuarioController usuarioController = new UsuarioController();
@@ -40,62 +80,190 @@ public class SistemaMantenimiento {
     private ProgramaPreventivoController programaPreventivoController = new ProgramaPreventivoController();
     private FallaController fallaController = new FallaController();
 
+    /** Bus donde los servicios publican los cambios del dominio. */
+    private final BusEventos busEventos = new BusEventos();
+
+    /** Sesiones abiertas; las inactivas se cierran y auditan solas. */
+    private final RegistroSesiones sesiones = new RegistroSesiones(
+            Duration.ofMinutes(MINUTOS_INACTIVIDAD_SESION), this::sesionExpirada);
+
+    /** Libera las reservas vencidas mientras el sistema está abierto; se inicia al recuperar el estado. */
+    private final ScheduledExecutorService revisionReservas = Executors.newSingleThreadScheduledExecutor(tarea -> {
+        Thread hilo = new Thread(tarea, "reservas-vencimiento");
+        hilo.setDaemon(true);
+        return hilo;
+    });
+
     /**
      * Constructor privado para evitar instanciación directa.
-     * Aplica el patrón Singleton.
+     * Aplica el patrón Singleton y conecta los servicios al bus de eventos.
+     */
+    private SistemaMantenimiento() {
+        equipoController.getEquipoService().setBusEventos(busEventos);
+        ordenCorrectivaController.getOrdenService().setBusEventos(busEventos);
+        ordenPreventivaController.getOrdenService().setBusEventos(busEventos);
+        repuestoController.getInventarioService().setBusEventos(busEventos);
+    }
+
+    // =================== Persistencia ===================
+
+    /**
+     * Reconstruye el estado cargando la última instantánea, si existe, y
+     * reproduciendo el diario de operaciones posterior a ella. El diario queda
+     * abierto para registrar las operaciones siguientes; hasta que se invoca,
+     * las operaciones no se persisten. Luego se abren los segmentos de
+     * auditoría; si hubo que trasladar auditoría guardada en la instantánea o
+     * en el diario, se guarda una instantánea nueva sin ella. Las reservas de
+     * repuestos vencidas se liberan al terminar y desde entonces se revisan
+     * cada {@link #MINUTOS_REVISION_RESERVAS} minutos.
+     */
+    public void recuperarEstado() {
+        long epoca = 0;
+        if (Files.exists(archivoInstantanea)) {
+            long inicio = System.nanoTime();
+            epoca = InstantaneaSistema.cargar(this, archivoInstantanea);
+            System.out.println("Instantánea cargada en " + (System.nanoTime() - inicio) / 1_000_000 + " ms.");
+        }
+
+        int operaciones = diario.abrir(new ReproductorDiario(this), epoca);
+        System.out.println("Diario de operaciones: " + operaciones + " operaciones recuperadas.");
+
+        int trasladados = auditoriaController.abrir(DIRECTORIO_DATOS.resolve("auditoria"));
+        Runtime.getRuntime().addShutdownHook(new Thread(auditoriaController::cerrar, "auditoria-cierre"));
+        if (trasladados > 0) {
+            System.out.println("Auditoría: " + trasladados + " registros trasladados a segmentos.");
+            guardarInstantanea();
+        }
+
+        liberarReservasVencidas();
+        revisionReservas.scheduleWithFixedDelay(this::liberarReservasVencidas,
+                MINUTOS_REVISION_RESERVAS, MINUTOS_REVISION_RESERVAS, TimeUnit.MINUTES);
+
+        if (diario.getRegistros() >= REGISTROS_POR_INSTANTANEA) {
+            guardarInstantanea();
+        }
+    }
+
+    /**
+     * Libera las reservas de repuestos vencidas a la fecha actual. Un error
+     * se informa y no detiene las revisiones siguientes.
+     */
+    private void liberarReservasVencidas() {
+        try {
+            repuestoController.liberarReservasVencidas(LocalDate.now());
+        } catch (RuntimeException e) {
+            System.err.println("No se pudieron liberar las reservas vencidas: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Guarda una instantánea del estado actual y reinicia el diario en una
+     * nueva época. Si el proceso cae entre ambos pasos, el diario anterior
+     * queda obsoleto frente a la instantánea y se descarta al recuperar.
+     *
+     * Las escrituras se detienen mientras dura: las que están en curso
+     * terminan antes de copiar el estado y las nuevas esperan al diario
+     * reiniciado, de modo que ningún cambio queda en la instantánea y en el
+     * diario nuevo a la vez, ni fuera de ambos. No debe invocarse desde
+     * una operación de los controladores.
      */
-    private SistemaMantenimiento() {}
+    public void guardarInstantanea() {
+        diario.ejecutarSinEscrituras(() -> {
+            long siguiente = diario.getEpoca() + 1;
+            InstantaneaSistema.guardar(this, archivoInstantanea, siguiente);
+            diario.reiniciar(siguiente);
+            System.out.println("Instantánea guardada; diario reiniciado en la época " + siguiente + ".");
+        });
+    }
 
     // =================== Gestión de sesión ===================
 
     /**
-     * Registra el inicio de sesión de un usuario,
-     * almacena su referencia como usuario activo
-     * y registra el evento en auditoría.
+     * Abre una sesión para un usuario autenticado y registra el ingreso en
+     * auditoría. Cada operador conserva la sesión devuelta y la presenta con
+     * {@link #obtenerSesion} en cada acceso.
      *
      * @param usuario usuario autenticado
+     * @return sesión abierta
      */
-    public void login(Usuario usuario) {
-        this.usuarioActual = usuario;
+    public Sesion login(Usuario usuario) {
+        Sesion sesion = sesiones.iniciar(usuario);
 
         auditoriaController.registrarMovimiento(
                 usuario.getNombreCompleto(),
                 "USUARIO",
                 "LOGIN",
-                "Inicio de sesión en el sistema con rol: " + usuario.getRol()
+                "Inicio de sesión #" + sesion.getNumero() + " en el sistema con rol: " + sesion.getRol()
         );
 
-        System.out.println("Usuario logueado: " + usuario.getNombreCompleto() + " (" + usuario.getRol() + ")");
+        System.out.println("Usuario logueado: " + usuario.getNombreCompleto() + " (" + sesion.getRol()
+                + "), sesión #" + sesion.getNumero());
+        return sesion;
     }
 
     /**
-     * Obtiene el usuario actualmente logueado.
+     * Obtiene una sesión abierta y registra la actividad del operador.
      *
-     * @return usuario activo o null si no hay sesión
+     * @param token token de la sesión
+     * @return sesión, o null si se cerró o venció por inactividad
      */
-    public Usuario getUsuarioActual() {
-        return usuarioActual;
+    public Sesion obtenerSesion(String token) {
+        return sesiones.obtener(token);
     }
 
     /**
-     * Finaliza la sesión del usuario activo,
-     * registra la acción en auditoría y limpia el estado.
+     * @return registro de las sesiones abiertas
      */
-    public void logout() {
-        if (usuarioActual != null) {
-            auditoriaController.registrarMovimiento(
-                    usuarioActual.getNombreCompleto(),
-                    "USUARIO",
-                    "LOGOUT",
-                    "Cierre de sesión"
-            );
-            System.out.println("Usuario cerró sesión: " + usuarioActual.getNombreCompleto());
-        }
-        this.usuarioActual = null;
+    public RegistroSesiones getSesiones() {
+        return sesiones;
+    }
+
+    /**
+     * Finaliza una sesión y registra la acción en auditoría. No hace nada si
+     * la sesión ya estaba cerrada (por ejemplo, por inactividad).
+     *
+     * @param sesion sesión a cerrar
+     */
+    public void logout(Sesion sesion) {
+        if (sesiones.cerrar(sesion.getToken()) == null) return;
+
+        auditoriaController.registrarMovimiento(
+                sesion.getUsuario().getNombreCompleto(),
+                "USUARIO",
+                "LOGOUT",
+                "Cierre de sesión #" + sesion.getNumero()
+        );
+        System.out.println("Usuario cerró sesión: " + sesion.getUsuario().getNombreCompleto()
+                + ", sesión #" + sesion.getNumero());
+        auditoriaController.flush();
+    }
+
+    /**
+     * Audita una sesión cerrada por inactividad.
+     *
+     * @param sesion sesión vencida
+     */
+    private void sesionExpirada(Sesion sesion) {
+        auditoriaController.registrarMovimiento(
+                sesion.getUsuario().getNombreCompleto(),
+                "USUARIO",
+                "LOGOUT",
+                "Sesión #" + sesion.getNumero() + " cerrada por inactividad"
+        );
+        System.out.println("Sesión #" + sesion.getNumero() + " de " + sesion.getUsuario().getNombreCompleto()
+                + " cerrada por inactividad");
+        auditoriaController.flush();
     }
 
     // =================== Getters de Controllers ===================
 
+    /**
+     * @return bus de eventos del dominio, para suscribirse a los cambios
+     */
+    public BusEventos getBusEventos() {
+        return busEventos;
+    }
+
     /**
      * @return controlador de gestión de usuarios
      */
@@ -159,6 +327,33 @@ public class SistemaMantenimiento {
         return fallaController;
     }
 
+    /**
+     * Crea el generador del reporte general sobre los datos actuales del sistema.
+     *
+     * @return generador de reportes de equipos, órdenes y programas
+     */
+    public ReporteGeneralMantenimiento crearReporteGeneral() {
+        return new ReporteGeneralMantenimiento(
+                equipoController.getEquipoService(),
+                ordenPreventivaController.getOrdenService(),
+                ordenCorrectivaController.getOrdenService(),
+                programaPreventivoController.getProgramaService());
+    }
+
+    /**
+     * @return asignador de identificadores por tipo de entidad
+     */
+    public IdAllocator getIdAllocator() {
+        return idAllocator;
+    }
+
+    /**
+     * @return diario de operaciones del sistema
+     */
+    public DiarioOperaciones getDiario() {
+        return diario;
+    }
+
     /**
      * Acceso alternativo a la instancia Singleton del sistema.
      *
@@ -95,6 +95,15 @@ public class Tecnico {
         this.activo = activo;
     }
 
+    /**
+     * Establece la fecha de ingreso del técnico.
+     *
+     * @param fechaIngreso fecha en que el técnico fue registrado
+     */
+    public void setFechaIngreso(LocalDate fechaIngreso) {
+        this.fechaIngreso = fechaIngreso;
+    }
+
     /**
      * Agrega una certificación al perfil del técnico.
      *
@@ -23,7 +23,11 @@ public class TecnicoController {
     /**
      * Registra un nuevo técnico en el sistema tras validar los datos recibidos.
      *
-     * @param id identificador único del técnico
+     * Un ID digitado debe ser posterior a los ya asignados por el sistema
+     * (ver {@link IdAllocator#reclamar}); al reproducir el diario solo se
+     * informa a la secuencia.
+     *
+     * @param id identificador único del técnico, o 0 para asignarlo automáticamente
      * @param nombre nombre completo
      * @param especialidad área de especialización
      * @param telefono número telefónico (opcional)
@@ -34,16 +38,36 @@ public class TecnicoController {
                                String especialidad, String telefono,
                                String email) {
 
-        if (id <= 0) return "El ID debe ser mayor que cero.";
+        if (id < 0) return "El ID no puede ser negativo.";
         if (nombre == null || nombre.isBlank()) return "El nombre no puede estar vacío.";
         if (especialidad == null || especialidad.isBlank()) return "Debe indicar una especialidad.";
 
         if (telefono == null) telefono = "";
         if (email == null) email = "";
 
+        IdAllocator ids = SistemaMantenimiento.getInstancia().getIdAllocator();
+        boolean registrando = SistemaMantenimiento.getInstancia().getDiario().isActivo();
+        if (id == 0) {
+            id = ids.siguiente(IdAllocator.Secuencia.TECNICO);
+        } else if (registrando && !ids.reclamar(IdAllocator.Secuencia.TECNICO, id)) {
+            return "El ID " + id + " ya fue asignado por el sistema; deje el campo vacío para obtener uno nuevo.";
+        }
+
         Tecnico nuevo = new Tecnico(id, nombre, especialidad, telefono, email);
 
-        boolean agregado = tecnicoService.agregarTecnico(nuevo);
+        boolean agregado = SistemaMantenimiento.getInstancia().getDiario().aplicar(
+                tecnicoService.getCerrojos(), id,
+                () -> tecnicoService.agregarTecnico(nuevo),
+                DiarioOperaciones.Operacion.CREAR_TECNICO, out -> {
+                    out.writeInt(nuevo.getIdTecnico());
+                    out.escribirTexto(nuevo.getNombreCompleto());
+                    out.escribirTexto(nuevo.getEspecialidad());
+                    out.escribirTexto(nuevo.getTelefono());
+                    out.escribirTexto(nuevo.getEmail());
+                });
+        if (agregado) {
+            ids.observar(IdAllocator.Secuencia.TECNICO, id);
+        }
 
         return agregado ? "Técnico registrado correctamente."
                         : "Ya existe un técnico con ese ID.";
@@ -67,7 +91,13 @@ public class TecnicoController {
      * @return mensaje indicando si se pudo realizar la operación
      */
     public String cambiarEstado(int id, boolean activo) {
-        boolean ok = tecnicoService.cambiarEstado(id, activo);
+        boolean ok = SistemaMantenimiento.getInstancia().getDiario().aplicar(
+                tecnicoService.getCerrojos(), id,
+                () -> tecnicoService.cambiarEstado(id, activo),
+                DiarioOperaciones.Operacion.CAMBIAR_ESTADO_TECNICO, out -> {
+                    out.writeInt(id);
+                    out.writeBoolean(activo);
+                });
         return ok ? "Estado actualizado." : "No se encontró el técnico.";
     }
 
@@ -81,7 +111,13 @@ public class TecnicoController {
     public String agregarCertificacion(int id, String cert) {
         if (cert == null || cert.isBlank()) return "Debe indicar una certificación.";
 
-        boolean ok = tecnicoService.agregarCertificacion(id, cert);
+        boolean ok = SistemaMantenimiento.getInstancia().getDiario().aplicar(
+                tecnicoService.getCerrojos(), id,
+                () -> tecnicoService.agregarCertificacion(id, cert),
+                DiarioOperaciones.Operacion.AGREGAR_CERTIFICACION_TECNICO, out -> {
+                    out.writeInt(id);
+                    out.escribirTexto(cert);
+                });
         return ok ? "Certificación agregada." : "No se encontró el técnico.";
     }
 
@@ -92,7 +128,10 @@ public class TecnicoController {
      * @return mensaje de confirmación o error según resultado
      */
     public String eliminarTecnico(int id) {
-        boolean ok = tecnicoService.eliminarTecnico(id);
+        boolean ok = SistemaMantenimiento.getInstancia().getDiario().aplicar(
+                tecnicoService.getCerrojos(), id,
+                () -> tecnicoService.eliminarTecnico(id),
+                DiarioOperaciones.Operacion.ELIMINAR_TECNICO, out -> out.writeInt(id));
         return ok ? "Técnico eliminado." : "No se encontró el técnico.";
     }
 
@@ -104,6 +143,38 @@ public class TecnicoController {
     public List<Tecnico> listarTecnicos() {
         return tecnicoService.obtenerTecnicos();
     }
-}
 
+    /**
+     * Suscribe un oyente a las altas, bajas y modificaciones de técnicos.
+     *
+     * @param oyente oyente a registrar
+     */
+    public void agregarOyenteTecnicos(OyenteRepositorio<Tecnico> oyente) {
+        tecnicoService.agregarOyenteTecnicos(oyente);
+    }
 
+    /**
+     * Cancela la suscripción de un oyente.
+     *
+     * @param oyente oyente a quitar
+     */
+    public void quitarOyenteTecnicos(OyenteRepositorio<Tecnico> oyente) {
+        tecnicoService.quitarOyenteTecnicos(oyente);
+    }
+
+    /**
+     * Incorpora los técnicos restaurados desde una instantánea, sin validar
+     * ni registrar en el diario de operaciones.
+     *
+     * @param tecnicos técnicos a incorporar
+     */
+    public void cargarTecnicos(List<Tecnico> tecnicos) {
+        int maximo = 0;
+        for (Tecnico tecnico : tecnicos) {
+            tecnicoService.agregarTecnico(tecnico);
+            maximo = Math.max(maximo, tecnico.getIdTecnico());
+        }
+        SistemaMantenimiento.getInstancia().getIdAllocator()
+                .observar(IdAllocator.Secuencia.TECNICO, maximo);
+    }
+}
@@ -3,7 +3,6 @@ package org.example;
 import java.awt.*;
 import java.util.List;
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
 
 /**
  * Ventana de interfaz gráfica para la gestión de técnicos.
@@ -15,7 +14,8 @@ public class TecnicoFrame extends JFrame {
 
     private JTextField txtId, txtNombre, txtEspecialidad, txtTelefono, txtEmail;
     private JTable tabla;
-    private DefaultTableModel modeloTabla;
+    /** Modelo que lee los técnicos del servicio y se actualiza con sus cambios. */
+    private ModeloTablaEntidades<Tecnico> modeloTabla;
 
     /**
      * Constructor por defecto que obtiene el controlador desde
@@ -45,7 +45,7 @@ public class TecnicoFrame extends JFrame {
         // ========== FORMULARIO DE REGISTRO ==========
         JPanel panelForm = new JPanel(new GridLayout(5, 2, 5, 5));
 
-        panelForm.add(new JLabel("ID:"));
+        panelForm.add(new JLabel("ID (vacío = automático):"));
         txtId = new JTextField();
         panelForm.add(txtId);
 
@@ -75,11 +75,24 @@ public class TecnicoFrame extends JFrame {
         root.add(panelSuperior, BorderLayout.NORTH);
 
         // ========== TABLA DE LISTADO ==========
-        modeloTabla = new DefaultTableModel(
-                new Object[]{"ID", "Nombre", "Especialidad", "Teléfono", "Email", "Activo"}, 0
+        modeloTabla = new ModeloTablaEntidades<>(
+                List.of(
+                        new ModeloTablaEntidades.Columna<>("ID", Tecnico::getIdTecnico),
+                        new ModeloTablaEntidades.Columna<>("Nombre", Tecnico::getNombreCompleto),
+                        new ModeloTablaEntidades.Columna<>("Especialidad", Tecnico::getEspecialidad),
+                        new ModeloTablaEntidades.Columna<>("Teléfono", Tecnico::getTelefono),
+                        new ModeloTablaEntidades.Columna<>("Email", Tecnico::getEmail),
+                        new ModeloTablaEntidades.Columna<>("Activo", t -> t.isActivo() ? "Sí" : "No")
+                ),
+                tecnicoController::listarTecnicos,
+                tecnicoController::buscarTecnico,
+                Tecnico::getIdTecnico,
+                tecnicoController::agregarOyenteTecnicos,
+                tecnicoController::quitarOyenteTecnicos
         );
 
         tabla = new JTable(modeloTabla);
+        modeloTabla.conectarEncabezado(tabla);
         JScrollPane scroll = new JScrollPane(tabla);
         root.add(scroll, BorderLayout.CENTER);
 
@@ -92,12 +105,21 @@ public class TecnicoFrame extends JFrame {
         JButton btnActualizar = new JButton("Actualizar lista");
         btnActualizar.addActionListener(e -> cargarTabla());
 
+        JTextField txtFiltro = new JTextField(12);
+        modeloTabla.conectarFiltro(txtFiltro);
+
+        JProgressBar barraCarga = CargaEnSegundoPlano.crearBarraProgreso();
+        modeloTabla.setProgreso(barraCarga);
+
         panelBotones.add(btnEliminar);
         panelBotones.add(btnActualizar);
+        panelBotones.add(new JLabel("Filtrar:"));
+        panelBotones.add(txtFiltro);
+        panelBotones.add(barraCarga);
 
         root.add(panelBotones, BorderLayout.SOUTH);
 
-        cargarTabla();
+        modeloTabla.conectar();
     }
 
     /**
@@ -106,7 +128,8 @@ public class TecnicoFrame extends JFrame {
      */
     private void registrarTecnico() {
         try {
-            int id = Integer.parseInt(txtId.getText());
+            // Si el ID se deja vacío el controlador lo asigna automáticamente
+            int id = txtId.getText().isBlank() ? 0 : Integer.parseInt(txtId.getText());
             String nombre = txtNombre.getText();
             String especialidad = txtEspecialidad.getText();
             String telefono = txtTelefono.getText();
@@ -119,7 +142,6 @@ public class TecnicoFrame extends JFrame {
             JOptionPane.showMessageDialog(this, resultado);
 
             limpiarCampos();
-            cargarTabla();
 
         } catch (NumberFormatException e) {
             JOptionPane.showMessageDialog(this, "ID inválido.");
@@ -127,23 +149,20 @@ public class TecnicoFrame extends JFrame {
     }
 
     /**
-     * Carga los datos de los técnicos registrados en la tabla visual.
+     * Carga los datos de los técnicos registrados en la tabla visual,
+     * en segundo plano.
      */
     private void cargarTabla() {
-        modeloTabla.setRowCount(0);
-
-        List<Tecnico> lista = tecnicoController.listarTecnicos();
-
-        for (Tecnico t : lista) {
-            modeloTabla.addRow(new Object[]{
-                    t.getIdTecnico(),
-                    t.getNombreCompleto(),
-                    t.getEspecialidad(),
-                    t.getTelefono(),
-                    t.getEmail(),
-                    t.isActivo() ? "Sí" : "No"
-            });
-        }
+        modeloTabla.recalcular();
+    }
+
+    /**
+     * Deja de escuchar los cambios de los técnicos al cerrar la ventana.
+     */
+    @Override
+    public void dispose() {
+        modeloTabla.desconectar();
+        super.dispose();
     }
 
     /**
@@ -156,12 +175,10 @@ public class TecnicoFrame extends JFrame {
             return;
         }
 
-        int id = (int) modeloTabla.getValueAt(fila, 0);
+        int id = modeloTabla.getId(fila);
 
         String msg = tecnicoController.eliminarTecnico(id);
         JOptionPane.showMessageDialog(this, msg);
-
-        cargarTabla();
     }
 
     /**
@@ -1,6 +1,5 @@
 package org.example;
 
-import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -9,13 +8,16 @@ import java.util.List;
  */
 public class TecnicoService {
 
-    private List<Tecnico> tecnicos;
+    private Repository<Tecnico> tecnicos;
+
+    /** Cerrojos por ID que serializan las modificaciones de cada técnico. */
+    private final CerrojosPorId cerrojos = new CerrojosPorId();
 
     /**
-     * Constructor que inicializa la lista de técnicos en memoria.
+     * Constructor que inicializa el repositorio de técnicos en memoria.
      */
     public TecnicoService() {
-        this.tecnicos = new ArrayList<>();
+        this.tecnicos = new Repository<>(Tecnico::getIdTecnico);
     }
 
     /**
@@ -25,15 +27,7 @@ public class TecnicoService {
      * @return true si el registro fue exitoso, false si ya existe uno con el mismo ID
      */
     public boolean agregarTecnico(Tecnico tecnico) {
-
-        for (Tecnico t : tecnicos) {
-            if (t.getIdTecnico() == tecnico.getIdTecnico()) {
-                return false; // ID repetido
-            }
-        }
-
-        tecnicos.add(tecnico);
-        return true;
+        return tecnicos.agregar(tecnico);
     }
 
     /**
@@ -43,12 +37,7 @@ public class TecnicoService {
      * @return el objeto Técnico encontrado o null si no existe
      */
     public Tecnico buscarTecnicoPorId(int idTecnico) {
-        for (Tecnico t : tecnicos) {
-            if (t.getIdTecnico() == idTecnico) {
-                return t;
-            }
-        }
-        return null;
+        return tecnicos.buscar(idTecnico);
     }
 
     /**
@@ -58,12 +47,7 @@ public class TecnicoService {
      * @return true si fue eliminado correctamente, false si no se encontró
      */
     public boolean eliminarTecnico(int idTecnico) {
-        Tecnico t = buscarTecnicoPorId(idTecnico);
-        if (t != null) {
-            tecnicos.remove(t);
-            return true;
-        }
-        return false;
+        return tecnicos.eliminar(idTecnico) != null;
     }
 
     /**
@@ -74,12 +58,15 @@ public class TecnicoService {
      * @return true si la actualización fue exitosa, false si no se encontró
      */
     public boolean cambiarEstado(int idTecnico, boolean activo) {
-        Tecnico t = buscarTecnicoPorId(idTecnico);
-        if (t != null) {
-            t.setActivo(activo);
-            return true;
-        }
-        return false;
+        return cerrojos.ejecutar(idTecnico, () -> {
+            Tecnico t = buscarTecnicoPorId(idTecnico);
+            if (t != null) {
+                t.setActivo(activo);
+                tecnicos.notificarActualizacion(t);
+                return true;
+            }
+            return false;
+        });
     }
 
     /**
@@ -90,12 +77,15 @@ public class TecnicoService {
      * @return true si fue agregada exitosamente, false si el técnico no existe
      */
     public boolean agregarCertificacion(int idTecnico, String cert) {
-        Tecnico t = buscarTecnicoPorId(idTecnico);
-        if (t != null) {
-            t.agregarCertificacion(cert);
-            return true;
-        }
-        return false;
+        return cerrojos.ejecutar(idTecnico, () -> {
+            Tecnico t = buscarTecnicoPorId(idTecnico);
+            if (t != null) {
+                t.agregarCertificacion(cert);
+                tecnicos.notificarActualizacion(t);
+                return true;
+            }
+            return false;
+        });
     }
 
     /**
@@ -104,7 +94,37 @@ public class TecnicoService {
      * @return lista de objetos Técnico
      */
     public List<Tecnico> obtenerTecnicos() {
-        return tecnicos;
+        return tecnicos.obtenerTodos();
+    }
+
+    // ----------------- AVISOS DE CAMBIOS -----------------
+
+    /**
+     * Suscribe un oyente a las altas, bajas y modificaciones de técnicos.
+     *
+     * @param oyente oyente a registrar
+     */
+    public void agregarOyenteTecnicos(OyenteRepositorio<Tecnico> oyente) {
+        tecnicos.agregarOyente(oyente);
+    }
+
+    /**
+     * Cancela la suscripción de un oyente.
+     *
+     * @param oyente oyente a quitar
+     */
+    public void quitarOyenteTecnicos(OyenteRepositorio<Tecnico> oyente) {
+        tecnicos.quitarOyente(oyente);
+    }
+
+    /**
+     * Cerrojos por ID de técnico, para ejecutar otra acción (por ejemplo,
+     * registrarla en el diario de operaciones) ordenada con sus cambios.
+     *
+     * @return cerrojos de los técnicos
+     */
+    public CerrojosPorId getCerrojos() {
+        return cerrojos;
     }
 }
 
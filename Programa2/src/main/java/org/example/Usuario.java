@@ -12,7 +12,7 @@ public class Usuario {
     private int idUsuario;
     private String nombreCompleto;
     private String username;
-    private String password;
+    private volatile HashPassword password;
     private Rol rol;
     private boolean activo;
     private String email;
@@ -29,7 +29,7 @@ public class Usuario {
      * @param idUsuario identificador único del usuario
      * @param nombreCompleto nombre completo del usuario
      * @param username nombre de usuario para inicio de sesión
-     * @param password contraseña asociada
+     * @param password hash de la contraseña asociada
      * @param rol rol asignado dentro del sistema
      * @param email correo electrónico
      * @param telefono número telefónico
@@ -37,7 +37,7 @@ public class Usuario {
     public Usuario(int idUsuario,
                    String nombreCompleto,
                    String username,
-                   String password,
+                   HashPassword password,
                    Rol rol,
                    String email,
                    String telefono) {
@@ -74,12 +74,9 @@ public class Usuario {
         this.username = username;
     }
 
-    public String getPassword() {
+    public HashPassword getPassword() {
         return password;
     }
-    public void setPassword(String password) {
-        this.password = password;
-    }
 
     public Rol getRol() {
         return rol;
@@ -113,6 +110,10 @@ public class Usuario {
         return fechaCreacion;
     }
 
+    public void setFechaCreacion(LocalDate fechaCreacion) {
+        this.fechaCreacion = fechaCreacion;
+    }
+
     // ----- Métodos funcionales -----
 
     /**
@@ -132,12 +133,23 @@ public class Usuario {
     /**
      * Cambia la contraseña actual del usuario.
      *
-     * @param nuevaPassword nueva clave a registrar
+     * @param nuevaPassword hash de la nueva clave
      */
-    public void cambiarPassword(String nuevaPassword) {
+    public void cambiarPassword(HashPassword nuevaPassword) {
         this.password = nuevaPassword;
     }
 
+    /**
+     * Comprueba una contraseña contra el hash guardado. Es costoso: ver
+     * {@link HashPassword#verificar(String)}.
+     *
+     * @param password contraseña en claro
+     * @return true si es la contraseña del usuario
+     */
+    public boolean verificarPassword(String password) {
+        return this.password.verificar(password);
+    }
+
     @Override
     public String toString() {
         return "Usuario{" +
@@ -1,6 +1,7 @@
 package org.example;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Controlador encargado de gestionar operaciones relacionadas
@@ -21,9 +22,15 @@ public class UsuarioController {
     // Crear usuario con validaciones
 
     /**
-     * Registra un nuevo usuario aplicando validaciones de datos.
+     * Registra un nuevo usuario aplicando validaciones de datos y espera el
+     * resultado. El hash de la contraseña se calcula igual en el grupo de
+     * hilos de verificación; la interfaz debe usar
+     * {@link #crearUsuarioEnSegundoPlano} para no quedar detenida.
      *
-     * @param idUsuario identificador único del usuario
+     * Un ID digitado debe ser posterior a los ya asignados por el sistema
+     * (ver {@link IdAllocator#reclamar}).
+     *
+     * @param idUsuario identificador único del usuario, o 0 para asignarlo automáticamente
      * @param nombreCompleto nombre completo
      * @param username nombre de inicio de sesión
      * @param password contraseña de acceso
@@ -39,8 +46,49 @@ public class UsuarioController {
                                Rol rol,
                                String email,
                                String telefono) {
+        return crearUsuarioEnSegundoPlano(idUsuario, nombreCompleto, username, password,
+                rol, email, telefono).join();
+    }
+
+    /**
+     * Registra un nuevo usuario sin detener al llamador: las validaciones se
+     * hacen enseguida y el hash de la contraseña, que tarda, se calcula en el
+     * grupo de hilos de verificación, donde luego se registra el usuario.
+     *
+     * @return resultado futuro: mensaje indicando éxito o motivo de rechazo
+     * @see #crearUsuario(int, String, String, String, Rol, String, String)
+     */
+    public CompletableFuture<String> crearUsuarioEnSegundoPlano(int idUsuario,
+                                                                String nombreCompleto,
+                                                                String username,
+                                                                String password,
+                                                                Rol rol,
+                                                                String email,
+                                                                String telefono) {
+        String rechazo = validarAlta(idUsuario, nombreCompleto, username, password, rol);
+        if (rechazo != null) return CompletableFuture.completedFuture(rechazo);
+
+        // El ID se resuelve antes del hash para que el diario registre el definitivo
+        IdAllocator ids = SistemaMantenimiento.getInstancia().getIdAllocator();
+        boolean registrando = SistemaMantenimiento.getInstancia().getDiario().isActivo();
+        if (idUsuario == 0) {
+            idUsuario = ids.siguiente(IdAllocator.Secuencia.USUARIO);
+        } else if (registrando && !ids.reclamar(IdAllocator.Secuencia.USUARIO, idUsuario)) {
+            return CompletableFuture.completedFuture("El ID " + idUsuario
+                    + " ya fue asignado por el sistema; deje el campo vacío para obtener uno nuevo.");
+        }
 
-        if (idUsuario <= 0) return "El ID debe ser mayor que cero.";
+        int id = idUsuario;
+        return usuarioService.crearHashEnSegundoPlano(password)
+                .thenApply(hash -> crearUsuario(id, nombreCompleto, username, hash,
+                        rol, email, telefono));
+    }
+
+    /** @return motivo de rechazo del alta, o null si los datos son válidos */
+    private String validarAlta(int idUsuario, String nombreCompleto, String username,
+                               String password, Rol rol) {
+
+        if (idUsuario < 0) return "El ID no puede ser negativo.";
 
         if (nombreCompleto == null || nombreCompleto.isBlank())
             return "El nombre completo no puede estar vacío.";
@@ -57,6 +105,29 @@ public class UsuarioController {
         if (rol == null)
             return "Debe seleccionar un rol.";
 
+        // Calcular el hash es costoso: se descartan antes los duplicados evidentes
+        if (usuarioService.buscarPorId(idUsuario) != null
+                || usuarioService.buscarPorUsername(username) != null) {
+            return "No se pudo registrar. ID o username ya existen.";
+        }
+        return null;
+    }
+
+    /**
+     * Registra un usuario cuya contraseña ya viene como hash (por ejemplo,
+     * al reproducir el diario de operaciones).
+     *
+     * @param password hash de la contraseña
+     * @return mensaje indicando éxito o motivo de rechazo
+     */
+    String crearUsuario(int idUsuario,
+                        String nombreCompleto,
+                        String username,
+                        HashPassword password,
+                        Rol rol,
+                        String email,
+                        String telefono) {
+
         if (email == null) email = "";
         if (telefono == null) telefono = "";
 
@@ -70,7 +141,22 @@ public class UsuarioController {
                 telefono
         );
 
-        boolean registrado = usuarioService.registrarUsuario(nuevo);
+        boolean registrado = SistemaMantenimiento.getInstancia().getDiario().aplicar(
+                usuarioService.getCerrojos(), idUsuario,
+                () -> usuarioService.registrarUsuario(nuevo),
+                DiarioOperaciones.Operacion.CREAR_USUARIO, out -> {
+                    out.writeInt(idUsuario);
+                    out.escribirTexto(nuevo.getNombreCompleto());
+                    out.escribirTexto(nuevo.getUsername());
+                    out.escribirTexto(nuevo.getPassword().codificar());
+                    out.escribirEnum(nuevo.getRol());
+                    out.escribirTexto(nuevo.getEmail());
+                    out.escribirTexto(nuevo.getTelefono());
+                });
+        if (registrado) {
+            SistemaMantenimiento.getInstancia().getIdAllocator()
+                    .observar(IdAllocator.Secuencia.USUARIO, idUsuario);
+        }
 
         return registrado ? "Usuario registrado correctamente."
                           : "No se pudo registrar. ID o username ya existen.";
@@ -107,6 +193,18 @@ public class UsuarioController {
         return usuarioService.autenticar(username, password);
     }
 
+    /**
+     * Verifica las credenciales fuera del hilo que llama; es lo que debe
+     * usar la interfaz, porque la verificación tarda.
+     *
+     * @param username usuario ingresado
+     * @param password contraseña ingresada
+     * @return resultado futuro: el usuario autenticado, o null si las credenciales no son válidas
+     */
+    public CompletableFuture<Usuario> obtenerUsuarioAutenticadoEnSegundoPlano(String username, String password) {
+        return usuarioService.autenticarEnSegundoPlano(username, password);
+    }
+
     // Cambiar estado
 
     /**
@@ -117,7 +215,13 @@ public class UsuarioController {
      * @return mensaje indicando resultado de la operación
      */
     public String cambiarEstadoUsuario(int idUsuario, boolean activo) {
-        boolean ok = usuarioService.cambiarEstado(idUsuario,activo);
+        boolean ok = SistemaMantenimiento.getInstancia().getDiario().aplicar(
+                usuarioService.getCerrojos(), idUsuario,
+                () -> usuarioService.cambiarEstado(idUsuario,activo),
+                DiarioOperaciones.Operacion.CAMBIAR_ESTADO_USUARIO, out -> {
+                    out.writeInt(idUsuario);
+                    out.writeBoolean(activo);
+                });
         return ok ? "Estado actualizado correctamente."
                   : "No se encontró el usuario.";
     }
@@ -125,21 +229,54 @@ public class UsuarioController {
     // Cambiar contraseña
 
     /**
-     * Actualiza la contraseña del usuario.
+     * Actualiza la contraseña del usuario y espera el resultado. El hash se
+     * calcula en el grupo de hilos de verificación; la interfaz debe usar
+     * {@link #cambiarPasswordEnSegundoPlano}.
      *
      * @param idUsuario identificador del usuario
      * @param nuevaPassword nueva clave válida
      * @return mensaje reflejando éxito o fallo
      */
     public String cambiarPassword(int idUsuario, String nuevaPassword) {
+        return cambiarPasswordEnSegundoPlano(idUsuario, nuevaPassword).join();
+    }
+
+    /**
+     * Actualiza la contraseña sin detener al llamador: el hash se calcula en
+     * el grupo de hilos de verificación, donde luego se guarda.
+     *
+     * @param idUsuario identificador del usuario
+     * @param nuevaPassword nueva clave válida
+     * @return resultado futuro: mensaje reflejando éxito o fallo
+     */
+    public CompletableFuture<String> cambiarPasswordEnSegundoPlano(int idUsuario, String nuevaPassword) {
         if (nuevaPassword == null || nuevaPassword.isBlank()) {
-            return "La contraseña no puede estar vacía.";
+            return CompletableFuture.completedFuture("La contraseña no puede estar vacía.");
         }
         if (nuevaPassword.length() < 4) {
-            return "La contraseña debe tener al menos 4 caracteres.";
+            return CompletableFuture.completedFuture("La contraseña debe tener al menos 4 caracteres.");
         }
 
-        boolean ok = usuarioService.actualizarPassword(idUsuario, nuevaPassword);
+        return usuarioService.crearHashEnSegundoPlano(nuevaPassword)
+                .thenApply(hash -> cambiarPassword(idUsuario, hash));
+    }
+
+    /**
+     * Reemplaza la contraseña por un hash ya calculado (por ejemplo, al
+     * reproducir el diario de operaciones).
+     *
+     * @param idUsuario identificador del usuario
+     * @param nuevaPassword hash de la nueva clave
+     * @return mensaje reflejando éxito o fallo
+     */
+    String cambiarPassword(int idUsuario, HashPassword nuevaPassword) {
+        boolean ok = SistemaMantenimiento.getInstancia().getDiario().aplicar(
+                usuarioService.getCerrojos(), idUsuario,
+                () -> usuarioService.actualizarPassword(idUsuario, nuevaPassword),
+                DiarioOperaciones.Operacion.CAMBIAR_PASSWORD_USUARIO, out -> {
+                    out.writeInt(idUsuario);
+                    out.escribirTexto(nuevaPassword.codificar());
+                });
         return ok ? "Contraseña actualizada."
                   : "No se encontró el usuario.";
     }
@@ -153,7 +290,10 @@ public class UsuarioController {
      * @return mensaje indicando el resultado de la operación
      */
     public String eliminarUsuario(int idUsuario) {
-        boolean eliminado = usuarioService.eliminarUsuario(idUsuario);
+        boolean eliminado = SistemaMantenimiento.getInstancia().getDiario().aplicar(
+                usuarioService.getCerrojos(), idUsuario,
+                () -> usuarioService.eliminarUsuario(idUsuario),
+                DiarioOperaciones.Operacion.ELIMINAR_USUARIO, out -> out.writeInt(idUsuario));
         return eliminado ? "Usuario eliminado correctamente."
                          : "No se encontró el usuario.";
     }
@@ -169,6 +309,24 @@ public class UsuarioController {
         return usuarioService.obtenerUsuarios();
     }
 
+    /**
+     * Suscribe un oyente a las altas, bajas y modificaciones de usuarios.
+     *
+     * @param oyente oyente a registrar
+     */
+    public void agregarOyenteUsuarios(OyenteRepositorio<Usuario> oyente) {
+        usuarioService.agregarOyenteUsuarios(oyente);
+    }
+
+    /**
+     * Cancela la suscripción de un oyente.
+     *
+     * @param oyente oyente a quitar
+     */
+    public void quitarOyenteUsuarios(OyenteRepositorio<Usuario> oyente) {
+        usuarioService.quitarOyenteUsuarios(oyente);
+    }
+
     // Buscar por ID
 
     /**
@@ -205,6 +363,19 @@ public class UsuarioController {
         return usuarioService.autenticar(username, password);
     }
 
+    /**
+     * Incorpora los usuarios restaurados desde una instantánea, sin validar
+     * ni registrar en el diario de operaciones.
+     *
+     * @param usuarios usuarios a incorporar
+     */
+    public void cargarUsuarios(List<Usuario> usuarios) {
+        int maximo = 0;
+        for (Usuario usuario : usuarios) {
+            usuarioService.registrarUsuario(usuario);
+            maximo = Math.max(maximo, usuario.getIdUsuario());
+        }
+        SistemaMantenimiento.getInstancia().getIdAllocator()
+                .observar(IdAllocator.Secuencia.USUARIO, maximo);
+    }
 }
-
-
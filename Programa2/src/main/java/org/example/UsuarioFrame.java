@@ -3,7 +3,6 @@ package org.example;
 import java.awt.*;
 import java.util.List;
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
 
 /**
  * Ventana Swing que permite gestionar usuarios del sistema.
@@ -17,8 +16,11 @@ public class UsuarioFrame extends JFrame {
     private JPasswordField txtPassword;
     private JComboBox<Rol> comboRol;
 
+    private JButton btnRegistrar;
+
     private JTable tabla;
-    private DefaultTableModel modeloTabla;
+    /** Modelo que lee los usuarios del servicio y se actualiza con sus cambios. */
+    private ModeloTablaEntidades<Usuario> modeloTabla;
 
     /**
      * Constructor por defecto. Obtiene la instancia del sistema
@@ -51,7 +53,7 @@ public class UsuarioFrame extends JFrame {
         // ===== FORMULARIO SUPERIOR =====
         JPanel panelForm = new JPanel(new GridLayout(7, 2, 5, 5));
 
-        panelForm.add(new JLabel("ID:"));
+        panelForm.add(new JLabel("ID (vacío = automático):"));
         txtId = new JTextField();
         panelForm.add(txtId);
 
@@ -84,18 +86,32 @@ public class UsuarioFrame extends JFrame {
         topPanel.setLayout(new BorderLayout());
         topPanel.add(panelForm, BorderLayout.NORTH);
 
-        JButton btnRegistrar = new JButton("Registrar Usuario");
+        btnRegistrar = new JButton("Registrar Usuario");
         btnRegistrar.addActionListener(e -> registrarUsuario());
         topPanel.add(btnRegistrar, BorderLayout.CENTER);
 
         root.add(topPanel, BorderLayout.NORTH);
 
         // ===== TABLA =====
-        modeloTabla = new DefaultTableModel(new Object[]{
-                "ID", "Nombre", "Usuario", "Rol", "Activo", "Email", "Teléfono"
-        }, 0);
+        modeloTabla = new ModeloTablaEntidades<>(
+                List.of(
+                        new ModeloTablaEntidades.Columna<>("ID", Usuario::getIdUsuario),
+                        new ModeloTablaEntidades.Columna<>("Nombre", Usuario::getNombreCompleto),
+                        new ModeloTablaEntidades.Columna<>("Usuario", Usuario::getUsername),
+                        new ModeloTablaEntidades.Columna<>("Rol", Usuario::getRol),
+                        new ModeloTablaEntidades.Columna<>("Activo", Usuario::isActivo),
+                        new ModeloTablaEntidades.Columna<>("Email", Usuario::getEmail),
+                        new ModeloTablaEntidades.Columna<>("Teléfono", Usuario::getTelefono)
+                ),
+                usuarioController::listarUsuarios,
+                usuarioController::buscarPorId,
+                Usuario::getIdUsuario,
+                usuarioController::agregarOyenteUsuarios,
+                usuarioController::quitarOyenteUsuarios
+        );
 
         tabla = new JTable(modeloTabla);
+        modeloTabla.conectarEncabezado(tabla);
         JScrollPane scroll = new JScrollPane(tabla);
         root.add(scroll, BorderLayout.CENTER);
 
@@ -108,22 +124,34 @@ public class UsuarioFrame extends JFrame {
         JButton btnRefrescar = new JButton("Actualizar lista");
         btnRefrescar.addActionListener(e -> cargarTabla());
 
+        JTextField txtFiltro = new JTextField(12);
+        modeloTabla.conectarFiltro(txtFiltro);
+
+        JProgressBar barraCarga = CargaEnSegundoPlano.crearBarraProgreso();
+        modeloTabla.setProgreso(barraCarga);
+
         panelBotones.add(btnEliminar);
         panelBotones.add(btnRefrescar);
+        panelBotones.add(new JLabel("Filtrar:"));
+        panelBotones.add(txtFiltro);
+        panelBotones.add(barraCarga);
 
         root.add(panelBotones, BorderLayout.SOUTH);
 
-        cargarTabla();
+        modeloTabla.conectar();
     }
 
     /**
      * Evento asociado al botón registrar.
      * Obtiene los valores del formulario, valida la entrada
-     * y delega la creación de usuario al controlador.
+     * y delega la creación de usuario al controlador. El hash de la
+     * contraseña tarda, así que el alta termina fuera del hilo de eventos y
+     * el resultado se muestra al volver a él.
      */
     private void registrarUsuario() {
         try {
-            int id = Integer.parseInt(txtId.getText());
+            // Si el ID se deja vacío el controlador lo asigna automáticamente
+            int id = txtId.getText().isBlank() ? 0 : Integer.parseInt(txtId.getText());
             String nombre = txtNombre.getText();
             String username = txtUsername.getText();
             String pass = new String(txtPassword.getPassword());
@@ -131,12 +159,19 @@ public class UsuarioFrame extends JFrame {
             String email = txtEmail.getText();
             String tel = txtTelefono.getText();
 
-            String resultado = usuarioController.crearUsuario(
-                    id, nombre, username, pass, rol, email, tel
-            );
-
-            JOptionPane.showMessageDialog(this, resultado);
-            cargarTabla();
+            btnRegistrar.setEnabled(false);
+            setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+            usuarioController.crearUsuarioEnSegundoPlano(id, nombre, username, pass, rol, email, tel)
+                    .whenComplete((resultado, error) -> SwingUtilities.invokeLater(() -> {
+                        btnRegistrar.setEnabled(true);
+                        setCursor(Cursor.getDefaultCursor());
+                        if (error != null) {
+                            System.err.println("Error al registrar usuario: " + error);
+                            JOptionPane.showMessageDialog(this, "No se pudo registrar el usuario.");
+                        } else {
+                            JOptionPane.showMessageDialog(this, resultado);
+                        }
+                    }));
 
         } catch (NumberFormatException e) {
             JOptionPane.showMessageDialog(this, "ID inválido.");
@@ -145,23 +180,20 @@ public class UsuarioFrame extends JFrame {
 
     /**
      * Carga los usuarios registrados en la tabla visual.
-     * Limpia el contenido anterior y repuebla filas con datos actuales.
+     * Limpia el contenido anterior y repuebla filas con datos actuales
+     * en segundo plano.
      */
     private void cargarTabla() {
-        modeloTabla.setRowCount(0);
-        List<Usuario> lista = usuarioController.listarUsuarios();
-
-        for (Usuario u : lista) {
-            modeloTabla.addRow(new Object[]{
-                    u.getIdUsuario(),
-                    u.getNombreCompleto(),
-                    u.getUsername(),
-                    u.getRol(),
-                    u.isActivo(),
-                    u.getEmail(),
-                    u.getTelefono()
-            });
-        }
+        modeloTabla.recalcular();
+    }
+
+    /**
+     * Deja de escuchar los cambios de los usuarios al cerrar la ventana.
+     */
+    @Override
+    public void dispose() {
+        modeloTabla.desconectar();
+        super.dispose();
     }
 
     /**
@@ -175,12 +207,10 @@ public class UsuarioFrame extends JFrame {
             return;
         }
 
-        int id = (int) modeloTabla.getValueAt(fila, 0);
+        int id = modeloTabla.getId(fila);
 
         String msg = usuarioController.eliminarUsuario(id);
         JOptionPane.showMessageDialog(this, msg);
-
-        cargarTabla();
     }
 }
 
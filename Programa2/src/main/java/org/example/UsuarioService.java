@@ -1,22 +1,58 @@
 package org.example;
 
-import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Servicio encargado de gestionar el almacenamiento,
  * validación y operaciones relacionadas con los usuarios.
  * Actúa como capa intermedia entre el controlador y los datos.
+ *
+ * Los usuarios se buscan por nombre de usuario en un índice sin distinguir
+ * mayúsculas, sin recorrer la lista. El nombre de usuario no cambia después
+ * del alta. Las contraseñas se guardan como {@link HashPassword}; como
+ * verificarlas o calcularlas es costoso, {@link #autenticarEnSegundoPlano}
+ * y {@link #crearHashEnSegundoPlano} lo hacen en un grupo de hilos propio
+ * para no detener la interfaz.
  */
 public class UsuarioService {
 
-    private List<Usuario> usuarios;
+    /** Hilos que verifican contraseñas; pocos, para acotar el uso de CPU de los inicios de sesión. */
+    private static final int HILOS_VERIFICACION =
+            Math.max(1, Math.min(2, Runtime.getRuntime().availableProcessors() / 2));
+
+    private static final ExecutorService VERIFICACION =
+            Executors.newFixedThreadPool(HILOS_VERIFICACION, new ThreadFactory() {
+                private final AtomicInteger numero = new AtomicInteger();
+
+                @Override
+                public Thread newThread(Runnable tarea) {
+                    Thread hilo = new Thread(tarea, "verificacion-credenciales-" + numero.incrementAndGet());
+                    hilo.setDaemon(true);
+                    return hilo;
+                }
+            });
+
+    private Repository<Usuario> usuarios;
+
+    /** Usuarios por nombre de usuario normalizado con {@link #clave(String)}. */
+    private final Map<String, Usuario> porUsername = new ConcurrentHashMap<>();
+
+    /** Cerrojos por ID que serializan las modificaciones de cada usuario. */
+    private final CerrojosPorId cerrojos = new CerrojosPorId();
 
     /**
-     * Constructor. Inicializa la lista interna de usuarios.
+     * Constructor. Inicializa el repositorio interno de usuarios.
      */
     public UsuarioService() {
-        this.usuarios = new ArrayList<>();
+        this.usuarios = new Repository<>(Usuario::getIdUsuario);
     }
 
     /**
@@ -26,22 +62,32 @@ public class UsuarioService {
      * @param usuario objeto Usuario a agregar
      * @return true si se registró correctamente, false si hubo duplicados
      */
-    public boolean registrarUsuario(Usuario usuario) {
+    public synchronized boolean registrarUsuario(Usuario usuario) {
+        // Sincronizado: la validación de username repetido y el alta deben ser
+        // atómicas frente a otra alta concurrente con el mismo username
 
         // Validar que no exista ID o username repetido
-        for (Usuario u : usuarios) {
-            if (u.getIdUsuario() == usuario.getIdUsuario()) {
-                return false; // ID repetido
-            }
-            if (u.getUsername().equalsIgnoreCase(usuario.getUsername())) {
-                return false; // username repetido
-            }
+        if (usuarios.contiene(usuario.getIdUsuario())) {
+            return false; // ID repetido
+        }
+        String clave = clave(usuario.getUsername());
+        if (porUsername.containsKey(clave)) {
+            return false; // username repetido
         }
 
-        usuarios.add(usuario);
+        if (!usuarios.agregar(usuario)) return false;
+        porUsername.put(clave, usuario);
         return true;
     }
 
+    /**
+     * Normaliza un nombre de usuario para compararlo sin distinguir
+     * mayúsculas, igual que {@link String#equalsIgnoreCase}.
+     */
+    private static String clave(String username) {
+        return username.toUpperCase(Locale.ROOT).toLowerCase(Locale.ROOT);
+    }
+
     /**
      * Busca un usuario por su ID.
      *
@@ -49,12 +95,7 @@ public class UsuarioService {
      * @return objeto Usuario si existe, o null si no se encuentra
      */
     public Usuario buscarPorId(int idUsuario) {
-        for (Usuario u : usuarios) {
-            if (u.getIdUsuario() == idUsuario) {
-                return u;
-            }
-        }
-        return null;
+        return usuarios.buscar(idUsuario);
     }
 
     /**
@@ -64,12 +105,7 @@ public class UsuarioService {
      * @return Usuario si existe coincidencia, o null en caso contrario
      */
     public Usuario buscarPorUsername(String username) {
-        for (Usuario u : usuarios) {
-            if (u.getUsername().equalsIgnoreCase(username)) {
-                return u;
-            }
-        }
-        return null;
+        return username == null ? null : porUsername.get(clave(username));
     }
 
     /**
@@ -79,12 +115,10 @@ public class UsuarioService {
      * @return true si fue eliminado, false si no se encontró
      */
     public boolean eliminarUsuario(int idUsuario) {
-        Usuario u = buscarPorId(idUsuario);
-        if (u != null) {
-            usuarios.remove(u);
-            return true;
-        }
-        return false;
+        Usuario eliminado = usuarios.eliminar(idUsuario);
+        if (eliminado == null) return false;
+        porUsername.remove(clave(eliminado.getUsername()), eliminado);
+        return true;
     }
 
     /**
@@ -95,47 +129,82 @@ public class UsuarioService {
      * @return true si se actualizó, false si no se encontró el usuario
      */
     public boolean cambiarEstado(int idUsuario, boolean activo) {
-        Usuario u = buscarPorId(idUsuario);
-        if (u != null) {
-            u.setActivo(activo);
-            return true;
-        }
-        return false;
+        return cerrojos.ejecutar(idUsuario, () -> {
+            Usuario u = buscarPorId(idUsuario);
+            if (u != null) {
+                u.setActivo(activo);
+                usuarios.notificarActualizacion(u);
+                return true;
+            }
+            return false;
+        });
     }
 
     /**
      * Actualiza la contraseña de un usuario existente.
      *
      * @param idUsuario identificador del usuario
-     * @param nuevaPassword nueva contraseña
+     * @param nuevaPassword hash de la nueva contraseña
      * @return true si se realizó el cambio, false si no existe el usuario
      */
-    public boolean actualizarPassword(int idUsuario, String nuevaPassword) {
-        Usuario u = buscarPorId(idUsuario);
-        if (u != null) {
-            u.cambiarPassword(nuevaPassword);
-            return true;
-        }
-        return false;
+    public boolean actualizarPassword(int idUsuario, HashPassword nuevaPassword) {
+        return cerrojos.ejecutar(idUsuario, () -> {
+            Usuario u = buscarPorId(idUsuario);
+            if (u != null) {
+                u.cambiarPassword(nuevaPassword);
+                usuarios.notificarActualizacion(u);
+                return true;
+            }
+            return false;
+        });
     }
 
     /**
      * Autenticación de usuario.
      * Verifica username, contraseña y estado activo.
      *
+     * Si el usuario no existe se verifica igual contra un hash ficticio, de
+     * modo que la demora no revela qué nombres de usuario existen.
+     *
      * @param username nombre de usuario
      * @param password contraseña
      * @return Usuario si las credenciales son válidas y está activo, null si falla
      */
     public Usuario autenticar(String username, String password) {
-        for (Usuario u : usuarios) {
-            if (u.getUsername().equalsIgnoreCase(username)
-                    && u.getPassword().equals(password)
-                    && u.isActivo()) {
-                return u;
-            }
+        Usuario u = buscarPorUsername(username);
+        if (u == null) {
+            HashFicticio.HASH.verificar(password);
+            return null;
         }
-        return null;
+        return u.verificarPassword(password) && u.isActivo() ? u : null;
+    }
+
+    /**
+     * Igual que {@link #autenticar}, pero verifica en el grupo de hilos de
+     * verificación y devuelve enseguida.
+     *
+     * @param username nombre de usuario
+     * @param password contraseña
+     * @return resultado futuro: el usuario, o null si las credenciales no son válidas
+     */
+    public CompletableFuture<Usuario> autenticarEnSegundoPlano(String username, String password) {
+        return CompletableFuture.supplyAsync(() -> autenticar(username, password), VERIFICACION);
+    }
+
+    /**
+     * Calcula el hash de una contraseña nueva en el grupo de hilos de
+     * verificación, que acota también este cálculo.
+     *
+     * @param password contraseña en claro
+     * @return resultado futuro: el hash de la contraseña
+     */
+    public CompletableFuture<HashPassword> crearHashEnSegundoPlano(String password) {
+        return CompletableFuture.supplyAsync(() -> HashPassword.crear(password), VERIFICACION);
+    }
+
+    /** Hash de comparación para usuarios inexistentes; se calcula al primer uso. */
+    private static final class HashFicticio {
+        static final HashPassword HASH = HashPassword.crear("");
     }
 
     /**
@@ -144,7 +213,37 @@ public class UsuarioService {
      * @return lista de objetos Usuario
      */
     public List<Usuario> obtenerUsuarios() {
-        return usuarios;
+        return usuarios.obtenerTodos();
+    }
+
+    // ----------------- AVISOS DE CAMBIOS -----------------
+
+    /**
+     * Suscribe un oyente a las altas, bajas y modificaciones de usuarios.
+     *
+     * @param oyente oyente a registrar
+     */
+    public void agregarOyenteUsuarios(OyenteRepositorio<Usuario> oyente) {
+        usuarios.agregarOyente(oyente);
+    }
+
+    /**
+     * Cancela la suscripción de un oyente.
+     *
+     * @param oyente oyente a quitar
+     */
+    public void quitarOyenteUsuarios(OyenteRepositorio<Usuario> oyente) {
+        usuarios.quitarOyente(oyente);
+    }
+
+    /**
+     * Cerrojos por ID de usuario, para ejecutar otra acción (por ejemplo,
+     * registrarla en el diario de operaciones) ordenada con sus cambios.
+     *
+     * @return cerrojos de los usuarios
+     */
+    public CerrojosPorId getCerrojos() {
+        return cerrojos;
     }
 }
 
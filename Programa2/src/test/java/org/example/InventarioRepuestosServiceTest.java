@@ -0,0 +1,83 @@
+package org.example;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Pruebas de concurrencia del inventario: el stock final de cada repuesto
+ * debe poder reconstruirse sumando sus movimientos.
+ */
+class InventarioRepuestosServiceTest {
+
+    private static final int HILOS = 8;
+    private static final int OPERACIONES_POR_HILO = 5000;
+    private static final int REPUESTOS = 4;
+    private static final int STOCK_INICIAL = 50;
+
+    @Test
+    void stockFinalCoincideConLibroDeMovimientos() throws Exception {
+        InventarioRepuestosService servicio = new InventarioRepuestosService();
+        for (int id = 1; id <= REPUESTOS; id++) {
+            servicio.agregarRepuesto(new Repuesto(id, "R" + id, "", STOCK_INICIAL, 10, "A1", 1.0));
+        }
+
+        ExecutorService hilos = Executors.newFixedThreadPool(HILOS);
+        CountDownLatch largada = new CountDownLatch(1);
+        List<Future<?>> tareas = new ArrayList<>();
+        for (int h = 0; h < HILOS; h++) {
+            tareas.add(hilos.submit(() -> {
+                largada.await();
+                ThreadLocalRandom azar = ThreadLocalRandom.current();
+                LocalDate hoy = LocalDate.now();
+                for (int i = 0; i < OPERACIONES_POR_HILO; i++) {
+                    int id = 1 + azar.nextInt(REPUESTOS);
+                    int cantidad = 1 + azar.nextInt(5);
+                    switch (azar.nextInt(10)) {
+                        case 0 -> servicio.registrarAjuste(id, azar.nextInt(100), "conteo", hoy);
+                        case 1, 2, 3, 4 -> servicio.registrarSalida(id, cantidad, "uso", "OT", hoy);
+                        default -> servicio.registrarEntrada(id, cantidad, "compra", "FAC", hoy);
+                    }
+                }
+                return null;
+            }));
+        }
+        largada.countDown();
+        for (Future<?> tarea : tareas) tarea.get();
+        hilos.shutdown();
+
+        long[] saldo = new long[REPUESTOS + 1];
+        for (MovimientoRepuesto m : servicio.obtenerMovimientos()) {
+            saldo[m.getRepuesto().getId()] += m.getVariacion();
+        }
+        for (int id = 1; id <= REPUESTOS; id++) {
+            int stock = servicio.buscarRepuestoPorId(id).getStockActual();
+            assertTrue(stock >= 0, "stock negativo en repuesto " + id);
+            assertEquals(STOCK_INICIAL + saldo[id], stock, "libro y stock difieren en repuesto " + id);
+        }
+    }
+
+    @Test
+    void ajusteRegistraElSignoDeLaCorreccion() {
+        InventarioRepuestosService servicio = new InventarioRepuestosService();
+        servicio.agregarRepuesto(new Repuesto(1, "R1", "", 20, 5, "A1", 1.0));
+
+        assertTrue(servicio.registrarAjuste(1, 12, "conteo", LocalDate.now()));
+        assertTrue(servicio.registrarAjuste(1, 15, "conteo", LocalDate.now()));
+
+        List<MovimientoRepuesto> movimientos = servicio.obtenerMovimientos();
+        assertEquals(-8, movimientos.get(0).getCantidad());
+        assertEquals(3, movimientos.get(1).getCantidad());
+        assertEquals(15, servicio.buscarRepuestoPorId(1).getStockActual());
+    }
+}
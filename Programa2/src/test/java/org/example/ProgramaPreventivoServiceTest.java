@@ -0,0 +1,103 @@
+package org.example;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Pruebas de la generación de órdenes por flota: repartida entre hilos debe
+ * crear exactamente las mismas órdenes, en el mismo orden de IDs, que la
+ * generación equipo por equipo.
+ */
+class ProgramaPreventivoServiceTest {
+
+    /** Equipos de cada mitad; alcanza para que la flota se reparta en varias tareas. */
+    private static final int EQUIPOS = 2000;
+
+    static {
+        // El sistema es único por proceso: sus archivos van a un directorio temporal
+        try {
+            System.setProperty("programa2.datos",
+                    Files.createTempDirectory("programa2-prueba").toString());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Test
+    void generacionPorFlotaCoincideConLaSecuencial() {
+        SistemaMantenimiento sistema = SistemaMantenimiento.getInstancia();
+        ProgramaPreventivoController programas = sistema.getProgramaPreventivoController();
+        EquipoController equipos = sistema.getEquipoController();
+        OrdenPreventivaController ordenes = sistema.getOrdenPreventivaController();
+
+        programas.crearProgramaPreventivo(1, "Flota", "Prueba", LocalDate.of(2020, 1, 1), "QA");
+        programas.agregarFaseAPrograma(1, new FasePreventiva(1, "Inspección", 30, 4));
+        programas.agregarFaseAPrograma(1, new FasePreventiva(2, "Lubricación", 90, 0));
+        programas.agregarFaseAPrograma(1, new FasePreventiva(3, "Revisión mayor", 365, 2));
+        ProgramaPreventivo programa = programas.buscarPrograma(1);
+
+        // Dos mitades con los mismos datos: la segunda se desplaza EQUIPOS en el ID
+        for (int mitad = 0; mitad < 2; mitad++) {
+            for (int i = 1; i <= EQUIPOS; i++) {
+                int id = mitad * EQUIPOS + i;
+                LocalDate servicio = LocalDate.of(2020, 1, 1).plusDays(i % 400);
+                Equipo.EstadoEquipo estado = i % 17 == 0
+                        ? Equipo.EstadoEquipo.DESECHADO : Equipo.EstadoEquipo.OPERATIVO;
+                equipos.crearEquipo(id, "Equipo " + i, "Bomba", "Planta", "ACME", "S" + id,
+                        servicio, servicio, 120, 1000, estado, "M1", "1x1", 10);
+                if (i % 5 != 0) equipos.asignarProgramaPreventivo(id, programa);
+            }
+        }
+
+        ProgramaPreventivoService servicio = programas.getProgramaService();
+        List<Equipo> secuencial = new ArrayList<>();
+        List<Equipo> paralela = new ArrayList<>();
+        for (int i = 1; i <= EQUIPOS; i++) {
+            secuencial.add(equipos.buscarEquipo(i));
+            paralela.add(equipos.buscarEquipo(EQUIPOS + i));
+        }
+
+        int creadasSecuencial = 0;
+        for (Equipo equipo : secuencial) {
+            creadasSecuencial += servicio.generarOrdenesParaEquipo(equipo, ordenes);
+        }
+        int creadasParalela = servicio.generarOrdenesParaFlota(paralela, ordenes);
+
+        assertTrue(creadasSecuencial > 0, "no se generaron órdenes");
+        assertEquals(creadasSecuencial, creadasParalela);
+        assertEquals(describir(ordenes, 1, 0), describir(ordenes, EQUIPOS + 1, EQUIPOS));
+
+        // Una segunda generación no duplica órdenes
+        assertEquals(0, servicio.generarOrdenesParaFlota(paralela, ordenes));
+    }
+
+    /**
+     * Órdenes de los equipos con ID desde {@code desde}, en orden de ID,
+     * descritas por equipo (menos {@code desplazamiento}), fase y fecha.
+     */
+    private static List<String> describir(OrdenPreventivaController ordenes, int desde, int desplazamiento) {
+        List<OrdenPreventiva> lista = new ArrayList<>();
+        for (OrdenPreventiva o : ordenes.obtenerOrdenes()) {
+            int idEquipo = o.getEquipoAsociado().getId();
+            if (idEquipo >= desde && idEquipo < desde + EQUIPOS) lista.add(o);
+        }
+        lista.sort(Comparator.comparingInt(OrdenPreventiva::getIdOrden));
+
+        List<String> descripcion = new ArrayList<>(lista.size());
+        for (OrdenPreventiva o : lista) {
+            descripcion.add((o.getEquipoAsociado().getId() - desplazamiento) + "/"
+                    + o.getFase().getNumeroFase() + "/" + o.getFechaProgramada());
+        }
+        return descripcion;
+    }
+}